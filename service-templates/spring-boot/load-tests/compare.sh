@@ -0,0 +1,24 @@
+#!/usr/bin/env sh
+# Prints the platform/virtual comparison table from the thread-modes.js results.
+#
+# Usage: load-tests/compare.sh [results-dir]
+set -eu
+
+RESULTS_DIR="${1:-load-tests/results}"
+
+echo "| Clients | Platform req/s | Virtual req/s | Platform p99 (ms) | Virtual p99 (ms) |"
+echo "|--------:|---------------:|--------------:|------------------:|-----------------:|"
+for clients in 1000 5000; do
+  row="| $clients"
+  for field in requestsPerSecond p99Ms; do
+    for mode in platform virtual; do
+      file="$RESULTS_DIR/$mode-$clients.json"
+      if [ -f "$file" ]; then
+        row="$row | $(jq -r ".$field | . * 10 | round / 10" "$file")"
+      else
+        row="$row | not run"
+      fi
+    done
+  done
+  echo "$row |"
+done
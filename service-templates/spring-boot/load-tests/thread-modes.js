@@ -0,0 +1,54 @@
+// Compares platform-thread and virtual-thread request handling under many concurrent clients.
+//
+// Start the service once per mode, then run for each client count:
+//   k6 run -e MODE=platform -e CLIENTS=1000 load-tests/thread-modes.js
+//   k6 run -e MODE=virtual  -e CLIENTS=5000 load-tests/thread-modes.js
+// Each run writes throughput and latency percentiles to load-tests/results/<mode>-<clients>.json.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080/api';
+// Defaults to the health endpoint, which blocks on a JDBC round trip like most claim endpoints
+const TARGET_PATH = __ENV.TARGET_PATH || '/actuator/health';
+const MODE = __ENV.MODE || 'platform';
+const CLIENTS = parseInt(__ENV.CLIENTS || '1000', 10);
+
+export const options = {
+  scenarios: {
+    clients: {
+      executor: 'constant-vus',
+      vus: CLIENTS,
+      duration: __ENV.DURATION || '2m',
+      gracefulStop: '10s',
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+export default function () {
+  const response = http.get(`${BASE_URL}${TARGET_PATH}`, {
+    headers: __ENV.TOKEN ? { Authorization: `Bearer ${__ENV.TOKEN}` } : {},
+    timeout: '30s',
+  });
+  check(response, { 'status is 2xx': (r) => r.status >= 200 && r.status < 300 });
+}
+
+export function handleSummary(data) {
+  const duration = data.metrics.http_req_duration.values;
+  const result = {
+    mode: MODE,
+    clients: CLIENTS,
+    requestsPerSecond: data.metrics.http_reqs.values.rate,
+    failedRate: data.metrics.http_req_failed.values.rate,
+    p50Ms: duration['p(50)'],
+    p99Ms: duration['p(99)'],
+  };
+  return {
+    stdout: `${MODE} @ ${CLIENTS} clients: ${result.requestsPerSecond.toFixed(0)} req/s, `
+        + `p99 ${result.p99Ms.toFixed(1)} ms, failed ${(result.failedRate * 100).toFixed(2)}%\n`,
+    [`load-tests/results/${MODE}-${CLIENTS}.json`]: JSON.stringify(result, null, 2),
+  };
+}
@@ -0,0 +1,198 @@
+package com.insurance.service.adapter.rest;
+
+import com.insurance.service.config.ConcurrencyLimitProperties.LimitSettings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limit on concurrent requests that adapts to measured latency.
+ * Latency is averaged over short windows and compared with its long-term average: while it
+ * stays within the tolerance, the limit grows by its square root per window; when requests
+ * start queueing behind a saturated resource such as the connection pool, latency rises and
+ * the limit shrinks in proportion. A window that saw an overloaded response backs off
+ * multiplicatively. The limit only grows while the traffic actually uses at least half of it,
+ * so a quiet period cannot inflate it.
+ * <p>
+ * Acquiring a permit is a compare-and-set on the in-flight count, and releases add their sample
+ * to striped adders, so no request waits on another. The window is closed by whichever release
+ * first sees it expire and wins a try-lock; the others carry on without waiting. A sample that
+ * lands while the window is being closed may count towards the next one.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    static final String LIMIT_GAUGE = "insurance.http.concurrency.limit";
+    static final String IN_FLIGHT_GAUGE = "insurance.http.concurrency.in.flight";
+    static final String REJECTED_COUNTER = "insurance.http.concurrency.rejected";
+
+    private static final double LONG_RTT_WEIGHT = 0.01;
+    private static final double MIN_GRADIENT = 0.5;
+
+    /**
+     * How a request that held a permit ended.
+     */
+    public enum Outcome {
+        /** Completed; its latency is a sample for the limit. */
+        SUCCESS,
+        /** Ended with a sign of overload; the limit backs off. */
+        DROPPED,
+        /** Says nothing about capacity, such as a failed or long-running streamed request. */
+        IGNORED
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final double backoffRatio;
+    private final LongSupplier clock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private volatile int limit;
+
+    private final LongAdder windowRttSum = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private final AtomicBoolean windowDropped = new AtomicBoolean();
+    private volatile long windowStart;
+
+    private final ReentrantLock windowLock = new ReentrantLock();
+    // guarded by windowLock
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    /**
+     * @param group The endpoint group, used as the meter tag
+     * @param settings The limit settings
+     * @param registry The registry of the limit meters
+     */
+    public AdaptiveConcurrencyLimit(String group, LimitSettings settings, MeterRegistry registry) {
+        this(group, settings, registry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(String group, LimitSettings settings, MeterRegistry registry, LongSupplier clock) {
+        this.minLimit = settings.getMinLimit();
+        this.maxLimit = settings.getMaxLimit();
+        this.rttTolerance = settings.getRttTolerance();
+        this.smoothing = settings.getSmoothing();
+        this.windowNanos = settings.getWindow().toNanos();
+        this.minWindowSamples = settings.getMinWindowSamples();
+        this.backoffRatio = settings.getBackoffRatio();
+        this.clock = clock;
+        this.estimatedLimit = settings.getInitialLimit();
+        this.limit = settings.getInitialLimit();
+        this.windowStart = clock.getAsLong();
+
+        Gauge.builder(LIMIT_GAUGE, this, AdaptiveConcurrencyLimit::limit)
+                .description("Concurrent requests currently allowed")
+                .tag("group", group)
+                .register(registry);
+        Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+                .description("Requests holding a concurrency permit")
+                .tag("group", group)
+                .register(registry);
+        this.rejected = Counter.builder(REJECTED_COUNTER)
+                .description("Requests rejected because the concurrency limit was reached")
+                .tag("group", group)
+                .register(registry);
+    }
+
+    /**
+     * Takes a permit if fewer requests than the limit are in flight.
+     *
+     * @return true if the request may proceed and must call {@link #release}, false if it must be rejected
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Returns a permit and records the outcome of its request.
+     *
+     * @param startNanos The {@link System#nanoTime()} at which the permit was acquired
+     * @param outcome How the request ended
+     */
+    public void release(long startNanos, Outcome outcome) {
+        int concurrent = inFlight.getAndDecrement();
+        if (outcome == Outcome.IGNORED) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (outcome == Outcome.DROPPED) {
+            windowDropped.set(true);
+        } else {
+            windowRttSum.add(now - startNanos);
+            windowSamples.increment();
+        }
+        if (windowMaxInFlight.get() < concurrent) {
+            windowMaxInFlight.accumulateAndGet(concurrent, Math::max);
+        }
+        if (now - windowStart >= windowNanos && windowLock.tryLock()) {
+            try {
+                closeWindow(now);
+            } finally {
+                windowLock.unlock();
+            }
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void closeWindow(long now) {
+        // another release may have closed the window since this one saw it expire
+        if (now - windowStart < windowNanos
+                || !windowDropped.get() && windowSamples.sum() < minWindowSamples) {
+            return;
+        }
+        windowStart = now;
+        boolean dropped = windowDropped.getAndSet(false);
+        long rttSum = windowRttSum.sumThenReset();
+        long samples = windowSamples.sumThenReset();
+        int maxInFlight = windowMaxInFlight.getAndSet(0);
+        update(dropped, rttSum, samples, maxInFlight);
+    }
+
+    private void update(boolean dropped, long rttSum, long samples, int maxInFlight) {
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * backoffRatio;
+        } else {
+            double shortRtt = (double) rttSum / samples;
+            longRttNanos = longRttNanos == 0 ? shortRtt : longRttNanos + (shortRtt - longRttNanos) * LONG_RTT_WEIGHT;
+            // after a long overload the average stays high for a while; let it catch up with recovered latency
+            if (longRttNanos > 2 * shortRtt) {
+                longRttNanos = Math.max(shortRtt, longRttNanos * (1 - LONG_RTT_WEIGHT));
+            }
+            if (maxInFlight < estimatedLimit / 2) {
+                return;
+            }
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRttNanos / shortRtt));
+            double estimate = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * (1 - smoothing) + estimate * smoothing;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
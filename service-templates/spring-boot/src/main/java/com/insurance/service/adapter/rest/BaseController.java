@@ -2,11 +2,31 @@ package com.insurance.service.adapter.rest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 /**
  * Base class for REST controllers.
  * Provides common functionality for all controllers.
+ * <p>
+ * Single-resource responses of aggregates carry an {@link ETags entity tag} of the aggregate
+ * version. Reads answer {@code If-None-Match} from a version lookup, and commands check
+ * {@code If-Match} with {@link #checkIfMatch}, for example:
+ * <pre>{@code
+ * @GetMapping("/{claimId}")
+ * public ResponseEntity<ApiResponse<ClaimResponse>> getClaimDetails(@PathVariable UUID claimId,
+ *         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+ *     return ok(ifNoneMatch, claimId, claimRepository.findVersionById(claimId),
+ *             () -> claimService.getClaimDetails(claimId), ClaimResponse::getVersion);
+ * }
+ * }</pre>
  */
 public abstract class BaseController {
     
@@ -23,6 +43,63 @@ public abstract class BaseController {
         return ResponseEntity.ok(new ApiResponse<>(true, body, null));
     }
     
+    /**
+     * Wraps a single aggregate resource, tagged with its version.
+     *
+     * @param body The response body
+     * @param id The aggregate ID
+     * @param version The aggregate version the body represents
+     * @param <T> The type of the response body
+     * @return A ResponseEntity with HTTP status 200 OK and an ETag
+     */
+    protected <T> ResponseEntity<ApiResponse<T>> ok(T body, UUID id, int version) {
+        return ResponseEntity.ok().eTag(ETags.of(id, version)).body(new ApiResponse<>(true, body, null));
+    }
+    
+    /**
+     * Answers a conditional read of a single aggregate resource.
+     * If the client's {@code If-None-Match} lists the current version, the response is 304 Not
+     * Modified and the body is never built; otherwise it is built and tagged with the version it
+     * was built from, which may be newer than the looked up one.
+     *
+     * @param ifNoneMatch The If-None-Match header, or null if absent
+     * @param id The aggregate ID
+     * @param currentVersion The current aggregate version from a version lookup, empty if it does not exist
+     * @param body Builds the response body, typically by loading the aggregate
+     * @param versionOf Extracts the aggregate version from the body
+     * @param <T> The type of the response body
+     * @return A ResponseEntity with HTTP status 200 OK or 304 Not Modified and an ETag
+     */
+    protected <T> ResponseEntity<ApiResponse<T>> ok(String ifNoneMatch, UUID id, Optional<Integer> currentVersion,
+                                                    Supplier<T> body, ToIntFunction<? super T> versionOf) {
+        if (currentVersion.isPresent()) {
+            String etag = ETags.of(id, currentVersion.get());
+            if (ETags.noneMatchFails(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        T value = body.get();
+        return ok(value, id, versionOf.applyAsInt(value));
+    }
+    
+    /**
+     * Checks the {@code If-Match} precondition of a command on an aggregate.
+     * Check against the version from a version lookup to reject stale commands before loading
+     * anything, and against the version of the loaded aggregate before changing it; the event
+     * store's version guard then rejects anything committed after the load.
+     *
+     * @param ifMatch The If-Match header, or null if absent, in which case the command is unconditional
+     * @param id The aggregate ID
+     * @param currentVersion The current aggregate version, empty if it does not exist
+     * @throws PreconditionFailedException if the header does not list the current version
+     */
+    protected void checkIfMatch(String ifMatch, UUID id, Optional<Integer> currentVersion) {
+        if (!ETags.matchHolds(ifMatch, currentVersion.map(version -> ETags.of(id, version)).orElse(null))) {
+            throw currentVersion.map(version -> new PreconditionFailedException(id, version))
+                    .orElseGet(() -> new PreconditionFailedException(id));
+        }
+    }
+    
     /**
      * Wraps a response entity for created resources.
      *
@@ -34,6 +111,17 @@ public abstract class BaseController {
         return ResponseEntity.status(201).body(new ApiResponse<>(true, body, null));
     }
     
+    /**
+     * Streams a response as newline-delimited JSON instead of materialising it.
+     * Use for bulk reads, with {@code KeysetReader.stream} writing the rows.
+     *
+     * @param body Writes the rows to the response
+     * @return A ResponseEntity with HTTP status 200 OK and content type {@code application/x-ndjson}
+     */
+    protected ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
     /**
      * Standard API response wrapper for consistent response format.
      *
@@ -0,0 +1,130 @@
+package com.insurance.service.adapter.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.service.adapter.rest.AdaptiveConcurrencyLimit.Outcome;
+import com.insurance.service.adapter.rest.GlobalExceptionHandler.ErrorResponse;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Sheds API requests beyond an {@link AdaptiveConcurrencyLimit} with 503 and Retry-After.
+ * Commands and queries have limits of their own. Rejecting is cheap and immediate, so a pod
+ * under overload keeps serving the requests it admits within their deadlines instead of
+ * queueing everything until it times out.
+ * <p>
+ * Responses with 503 or 504 from downstream count as overload. Streamed responses give up
+ * their permit when the stream completes, without a latency sample. Actuator and API
+ * documentation endpoints are never limited.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String[] UNLIMITED_PATHS = {"/actuator", "/v3/api-docs", "/api-docs", "/swagger-ui"};
+
+    private final AdaptiveConcurrencyLimit commands;
+    private final AdaptiveConcurrencyLimit queries;
+    private final String retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit commands, AdaptiveConcurrencyLimit queries,
+                                  Duration retryAfter, ObjectMapper objectMapper) {
+        this.commands = commands;
+        this.queries = queries;
+        this.retryAfterSeconds = Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if ("OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String unlimited : UNLIMITED_PATHS) {
+            if (path.startsWith(unlimited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimit limit = isQuery(request.getMethod()) ? queries : commands;
+        if (!limit.tryAcquire()) {
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.IGNORED;
+        try {
+            chain.doFilter(request, response);
+            int status = response.getStatus();
+            outcome = status == HttpStatus.SERVICE_UNAVAILABLE.value() || status == HttpStatus.GATEWAY_TIMEOUT.value()
+                    ? Outcome.DROPPED : Outcome.SUCCESS;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limit, start));
+            } else {
+                limit.release(start, outcome);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(status.value(), "Service is overloaded, retry later", LocalDateTime.now()));
+    }
+
+    private static boolean isQuery(String method) {
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    /**
+     * Returns the permit of an asynchronous request; completion follows a timeout or error as well.
+     */
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final long start;
+
+        private ReleaseOnComplete(AdaptiveConcurrencyLimit limit, long start) {
+            this.limit = limit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limit.release(start, Outcome.IGNORED);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
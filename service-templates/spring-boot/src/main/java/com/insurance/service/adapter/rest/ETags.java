@@ -0,0 +1,74 @@
+package com.insurance.service.adapter.rest;
+
+import java.util.UUID;
+
+/**
+ * Entity tags of aggregate resources, derived from the aggregate ID and version.
+ * Every committed change increments the version, so the tag of a representation is known
+ * from a version lookup alone, without loading or serializing the aggregate.
+ */
+public final class ETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    /**
+     * Gets the strong entity tag of an aggregate version.
+     *
+     * @param id The aggregate ID
+     * @param version The aggregate version
+     * @return The quoted entity tag
+     */
+    public static String of(UUID id, int version) {
+        return "\"" + id + "." + version + "\"";
+    }
+
+    /**
+     * Evaluates an {@code If-None-Match} header, comparing weakly as RFC 9110 requires.
+     *
+     * @param header The header value, or null if absent
+     * @param etag The current entity tag
+     * @return true if the client already holds the current representation
+     */
+    public static boolean noneMatchFails(String header, String etag) {
+        return matches(header, etag, false);
+    }
+
+    /**
+     * Evaluates an {@code If-Match} header, comparing strongly as RFC 9110 requires.
+     *
+     * @param header The header value, or null if absent
+     * @param etag The current entity tag, or null if the resource does not exist
+     * @return true if the header is absent or lists the current entity tag
+     */
+    public static boolean matchHolds(String header, String etag) {
+        if (header == null) {
+            return true;
+        }
+        return etag != null && matches(header, etag, true);
+    }
+
+    private static boolean matches(String header, String etag, boolean strong) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith(WEAK_PREFIX)) {
+                if (strong) {
+                    continue;
+                }
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package com.insurance.service.adapter.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts exceptions handled for REST requests and limits how many of them are logged.
+ * Every exception is counted per type and response status. Log lines are limited per
+ * exception type to a number per interval, so a burst of one kind of bad request cannot
+ * flood the log; the next line logged for a type reports how many were left out.
+ */
+public class ExceptionLogLimiter {
+
+    static final String EXCEPTIONS_COUNTER = "insurance.http.exceptions";
+    static final String SUPPRESSED_COUNTER = "insurance.http.exceptions.logs.suppressed";
+
+    private final int maxPerInterval;
+    private final long intervalNanos;
+    private final MeterRegistry registry;
+    private final Counter suppressedCounter;
+    private final Map<Class<?>, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxPerInterval Log lines allowed per exception type and interval
+     * @param interval The interval
+     * @param registry The registry of the exception counters
+     */
+    public ExceptionLogLimiter(int maxPerInterval, Duration interval, MeterRegistry registry) {
+        this.maxPerInterval = maxPerInterval;
+        this.intervalNanos = interval.toNanos();
+        this.registry = registry;
+        this.suppressedCounter = Counter.builder(SUPPRESSED_COUNTER)
+                .description("Log lines of handled exceptions left out by rate limiting")
+                .register(registry);
+    }
+
+    /**
+     * Records a handled exception and decides whether to log it.
+     *
+     * @param exception The exception
+     * @param status The response status it was mapped to
+     * @return -1 if it must not be logged, otherwise the number of log lines of its type left out since the last one
+     */
+    public long record(Throwable exception, int status) {
+        long now = System.nanoTime();
+        Window window = windows.computeIfAbsent(exception.getClass(),
+                type -> new Window(now, counter(type, status)));
+        window.occurrences.increment();
+
+        long start = window.start.get();
+        // a lost race only means a few more or fewer lines in the new interval
+        if (now - start >= intervalNanos && window.start.compareAndSet(start, now)) {
+            window.logged.set(0);
+        }
+        if (window.logged.incrementAndGet() <= maxPerInterval) {
+            return window.suppressed.getAndSet(0);
+        }
+        window.suppressed.incrementAndGet();
+        suppressedCounter.increment();
+        return -1;
+    }
+
+    private Counter counter(Class<?> type, int status) {
+        return Counter.builder(EXCEPTIONS_COUNTER)
+                .description("Exceptions mapped to error responses")
+                .tag("exception", type.getSimpleName())
+                .tag("status", Integer.toString(status))
+                .register(registry);
+    }
+
+    private static final class Window {
+
+        private final AtomicLong start;
+        private final AtomicInteger logged = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+        private final Counter occurrences;
+
+        private Window(long start, Counter occurrences) {
+            this.start = new AtomicLong(start);
+            this.occurrences = occurrences;
+        }
+    }
+}
@@ -5,6 +5,9 @@ import com.insurance.service.domain.exception.EntityNotFoundException;
 import com.insurance.service.domain.exception.ValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -19,12 +22,21 @@ import java.util.Map;
 /**
  * Global exception handler for REST controllers.
  * Provides standardized error responses for different types of exceptions.
+ * Rejected requests are expected outcomes and logged at WARN; only unhandled exceptions are
+ * logged at ERROR with their stack trace. Every exception is counted, but log lines are rate
+ * limited per exception type by the {@link ExceptionLogLimiter}.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     
+    private final ExceptionLogLimiter logLimiter;
+    
+    public GlobalExceptionHandler(ExceptionLogLimiter logLimiter) {
+        this.logLimiter = logLimiter;
+    }
+    
     /**
      * Handles domain-specific exceptions.
      *
@@ -33,7 +45,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(DomainException.class)
     public ResponseEntity<ErrorResponse> handleDomainException(DomainException ex) {
-        log.error("Domain exception occurred: {}", ex.getMessage(), ex);
+        log(Level.WARN, ex, HttpStatus.BAD_REQUEST, ex, "Domain exception occurred: {}", ex.getMessage());
         
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.BAD_REQUEST.value(),
@@ -52,7 +64,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleEntityNotFoundException(EntityNotFoundException ex) {
-        log.error("Entity not found: {}", ex.getMessage(), ex);
+        log(Level.WARN, ex, HttpStatus.NOT_FOUND, ex, "Entity not found: {}", ex.getMessage());
         
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.NOT_FOUND.value(),
@@ -71,7 +83,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(ValidationException ex) {
-        log.error("Validation error: {}", ex.getMessage(), ex);
+        log(Level.WARN, ex, HttpStatus.BAD_REQUEST, ex, "Validation error: {}", ex.getMessage());
         
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.BAD_REQUEST.value(),
@@ -82,6 +94,44 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
     
+    /**
+     * Handles optimistic concurrency conflicts on aggregates and event streams.
+     *
+     * @param ex The optimistic locking failure
+     * @return A standardized error response
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        log(Level.WARN, ex, HttpStatus.CONFLICT, null, "Concurrent modification detected: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "The resource was modified concurrently. Reload it and retry the request.",
+                LocalDateTime.now()
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+    
+    /**
+     * Handles failed If-Match preconditions.
+     *
+     * @param ex The precondition failure
+     * @return A standardized error response
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(PreconditionFailedException ex) {
+        log(Level.WARN, ex, HttpStatus.PRECONDITION_FAILED, null, "Precondition failed: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                "The resource was modified since it was read. Reload it and retry the request.",
+                LocalDateTime.now()
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+    
     /**
      * Handles validation exceptions from Spring's validation framework.
      *
@@ -90,7 +140,9 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ValidationErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
-        log.error("Validation errors occurred in request", ex);
+        // the stack trace only shows the framework's argument resolution
+        log(Level.WARN, ex, HttpStatus.BAD_REQUEST, null, "Validation errors occurred in request: {} field error(s)",
+                ex.getBindingResult().getErrorCount());
         
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach(error -> {
@@ -117,7 +169,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
-        log.error("Unhandled exception occurred", ex);
+        log(Level.ERROR, ex, HttpStatus.INTERNAL_SERVER_ERROR, ex, "Unhandled exception occurred");
         
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
@@ -128,6 +180,30 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
     
+    /**
+     * Counts an exception and logs it unless its type exceeded its log rate.
+     * Domain exceptions are logged with the exception so that causes are kept; they carry
+     * no stack trace of their own unless stack trace capture is enabled.
+     */
+    private void log(Level level, Exception ex, HttpStatus status, Throwable logged, String message, Object... args) {
+        long suppressed = logLimiter.record(ex, status.value());
+        if (suppressed < 0 || !log.isEnabledForLevel(level)) {
+            return;
+        }
+        LoggingEventBuilder event = log.atLevel(level)
+                .setMessage(suppressed > 0 ? message + " ({} similar suppressed)" : message);
+        for (Object arg : args) {
+            event = event.addArgument(arg);
+        }
+        if (suppressed > 0) {
+            event = event.addArgument(suppressed);
+        }
+        if (logged != null) {
+            event = event.setCause(logged);
+        }
+        event.log();
+    }
+    
     /**
      * Standard error response structure.
      */
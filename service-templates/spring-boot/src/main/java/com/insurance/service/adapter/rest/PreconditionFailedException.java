@@ -0,0 +1,24 @@
+package com.insurance.service.adapter.rest;
+
+import java.util.UUID;
+
+/**
+ * Exception thrown when a request's {@code If-Match} precondition does not hold,
+ * because the resource changed since the client read it.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(UUID id, int currentVersion) {
+        this(String.format("Resource %s is at version %d, not the version the request was based on",
+                id, currentVersion));
+    }
+
+    public PreconditionFailedException(UUID id) {
+        this(String.format("Resource %s does not exist", id));
+    }
+
+    private PreconditionFailedException(String message) {
+        // an expected outcome of concurrent edits; the stack trace says nothing
+        super(message, null, true, false);
+    }
+}
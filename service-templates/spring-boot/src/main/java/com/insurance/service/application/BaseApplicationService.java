@@ -1,43 +1,58 @@
 package com.insurance.service.application;
 
 import com.insurance.service.domain.event.DomainEvent;
-import com.insurance.service.infrastructure.messaging.EventPublisher;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.transaction.annotation.Transactional;
+import com.insurance.service.domain.model.BaseAggregateRoot;
+import com.insurance.service.infrastructure.messaging.OutboxEventWriter;
+
+import java.util.List;
 
 /**
  * Base class for application services.
  * Provides common functionality for transaction management and event publishing.
+ * <p>
+ * Services whose aggregates see concurrent commands, such as a claim being assessed while
+ * documents are uploaded, can run them through a {@link CommandScheduler} instead of a request
+ * transaction, so they queue per aggregate rather than fail on its version:
+ * <pre>{@code
+ * this.commands = commandSchedulers.create("Claim", claimRepository::findById,
+ *         (claim, expectedVersion, events) -> {
+ *             eventStore.append("Claim", claim.getId(), expectedVersion, events);
+ *             publishEvents(claim, expectedVersion + 1, events);
+ *         });
+ * ...
+ * return commands.submit(claimId, claim -> claim.assess(request));
+ * }</pre>
  */
 public abstract class BaseApplicationService {
-    
-    private static final Logger log = LoggerFactory.getLogger(BaseApplicationService.class);
-    
-    private final EventPublisher eventPublisher;
-    
-    protected BaseApplicationService(EventPublisher eventPublisher) {
-        this.eventPublisher = eventPublisher;
+
+    private final OutboxEventWriter outboxEventWriter;
+
+    protected BaseApplicationService(OutboxEventWriter outboxEventWriter) {
+        this.outboxEventWriter = outboxEventWriter;
     }
-    
+
+    /**
+     * Publishes the pending domain events of an aggregate through the transactional outbox.
+     * This method must be called inside the transaction that persists the aggregate,
+     * so the events are committed or rolled back together with it. The outbox relay
+     * delivers them to Kafka after the commit, keeping broker latency off the command path.
+     *
+     * @param aggregate The aggregate whose domain events should be published
+     */
+    protected void publishEvents(BaseAggregateRoot aggregate) {
+        outboxEventWriter.append(aggregate);
+    }
+
     /**
-     * Publishes a domain event.
-     * This method should be called after the transaction has been committed
-     * to ensure the event is only published if the transaction succeeds.
+     * Publishes the events of one commit of an aggregate through the transactional outbox.
+     * Use it from a {@link CommandScheduler.Committer}, where several commits of an aggregate
+     * share a transaction and its pending events are cleared only after all of them.
      *
-     * @param event The domain event to publish
-     * @param <T> The type of the domain event
+     * @param aggregate The aggregate that raised the events
+     * @param version The aggregate version the commit produced
+     * @param events The events of the commit
      */
-    @Transactional(readOnly = true)
-    protected <T extends DomainEvent> void publishEvent(T event) {
-        try {
-            eventPublisher.publishEvent(event);
-        } catch (Exception e) {
-            log.error("Failed to publish event: {}", event.getEventId(), e);
-            // Depending on the business requirements, you might want to:
-            // 1. Rethrow the exception
-            // 2. Store the event for retry
-            // 3. Log and continue
-        }
+    protected void publishEvents(BaseAggregateRoot aggregate, int version, List<DomainEvent> events) {
+        outboxEventWriter.append(aggregate.getClass().getSimpleName(), aggregate.getId(), version, events);
     }
-} 
\ No newline at end of file
+}
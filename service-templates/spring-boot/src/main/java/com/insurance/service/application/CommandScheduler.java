@@ -0,0 +1,422 @@
+package com.insurance.service.application;
+
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.domain.exception.EntityNotFoundException;
+import com.insurance.service.domain.model.BaseAggregateRoot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runs commands on aggregates one at a time per aggregate instead of letting them race on the
+ * aggregate version. Commands are routed by aggregate ID to a fixed number of stripes; each
+ * stripe is a mailbox drained in order by a single thread, which keeps recently used aggregates
+ * loaded in memory. The commands for one aggregate found in the mailbox are executed in order
+ * and committed together in one transaction, each as its own commit on top of the previous one,
+ * so concurrent writers to a hot aggregate no longer fail each other with optimistic lock
+ * conflicts and their commits share a round trip.
+ * <p>
+ * The version guard of the store still protects against writers on other instances: a conflict
+ * evicts the cached aggregate and the commands are replayed once more against a fresh load.
+ * A command must validate before it raises events and mark the aggregate updated once if it
+ * raises any, like a command run in a request transaction. If it fails after changing the
+ * aggregate, the remaining commands are replayed against a fresh load without it.
+ *
+ * @param <T> The aggregate type
+ */
+public class CommandScheduler<T extends BaseAggregateRoot> {
+
+    private static final Logger log = LoggerFactory.getLogger(CommandScheduler.class);
+
+    static final String COMMANDS_COUNTER = "insurance.commands.executed";
+    static final String COMMITS_COUNTER = "insurance.commands.commits";
+    static final String CONFLICTS_COUNTER = "insurance.commands.conflicts";
+    static final String QUEUED_GAUGE = "insurance.commands.queued";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * A command on an aggregate.
+     *
+     * @param <T> The aggregate type
+     * @param <R> The result type
+     */
+    @FunctionalInterface
+    public interface Command<T, R> {
+
+        /**
+         * Executes the command against the current state of the aggregate.
+         *
+         * @param aggregate The aggregate, which the command may change
+         * @return The result passed to the caller once the change is committed
+         */
+        R execute(T aggregate);
+    }
+
+    /**
+     * Persists the events of one executed command, inside the transaction of its group.
+     *
+     * @param <T> The aggregate type
+     */
+    @FunctionalInterface
+    public interface Committer<T> {
+
+        /**
+         * Persists one commit, typically by appending to the event store and the outbox.
+         * The events must not be cleared from the aggregate; the scheduler does so after commit.
+         *
+         * @param aggregate The aggregate
+         * @param expectedVersion The stored version the commit goes on top of
+         * @param events The events raised by the command
+         */
+        void commit(T aggregate, int expectedVersion, List<DomainEvent> events);
+    }
+
+    private final String name;
+    private final Function<UUID, Optional<T>> loader;
+    private final Committer<T> committer;
+    private final TransactionOperations transactionOperations;
+    private final int maxBatchSize;
+    private final int maxCachedAggregates;
+    private final List<Stripe> stripes;
+    private final Counter commands;
+    private final Counter commits;
+    private final Counter conflicts;
+    private volatile boolean running = true;
+
+    /**
+     * @param name The aggregate type name, used in errors and as the meter tag
+     * @param loader Loads an aggregate by ID
+     * @param committer Persists the commits of executed commands
+     * @param transactionOperations Runs the commits of a group in one transaction
+     * @param stripes The number of mailboxes and threads, or 0 to run commands on the calling thread
+     * @param maxBatchSize The maximum number of commands taken from a mailbox at once
+     * @param maxCachedAggregates The number of aggregates each mailbox keeps loaded
+     * @param registry The registry of the meters
+     */
+    public CommandScheduler(String name, Function<UUID, Optional<T>> loader, Committer<T> committer,
+                            TransactionOperations transactionOperations, int stripes, int maxBatchSize,
+                            int maxCachedAggregates, MeterRegistry registry) {
+        this.name = name;
+        this.loader = loader;
+        this.committer = committer;
+        this.transactionOperations = transactionOperations;
+        this.maxBatchSize = maxBatchSize;
+        this.maxCachedAggregates = maxCachedAggregates;
+        this.commands = counter(COMMANDS_COUNTER, "Commands executed against an aggregate", registry);
+        this.commits = counter(COMMITS_COUNTER, "Transactions committing one or more commands", registry);
+        this.conflicts = counter(CONFLICTS_COUNTER,
+                "Groups of commands replayed after a concurrent change by another instance", registry);
+
+        this.stripes = new ArrayList<>(stripes);
+        ThreadFactory threadFactory = new CustomizableThreadFactory("command-mailbox-" + name + "-");
+        for (int i = 0; i < stripes; i++) {
+            Stripe stripe = new Stripe();
+            this.stripes.add(stripe);
+            Thread thread = threadFactory.newThread(stripe::run);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Gauge.builder(QUEUED_GAUGE, this, CommandScheduler::queued)
+                .description("Commands waiting in mailboxes")
+                .tag("aggregate", name)
+                .register(registry);
+    }
+
+    /**
+     * Queues a command for an aggregate behind the commands already queued for it.
+     *
+     * @param aggregateId The aggregate ID
+     * @param command The command
+     * @param <R> The result type
+     * @return A future completed with the result once the command is committed, or with its failure;
+     *         {@link EntityNotFoundException} if the aggregate does not exist
+     */
+    public <R> CompletableFuture<R> submit(UUID aggregateId, Command<T, R> command) {
+        Envelope<T> envelope = new Envelope<>(aggregateId, command);
+        if (stripes.isEmpty()) {
+            process(aggregateId, List.of(envelope), new HashMap<>());
+        } else if (!running) {
+            envelope.future.completeExceptionally(shutDown());
+        } else {
+            stripes.get(Math.floorMod(aggregateId.hashCode(), stripes.size())).offer(envelope);
+        }
+        return envelope.result();
+    }
+
+    /**
+     * Stops taking commands and lets the mailboxes drain. Commands that raced with the shutdown
+     * and reached a mailbox after its thread stopped fail instead.
+     *
+     * @param timeout The time to wait for queued commands
+     * @return true if all mailboxes drained in time
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Stripe stripe : stripes) {
+            stripe.queue.add(Envelope.poison());
+        }
+        for (Stripe stripe : stripes) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !stripe.stopped.await(remaining, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static IllegalStateException shutDown() {
+        return new IllegalStateException("Command scheduler is shut down");
+    }
+
+    private int queued() {
+        int queued = 0;
+        for (Stripe stripe : stripes) {
+            queued += stripe.queue.size();
+        }
+        return queued;
+    }
+
+    private void process(UUID id, List<Envelope<T>> group, Map<UUID, T> cache) {
+        List<Envelope<T>> pending = group;
+        int attempt = 1;
+        while (!pending.isEmpty()) {
+            T aggregate = cache.get(id);
+            if (aggregate == null) {
+                Optional<T> loaded;
+                try {
+                    loaded = loader.apply(id);
+                } catch (RuntimeException e) {
+                    pending.forEach(envelope -> envelope.future.completeExceptionally(e));
+                    return;
+                }
+                if (loaded.isEmpty()) {
+                    EntityNotFoundException notFound = new EntityNotFoundException(name, id);
+                    pending.forEach(envelope -> envelope.future.completeExceptionally(notFound));
+                    return;
+                }
+                aggregate = loaded.get();
+            }
+
+            List<Executed<T>> executed = new ArrayList<>(pending.size());
+            List<Envelope<T>> replay = execute(aggregate, pending, executed);
+            if (replay != null) {
+                // a failed command left changes behind; they cannot be undone in place
+                cache.remove(id);
+                pending = replay;
+                continue;
+            }
+
+            T current = aggregate;
+            try {
+                transactionOperations.executeWithoutResult(status -> {
+                    for (Executed<T> command : executed) {
+                        if (!command.events.isEmpty()) {
+                            committer.commit(current, command.expectedVersion, command.events);
+                        }
+                    }
+                });
+            } catch (OptimisticLockingFailureException e) {
+                cache.remove(id);
+                conflicts.increment();
+                if (attempt++ < MAX_ATTEMPTS) {
+                    log.debug("{} {} changed concurrently, replaying {} command(s)", name, id, executed.size());
+                    pending = envelopes(executed);
+                    continue;
+                }
+                executed.forEach(command -> command.envelope.future.completeExceptionally(e));
+                return;
+            } catch (RuntimeException e) {
+                cache.remove(id);
+                executed.forEach(command -> command.envelope.future.completeExceptionally(e));
+                return;
+            }
+
+            aggregate.clearEvents();
+            cache.put(id, aggregate);
+            commits.increment();
+            for (Executed<T> command : executed) {
+                command.envelope.future.complete(command.result);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Executes commands in order, failing those that throw without changing the aggregate.
+     *
+     * @return null if the executed commands can be committed, or the commands to replay against a
+     *         fresh load if a failed command changed the aggregate
+     */
+    private List<Envelope<T>> execute(T aggregate, List<Envelope<T>> pending, List<Executed<T>> executed) {
+        for (int i = 0; i < pending.size(); i++) {
+            Envelope<T> envelope = pending.get(i);
+            int version = aggregate.getVersion();
+            int eventCount = aggregate.domainEvents().size();
+            try {
+                Object result = envelope.command.execute(aggregate);
+                commands.increment();
+                List<DomainEvent> events = List.copyOf(
+                        aggregate.domainEvents().subList(eventCount, aggregate.domainEvents().size()));
+                executed.add(new Executed<>(envelope, result, version, events));
+            } catch (RuntimeException e) {
+                envelope.future.completeExceptionally(e);
+                if (aggregate.getVersion() != version || aggregate.domainEvents().size() != eventCount) {
+                    List<Envelope<T>> replay = envelopes(executed);
+                    replay.addAll(pending.subList(i + 1, pending.size()));
+                    return replay;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static <T> List<Envelope<T>> envelopes(List<Executed<T>> executed) {
+        List<Envelope<T>> envelopes = new ArrayList<>(executed.size());
+        for (Executed<T> command : executed) {
+            envelopes.add(command.envelope);
+        }
+        return envelopes;
+    }
+
+    private Counter counter(String meterName, String description, MeterRegistry registry) {
+        return Counter.builder(meterName)
+                .description(description)
+                .tag("aggregate", name)
+                .register(registry);
+    }
+
+    /**
+     * A mailbox and the thread draining it. Its aggregates are only touched by that thread.
+     */
+    private final class Stripe {
+
+        private final BlockingQueue<Envelope<T>> queue = new LinkedBlockingQueue<>();
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private volatile boolean closed;
+        // set once the poison pill is taken; commands queued behind it are still drained
+        private boolean poisoned;
+        private final Map<UUID, T> aggregates = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, T> eldest) {
+                return size() > maxCachedAggregates;
+            }
+        };
+
+        /**
+         * Queues a command, failing it if the thread has already stopped. The thread marks itself
+         * closed before it fails what is left in the queue, so a command added concurrently is
+         * either failed by the thread or seen here.
+         */
+        private void offer(Envelope<T> envelope) {
+            queue.add(envelope);
+            if (closed) {
+                failQueued();
+            }
+        }
+
+        private void failQueued() {
+            Envelope<T> envelope;
+            while ((envelope = queue.poll()) != null) {
+                envelope.future.completeExceptionally(shutDown());
+            }
+        }
+
+        private void run() {
+            List<Envelope<T>> batch = new ArrayList<>(maxBatchSize);
+            try {
+                while (true) {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    if (batch.removeIf(Envelope::isPoison)) {
+                        poisoned = true;
+                    }
+                    // commands for one aggregate keep their order; different aggregates are independent
+                    Map<UUID, List<Envelope<T>>> groups = new LinkedHashMap<>();
+                    for (Envelope<T> envelope : batch) {
+                        groups.computeIfAbsent(envelope.aggregateId, id -> new ArrayList<>()).add(envelope);
+                    }
+                    batch.clear();
+                    groups.forEach((id, group) -> {
+                        try {
+                            process(id, group, aggregates);
+                        } catch (RuntimeException | Error e) {
+                            aggregates.remove(id);
+                            group.forEach(envelope -> envelope.future.completeExceptionally(e));
+                        }
+                    });
+                    if (poisoned && queue.isEmpty()) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closed = true;
+                failQueued();
+                stopped.countDown();
+            }
+        }
+    }
+
+    private static final class Envelope<T> {
+
+        private final UUID aggregateId;
+        private final Command<T, ?> command;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private Envelope(UUID aggregateId, Command<T, ?> command) {
+            this.aggregateId = aggregateId;
+            this.command = command;
+        }
+
+        private static <T> Envelope<T> poison() {
+            return new Envelope<>(null, null);
+        }
+
+        private boolean isPoison() {
+            return command == null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <R> CompletableFuture<R> result() {
+            return (CompletableFuture<R>) future;
+        }
+    }
+
+    private static final class Executed<T> {
+
+        private final Envelope<T> envelope;
+        private final Object result;
+        private final int expectedVersion;
+        private final List<DomainEvent> events;
+
+        private Executed(Envelope<T> envelope, Object result, int expectedVersion, List<DomainEvent> events) {
+            this.envelope = envelope;
+            this.result = result;
+            this.expectedVersion = expectedVersion;
+            this.events = events;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.insurance.service.application;
+
+import com.insurance.service.domain.model.BaseAggregateRoot;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Creates the {@link CommandScheduler}s of application services that opt into per-aggregate mailboxes.
+ * All schedulers share the mailbox settings of {@code insurance.commands.mailboxes}; with mailboxes
+ * disabled, schedulers run each command on the calling thread in a transaction of its own.
+ */
+public class CommandSchedulers implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CommandSchedulers.class);
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final TransactionOperations transactionOperations;
+    private final int stripes;
+    private final int maxBatchSize;
+    private final int maxCachedAggregates;
+    private final MeterRegistry meterRegistry;
+    private final List<CommandScheduler<?>> schedulers = new CopyOnWriteArrayList<>();
+
+    public CommandSchedulers(TransactionOperations transactionOperations, int stripes, int maxBatchSize,
+                             int maxCachedAggregates, MeterRegistry meterRegistry) {
+        this.transactionOperations = transactionOperations;
+        this.stripes = stripes;
+        this.maxBatchSize = maxBatchSize;
+        this.maxCachedAggregates = maxCachedAggregates;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates the scheduler of an aggregate type.
+     *
+     * @param name The aggregate type name
+     * @param loader Loads an aggregate by ID, typically {@code repository::findById}
+     * @param committer Persists the commits of executed commands
+     * @param <T> The aggregate type
+     * @return The scheduler
+     */
+    public <T extends BaseAggregateRoot> CommandScheduler<T> create(String name, Function<UUID, Optional<T>> loader,
+                                                                     CommandScheduler.Committer<T> committer) {
+        CommandScheduler<T> scheduler = new CommandScheduler<>(name, loader, committer, transactionOperations,
+                stripes, maxBatchSize, maxCachedAggregates, meterRegistry);
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (CommandScheduler<?> scheduler : schedulers) {
+            if (!scheduler.shutdown(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Command mailboxes did not drain within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.insurance.service.config;
+
+import com.insurance.service.infrastructure.persistence.archive.EventArchive;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Configuration of the event history archive.
+ */
+@Configuration
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class ArchiveConfig {
+
+    /**
+     * Opens the segment directory, creating it if needed.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "insurance.archive", name = "enabled", havingValue = "true")
+    public EventArchive eventArchive(ArchiveProperties properties) throws IOException {
+        return new EventArchive(Path.of(properties.getDirectory()), properties.getBlockSize());
+    }
+}
@@ -0,0 +1,106 @@
+package com.insurance.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the archive of event history of closed aggregates.
+ */
+@ConfigurationProperties(prefix = "insurance.archive")
+public class ArchiveProperties {
+
+    /**
+     * Whether events are archived and read back from the archive.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory of the segment files. It must be durable, backed up, and shared by all
+     * instances, since any instance may need to read an archived stream.
+     */
+    private String directory = "data/event-archive";
+
+    /**
+     * Event types after which an aggregate is closed, e.g. ClaimClosed.
+     */
+    private List<String> closingEventTypes = new ArrayList<>();
+
+    /**
+     * How long an aggregate must have been closed before its history is archived.
+     */
+    private Duration closedFor = Duration.ofDays(90);
+
+    /**
+     * Aggregates archived per run, all written to one segment.
+     */
+    private int aggregatesPerSegment = 10_000;
+
+    /**
+     * Uncompressed size of a segment block; larger blocks compress better but cost more per lookup.
+     */
+    private int blockSize = 64 * 1024;
+
+    /**
+     * Delay between archiving runs.
+     */
+    private long intervalMs = 3_600_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public List<String> getClosingEventTypes() {
+        return closingEventTypes;
+    }
+
+    public void setClosingEventTypes(List<String> closingEventTypes) {
+        this.closingEventTypes = closingEventTypes;
+    }
+
+    public Duration getClosedFor() {
+        return closedFor;
+    }
+
+    public void setClosedFor(Duration closedFor) {
+        this.closedFor = closedFor;
+    }
+
+    public int getAggregatesPerSegment() {
+        return aggregatesPerSegment;
+    }
+
+    public void setAggregatesPerSegment(int aggregatesPerSegment) {
+        this.aggregatesPerSegment = aggregatesPerSegment;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public void setIntervalMs(long intervalMs) {
+        this.intervalMs = intervalMs;
+    }
+}
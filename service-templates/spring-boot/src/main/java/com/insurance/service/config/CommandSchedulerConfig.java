@@ -0,0 +1,37 @@
+package com.insurance.service.config;
+
+import com.insurance.service.application.CommandSchedulers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Configuration class for per-aggregate command mailboxes.
+ * Application services opt in by creating a scheduler for their aggregate type.
+ */
+@Configuration
+public class CommandSchedulerConfig {
+
+    @Value("${insurance.commands.mailboxes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${insurance.commands.mailboxes.stripes:4}")
+    private int stripes;
+
+    @Value("${insurance.commands.mailboxes.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${insurance.commands.mailboxes.cached-aggregates-per-stripe:1000}")
+    private int cachedAggregatesPerStripe;
+
+    /**
+     * Creates command schedulers; without mailboxes, commands run on the calling thread.
+     */
+    @Bean
+    public CommandSchedulers commandSchedulers(TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        return new CommandSchedulers(transactionTemplate, enabled ? stripes : 0, maxBatchSize,
+                cachedAggregatesPerStripe, meterRegistry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.insurance.service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.service.adapter.rest.AdaptiveConcurrencyLimit;
+import com.insurance.service.adapter.rest.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the adaptive concurrency limit.
+ * The filter runs in the API security filter chain, see {@link SecurityConfig}.
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(name = "insurance.concurrency-limit.enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(ConcurrencyLimitProperties properties,
+                                                         MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        return new ConcurrencyLimitFilter(
+                new AdaptiveConcurrencyLimit("commands", properties.getCommands(), meterRegistry),
+                new AdaptiveConcurrencyLimit("queries", properties.getQueries(), meterRegistry),
+                properties.getRetryAfter(),
+                objectMapper);
+    }
+
+    /**
+     * Keeps the filter out of the servlet filter chain, so it only runs in the security filter chain.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(
+            ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
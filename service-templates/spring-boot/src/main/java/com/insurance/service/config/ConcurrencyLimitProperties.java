@@ -0,0 +1,179 @@
+package com.insurance.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the adaptive concurrency limit on inbound API requests.
+ * Commands and queries are limited separately, so slow writes cannot starve reads and the
+ * other way round.
+ */
+@ConfigurationProperties(prefix = "insurance.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    /**
+     * Whether requests beyond the limit are rejected.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Sent as Retry-After with rejected requests; rounded up to whole seconds.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Limit of POST, PUT, PATCH and DELETE requests.
+     */
+    private LimitSettings commands = new LimitSettings(20, 5, 200);
+
+    /**
+     * Limit of GET and HEAD requests.
+     */
+    private LimitSettings queries = new LimitSettings(50, 10, 500);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public LimitSettings getCommands() {
+        return commands;
+    }
+
+    public void setCommands(LimitSettings commands) {
+        this.commands = commands;
+    }
+
+    public LimitSettings getQueries() {
+        return queries;
+    }
+
+    public void setQueries(LimitSettings queries) {
+        this.queries = queries;
+    }
+
+    /**
+     * Settings of one limit.
+     */
+    public static class LimitSettings {
+
+        /**
+         * Concurrent requests allowed before the first latency samples.
+         */
+        private int initialLimit;
+
+        private int minLimit;
+
+        private int maxLimit;
+
+        /**
+         * Factor by which latency may exceed its long-term average before the limit shrinks.
+         */
+        private double rttTolerance = 1.5;
+
+        /**
+         * Weight of a new limit estimate against the current limit, between 0 and 1.
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * Minimum time between limit updates.
+         */
+        private Duration window = Duration.ofMillis(100);
+
+        /**
+         * Latency samples required to update the limit.
+         */
+        private int minWindowSamples = 10;
+
+        /**
+         * Factor applied to the limit when a window saw an overloaded response (503 or 504).
+         */
+        private double backoffRatio = 0.9;
+
+        public LimitSettings() {
+        }
+
+        public LimitSettings(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getRttTolerance() {
+            return rttTolerance;
+        }
+
+        public void setRttTolerance(double rttTolerance) {
+            this.rttTolerance = rttTolerance;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMinWindowSamples() {
+            return minWindowSamples;
+        }
+
+        public void setMinWindowSamples(int minWindowSamples) {
+            this.minWindowSamples = minWindowSamples;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.insurance.service.config;
+
+import com.insurance.service.adapter.rest.ExceptionLogLimiter;
+import com.insurance.service.domain.exception.DomainException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for exception handling.
+ * Sets whether domain exceptions capture stack traces and how often handled exceptions are logged.
+ */
+@Configuration
+public class ExceptionConfig {
+
+    @Value("${insurance.exceptions.capture-stack-traces:false}")
+    private boolean captureStackTraces;
+
+    @Value("${insurance.exceptions.log-limit.per-type:10}")
+    private int logsPerType;
+
+    @Value("${insurance.exceptions.log-limit.interval:1s}")
+    private Duration logInterval;
+
+    /**
+     * Limits log lines of handled exceptions per exception type and installs the stack trace setting.
+     */
+    @Bean
+    public ExceptionLogLimiter exceptionLogLimiter(MeterRegistry meterRegistry) {
+        DomainException.captureStackTraces(captureStackTraces);
+        return new ExceptionLogLimiter(logsPerType, logInterval, meterRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.insurance.service.config;
+
+import com.insurance.service.domain.model.IdGenerator;
+import com.insurance.service.domain.model.Ids;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for identifier generation.
+ * Installs the generator used for new aggregates and domain events.
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Value("${insurance.ids.generator:time-ordered}")
+    private String generator;
+
+    /**
+     * Time-ordered UUIDv7 identifiers by default; {@code random} switches back to UUIDv4.
+     */
+    @Bean
+    public IdGenerator idGenerator() {
+        IdGenerator idGenerator = switch (generator) {
+            case "time-ordered" -> IdGenerator.timeOrdered();
+            case "random" -> IdGenerator.random();
+            default -> throw new IllegalArgumentException(
+                    "Unknown insurance.ids.generator '" + generator + "', expected time-ordered or random");
+        };
+        Ids.use(idGenerator);
+        return idGenerator;
+    }
+}
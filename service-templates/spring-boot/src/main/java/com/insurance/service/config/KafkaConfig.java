@@ -1,20 +1,43 @@
 package com.insurance.service.config;
 
+import com.insurance.service.infrastructure.messaging.EventRoutingTable;
+import com.insurance.service.infrastructure.messaging.KeyOrderedDispatcher;
+import com.insurance.service.infrastructure.messaging.KeyOrderedMessageListener;
+import com.insurance.service.infrastructure.messaging.ProducerProfile;
+import com.insurance.service.infrastructure.messaging.codec.BinaryEventCodec;
+import com.insurance.service.infrastructure.messaging.codec.DomainEventDeserializer;
+import com.insurance.service.infrastructure.messaging.codec.DomainEventSerializer;
+import com.insurance.service.infrastructure.messaging.idempotency.IdempotentMessageListener;
+import com.insurance.service.infrastructure.messaging.idempotency.ProcessedEvents;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -22,6 +45,7 @@ import java.util.Map;
  * Sets up topics, serializers, and listener factories.
  */
 @Configuration
+@EnableConfigurationProperties(MessagingProperties.class)
 public class KafkaConfig {
 
     @Value("${spring.kafka.bootstrap-servers}")
@@ -33,47 +57,246 @@ public class KafkaConfig {
     @Value("${spring.application.name}")
     private String applicationName;
     
+    @Value("${HOSTNAME:}")
+    private String hostname;
+    
+    private final MessagingProperties messagingProperties;
+    private final MeterRegistry meterRegistry;
+    private final BinaryEventCodec eventCodec;
+    private final EventRoutingTable routingTable;
+    
+    public KafkaConfig(MessagingProperties messagingProperties, MeterRegistry meterRegistry,
+                       BinaryEventCodec eventCodec, EventRoutingTable routingTable) {
+        this.messagingProperties = messagingProperties;
+        this.meterRegistry = meterRegistry;
+        this.eventCodec = eventCodec;
+        this.routingTable = routingTable;
+    }
+    
     /**
-     * Configures the Kafka producer factory for JSON serialization.
+     * Configures the Kafka producer factory for domain events.
+     * Events are sent as JSON unless their topic is configured with the binary wire format.
      */
     @Bean
+    @Primary
     public ProducerFactory<String, Object> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return metered(new DefaultKafkaProducerFactory<>(producerProperties(ProducerProfile.DEFAULT),
+                        new StringSerializer(), new DomainEventSerializer(eventCodec, routingTable)),
+                ProducerProfile.DEFAULT);
     }
     
     /**
      * Creates a Kafka template for sending messages.
      */
     @Bean
+    @Primary
     public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        return meteredTemplate(new KafkaTemplate<>(producerFactory()), ProducerProfile.DEFAULT);
+    }
+    
+    /**
+     * Configures the throughput producer factory: batched, compressed and idempotent.
+     */
+    @Bean
+    public ProducerFactory<String, Object> throughputProducerFactory() {
+        return metered(new DefaultKafkaProducerFactory<>(producerProperties(ProducerProfile.THROUGHPUT),
+                        new StringSerializer(), new DomainEventSerializer(eventCodec, routingTable)),
+                ProducerProfile.THROUGHPUT);
+    }
+    
+    /**
+     * Creates a Kafka template for topics using the throughput profile.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> throughputKafkaTemplate() {
+        return meteredTemplate(new KafkaTemplate<>(throughputProducerFactory()), ProducerProfile.THROUGHPUT);
+    }
+    
+    /**
+     * Configures the transactional variant of the throughput producer factory,
+     * used to publish several events atomically.
+     * The transactional id prefix must stay the same across restarts of an instance, so that the
+     * broker fences a zombie producer of the previous run. Without a configured prefix it is derived
+     * from the host name, which is the pod name on Kubernetes.
+     */
+    @Bean
+    public ProducerFactory<String, Object> transactionalProducerFactory() {
+        DefaultKafkaProducerFactory<String, Object> factory =
+                new DefaultKafkaProducerFactory<>(producerProperties(ProducerProfile.THROUGHPUT),
+                        new StringSerializer(), new DomainEventSerializer(eventCodec, routingTable));
+        String prefix = messagingProperties.getThroughputProducer().getTransactionIdPrefix();
+        factory.setTransactionIdPrefix(StringUtils.hasText(prefix)
+                ? prefix
+                : applicationName + "-" + instanceName() + "-");
+        return metered(factory, ProducerProfile.THROUGHPUT);
+    }
+    
+    private String instanceName() {
+        if (StringUtils.hasText(hostname)) {
+            return hostname;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot derive a stable transactional id prefix; set "
+                    + "insurance.messaging.throughput-producer.transaction-id-prefix", e);
+        }
     }
     
     /**
-     * Configures the Kafka consumer factory for JSON deserialization.
+     * Creates a Kafka template that sends inside Kafka transactions.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> transactionalKafkaTemplate() {
+        return meteredTemplate(new KafkaTemplate<>(transactionalProducerFactory()), ProducerProfile.THROUGHPUT);
+    }
+    
+    /**
+     * Configures the Kafka producer factory the outbox relay uses for topics with the throughput profile.
+     * Outbox payloads are already serialized to JSON, so values are sent as raw bytes.
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> outboxProducerFactory() {
+        return metered(new DefaultKafkaProducerFactory<>(producerProperties(ProducerProfile.THROUGHPUT),
+                        new StringSerializer(), new ByteArraySerializer()),
+                ProducerProfile.THROUGHPUT);
+    }
+    
+    /**
+     * Creates a Kafka template for relaying pre-serialized outbox events to topics with the throughput profile.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> outboxKafkaTemplate() {
+        return meteredTemplate(new KafkaTemplate<>(outboxProducerFactory()), ProducerProfile.THROUGHPUT);
+    }
+    
+    /**
+     * Configures the Kafka producer factory the outbox relay uses for topics with the default profile.
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> defaultOutboxProducerFactory() {
+        return metered(new DefaultKafkaProducerFactory<>(producerProperties(ProducerProfile.DEFAULT),
+                        new StringSerializer(), new ByteArraySerializer()),
+                ProducerProfile.DEFAULT);
+    }
+    
+    /**
+     * Creates a Kafka template for relaying pre-serialized outbox events to topics with the default profile.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> defaultOutboxKafkaTemplate() {
+        return meteredTemplate(new KafkaTemplate<>(defaultOutboxProducerFactory()), ProducerProfile.DEFAULT);
+    }
+    
+    /**
+     * Builds the producer configuration for a profile.
+     */
+    private Map<String, Object> producerProperties(ProducerProfile profile) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        if (profile == ProducerProfile.THROUGHPUT) {
+            MessagingProperties.ThroughputProducer throughput = messagingProperties.getThroughputProducer();
+            configProps.put(ProducerConfig.LINGER_MS_CONFIG, throughput.getLingerMs());
+            configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, throughput.getBatchSize());
+            configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, throughput.getCompressionType());
+            configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+            configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, throughput.getMaxInFlightRequests());
+        }
+        return configProps;
+    }
+    
+    /**
+     * Binds the Kafka client metrics (batch size, request latency, send rate) to Micrometer.
+     */
+    private <V> ProducerFactory<String, V> metered(DefaultKafkaProducerFactory<String, V> factory, ProducerProfile profile) {
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry,
+                Collections.singletonList(Tag.of("producer.profile", profileTag(profile)))));
+        return factory;
+    }
+    
+    /**
+     * Tags the per-send latency timers recorded by the template with the producer profile.
+     */
+    private <V> KafkaTemplate<String, V> meteredTemplate(KafkaTemplate<String, V> template, ProducerProfile profile) {
+        template.setMicrometerTags(Collections.singletonMap("producer.profile", profileTag(profile)));
+        return template;
+    }
+    
+    private static String profileTag(ProducerProfile profile) {
+        return profile.name().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Configures the Kafka consumer factory for domain events.
+     * Accepts both JSON payloads and binary frames, whatever the topic is currently published with.
      */
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, consumerGroupId);
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.insurance.*");
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        return new DefaultKafkaConsumerFactory<>(configProps,
+                new StringDeserializer(), new DomainEventDeserializer(eventCodec));
     }
     
     /**
      * Creates a Kafka listener container factory for processing messages.
+     * Unless disabled, domain events the listener's consumer group already processed are skipped,
+     * and each new event is processed in a database transaction that also marks it as processed.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
+            ObjectProvider<ProcessedEvents> processedEvents, TransactionTemplate transactionTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        ProcessedEvents dedup = processedEvents.getIfAvailable();
+        if (dedup != null) {
+            factory.setContainerCustomizer(container -> container.setupMessageListener(
+                    new IdempotentMessageListener<String, Object>(container.getContainerProperties().getMessageListener(),
+                            container.getGroupId() != null ? container.getGroupId() : consumerGroupId,
+                            dedup, transactionTemplate)));
+        }
+        return factory;
+    }
+    
+    /**
+     * Dispatches records of key-ordered listeners across virtual threads.
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    public KeyOrderedDispatcher keyOrderedDispatcher() {
+        MessagingProperties.KeyOrderedConsumer settings = messagingProperties.getKeyOrderedConsumer();
+        return KeyOrderedDispatcher.create(settings.getMaxInFlight(), settings.getPlatformThreads());
+    }
+    
+    /**
+     * Creates a listener container factory that processes records concurrently per key.
+     * Throughput is no longer bounded by the partition count: records with different keys
+     * run in parallel, records with the same key (aggregate ID) in order. Offsets are committed
+     * only up to the lowest record that has not completed, and revoked partitions are handed over
+     * once their records in flight are done.
+     * Use with {@code @KafkaListener(containerFactory = "keyOrderedKafkaListenerContainerFactory")}.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> keyOrderedKafkaListenerContainerFactory() {
+        MessagingProperties.KeyOrderedConsumer settings = messagingProperties.getKeyOrderedConsumer();
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate());
+        
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        factory.setContainerCustomizer(container -> {
+            KeyOrderedMessageListener<String, Object> listener = new KeyOrderedMessageListener<>(
+                    container.getContainerProperties().getMessageListener(), keyOrderedDispatcher(), recoverer,
+                    settings.getMaxAttempts(), Duration.ofMillis(settings.getRetryBackoffMs()),
+                    Duration.ofMillis(settings.getRevocationTimeoutMs()));
+            container.setupMessageListener(listener);
+            // finishes the records of revoked partitions before they move to another consumer
+            container.getContainerProperties().setConsumerRebalanceListener(listener);
+        });
         return factory;
     }
     
@@ -88,4 +311,24 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
+    
+    /**
+     * Declares every topic domain events are routed to.
+     * Partition counts bound how far consumers can parallelise while keeping
+     * per-aggregate ordering, since records are keyed by aggregate ID.
+     */
+    @Bean
+    public KafkaAdmin.NewTopics routedTopics(EventRoutingTable routingTable, MessagingProperties properties) {
+        NewTopic[] topics = routingTable.topics().stream()
+                .map(topic -> {
+                    MessagingProperties.TopicSettings settings = properties.getTopics().get(topic);
+                    int partitions = settings != null && settings.getPartitions() != null
+                            ? settings.getPartitions() : properties.getDefaultPartitions();
+                    short replicas = settings != null && settings.getReplicas() != null
+                            ? settings.getReplicas() : properties.getDefaultReplicas();
+                    return TopicBuilder.name(topic).partitions(partitions).replicas(replicas).build();
+                })
+                .toArray(NewTopic[]::new);
+        return new KafkaAdmin.NewTopics(topics);
+    }
 } 
\ No newline at end of file
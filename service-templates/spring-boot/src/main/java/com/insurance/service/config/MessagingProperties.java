@@ -0,0 +1,409 @@
+package com.insurance.service.config;
+
+import com.insurance.service.infrastructure.messaging.ProducerProfile;
+import com.insurance.service.infrastructure.messaging.WireFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for domain event messaging.
+ * Defines how event types are routed to topics and how those topics are provisioned.
+ */
+@ConfigurationProperties(prefix = "insurance.messaging")
+public class MessagingProperties {
+
+    /**
+     * Bounded context that owns the events published by this service.
+     * Events without an explicit route go to {@code <bounded-context>.domain-events}.
+     */
+    private String boundedContext;
+
+    /**
+     * Event type to topic overrides, e.g. {@code ClaimSubmitted: claims.submissions}.
+     */
+    private Map<String, String> routes = new HashMap<>();
+
+    /**
+     * Per-topic provisioning settings. Topic names containing dots must be
+     * written as bracketed keys in YAML, e.g. {@code "[claims.domain-events]"}.
+     */
+    private Map<String, TopicSettings> topics = new HashMap<>();
+
+    /**
+     * Partition count for routed topics without explicit settings.
+     */
+    private int defaultPartitions = 3;
+
+    /**
+     * Replication factor for routed topics without explicit settings.
+     */
+    private short defaultReplicas = 1;
+
+    /**
+     * Settings of the throughput producer profile and its transactional variant.
+     */
+    private ThroughputProducer throughputProducer = new ThroughputProducer();
+
+    /**
+     * Settings of listeners using the key-ordered container factory.
+     */
+    private KeyOrderedConsumer keyOrderedConsumer = new KeyOrderedConsumer();
+
+    /**
+     * Settings of duplicate detection for listeners using the default container factory.
+     */
+    private IdempotentConsumer idempotentConsumer = new IdempotentConsumer();
+
+    public String getBoundedContext() {
+        return boundedContext;
+    }
+
+    public void setBoundedContext(String boundedContext) {
+        this.boundedContext = boundedContext;
+    }
+
+    public Map<String, String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, String> routes) {
+        this.routes = routes;
+    }
+
+    public Map<String, TopicSettings> getTopics() {
+        return topics;
+    }
+
+    public void setTopics(Map<String, TopicSettings> topics) {
+        this.topics = topics;
+    }
+
+    public int getDefaultPartitions() {
+        return defaultPartitions;
+    }
+
+    public void setDefaultPartitions(int defaultPartitions) {
+        this.defaultPartitions = defaultPartitions;
+    }
+
+    public short getDefaultReplicas() {
+        return defaultReplicas;
+    }
+
+    public void setDefaultReplicas(short defaultReplicas) {
+        this.defaultReplicas = defaultReplicas;
+    }
+
+    public ThroughputProducer getThroughputProducer() {
+        return throughputProducer;
+    }
+
+    public void setThroughputProducer(ThroughputProducer throughputProducer) {
+        this.throughputProducer = throughputProducer;
+    }
+
+    public KeyOrderedConsumer getKeyOrderedConsumer() {
+        return keyOrderedConsumer;
+    }
+
+    public void setKeyOrderedConsumer(KeyOrderedConsumer keyOrderedConsumer) {
+        this.keyOrderedConsumer = keyOrderedConsumer;
+    }
+
+    public IdempotentConsumer getIdempotentConsumer() {
+        return idempotentConsumer;
+    }
+
+    public void setIdempotentConsumer(IdempotentConsumer idempotentConsumer) {
+        this.idempotentConsumer = idempotentConsumer;
+    }
+
+    /**
+     * Provisioning settings for a single topic.
+     */
+    public static class TopicSettings {
+
+        private Integer partitions;
+        private Short replicas;
+        private ProducerProfile producerProfile = ProducerProfile.DEFAULT;
+        private WireFormat wireFormat = WireFormat.JSON;
+
+        /**
+         * Whether every event on the topic is appended to the event store, so projections
+         * consuming it can be replayed from there.
+         */
+        private boolean eventSourced;
+
+        public Integer getPartitions() {
+            return partitions;
+        }
+
+        public void setPartitions(Integer partitions) {
+            this.partitions = partitions;
+        }
+
+        public Short getReplicas() {
+            return replicas;
+        }
+
+        public void setReplicas(Short replicas) {
+            this.replicas = replicas;
+        }
+
+        public ProducerProfile getProducerProfile() {
+            return producerProfile;
+        }
+
+        public void setProducerProfile(ProducerProfile producerProfile) {
+            this.producerProfile = producerProfile;
+        }
+
+        public WireFormat getWireFormat() {
+            return wireFormat;
+        }
+
+        public void setWireFormat(WireFormat wireFormat) {
+            this.wireFormat = wireFormat;
+        }
+
+        public boolean isEventSourced() {
+            return eventSourced;
+        }
+
+        public void setEventSourced(boolean eventSourced) {
+            this.eventSourced = eventSourced;
+        }
+    }
+
+    /**
+     * Settings of the throughput producer profile.
+     */
+    public static class ThroughputProducer {
+
+        /**
+         * How long the producer waits to fill a batch before sending it.
+         */
+        private int lingerMs = 20;
+
+        /**
+         * Maximum batch size per partition, in bytes.
+         */
+        private int batchSize = 131072;
+
+        /**
+         * Compression codec applied to whole batches.
+         */
+        private String compressionType = "lz4";
+
+        /**
+         * Maximum unacknowledged requests per connection; at most 5 keeps ordering with idempotence.
+         */
+        private int maxInFlightRequests = 5;
+
+        /**
+         * Transactional id prefix for atomic multi-event publishing; must be unique per instance
+         * and stable across its restarts. Defaults to the application name and the host name.
+         */
+        private String transactionIdPrefix;
+
+        public int getLingerMs() {
+            return lingerMs;
+        }
+
+        public void setLingerMs(int lingerMs) {
+            this.lingerMs = lingerMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public String getCompressionType() {
+            return compressionType;
+        }
+
+        public void setCompressionType(String compressionType) {
+            this.compressionType = compressionType;
+        }
+
+        public int getMaxInFlightRequests() {
+            return maxInFlightRequests;
+        }
+
+        public void setMaxInFlightRequests(int maxInFlightRequests) {
+            this.maxInFlightRequests = maxInFlightRequests;
+        }
+
+        public String getTransactionIdPrefix() {
+            return transactionIdPrefix;
+        }
+
+        public void setTransactionIdPrefix(String transactionIdPrefix) {
+            this.transactionIdPrefix = transactionIdPrefix;
+        }
+    }
+
+    /**
+     * Settings of the key-ordered consumer mode.
+     */
+    public static class KeyOrderedConsumer {
+
+        /**
+         * Maximum records queued or being processed; the consumer thread blocks beyond it.
+         * Keep it well below what can be processed within max.poll.interval.ms.
+         */
+        private int maxInFlight = 1000;
+
+        /**
+         * Pool size used when virtual threads are unavailable (before Java 21).
+         */
+        private int platformThreads = 64;
+
+        /**
+         * Processing attempts per record before it is sent to the dead-letter topic.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Delay between processing attempts.
+         */
+        private long retryBackoffMs = 1000;
+
+        /**
+         * How long a consumer waits for the records of revoked partitions before handing them over.
+         * Keep it below max.poll.interval.ms.
+         */
+        private long revocationTimeoutMs = 30000;
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public int getPlatformThreads() {
+            return platformThreads;
+        }
+
+        public void setPlatformThreads(int platformThreads) {
+            this.platformThreads = platformThreads;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getRetryBackoffMs() {
+            return retryBackoffMs;
+        }
+
+        public void setRetryBackoffMs(long retryBackoffMs) {
+            this.retryBackoffMs = retryBackoffMs;
+        }
+
+        public long getRevocationTimeoutMs() {
+            return revocationTimeoutMs;
+        }
+
+        public void setRevocationTimeoutMs(long revocationTimeoutMs) {
+            this.revocationTimeoutMs = revocationTimeoutMs;
+        }
+    }
+
+    /**
+     * Settings of duplicate detection for consumed domain events.
+     */
+    public static class IdempotentConsumer {
+
+        /**
+         * Whether listeners on the default container factory skip events already processed.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long processed events are remembered; redeliveries after it are processed again.
+         */
+        private Duration retention = Duration.ofDays(7);
+
+        /**
+         * Events a consumer group processes per retention window, used to size its Bloom filter.
+         */
+        private long expectedEvents = 1_000_000;
+
+        /**
+         * Probability that a new event needs a store lookup at the expected load.
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * Recently processed event IDs cached per consumer group.
+         */
+        private long cacheSize = 100_000;
+
+        /**
+         * Delay between purges of processed events older than the retention window.
+         */
+        private long purgeIntervalMs = 300_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public long getExpectedEvents() {
+            return expectedEvents;
+        }
+
+        public void setExpectedEvents(long expectedEvents) {
+            this.expectedEvents = expectedEvents;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public long getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(long cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public long getPurgeIntervalMs() {
+            return purgeIntervalMs;
+        }
+
+        public void setPurgeIntervalMs(long purgeIntervalMs) {
+            this.purgeIntervalMs = purgeIntervalMs;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.insurance.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the in-process near cache of aggregates and read models.
+ * Caching is off unless enabled both globally, which starts the cluster-wide invalidation
+ * listener, and for the individual cache.
+ */
+@ConfigurationProperties(prefix = "insurance.near-cache")
+public class NearCacheProperties {
+
+    /**
+     * Starts the listener that invalidates cached entries from domain events.
+     * Without it no cache is enabled, whatever its own settings.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Settings for caches without an entry in {@link #caches}.
+     */
+    private CacheSettings defaults = new CacheSettings(false, 10_000L, Duration.ofMinutes(5));
+
+    /**
+     * Per-cache settings, keyed by aggregate class simple name or read model name.
+     */
+    private Map<String, CacheSettings> caches = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public CacheSettings getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(CacheSettings defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, CacheSettings> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, CacheSettings> caches) {
+        this.caches = caches;
+    }
+
+    /**
+     * Resolves the settings of a cache, falling back to the defaults for unset values.
+     *
+     * @param name The cache name
+     * @return The effective settings
+     */
+    public CacheSettings settingsFor(String name) {
+        CacheSettings specific = caches.getOrDefault(name, new CacheSettings());
+        boolean cacheEnabled = specific.getEnabled() != null
+                ? specific.getEnabled() : Boolean.TRUE.equals(defaults.getEnabled());
+        return new CacheSettings(enabled && cacheEnabled,
+                specific.getMaxSize() != null ? specific.getMaxSize() : defaults.getMaxSize(),
+                specific.getTtl() != null ? specific.getTtl() : defaults.getTtl());
+    }
+
+    /**
+     * Settings of one cache.
+     */
+    public static class CacheSettings {
+
+        /**
+         * Whether the cache stores entries; a disabled cache always calls its loader.
+         */
+        private Boolean enabled;
+
+        /**
+         * Maximum number of cached entries.
+         */
+        private Long maxSize;
+
+        /**
+         * Time after which an entry is reloaded even without an invalidation, bounding
+         * staleness when invalidations are missed.
+         */
+        private Duration ttl;
+
+        public CacheSettings() {
+        }
+
+        public CacheSettings(Boolean enabled, Long maxSize, Duration ttl) {
+            this.enabled = enabled;
+            this.maxSize = maxSize;
+            this.ttl = ttl;
+        }
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(Long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
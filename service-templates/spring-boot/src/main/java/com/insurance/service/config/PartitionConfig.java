@@ -0,0 +1,12 @@
+package com.insurance.service.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the maintenance of time-partitioned tables.
+ */
+@Configuration
+@EnableConfigurationProperties(PartitionProperties.class)
+public class PartitionConfig {
+}
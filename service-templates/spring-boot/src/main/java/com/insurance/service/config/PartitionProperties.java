@@ -0,0 +1,110 @@
+package com.insurance.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the maintenance of tables partitioned by day.
+ */
+@ConfigurationProperties(prefix = "insurance.partitions")
+public class PartitionProperties {
+
+    /**
+     * Delay between maintenance runs; the first run happens at startup.
+     */
+    private long maintenanceIntervalMs = 3_600_000;
+
+    /**
+     * Maintained tables by name. Each must be partitioned by range on a timestamp column.
+     */
+    private Map<String, TableSettings> tables = new HashMap<>();
+
+    public long getMaintenanceIntervalMs() {
+        return maintenanceIntervalMs;
+    }
+
+    public void setMaintenanceIntervalMs(long maintenanceIntervalMs) {
+        this.maintenanceIntervalMs = maintenanceIntervalMs;
+    }
+
+    public Map<String, TableSettings> getTables() {
+        return tables;
+    }
+
+    public void setTables(Map<String, TableSettings> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * What retention does with an expired partition.
+     */
+    public enum RetentionAction {
+        /**
+         * Detaches and drops the partition.
+         */
+        DROP,
+        /**
+         * Only detaches the partition, leaving a standalone table to archive.
+         */
+        DETACH
+    }
+
+    /**
+     * Maintenance settings of one partitioned table.
+     */
+    public static class TableSettings {
+
+        /**
+         * Daily partitions created ahead of the current day.
+         */
+        private int premakeDays = 7;
+
+        /**
+         * Age after which a partition expires, counted from its end; unset keeps partitions forever.
+         */
+        private Duration retention;
+
+        private RetentionAction retentionAction = RetentionAction.DROP;
+
+        /**
+         * SQL condition matching rows that must not expire, e.g. {@code processed = FALSE};
+         * a partition holding any such row is kept.
+         */
+        private String pendingPredicate;
+
+        public int getPremakeDays() {
+            return premakeDays;
+        }
+
+        public void setPremakeDays(int premakeDays) {
+            this.premakeDays = premakeDays;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public RetentionAction getRetentionAction() {
+            return retentionAction;
+        }
+
+        public void setRetentionAction(RetentionAction retentionAction) {
+            this.retentionAction = retentionAction;
+        }
+
+        public String getPendingPredicate() {
+            return pendingPredicate;
+        }
+
+        public void setPendingPredicate(String pendingPredicate) {
+            this.pendingPredicate = pendingPredicate;
+        }
+    }
+}
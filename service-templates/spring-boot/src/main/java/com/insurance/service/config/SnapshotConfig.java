@@ -0,0 +1,37 @@
+package com.insurance.service.config;
+
+import com.insurance.service.infrastructure.persistence.snapshot.SnapshotPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for aggregate snapshotting.
+ * Sets up the default snapshot policy for event-sourced repositories.
+ */
+@Configuration
+public class SnapshotConfig {
+
+    @Value("${insurance.snapshots.every-n-events:100}")
+    private int everyNEvents;
+
+    @Value("${insurance.snapshots.load-time-threshold-ms:50}")
+    private long loadTimeThresholdMs;
+
+    @Value("${insurance.snapshots.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Snapshots an aggregate once enough events had to be replayed, or when loading it was slow.
+     */
+    @Bean
+    public SnapshotPolicy snapshotPolicy() {
+        if (!enabled) {
+            return SnapshotPolicy.never();
+        }
+        return SnapshotPolicy.everyNEvents(everyNEvents)
+                .or(SnapshotPolicy.loadTimeExceeds(Duration.ofMillis(loadTimeThresholdMs)));
+    }
+}
@@ -1,5 +1,7 @@
 package com.insurance.service.domain.event;
 
+import com.insurance.service.domain.model.Ids;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -10,18 +12,20 @@ import java.util.UUID;
 public abstract class AbstractDomainEvent implements DomainEvent {
 
     private final UUID eventId;
+    private final UUID aggregateId;
     private final LocalDateTime timestamp;
     private final String eventType;
     private final String version;
 
     /**
-     * Creates a new domain event with a random ID and the current timestamp.
+     * Creates a new domain event with a new ID from {@link Ids} and the current timestamp.
      * The event type is derived from the implementing class.
      *
+     * @param aggregateId The identifier of the aggregate that raised this event
      * @param version The schema version of this event
      */
-    protected AbstractDomainEvent(String version) {
-        this(UUID.randomUUID(), LocalDateTime.now(), version);
+    protected AbstractDomainEvent(UUID aggregateId, String version) {
+        this(Ids.next(), aggregateId, LocalDateTime.now(), version);
     }
 
     /**
@@ -29,11 +33,13 @@ public abstract class AbstractDomainEvent implements DomainEvent {
      * The event type is derived from the implementing class.
      *
      * @param eventId The unique identifier for this event
+     * @param aggregateId The identifier of the aggregate that raised this event
      * @param timestamp The timestamp when this event occurred
      * @param version The schema version of this event
      */
-    protected AbstractDomainEvent(UUID eventId, LocalDateTime timestamp, String version) {
+    protected AbstractDomainEvent(UUID eventId, UUID aggregateId, LocalDateTime timestamp, String version) {
         this.eventId = eventId;
+        this.aggregateId = aggregateId;
         this.timestamp = timestamp;
         this.eventType = deriveEventType();
         this.version = version;
@@ -44,6 +50,11 @@ public abstract class AbstractDomainEvent implements DomainEvent {
         return eventId;
     }
 
+    @Override
+    public UUID getAggregateId() {
+        return aggregateId;
+    }
+
     @Override
     public LocalDateTime getTimestamp() {
         return timestamp;
@@ -17,6 +17,14 @@ public interface DomainEvent {
      */
     UUID getEventId();
 
+    /**
+     * Gets the identifier of the aggregate that raised this event.
+     * It is used as the partition key, so all events of an aggregate stay in order.
+     *
+     * @return The aggregate's ID
+     */
+    UUID getAggregateId();
+
     /**
      * Gets the timestamp when this event occurred.
      *
@@ -4,25 +4,41 @@ package com.insurance.service.domain.exception;
  * Base class for all domain-specific exceptions in the application.
  * Extends RuntimeException to be unchecked, as domain exceptions represent
  * exceptional states in the business logic that often cannot be recovered from.
+ * <p>
+ * Domain exceptions report expected outcomes such as invalid input or unknown entities,
+ * so by default they do not capture a stack trace, which costs more than the rest of a
+ * typical rejected request. Capturing can be switched on at startup for debugging.
  */
 public class DomainException extends RuntimeException {
 
+    private static volatile boolean captureStackTraces = false;
+
     /**
      * Creates a new domain exception with the specified message.
      *
      * @param message The detail message
      */
     public DomainException(String message) {
-        super(message);
+        super(message, null, true, captureStackTraces);
     }
 
     /**
      * Creates a new domain exception with the specified message and cause.
+     * The cause keeps its own stack trace.
      *
      * @param message The detail message
      * @param cause The cause of the exception
      */
     public DomainException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, true, captureStackTraces);
+    }
+
+    /**
+     * Sets whether domain exceptions created from now on capture their stack trace.
+     *
+     * @param enabled true to capture stack traces
+     */
+    public static void captureStackTraces(boolean enabled) {
+        captureStackTraces = enabled;
     }
-} 
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.insurance.service.domain.exception;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -18,7 +19,7 @@ public class ValidationException extends DomainException {
      */
     public ValidationException(String message) {
         super(message);
-        this.validationErrors = new HashMap<>();
+        this.validationErrors = Collections.emptyMap();
     }
 
     /**
@@ -29,7 +30,7 @@ public class ValidationException extends DomainException {
      */
     public ValidationException(String message, Map<String, String> validationErrors) {
         super(message);
-        this.validationErrors = new HashMap<>(validationErrors);
+        this.validationErrors = Collections.unmodifiableMap(new HashMap<>(validationErrors));
     }
 
     /**
@@ -40,17 +41,16 @@ public class ValidationException extends DomainException {
      */
     public ValidationException(String fieldName, String errorMessage) {
         super("Validation failed for field: " + fieldName);
-        this.validationErrors = new HashMap<>();
-        this.validationErrors.put(fieldName, errorMessage);
+        this.validationErrors = Collections.singletonMap(fieldName, errorMessage);
     }
 
     /**
      * Gets the validation errors as a map of field names to error messages.
      *
-     * @return The validation errors
+     * @return The validation errors, unmodifiable
      */
     public Map<String, String> getValidationErrors() {
-        return new HashMap<>(validationErrors);
+        return validationErrors;
     }
 
     /**
@@ -39,10 +39,10 @@ public abstract class BaseAggregateRoot {
 
     /**
      * Default constructor.
-     * Initializes the aggregate with a new random UUID and sets creation and update timestamps.
+     * Initializes the aggregate with a new ID from {@link Ids} and sets creation and update timestamps.
      */
     protected BaseAggregateRoot() {
-        this(UUID.randomUUID());
+        this(Ids.next());
     }
 
     /**
@@ -95,6 +95,15 @@ public abstract class BaseAggregateRoot {
         return version;
     }
 
+    /**
+     * Restores the version of an aggregate rebuilt from its history.
+     *
+     * @param version The version the aggregate was rebuilt to
+     */
+    void restoreVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Gets an unmodifiable view of the domain events registered by this aggregate.
      *
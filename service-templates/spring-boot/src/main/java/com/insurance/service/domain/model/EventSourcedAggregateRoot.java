@@ -0,0 +1,54 @@
+package com.insurance.service.domain.model;
+
+import com.insurance.service.domain.event.DomainEvent;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Base class for aggregate roots whose state is derived from their event stream.
+ * Subclasses change state only in {@link #apply(DomainEvent)}, so the same code path
+ * handles new events and the replay of stored ones.
+ */
+public abstract class EventSourcedAggregateRoot extends BaseAggregateRoot {
+
+    /**
+     * Creates a new event-sourced aggregate with the given ID.
+     *
+     * @param id The ID to assign to this aggregate
+     */
+    protected EventSourcedAggregateRoot(UUID id) {
+        super(id);
+    }
+
+    /**
+     * Applies an event to the aggregate state.
+     * Implementations must not validate or raise new events here; they only change state.
+     *
+     * @param event The event to apply
+     */
+    protected abstract void apply(DomainEvent event);
+
+    /**
+     * Applies a new event to the aggregate state and registers it for persistence.
+     *
+     * @param event The event raised by a command
+     */
+    protected void raise(DomainEvent event) {
+        apply(event);
+        registerEvent(event);
+    }
+
+    /**
+     * Rebuilds state by applying stored events in order.
+     *
+     * @param version The stream version reached after the last event
+     * @param events The stored events, oldest first
+     */
+    public final void replay(int version, List<? extends DomainEvent> events) {
+        for (DomainEvent event : events) {
+            apply(event);
+        }
+        restoreVersion(version);
+    }
+}
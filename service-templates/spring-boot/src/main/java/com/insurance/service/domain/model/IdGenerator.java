@@ -0,0 +1,37 @@
+package com.insurance.service.domain.model;
+
+import java.util.UUID;
+
+/**
+ * Generates identifiers for aggregates and domain events.
+ *
+ * @see Ids
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * Generates a new unique identifier.
+     *
+     * @return The identifier
+     */
+    UUID nextId();
+
+    /**
+     * Time-ordered UUIDv7 identifiers; consecutive inserts land next to each other in B-tree indexes.
+     *
+     * @return The generator
+     */
+    static IdGenerator timeOrdered() {
+        return TimeOrderedIdGenerator.INSTANCE;
+    }
+
+    /**
+     * Random UUIDv4 identifiers from {@link UUID#randomUUID()}.
+     *
+     * @return The generator
+     */
+    static IdGenerator random() {
+        return UUID::randomUUID;
+    }
+}
@@ -0,0 +1,34 @@
+package com.insurance.service.domain.model;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Source of identifiers for new aggregates and domain events.
+ * Uses time-ordered identifiers unless another {@link IdGenerator} is installed at startup.
+ */
+public final class Ids {
+
+    private static volatile IdGenerator generator = IdGenerator.timeOrdered();
+
+    private Ids() {
+    }
+
+    /**
+     * Generates a new identifier with the installed generator.
+     *
+     * @return The identifier
+     */
+    public static UUID next() {
+        return generator.nextId();
+    }
+
+    /**
+     * Installs the generator used for all identifiers generated from now on.
+     *
+     * @param idGenerator The generator
+     */
+    public static void use(IdGenerator idGenerator) {
+        generator = Objects.requireNonNull(idGenerator, "idGenerator");
+    }
+}
@@ -0,0 +1,41 @@
+package com.insurance.service.domain.model;
+
+/**
+ * Implemented by event-sourced aggregates that can be restored from a snapshot of their state.
+ *
+ * @param <S> The type of the snapshot state
+ */
+public interface Snapshottable<S> {
+
+    /**
+     * Captures the current state of the aggregate.
+     * The returned object is serialized asynchronously, so it must not share mutable
+     * state with the aggregate.
+     *
+     * @return An immutable copy of the aggregate state
+     */
+    S toSnapshot();
+
+    /**
+     * Restores the aggregate state from a snapshot.
+     *
+     * @param snapshot The snapshot state
+     */
+    void restoreSnapshot(S snapshot);
+
+    /**
+     * Gets the snapshot state type, used to deserialize stored snapshots.
+     *
+     * @return The snapshot state class
+     */
+    Class<S> snapshotType();
+
+    /**
+     * Gets the schema version of the snapshot state.
+     * Increment it whenever the snapshot type changes incompatibly; snapshots written
+     * with any other schema version are discarded and the aggregate is rebuilt from events.
+     *
+     * @return The snapshot schema version
+     */
+    int snapshotSchemaVersion();
+}
@@ -0,0 +1,145 @@
+package com.insurance.service.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded in-process cache of values keyed by aggregate ID, such as aggregates or read DTOs.
+ * Besides the entries, the cache remembers the latest aggregate version announced by an
+ * invalidation. An entry with an older version is never served, even if it was put into the
+ * cache by a load that raced with the invalidation, and a load returning an older version is
+ * not cached. Entries also expire after a TTL, which bounds staleness if invalidations are lost.
+ * <p>
+ * Cached values are shared between callers and threads, so they must not be modified.
+ *
+ * @param <V> The type of the cached values
+ */
+public class NearCache<V> {
+
+    private final String name;
+    private final boolean enabled;
+    private final ToIntFunction<? super V> versionOf;
+    private final Cache<UUID, Entry<V>> entries;
+    private final Cache<UUID, Integer> versionFloors;
+    private final Counter staleCounter;
+
+    NearCache(String name, boolean enabled, long maxSize, Duration ttl,
+              ToIntFunction<? super V> versionOf, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = enabled;
+        this.versionOf = versionOf;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Floors outlive any entry written before them, including one written by a racing load
+        this.versionFloors = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl.multipliedBy(2))
+                .build();
+        this.staleCounter = Counter.builder("insurance.near-cache.stale")
+                .description("Cached or loaded values discarded because a newer version was announced")
+                .tag("cache", name)
+                .register(meterRegistry);
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, entries, "near-cache." + name);
+        }
+    }
+
+    /**
+     * Gets the value of an aggregate, loading and caching it on a miss.
+     *
+     * @param id The aggregate ID
+     * @param loader Loads the current value, typically a repository lookup
+     * @return The value, or empty if the loader found none
+     */
+    public Optional<V> get(UUID id, Function<UUID, Optional<V>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        Entry<V> entry = entries.getIfPresent(id);
+        if (entry != null) {
+            if (isCurrent(id, entry.version)) {
+                return Optional.of(entry.value);
+            }
+            staleCounter.increment();
+            entries.asMap().remove(id, entry);
+        }
+
+        Optional<V> loaded = loader.apply(id);
+        loaded.ifPresent(value -> put(id, value));
+        return loaded;
+    }
+
+    /**
+     * Caches a value, unless a newer version is already cached or has been announced.
+     *
+     * @param id The aggregate ID
+     * @param value The value
+     */
+    public void put(UUID id, V value) {
+        if (!enabled) {
+            return;
+        }
+        Entry<V> loaded = new Entry<>(versionOf.applyAsInt(value), value);
+        if (!isCurrent(id, loaded.version)) {
+            // read before the change that announced the newer version was visible
+            staleCounter.increment();
+            return;
+        }
+        entries.asMap().merge(id, loaded,
+                (current, candidate) -> candidate.version >= current.version ? candidate : current);
+    }
+
+    /**
+     * Invalidates the value of an aggregate.
+     *
+     * @param id The aggregate ID
+     * @param version The aggregate version after the change, or null if unknown,
+     *                in which case only the current entry is dropped
+     */
+    public void invalidate(UUID id, Integer version) {
+        if (!enabled) {
+            return;
+        }
+        if (version == null) {
+            entries.invalidate(id);
+            return;
+        }
+        versionFloors.asMap().merge(id, version, Math::max);
+        entries.asMap().computeIfPresent(id, (key, entry) -> entry.version >= version ? entry : null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private boolean isCurrent(UUID id, int version) {
+        Integer floor = versionFloors.getIfPresent(id);
+        return floor == null || version >= floor;
+    }
+
+    private static final class Entry<V> {
+        private final int version;
+        private final V value;
+
+        private Entry(int version, V value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
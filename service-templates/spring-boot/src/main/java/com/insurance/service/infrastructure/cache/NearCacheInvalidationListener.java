@@ -0,0 +1,52 @@
+package com.insurance.service.infrastructure.cache;
+
+import com.insurance.service.infrastructure.messaging.OutboxRelay;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Invalidates near cache entries from the domain events of this service.
+ * Every instance consumes all partitions in a consumer group of its own, starting at the
+ * latest offset. Only record keys (aggregate IDs) and the aggregate version header are read;
+ * event payloads are not deserialized.
+ */
+@Component
+@ConditionalOnProperty(prefix = "insurance.near-cache", name = "enabled", havingValue = "true")
+public class NearCacheInvalidationListener {
+
+    private final NearCaches nearCaches;
+
+    public NearCacheInvalidationListener(NearCaches nearCaches) {
+        this.nearCaches = nearCaches;
+    }
+
+    @KafkaListener(topics = "#{@eventRoutingTable.topics()}",
+            groupId = "${spring.application.name}.near-cache.${random.uuid}",
+            containerFactory = "nearCacheInvalidationContainerFactory")
+    public void onEvent(ConsumerRecord<String, byte[]> record) {
+        UUID aggregateId = parseId(record.key());
+        if (aggregateId == null) {
+            return;
+        }
+        Header version = record.headers().lastHeader(OutboxRelay.AGGREGATE_VERSION_HEADER);
+        nearCaches.invalidate(aggregateId,
+                version != null ? Integer.valueOf(new String(version.value(), StandardCharsets.UTF_8)) : null);
+    }
+
+    private static UUID parseId(String key) {
+        if (key == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(key);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.insurance.service.infrastructure.cache;
+
+import com.insurance.service.config.NearCacheProperties;
+import com.insurance.service.domain.model.BaseAggregateRoot;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Registry of the near caches of a service.
+ * Caches are created on first use from {@code insurance.near-cache}, and are disabled unless
+ * both near caching and the individual cache are enabled. All caches are keyed by aggregate ID,
+ * so an invalidation for an aggregate reaches its cached aggregate and every read DTO of it.
+ */
+public class NearCaches {
+
+    private final NearCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, NearCache<?>> caches = new ConcurrentHashMap<>();
+
+    public NearCaches(NearCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Gets the cache of an aggregate type, configured under its simple class name.
+     * Use it for read paths only; cached aggregates must not be modified or saved.
+     *
+     * @param type The aggregate class
+     * @param <T> The aggregate type
+     * @return The cache
+     */
+    public <T extends BaseAggregateRoot> NearCache<T> forAggregate(Class<T> type) {
+        return cache(type.getSimpleName(), BaseAggregateRoot::getVersion);
+    }
+
+    /**
+     * Gets the cache of a read DTO keyed by aggregate ID.
+     *
+     * @param name The cache name
+     * @param versionOf Extracts the aggregate version the DTO was built from
+     * @param <V> The DTO type
+     * @return The cache
+     */
+    public <V> NearCache<V> forReadModel(String name, ToIntFunction<? super V> versionOf) {
+        return cache(name, versionOf);
+    }
+
+    /**
+     * Invalidates an aggregate in every cache.
+     *
+     * @param aggregateId The aggregate ID
+     * @param version The aggregate version after the change, or null if unknown
+     */
+    public void invalidate(UUID aggregateId, Integer version) {
+        for (NearCache<?> cache : caches.values()) {
+            cache.invalidate(aggregateId, version);
+        }
+    }
+
+    /**
+     * Invalidates an aggregate in every cache once the current transaction commits,
+     * so the instance that made a change reads it back without waiting for its event.
+     *
+     * @param aggregateId The aggregate ID
+     * @param version The aggregate version after the change, or null if unknown
+     */
+    public void invalidateAfterCommit(UUID aggregateId, Integer version) {
+        if (caches.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(aggregateId, version);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(aggregateId, version);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> NearCache<V> cache(String name, ToIntFunction<? super V> versionOf) {
+        return (NearCache<V>) caches.computeIfAbsent(name, key -> {
+            NearCacheProperties.CacheSettings settings = properties.settingsFor(key);
+            return new NearCache<V>(key, settings.getEnabled(), settings.getMaxSize(), settings.getTtl(),
+                    versionOf, meterRegistry);
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package com.insurance.service.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key into one.
+ * The first caller for a key runs the load on its own thread; callers arriving while it is in
+ * flight wait for it and receive the same result, or the same exception. The key is released as
+ * soon as the load ends, whether it succeeded or failed, so nothing is cached and a failed load
+ * is retried by the next caller. Waiting parks the thread without holding a monitor, which
+ * keeps virtual threads unpinned.
+ * <p>
+ * Results are shared between callers and threads, so they must not be modified. A load must
+ * not request its own key, which would wait for itself.
+ *
+ * @param <K> The key type
+ * @param <V> The result type
+ */
+public class SingleFlight<K, V> {
+
+    static final String CALLS_COUNTER = "insurance.single-flight.calls";
+    static final String IN_FLIGHT_GAUGE = "insurance.single-flight.in.flight";
+
+    private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter shared;
+
+    /**
+     * @param name The name of the loads, used as the meter tag
+     * @param registry The registry of the meters
+     */
+    public SingleFlight(String name, MeterRegistry registry) {
+        this.loads = counter(name, "load", registry);
+        this.shared = counter(name, "shared", registry);
+        Gauge.builder(IN_FLIGHT_GAUGE, calls, Map::size)
+                .description("Keys with a load in flight")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    /**
+     * Runs a load, or joins the one in flight for the same key.
+     *
+     * @param key The key
+     * @param loader The load, run on the calling thread if no load for the key is in flight
+     * @return The result of the load
+     */
+    public V load(K key, Supplier<? extends V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, call);
+        if (inFlight != null) {
+            shared.increment();
+            return await(inFlight);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter counter(String name, String result, MeterRegistry registry) {
+        return Counter.builder(CALLS_COUNTER)
+                .description("Calls that ran a load or shared the result of one in flight")
+                .tag("name", name)
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,95 @@
+package com.insurance.service.infrastructure.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer instrumentation of domain event publishing.
+ * Records send latency as a histogram per topic and event type, the number of sends awaiting
+ * acknowledgement, and failures per exception type. Meters are looked up once per topic and
+ * event type and then cached, so recording a send does not allocate tags.
+ */
+@Component
+public class EventPublishMetrics {
+
+    static final String PUBLISH_TIMER = "insurance.events.publish";
+    static final String IN_FLIGHT_GAUGE = "insurance.events.publish.in.flight";
+    static final String FAILURE_COUNTER = "insurance.events.publish.failures";
+
+    private final MeterRegistry registry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, Map<String, Timer>> successTimers = new ConcurrentHashMap<>();
+
+    public EventPublishMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+                .description("Domain events sent to Kafka and not yet acknowledged")
+                .register(registry);
+    }
+
+    /**
+     * Marks the start of a send.
+     *
+     * @return The start time to pass to {@link #sendCompleted}
+     */
+    public long sendStarted() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the outcome of a send.
+     *
+     * @param startNanos The start time returned by {@link #sendStarted}
+     * @param topic The topic the event was sent to
+     * @param eventType The event type
+     * @param failure The failure, or null if the send succeeded
+     */
+    public void sendCompleted(long startNanos, String topic, String eventType, Throwable failure) {
+        long elapsed = System.nanoTime() - startNanos;
+        inFlight.decrementAndGet();
+        if (failure == null) {
+            successTimers.computeIfAbsent(topic, t -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(eventType, type -> timer(topic, type, "success"))
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            return;
+        }
+        timer(topic, eventType, "failure").record(elapsed, TimeUnit.NANOSECONDS);
+        Counter.builder(FAILURE_COUNTER)
+                .description("Domain events that could not be sent to Kafka")
+                .tag("topic", topic)
+                .tag("event.type", eventType)
+                .tag("exception", rootCause(failure).getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    private Timer timer(String topic, String eventType, String outcome) {
+        return Timer.builder(PUBLISH_TIMER)
+                .description("Time from handing a domain event to the producer until the broker acknowledged it")
+                .tag("topic", topic)
+                .tag("event.type", eventType)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+
+    private static Throwable rootCause(Throwable failure) {
+        Throwable cause = failure;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
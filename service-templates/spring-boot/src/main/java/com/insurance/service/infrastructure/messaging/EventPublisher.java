@@ -3,11 +3,15 @@ package com.insurance.service.infrastructure.messaging;
 import com.insurance.service.domain.event.DomainEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * Publisher for domain events to Kafka topics.
@@ -19,48 +23,103 @@ public class EventPublisher {
     private static final Logger log = LoggerFactory.getLogger(EventPublisher.class);
     
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaTemplate<String, Object> throughputKafkaTemplate;
+    private final KafkaTemplate<String, Object> transactionalKafkaTemplate;
+    private final EventRoutingTable routingTable;
+    private final Executor callbackExecutor;
+    private final EventPublishMetrics metrics;
     
-    public EventPublisher(KafkaTemplate<String, Object> kafkaTemplate) {
+    public EventPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                          @Qualifier("throughputKafkaTemplate") KafkaTemplate<String, Object> throughputKafkaTemplate,
+                          @Qualifier("transactionalKafkaTemplate") KafkaTemplate<String, Object> transactionalKafkaTemplate,
+                          EventRoutingTable routingTable,
+                          @Qualifier("applicationTaskExecutor") Executor callbackExecutor,
+                          EventPublishMetrics metrics) {
         this.kafkaTemplate = kafkaTemplate;
+        this.throughputKafkaTemplate = throughputKafkaTemplate;
+        this.transactionalKafkaTemplate = transactionalKafkaTemplate;
+        this.routingTable = routingTable;
+        this.callbackExecutor = callbackExecutor;
+        this.metrics = metrics;
     }
     
     /**
      * Publishes a domain event to the appropriate Kafka topic.
-     * The topic is determined by the event type.
+     * The topic is determined by the event type and the record is keyed by aggregate ID.
+     * Send latency, in-flight sends and failures are recorded in {@link EventPublishMetrics};
+     * individual events are only logged at DEBUG, and failures at ERROR. Log output is written
+     * on the application task executor so that the producer's network thread is never held up.
      *
      * @param event The domain event to publish
      * @param <T> The type of the domain event
      * @return A CompletableFuture for the send operation
      */
     public <T extends DomainEvent> CompletableFuture<SendResult<String, Object>> publishEvent(T event) {
-        String topic = determineTopicForEvent(event);
-        String key = event.getEventId().toString();
+        String topic = routingTable.topicFor(event.getEventType());
+        return instrumentedSend(topic, event, () -> templateFor(topic).send(topic, routingTable.keyFor(event), event));
+    }
+    
+    /**
+     * Publishes several domain events in a single Kafka transaction.
+     * Consumers reading committed data see either all of the events or none of them.
+     *
+     * @param events The domain events to publish
+     * @return A CompletableFuture that completes once the transaction has committed
+     */
+    public CompletableFuture<Void> publishEventsAtomically(List<? extends DomainEvent> events) {
+        if (log.isDebugEnabled()) {
+            log.debug("Publishing {} events in one transaction", events.size());
+        }
+        
+        List<CompletableFuture<SendResult<String, Object>>> futures = transactionalKafkaTemplate.executeInTransaction(operations ->
+                events.stream()
+                        .map(event -> {
+                            String topic = routingTable.topicFor(event.getEventType());
+                            return instrumentedSend(topic, event,
+                                    () -> operations.send(topic, routingTable.keyFor(event), (Object) event));
+                        })
+                        .toList());
         
-        log.info("Publishing event of type {} with ID {} to topic {}", 
-                event.getEventType(), event.getEventId(), topic);
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+    
+    private CompletableFuture<SendResult<String, Object>> instrumentedSend(
+            String topic, DomainEvent event, Supplier<CompletableFuture<SendResult<String, Object>>> send) {
+        if (log.isDebugEnabled()) {
+            log.debug("Publishing event of type {} with ID {} to topic {}",
+                    event.getEventType(), event.getEventId(), topic);
+        }
         
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(topic, key, event);
+        long start = metrics.sendStarted();
+        CompletableFuture<SendResult<String, Object>> future;
+        try {
+            future = send.get();
+        } catch (RuntimeException e) {
+            metrics.sendCompleted(start, topic, event.getEventType(), e);
+            throw e;
+        }
         
         future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                log.info("Event published successfully to topic {}, offset {}", 
-                        result.getRecordMetadata().topic(), result.getRecordMetadata().offset());
-            } else {
-                log.error("Failed to publish event {} to topic {}", event.getEventId(), topic, ex);
+            metrics.sendCompleted(start, topic, event.getEventType(), ex);
+            if (ex != null || log.isDebugEnabled()) {
+                callbackExecutor.execute(() -> logOutcome(event, topic, result, ex));
             }
         });
-        
         return future;
     }
     
-    /**
-     * Determines the appropriate Kafka topic for a given event type.
-     * Convention: [application-name].[event-type-plural] (e.g., claims.domain-events)
-     *
-     * @param event The domain event
-     * @return The topic name
-     */
-    private <T extends DomainEvent> String determineTopicForEvent(T event) {
-        return "domain-events"; // Default topic
+    private static void logOutcome(DomainEvent event, String topic, SendResult<String, Object> result, Throwable ex) {
+        if (ex == null) {
+            log.debug("Event published successfully to topic {}, offset {}",
+                    result.getRecordMetadata().topic(), result.getRecordMetadata().offset());
+        } else {
+            log.error("Failed to publish event {} to topic {}", event.getEventId(), topic, ex);
+        }
+    }
+    
+    private KafkaTemplate<String, Object> templateFor(String topic) {
+        return routingTable.profileFor(topic) == ProducerProfile.THROUGHPUT
+                ? throughputKafkaTemplate
+                : kafkaTemplate;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.insurance.service.infrastructure.messaging;
+
+import com.insurance.service.config.MessagingProperties;
+import com.insurance.service.domain.event.DomainEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Routes domain events to Kafka topics.
+ * Event types can be routed to dedicated topics; all other events go to the bounded
+ * context's {@code <bounded-context>.domain-events} topic. Records are keyed by aggregate ID,
+ * so all events of one aggregate land on the same partition and keep their order.
+ */
+@Component
+public class EventRoutingTable {
+
+    private final String defaultTopic;
+    private final Map<String, String> routes;
+    private final Set<String> topics;
+    private final Map<String, ProducerProfile> profiles;
+    private final Map<String, WireFormat> wireFormats;
+    private final Set<String> eventSourcedTopics;
+
+    public EventRoutingTable(MessagingProperties properties,
+                             @Value("${spring.application.name}") String applicationName) {
+        String boundedContext = StringUtils.hasText(properties.getBoundedContext())
+                ? properties.getBoundedContext()
+                : applicationName;
+        this.defaultTopic = boundedContext + ".domain-events";
+        this.routes = Map.copyOf(properties.getRoutes());
+
+        Set<String> allTopics = new LinkedHashSet<>();
+        allTopics.add(defaultTopic);
+        allTopics.addAll(routes.values());
+        this.topics = Collections.unmodifiableSet(allTopics);
+
+        Map<String, ProducerProfile> topicProfiles = new HashMap<>();
+        Map<String, WireFormat> topicWireFormats = new HashMap<>();
+        Set<String> eventSourced = new HashSet<>();
+        properties.getTopics().forEach((topic, settings) -> {
+            if (settings.getProducerProfile() != null) {
+                topicProfiles.put(topic, settings.getProducerProfile());
+            }
+            if (settings.getWireFormat() != null) {
+                topicWireFormats.put(topic, settings.getWireFormat());
+            }
+            if (settings.isEventSourced()) {
+                eventSourced.add(topic);
+            }
+        });
+        this.profiles = Map.copyOf(topicProfiles);
+        this.wireFormats = Map.copyOf(topicWireFormats);
+        this.eventSourcedTopics = Set.copyOf(eventSourced);
+    }
+
+    /**
+     * Determines the topic for an event type.
+     *
+     * @param eventType The event type
+     * @return The topic name
+     */
+    public String topicFor(String eventType) {
+        return routes.getOrDefault(eventType, defaultTopic);
+    }
+
+    /**
+     * Determines the producer profile a topic is published with.
+     *
+     * @param topic The topic name
+     * @return The configured profile, or {@link ProducerProfile#DEFAULT}
+     */
+    public ProducerProfile profileFor(String topic) {
+        return profiles.getOrDefault(topic, ProducerProfile.DEFAULT);
+    }
+
+    /**
+     * Determines the encoding events are published with on a topic.
+     *
+     * @param topic The topic name
+     * @return The configured wire format, or {@link WireFormat#JSON}
+     */
+    public WireFormat wireFormatFor(String topic) {
+        return wireFormats.getOrDefault(topic, WireFormat.JSON);
+    }
+
+    /**
+     * Determines whether every event on a topic is also in the event store.
+     *
+     * @param topic The topic name
+     * @return Whether the topic is configured as event-sourced
+     */
+    public boolean isEventSourced(String topic) {
+        return eventSourcedTopics.contains(topic);
+    }
+
+    /**
+     * Determines the partition key for an event.
+     * Events that are not bound to an aggregate fall back to their own ID.
+     *
+     * @param event The domain event
+     * @return The record key
+     */
+    public String keyFor(DomainEvent event) {
+        return event.getAggregateId() != null
+                ? event.getAggregateId().toString()
+                : event.getEventId().toString();
+    }
+
+    /**
+     * Gets all topics events can be routed to.
+     *
+     * @return The routed topics
+     */
+    public Set<String> topics() {
+        return topics;
+    }
+}
@@ -0,0 +1,100 @@
+package com.insurance.service.infrastructure.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks concurrently across keys while keeping tasks with the same key in submission order.
+ * Each key's tasks are chained onto the previous task for that key; unrelated keys run in parallel
+ * up to a bound on the number of tasks in flight. Tasks run on virtual threads on Java 21 and on a
+ * fixed platform thread pool otherwise.
+ */
+public class KeyOrderedDispatcher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+
+    private static final String THREAD_NAME_PREFIX = "key-ordered-";
+
+    private final Executor executor;
+    private final Semaphore inFlight;
+    private final ConcurrentHashMap<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedDispatcher(Executor executor, int maxInFlight) {
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Creates a dispatcher on virtual threads, falling back to a platform thread pool before Java 21.
+     *
+     * @param maxInFlight The maximum number of tasks queued or running
+     * @param platformThreads The pool size used when virtual threads are unavailable
+     * @return The dispatcher
+     */
+    public static KeyOrderedDispatcher create(int maxInFlight, int platformThreads) {
+        Executor executor;
+        try {
+            executor = new VirtualThreadTaskExecutor(THREAD_NAME_PREFIX);
+        } catch (UnsupportedOperationException e) {
+            log.info("Virtual threads unavailable, dispatching on {} platform threads", platformThreads);
+            executor = Executors.newFixedThreadPool(platformThreads, new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+        }
+        return new KeyOrderedDispatcher(executor, maxInFlight);
+    }
+
+    /**
+     * Schedules a task after all previously dispatched tasks with the same key.
+     * Blocks while the maximum number of tasks is in flight, which applies backpressure to the caller.
+     * A failed task does not stop later tasks with the same key.
+     *
+     * @param key The ordering key
+     * @param task The task
+     * @return A future completed when the task has run
+     * @throws InterruptedException if interrupted while waiting for capacity
+     */
+    public CompletableFuture<Void> dispatch(Object key, Runnable task) throws InterruptedException {
+        inFlight.acquire();
+        CompletableFuture<Void> run;
+        try {
+            run = tails.compute(key, (k, tail) -> tail == null
+                    ? CompletableFuture.runAsync(task, executor)
+                    : tail.handle((result, ex) -> null).thenRunAsync(task, executor));
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        // completes only after the key is released, so callers never observe it as still active
+        return run.whenComplete((result, ex) -> {
+            tails.remove(key, run);
+            inFlight.release();
+        });
+    }
+
+    /**
+     * Gets the number of keys with tasks queued or running.
+     *
+     * @return The number of active keys
+     */
+    public int activeKeys() {
+        return tails.size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.insurance.service.infrastructure.messaging;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.GenericMessageListener;
+import org.springframework.kafka.listener.ListenerType;
+import org.springframework.kafka.listener.ListenerUtils;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Hands each record to a {@link KeyOrderedDispatcher} instead of processing it on the consumer thread.
+ * Records with the same key are processed in order; records with different keys in parallel.
+ * A record is acknowledged once processed, and the container commits offsets only up to the
+ * lowest record that has not completed yet, so it must run with manual, asynchronous acks.
+ * <p>
+ * The wrapped listener runs off the consumer thread, so it must not declare a {@link Consumer}
+ * parameter. An {@link Acknowledgment} parameter receives one that does nothing, as the record is
+ * acknowledged once the listener returns. Failed records are retried with a fixed backoff and then
+ * handed to the recoverer, typically a dead-letter publisher. A record that cannot be recovered
+ * either, for example because the dead-letter topic is unavailable, would hold back offset commits
+ * for good, so recovery is retried with a growing backoff until it succeeds or the listener stops.
+ * <p>
+ * The listener must also be the container's rebalance listener. When partitions are revoked, it
+ * waits for their records still in flight and commits the offsets past them before the partitions
+ * are handed over, so the new owner neither receives them again nor runs them alongside records of
+ * the same key here. Records still running after the revocation timeout are left uncommitted and
+ * may be processed again by the new owner.
+ *
+ * @param <K> The record key type
+ * @param <V> The record value type
+ */
+public class KeyOrderedMessageListener<K, V>
+        implements AcknowledgingConsumerAwareMessageListener<K, V>, ConsumerAwareRebalanceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedMessageListener.class);
+
+    private static final Duration MAX_RECOVERY_BACKOFF = Duration.ofMinutes(1);
+
+    // the record is acknowledged once the listener returns, whatever the listener does
+    private static final Acknowledgment NO_OP_ACKNOWLEDGMENT = () -> { };
+
+    private final GenericMessageListener<ConsumerRecord<K, V>> delegate;
+    private final ListenerType delegateType;
+    private final KeyOrderedDispatcher dispatcher;
+    private final ConsumerRecordRecoverer recoverer;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration revocationTimeout;
+    // shared by the consumers of a concurrent container, each touching only its own partitions
+    private final Map<TopicPartition, Set<CompletableFuture<Void>>> inFlight = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Long> lastDispatched = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public KeyOrderedMessageListener(Object delegate, KeyOrderedDispatcher dispatcher,
+                                     ConsumerRecordRecoverer recoverer, int maxAttempts, Duration retryBackoff,
+                                     Duration revocationTimeout) {
+        this.delegate = (GenericMessageListener<ConsumerRecord<K, V>>) delegate;
+        this.delegateType = ListenerUtils.determineListenerType(delegate);
+        this.dispatcher = dispatcher;
+        this.recoverer = recoverer;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.revocationTimeout = revocationTimeout;
+    }
+
+    @Override
+    public void onMessage(ConsumerRecord<K, V> record, Acknowledgment acknowledgment, Consumer<?, ?> consumer) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        Set<CompletableFuture<Void>> pending = inFlight.computeIfAbsent(partition, p -> ConcurrentHashMap.newKeySet());
+        CompletableFuture<Void> done;
+        try {
+            done = dispatcher.dispatch(orderingKey(record), () -> process(record))
+                    .whenComplete((result, ex) -> {
+                        if (ex == null) {
+                            acknowledgment.acknowledge();
+                        } else {
+                            // only when stopping: the record is redelivered after the restart
+                            log.warn("Record {}-{}@{} was not processed before the listener stopped",
+                                    record.topic(), record.partition(), record.offset(), ex);
+                        }
+                    });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while dispatching record at offset " + record.offset(), e);
+        }
+        pending.add(done);
+        done.whenComplete((result, ex) -> pending.remove(done));
+        lastDispatched.put(partition, record.offset());
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        long deadline = System.nanoTime() + revocationTimeout.toNanos();
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            Set<CompletableFuture<Void>> pending = inFlight.remove(partition);
+            Long last = lastDispatched.remove(partition);
+            if (last == null) {
+                continue;
+            }
+            // records are dispatched in offset order, so once none is left every one up to the last is done
+            if (pending == null || awaitAll(pending, deadline)) {
+                offsets.put(partition, new OffsetAndMetadata(last + 1));
+            } else {
+                log.warn("Records of revoked partition {} still running after {}; the new owner may process them again",
+                        partition, revocationTimeout);
+            }
+        }
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // already owned by another consumer; nothing can be committed for them any more
+        for (TopicPartition partition : partitions) {
+            inFlight.remove(partition);
+            lastDispatched.remove(partition);
+        }
+    }
+
+    private static boolean awaitAll(Set<CompletableFuture<Void>> pending, long deadline) {
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    private void process(ConsumerRecord<K, V> record) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                switch (delegateType) {
+                    case SIMPLE -> delegate.onMessage(record);
+                    case ACKNOWLEDGING -> delegate.onMessage(record, NO_OP_ACKNOWLEDGMENT);
+                    case CONSUMER_AWARE -> delegate.onMessage(record, (Consumer<?, ?>) null);
+                    default -> delegate.onMessage(record, NO_OP_ACKNOWLEDGMENT, null);
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Record {}-{}@{} failed after {} attempts, recovering",
+                            record.topic(), record.partition(), record.offset(), attempt, e);
+                    recover(record, e);
+                    return;
+                }
+                log.debug("Record {}-{}@{} failed on attempt {}, retrying",
+                        record.topic(), record.partition(), record.offset(), attempt, e);
+                sleep(retryBackoff);
+            }
+        }
+    }
+
+    private void recover(ConsumerRecord<K, V> record, RuntimeException failure) {
+        Duration backoff = retryBackoff;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                recoverer.accept(record, failure);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Recovering record {}-{}@{} failed on attempt {}, retrying in {}; offset commits are held back",
+                        record.topic(), record.partition(), record.offset(), attempt, backoff, e);
+                sleep(backoff);
+                backoff = backoff.multipliedBy(2).compareTo(MAX_RECOVERY_BACKOFF) < 0
+                        ? backoff.multipliedBy(2)
+                        : MAX_RECOVERY_BACKOFF;
+            }
+        }
+    }
+
+    private static Object orderingKey(ConsumerRecord<?, ?> record) {
+        // records without a key are ordered per partition, as with the default container
+        return record.key() != null
+                ? record.topic() + '/' + record.key()
+                : record.topic() + '#' + record.partition();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during retry backoff", e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.insurance.service.infrastructure.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.domain.model.BaseAggregateRoot;
+import com.insurance.service.infrastructure.cache.NearCaches;
+import com.insurance.service.infrastructure.persistence.bulk.PgCopy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes domain events to the transactional outbox.
+ * Events are inserted into {@code outbox_events} within the caller's transaction,
+ * so they are committed or rolled back atomically with the aggregate that raised them.
+ * Delivery to Kafka is handled asynchronously by the {@link OutboxRelay}.
+ */
+@Component
+public class OutboxEventWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (id, aggregate_type, aggregate_id, aggregate_version, event_type, "
+                    + "payload_type, payload, created_at) VALUES (?, ?, ?, ?, ?, ?, CAST(? AS JSONB), ?)";
+
+    private static final List<String> COPY_COLUMNS = Arrays.asList("id", "aggregate_type", "aggregate_id",
+            "aggregate_version", "event_type", "payload_type", "payload", "created_at");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final NearCaches nearCaches;
+
+    public OutboxEventWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, NearCaches nearCaches) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.nearCaches = nearCaches;
+    }
+
+    /**
+     * Appends all pending domain events of an aggregate to the outbox and clears them
+     * from the aggregate. The events carry the aggregate version, and the near caches of
+     * this instance drop older versions of the aggregate once the transaction commits.
+     *
+     * @param aggregate The aggregate whose events should be published
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(BaseAggregateRoot aggregate) {
+        append(aggregate.getClass().getSimpleName(), aggregate.getId(), aggregate.getVersion(), aggregate.domainEvents());
+        aggregate.clearEvents();
+        nearCaches.invalidateAfterCommit(aggregate.getId(), aggregate.getVersion());
+    }
+
+    /**
+     * Appends the given domain events to the outbox using a single JDBC batch.
+     *
+     * @param aggregateType The type of the aggregate that raised the events
+     * @param aggregateId The identifier of the aggregate that raised the events
+     * @param events The events to append
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, UUID aggregateId, Collection<? extends DomainEvent> events) {
+        append(aggregateType, aggregateId, null, events);
+    }
+
+    /**
+     * Appends the given domain events, raised at a known aggregate version, to the outbox.
+     *
+     * @param aggregateType The type of the aggregate that raised the events
+     * @param aggregateId The identifier of the aggregate that raised the events
+     * @param aggregateVersion The version of the aggregate after the change, or null if unknown
+     * @param events The events to append
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, UUID aggregateId, Integer aggregateVersion,
+                       Collection<? extends DomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (DomainEvent event : events) {
+            rows.add(new Object[] {
+                    event.getEventId(),
+                    aggregateType,
+                    aggregateId,
+                    aggregateVersion,
+                    event.getEventType(),
+                    event.getClass().getName(),
+                    serialize(event),
+                    Timestamp.valueOf(event.getTimestamp())
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    /**
+     * Appends the events of many aggregates to the outbox with {@code COPY}, for bulk ingestion.
+     * Each event is recorded against its own aggregate ID.
+     *
+     * @param aggregateType The type of the aggregates that raised the events
+     * @param aggregateVersion The version of the aggregates after the change that raised the events
+     * @param events The events to append
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void copy(String aggregateType, int aggregateVersion, Collection<? extends DomainEvent> events) {
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (DomainEvent event : events) {
+            rows.add(new Object[] {
+                    event.getEventId(),
+                    aggregateType,
+                    event.getAggregateId(),
+                    aggregateVersion,
+                    event.getEventType(),
+                    event.getClass().getName(),
+                    serialize(event),
+                    event.getTimestamp()
+            });
+        }
+        PgCopy.copyIn(jdbcTemplate, "outbox_events", COPY_COLUMNS, rows);
+    }
+
+    private String serialize(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event " + event.getEventId(), e);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.insurance.service.infrastructure.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.infrastructure.messaging.codec.BinaryEventCodec;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Relays events from the transactional outbox to Kafka.
+ * Each run claims a batch of unprocessed rows with {@code FOR UPDATE SKIP LOCKED},
+ * publishes them, and marks the delivered rows as processed with a single update. Row locks are held until the
+ * batch is marked, so several replicas can drain the outbox concurrently without
+ * publishing the same row twice. Delivery is at-least-once: a crash between the
+ * broker acknowledgement and the commit republishes the batch.
+ * <p>
+ * Events of one aggregate are delivered in the order they were written, by creation time, aggregate
+ * version and insertion sequence. A replica only relays the claimed rows of an aggregate up to the
+ * first unprocessed row of it that another replica holds or that the claim skipped, so replicas
+ * never publish events of the same aggregate concurrently or out of order. Within a batch, rows are sent in rounds: each round
+ * sends the next row of every aggregate and waits for the acknowledgements, so a row is only sent
+ * once the previous row of its aggregate was acknowledged. Once a row fails or times out, the
+ * later rows of its aggregate stay unsent and unprocessed, and are relayed after it. A timed-out
+ * row may still reach the topic and is then delivered twice, but never after a later event.
+ * <p>
+ * Rows are stored as JSON. On topics configured with {@link WireFormat#BINARY}, events with a
+ * registered schema are decoded and sent as binary frames instead, like
+ * {@link com.insurance.service.infrastructure.messaging.codec.DomainEventSerializer} does.
+ * <p>
+ * Each topic is sent with its configured {@link ProducerProfile}, as {@link EventPublisher} does.
+ * Send latency, in-flight sends and failures are recorded in {@link EventPublishMetrics}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "insurance.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    /**
+     * Record header carrying the aggregate version after the change that raised the event, if known.
+     */
+    public static final String AGGREGATE_VERSION_HEADER = "aggregate-version";
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String CLAIM_BATCH_SQL =
+            "SELECT id, aggregate_id, aggregate_version, event_type, payload_type, payload::text AS payload, "
+                    + "created_at, seq FROM outbox_events WHERE processed = FALSE "
+                    + "ORDER BY created_at, aggregate_version, seq LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    // Per aggregate, the first unprocessed row that is older than its last claimed one but not in the
+    // batch, that is, locked by another replica or written after the claim; a null version sorts last,
+    // as in the claim. The upper bound on created_at keeps the scan on the pending index
+    private static final String FIRST_GAPS_SQL =
+            "SELECT DISTINCT ON (o.aggregate_id) o.aggregate_id, o.created_at, o.aggregate_version, o.seq "
+                    + "FROM outbox_events o "
+                    + "JOIN unnest(?::uuid[], ?::timestamp[], ?::int[], ?::bigint[]) "
+                    + "AS c(aggregate_id, last_created_at, last_version, last_seq) ON o.aggregate_id = c.aggregate_id "
+                    + "WHERE o.processed = FALSE AND o.created_at <= c.last_created_at AND o.created_at <= ? "
+                    + "AND (o.created_at, COALESCE(o.aggregate_version, 2147483647), o.seq) "
+                    + "< (c.last_created_at, COALESCE(c.last_version, 2147483647), c.last_seq) "
+                    + "AND o.id <> ALL(?) "
+                    + "ORDER BY o.aggregate_id, o.created_at, o.aggregate_version, o.seq";
+
+    private static final Comparator<OutboxRow> RELAY_ORDER = Comparator
+            .comparing((OutboxRow row) -> row.createdAt)
+            .thenComparing(row -> row.aggregateVersion, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(row -> row.seq);
+
+    // The lower bound on created_at, the partition key, keeps the update off older partitions
+    private static final String MARK_PROCESSED_SQL =
+            "UPDATE outbox_events SET processed = TRUE, processed_at = ? WHERE id = ANY(?) AND created_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, byte[]> outboxKafkaTemplate;
+    private final KafkaTemplate<String, byte[]> defaultOutboxKafkaTemplate;
+    private final EventRoutingTable routingTable;
+    private final EventPublishMetrics metrics;
+    private final BinaryEventCodec codec;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Optional<Class<?>>> payloadTypes = new ConcurrentHashMap<>();
+
+    @Value("${insurance.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${insurance.outbox.relay.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       @Qualifier("outboxKafkaTemplate") KafkaTemplate<String, byte[]> outboxKafkaTemplate,
+                       @Qualifier("defaultOutboxKafkaTemplate") KafkaTemplate<String, byte[]> defaultOutboxKafkaTemplate,
+                       EventRoutingTable routingTable,
+                       EventPublishMetrics metrics,
+                       BinaryEventCodec codec,
+                       ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxKafkaTemplate = outboxKafkaTemplate;
+        this.defaultOutboxKafkaTemplate = defaultOutboxKafkaTemplate;
+        this.routingTable = routingTable;
+        this.metrics = metrics;
+        this.codec = codec;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Drains the outbox until a batch comes back smaller than the configured batch size.
+     */
+    @Scheduled(fixedDelayString = "${insurance.outbox.relay.poll-interval-ms:500}")
+    public void drain() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    /**
+     * Claims, publishes and marks a single batch of outbox rows in one transaction.
+     *
+     * @return The number of rows marked as processed
+     */
+    public int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxRow> rows = jdbcTemplate.query(CLAIM_BATCH_SQL, (rs, rowNum) -> new OutboxRow(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("aggregate_id", UUID.class),
+                    rs.getObject("aggregate_version", Integer.class),
+                    rs.getString("event_type"),
+                    rs.getString("payload_type"),
+                    rs.getString("payload"),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getLong("seq")), batchSize);
+
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            List<OutboxRow> claimed = beforeGaps(rows);
+            List<OutboxRow> delivered = claimed.isEmpty() ? claimed : publish(claimed);
+            if (!delivered.isEmpty()) {
+                markProcessed(delivered);
+            }
+            return delivered.size();
+        });
+        return relayed != null ? relayed : 0;
+    }
+
+    private List<OutboxRow> beforeGaps(List<OutboxRow> rows) {
+        Map<UUID, OutboxRow> lastClaimed = new LinkedHashMap<>();
+        for (OutboxRow row : rows) {
+            lastClaimed.merge(row.aggregateId, row, (a, b) -> RELAY_ORDER.compare(a, b) >= 0 ? a : b);
+        }
+        Object[] aggregateIds = lastClaimed.keySet().toArray();
+        Object[] lastCreatedAt = lastClaimed.values().stream().map(row -> Timestamp.valueOf(row.createdAt)).toArray();
+        Object[] lastVersion = lastClaimed.values().stream().map(row -> row.aggregateVersion).toArray();
+        Object[] lastSeq = lastClaimed.values().stream().map(row -> row.seq).toArray();
+        Object[] ids = rows.stream().map(row -> row.id).toArray();
+        LocalDateTime newest = rows.stream().map(row -> row.createdAt).max(LocalDateTime::compareTo).orElseThrow();
+        Map<UUID, OutboxRow> firstGaps = new HashMap<>();
+        jdbcTemplate.query(FIRST_GAPS_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", aggregateIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("timestamp", lastCreatedAt));
+            ps.setArray(3, ps.getConnection().createArrayOf("int4", lastVersion));
+            ps.setArray(4, ps.getConnection().createArrayOf("int8", lastSeq));
+            ps.setTimestamp(5, Timestamp.valueOf(newest));
+            ps.setArray(6, ps.getConnection().createArrayOf("uuid", ids));
+        }, (rs, rowNum) -> new OutboxRow(null, rs.getObject("aggregate_id", UUID.class),
+                rs.getObject("aggregate_version", Integer.class), null, null, null,
+                rs.getTimestamp("created_at").toLocalDateTime(), rs.getLong("seq")))
+                .forEach(gap -> firstGaps.put(gap.aggregateId, gap));
+        if (firstGaps.isEmpty()) {
+            return rows;
+        }
+        log.debug("Holding back events of {} aggregates behind older outbox events claimed elsewhere", firstGaps.size());
+        return rows.stream()
+                .filter(row -> {
+                    OutboxRow gap = firstGaps.get(row.aggregateId);
+                    return gap == null || RELAY_ORDER.compare(row, gap) < 0;
+                })
+                .toList();
+    }
+
+    private List<OutboxRow> publish(List<OutboxRow> rows) {
+        Map<UUID, List<OutboxRow>> byAggregate = new LinkedHashMap<>();
+        for (OutboxRow row : rows) {
+            byAggregate.computeIfAbsent(row.aggregateId, id -> new ArrayList<>()).add(row);
+        }
+
+        List<OutboxRow> delivered = new ArrayList<>(rows.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int round = 0; !byAggregate.isEmpty(); round++) {
+            List<OutboxRow> sending = new ArrayList<>(byAggregate.size());
+            for (Iterator<List<OutboxRow>> pending = byAggregate.values().iterator(); pending.hasNext(); ) {
+                List<OutboxRow> aggregateRows = pending.next();
+                if (round < aggregateRows.size()) {
+                    sending.add(aggregateRows.get(round));
+                } else {
+                    pending.remove();
+                }
+            }
+            if (sending.isEmpty()) {
+                break;
+            }
+
+            List<CompletableFuture<?>> futures = new ArrayList<>(sending.size());
+            Set<KafkaTemplate<String, byte[]>> used = new HashSet<>(2);
+            for (OutboxRow row : sending) {
+                ProducerRecord<String, byte[]> record = toRecord(row);
+                KafkaTemplate<String, byte[]> template = templateFor(record.topic());
+                used.add(template);
+                futures.add(instrumentedSend(template, record, row));
+            }
+            used.forEach(KafkaTemplate::flush);
+            for (int i = 0; i < sending.size(); i++) {
+                OutboxRow row = sending.get(i);
+                try {
+                    futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    delivered.add(row);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return delivered;
+                } catch (ExecutionException | TimeoutException e) {
+                    // later events of the aggregate are sent on a later run, after this one
+                    byAggregate.remove(row.aggregateId);
+                    log.warn("Failed to relay outbox event {}; it will be retried", row.id, e);
+                }
+            }
+        }
+        return delivered;
+    }
+
+    private KafkaTemplate<String, byte[]> templateFor(String topic) {
+        return routingTable.profileFor(topic) == ProducerProfile.THROUGHPUT
+                ? outboxKafkaTemplate
+                : defaultOutboxKafkaTemplate;
+    }
+
+    private CompletableFuture<?> instrumentedSend(KafkaTemplate<String, byte[]> template,
+                                                  ProducerRecord<String, byte[]> record, OutboxRow row) {
+        long start = metrics.sendStarted();
+        CompletableFuture<?> future;
+        try {
+            future = template.send(record);
+        } catch (RuntimeException e) {
+            metrics.sendCompleted(start, record.topic(), row.eventType, e);
+            throw e;
+        }
+        future.whenComplete((result, ex) -> metrics.sendCompleted(start, record.topic(), row.eventType, ex));
+        return future;
+    }
+
+    private ProducerRecord<String, byte[]> toRecord(OutboxRow row) {
+        String topic = routingTable.topicFor(row.eventType);
+        byte[] frame = routingTable.wireFormatFor(topic) == WireFormat.BINARY ? encode(row) : null;
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(
+                topic,
+                row.aggregateId.toString(),
+                frame != null ? frame : row.payload.getBytes(StandardCharsets.UTF_8));
+        // Keep the type header written by JsonSerializer so existing JSON consumers are unaffected
+        if (frame == null && row.payloadType != null) {
+            record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+                    row.payloadType.getBytes(StandardCharsets.UTF_8));
+        }
+        if (row.aggregateVersion != null) {
+            record.headers().add(AGGREGATE_VERSION_HEADER,
+                    row.aggregateVersion.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    private void markProcessed(List<OutboxRow> rows) {
+        Object[] ids = rows.stream().map(row -> row.id).toArray();
+        LocalDateTime oldest = rows.stream().map(row -> row.createdAt).min(LocalDateTime::compareTo).orElseThrow();
+        jdbcTemplate.update(MARK_PROCESSED_SQL, ps -> {
+            Array idArray = ps.getConnection().createArrayOf("uuid", ids);
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setArray(2, idArray);
+            ps.setTimestamp(3, Timestamp.valueOf(oldest));
+        });
+    }
+
+    /**
+     * Encodes a row as a binary frame.
+     * Consumers of binary topics read JSON too, so a row that cannot be encoded is sent as JSON
+     * rather than holding up the outbox.
+     *
+     * @return The frame, or null if the row is sent as JSON
+     */
+    private byte[] encode(OutboxRow row) {
+        Optional<Class<?>> type = row.payloadType != null
+                ? payloadTypes.computeIfAbsent(row.payloadType, this::resolveType)
+                : Optional.empty();
+        if (type.isEmpty()) {
+            return null;
+        }
+        DomainEvent event;
+        try {
+            event = (DomainEvent) objectMapper.readValue(row.payload, type.get());
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to deserialize outbox event {}; relaying it as JSON", row.id, e);
+            return null;
+        }
+        return codec.supports(event) ? codec.encode(event) : null;
+    }
+
+    private Optional<Class<?>> resolveType(String className) {
+        try {
+            Class<?> type = ClassUtils.forName(className, getClass().getClassLoader());
+            return DomainEvent.class.isAssignableFrom(type) ? Optional.of(type) : Optional.empty();
+        } catch (ClassNotFoundException e) {
+            log.warn("Unknown outbox event type {}; relaying it as JSON", className);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * A claimed outbox row.
+     */
+    private static final class OutboxRow {
+        private final UUID id;
+        private final UUID aggregateId;
+        private final Integer aggregateVersion;
+        private final String eventType;
+        private final String payloadType;
+        private final String payload;
+        private final LocalDateTime createdAt;
+        private final long seq;
+
+        private OutboxRow(UUID id, UUID aggregateId, Integer aggregateVersion, String eventType,
+                          String payloadType, String payload, LocalDateTime createdAt, long seq) {
+            this.id = id;
+            this.aggregateId = aggregateId;
+            this.aggregateVersion = aggregateVersion;
+            this.eventType = eventType;
+            this.payloadType = payloadType;
+            this.payload = payload;
+            this.createdAt = createdAt;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.insurance.service.infrastructure.messaging;
+
+/**
+ * Kafka producer profiles that topics can be published with.
+ */
+public enum ProducerProfile {
+
+    /**
+     * Client defaults: records are sent as soon as possible, without compression.
+     */
+    DEFAULT,
+
+    /**
+     * Batched, compressed and idempotent sends for high-volume topics.
+     * Trades a few milliseconds of linger for far fewer requests under bursts,
+     * and avoids duplicates when the client retries.
+     */
+    THROUGHPUT
+}
@@ -0,0 +1,18 @@
+package com.insurance.service.infrastructure.messaging;
+
+/**
+ * Encodings domain events can be published with.
+ */
+public enum WireFormat {
+
+    /**
+     * JSON with a type header, readable by every consumer.
+     */
+    JSON,
+
+    /**
+     * Compact binary frames with integer type codes.
+     * Only switch a topic to binary once all of its consumers decode binary frames.
+     */
+    BINARY
+}
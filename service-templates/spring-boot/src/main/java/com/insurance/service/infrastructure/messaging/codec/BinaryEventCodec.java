@@ -0,0 +1,114 @@
+package com.insurance.service.infrastructure.messaging.codec;
+
+import com.insurance.service.domain.event.DomainEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of domain events.
+ * A frame is a magic byte, the frame format version, the event type code and body
+ * schema version as varints, the envelope fields (event ID, aggregate ID, timestamp)
+ * and finally the body written by the event's {@link EventSchema}.
+ * The magic byte can never start a JSON document, so frames can be told apart from JSON
+ * payloads on topics that are being migrated.
+ */
+@Component
+public class BinaryEventCodec {
+
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte FORMAT_VERSION = 1;
+
+    private static final int INITIAL_FRAME_CAPACITY = 128;
+
+    private final Map<Class<?>, EventSchema<?>> schemasByClass = new HashMap<>();
+    private final Map<Integer, EventSchema<?>> schemasByCode = new HashMap<>();
+
+    public BinaryEventCodec(List<EventSchema<?>> schemas) {
+        for (EventSchema<?> schema : schemas) {
+            EventSchema<?> sameCode = schemasByCode.putIfAbsent(schema.typeCode(), schema);
+            if (sameCode != null) {
+                throw new IllegalStateException("Type code " + schema.typeCode() + " is registered for both "
+                        + sameCode.eventClass().getName() + " and " + schema.eventClass().getName());
+            }
+            if (schemasByClass.putIfAbsent(schema.eventClass(), schema) != null) {
+                throw new IllegalStateException("Event " + schema.eventClass().getName() + " has more than one schema");
+            }
+        }
+    }
+
+    /**
+     * Checks whether a payload is a binary event frame.
+     *
+     * @param data The payload
+     * @return true if the payload starts with the frame magic byte
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    /**
+     * Checks whether an event has a registered schema and can be encoded.
+     *
+     * @param event The domain event
+     * @return true if the event can be encoded
+     */
+    public boolean supports(DomainEvent event) {
+        return schemasByClass.containsKey(event.getClass());
+    }
+
+    /**
+     * Encodes a domain event into a binary frame.
+     *
+     * @param event The domain event
+     * @return The frame
+     * @throws IllegalArgumentException if the event type has no registered schema
+     */
+    @SuppressWarnings("unchecked")
+    public byte[] encode(DomainEvent event) {
+        EventSchema<DomainEvent> schema = (EventSchema<DomainEvent>) schemasByClass.get(event.getClass());
+        if (schema == null) {
+            throw new IllegalArgumentException("No binary schema registered for " + event.getClass().getName());
+        }
+
+        BinaryOutput out = new BinaryOutput(INITIAL_FRAME_CAPACITY);
+        out.writeByte(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeVarInt(schema.typeCode());
+        out.writeVarInt(schema.schemaVersion());
+        out.writeUuid(event.getEventId());
+        out.writeNullableUuid(event.getAggregateId());
+        out.writeDateTime(event.getTimestamp());
+        schema.writeBody(event, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a binary frame into a domain event.
+     *
+     * @param data The frame
+     * @return The domain event
+     * @throws IllegalStateException if the frame is malformed or its type code is unknown
+     */
+    public DomainEvent decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new IllegalStateException("Payload is not a binary event frame");
+        }
+        BinaryInput in = new BinaryInput(data, 1);
+        int formatVersion = in.readByte();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported event frame format version " + formatVersion);
+        }
+
+        int typeCode = in.readVarInt();
+        EventSchema<?> schema = schemasByCode.get(typeCode);
+        if (schema == null) {
+            throw new IllegalStateException("No binary schema registered for type code " + typeCode);
+        }
+        EventEnvelope envelope = new EventEnvelope(typeCode, in.readVarInt(),
+                in.readUuid(), in.readNullableUuid(), in.readDateTime());
+        return schema.readBody(envelope, in);
+    }
+}
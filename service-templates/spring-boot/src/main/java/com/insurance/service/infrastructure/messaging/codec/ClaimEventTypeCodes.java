@@ -0,0 +1,17 @@
+package com.insurance.service.infrastructure.messaging.codec;
+
+/**
+ * Wire type codes of the claim events defined in {@code api-contracts/events/claim-events.json}.
+ * Codes are part of the contract: they must never be reused or renumbered.
+ */
+public final class ClaimEventTypeCodes {
+
+    public static final int CLAIM_SUBMITTED = 1;
+    public static final int CLAIM_REGISTERED = 2;
+    public static final int ASSESSMENT_PERFORMED = 3;
+    public static final int CLAIM_ACCEPTED = 4;
+    public static final int CLAIM_REJECTED = 5;
+
+    private ClaimEventTypeCodes() {
+    }
+}
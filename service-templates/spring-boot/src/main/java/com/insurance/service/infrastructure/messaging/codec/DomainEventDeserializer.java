@@ -0,0 +1,49 @@
+package com.insurance.service.infrastructure.messaging.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Deserializes both binary event frames and JSON payloads, so consumers keep working
+ * while the topics they read are migrated from JSON to binary.
+ */
+public class DomainEventDeserializer implements Deserializer<Object> {
+
+    private final BinaryEventCodec codec;
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+
+    public DomainEventDeserializer(BinaryEventCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (BinaryEventCodec.isBinary(data)) {
+            try {
+                return codec.decode(data);
+            } catch (RuntimeException e) {
+                throw new SerializationException("Failed to decode binary event frame from topic " + topic, e);
+            }
+        }
+        return headers != null ? json.deserialize(topic, headers, data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
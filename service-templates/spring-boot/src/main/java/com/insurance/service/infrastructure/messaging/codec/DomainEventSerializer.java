@@ -0,0 +1,52 @@
+package com.insurance.service.infrastructure.messaging.codec;
+
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.infrastructure.messaging.EventRoutingTable;
+import com.insurance.service.infrastructure.messaging.WireFormat;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Serializes domain events as binary frames on topics configured with
+ * {@link WireFormat#BINARY}, and everything else as JSON.
+ * Events without a registered {@link EventSchema} fall back to JSON on every topic.
+ */
+public class DomainEventSerializer implements Serializer<Object> {
+
+    private final BinaryEventCodec codec;
+    private final EventRoutingTable routingTable;
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+
+    public DomainEventSerializer(BinaryEventCodec codec, EventRoutingTable routingTable) {
+        this.codec = codec;
+        this.routingTable = routingTable;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data instanceof DomainEvent event
+                && routingTable.wireFormatFor(topic) == WireFormat.BINARY
+                && codec.supports(event)) {
+            return codec.encode(event);
+        }
+        return headers != null ? json.serialize(topic, headers, data) : json.serialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,50 @@
+package com.insurance.service.infrastructure.messaging.codec;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Header of a binary event frame: the fields every domain event carries,
+ * plus the type code and schema version the body was written with.
+ */
+public final class EventEnvelope {
+
+    private final int typeCode;
+    private final int schemaVersion;
+    private final UUID eventId;
+    private final UUID aggregateId;
+    private final LocalDateTime timestamp;
+
+    public EventEnvelope(int typeCode, int schemaVersion, UUID eventId, UUID aggregateId, LocalDateTime timestamp) {
+        this.typeCode = typeCode;
+        this.schemaVersion = schemaVersion;
+        this.eventId = eventId;
+        this.aggregateId = aggregateId;
+        this.timestamp = timestamp;
+    }
+
+    public int getTypeCode() {
+        return typeCode;
+    }
+
+    /**
+     * Gets the schema version the body was written with, which may be older than the reader's.
+     *
+     * @return The schema version
+     */
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public UUID getAggregateId() {
+        return aggregateId;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+}
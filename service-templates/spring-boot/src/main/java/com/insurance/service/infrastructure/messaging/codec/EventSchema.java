@@ -0,0 +1,54 @@
+package com.insurance.service.infrastructure.messaging.codec;
+
+import com.insurance.service.domain.event.DomainEvent;
+
+/**
+ * Binary layout of one domain event type.
+ * Services register an implementation as a Spring bean for each event type they publish
+ * or consume in binary form. The type code must match the {@code x-type-code} of the
+ * event in {@code api-contracts/events}; see {@link ClaimEventTypeCodes}.
+ *
+ * @param <T> The type of the domain event
+ */
+public interface EventSchema<T extends DomainEvent> {
+
+    /**
+     * Gets the stable integer code identifying the event type on the wire.
+     *
+     * @return The type code
+     */
+    int typeCode();
+
+    /**
+     * Gets the event class this schema encodes.
+     *
+     * @return The event class
+     */
+    Class<T> eventClass();
+
+    /**
+     * Gets the version of the body layout written by {@link #writeBody}.
+     * Increment it whenever fields are added, removed or reordered.
+     *
+     * @return The schema version
+     */
+    int schemaVersion();
+
+    /**
+     * Writes the event-specific fields; the envelope fields are written by the codec.
+     *
+     * @param event The event to write
+     * @param out The output to write to
+     */
+    void writeBody(T event, BinaryOutput out);
+
+    /**
+     * Reads the event-specific fields and creates the event.
+     * Implementations must still read bodies written with older schema versions.
+     *
+     * @param envelope The decoded envelope, including the schema version of the body
+     * @param in The input positioned at the start of the body
+     * @return The event
+     */
+    T readBody(EventEnvelope envelope, BinaryInput in);
+}
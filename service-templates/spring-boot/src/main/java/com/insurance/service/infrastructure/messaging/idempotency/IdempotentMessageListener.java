@@ -0,0 +1,77 @@
+package com.insurance.service.infrastructure.messaging.idempotency;
+
+import com.insurance.service.domain.event.DomainEvent;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.GenericMessageListener;
+import org.springframework.kafka.listener.ListenerType;
+import org.springframework.kafka.listener.ListenerUtils;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Skips domain events the consumer group has already processed.
+ * Each new event is marked as processed and handed to the wrapped listener in one database
+ * transaction, so the listener's database work and the mark commit or roll back together.
+ * A failed event is therefore redelivered and processed again. Records whose value is not a
+ * {@link DomainEvent} are passed through unchanged.
+ *
+ * @param <K> The record key type
+ * @param <V> The record value type
+ */
+public class IdempotentMessageListener<K, V> implements AcknowledgingConsumerAwareMessageListener<K, V> {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentMessageListener.class);
+
+    private final GenericMessageListener<ConsumerRecord<K, V>> delegate;
+    private final ListenerType delegateType;
+    private final String consumerGroup;
+    private final ProcessedEvents processedEvents;
+    private final TransactionOperations transactionOperations;
+
+    @SuppressWarnings("unchecked")
+    public IdempotentMessageListener(Object delegate, String consumerGroup, ProcessedEvents processedEvents,
+                                     TransactionOperations transactionOperations) {
+        this.delegate = (GenericMessageListener<ConsumerRecord<K, V>>) delegate;
+        this.delegateType = ListenerUtils.determineListenerType(delegate);
+        this.consumerGroup = consumerGroup;
+        this.processedEvents = processedEvents;
+        this.transactionOperations = transactionOperations;
+    }
+
+    @Override
+    public void onMessage(ConsumerRecord<K, V> record, Acknowledgment acknowledgment, Consumer<?, ?> consumer) {
+        if (!(record.value() instanceof DomainEvent)) {
+            invoke(record, acknowledgment, consumer);
+            return;
+        }
+        DomainEvent event = (DomainEvent) record.value();
+        boolean processed = !processedEvents.isProcessed(consumerGroup, event.getEventId())
+                && Boolean.TRUE.equals(transactionOperations.execute(status -> {
+                    if (!processedEvents.markProcessed(consumerGroup, event.getEventId())) {
+                        return false;
+                    }
+                    invoke(record, acknowledgment, consumer);
+                    return true;
+                }));
+        if (!processed) {
+            log.debug("Skipping event {} at {}-{}@{}, already processed by {}", event.getEventId(),
+                    record.topic(), record.partition(), record.offset(), consumerGroup);
+            if (acknowledgment != null) {
+                acknowledgment.acknowledge();
+            }
+        }
+    }
+
+    private void invoke(ConsumerRecord<K, V> record, Acknowledgment acknowledgment, Consumer<?, ?> consumer) {
+        switch (delegateType) {
+            case ACKNOWLEDGING_CONSUMER_AWARE -> delegate.onMessage(record, acknowledgment, consumer);
+            case ACKNOWLEDGING -> delegate.onMessage(record, acknowledgment);
+            case CONSUMER_AWARE -> delegate.onMessage(record, consumer);
+            default -> delegate.onMessage(record);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.insurance.service.infrastructure.messaging.idempotency;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * PostgreSQL store of the domain events each consumer group has processed.
+ */
+@Repository
+public class ProcessedEventStore {
+
+    private static final String MARK_SQL =
+            "INSERT INTO processed_events (consumer_group, event_id, processed_at) VALUES (?, ?, ?) "
+                    + "ON CONFLICT DO NOTHING";
+
+    private static final String EXISTS_SQL =
+            "SELECT EXISTS (SELECT 1 FROM processed_events WHERE consumer_group = ? AND event_id = ?)";
+
+    private static final String PURGE_SQL = "DELETE FROM processed_events WHERE processed_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProcessedEventStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records an event as processed by a consumer group. Runs in the caller's transaction, so
+     * the record is rolled back together with the processing. A concurrent transaction marking
+     * the same event blocks this one until it completes.
+     *
+     * @return true if the event was marked, false if it was already processed
+     */
+    public boolean markProcessed(String consumerGroup, UUID eventId) {
+        return jdbcTemplate.update(MARK_SQL, consumerGroup, eventId, Timestamp.valueOf(LocalDateTime.now())) == 1;
+    }
+
+    /**
+     * Checks whether a consumer group has processed an event.
+     */
+    public boolean isProcessed(String consumerGroup, UUID eventId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_SQL, Boolean.class, consumerGroup, eventId));
+    }
+
+    /**
+     * Deletes the records of events processed before a point in time.
+     *
+     * @return The number of deleted records
+     */
+    public int purgeBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(cutoff));
+    }
+}
@@ -0,0 +1,177 @@
+package com.insurance.service.infrastructure.messaging.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.insurance.service.config.MessagingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which domain events each consumer group has processed, so redelivered events are skipped.
+ * The {@link ProcessedEventStore} is authoritative. In front of it, each consumer group keeps a cache
+ * of recently processed event IDs and a Bloom filter of all event IDs it processed within the
+ * retention window. A new event is recognised by the Bloom filter without a query; a redelivery
+ * shortly after processing, the common case after a rebalance, is answered by the cache. Only Bloom
+ * filter hits that are not cached reach the store.
+ * <p>
+ * The in-memory structures only know the events this instance processed, so a redelivery of an
+ * event processed by another instance is caught when {@link #markProcessed} finds it in the store.
+ */
+@Component
+@ConditionalOnProperty(prefix = "insurance.messaging.idempotent-consumer", name = "enabled", matchIfMissing = true)
+public class ProcessedEvents {
+
+    static final String CHECKS_COUNTER = "insurance.consumer.dedup.checks";
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedEvents.class);
+
+    private final ProcessedEventStore store;
+    private final MessagingProperties.IdempotentConsumer settings;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, GroupState> groups = new ConcurrentHashMap<>();
+
+    public ProcessedEvents(ProcessedEventStore store, MessagingProperties properties, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.settings = properties.getIdempotentConsumer();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Checks whether a consumer group has already processed an event.
+     * A false result is not final: {@link #markProcessed} may still find the event processed.
+     */
+    public boolean isProcessed(String consumerGroup, UUID eventId) {
+        GroupState group = group(consumerGroup);
+        if (group.recent.getIfPresent(eventId) != null) {
+            group.duplicateFromCache.increment();
+            return true;
+        }
+        if (!group.mightContain(eventId)) {
+            group.newFromFilter.increment();
+            return false;
+        }
+        if (store.isProcessed(consumerGroup, eventId)) {
+            group.duplicateFromStore.increment();
+            group.recent.put(eventId, Boolean.TRUE);
+            return true;
+        }
+        group.newFromStore.increment();
+        return false;
+    }
+
+    /**
+     * Marks an event as processed by a consumer group, in the caller's transaction.
+     * Call it before processing the event in the same transaction as the processing, so
+     * that the event is marked if and only if its processing commits.
+     *
+     * @return true if the event was marked and should be processed, false if it was already processed
+     */
+    public boolean markProcessed(String consumerGroup, UUID eventId) {
+        GroupState group = group(consumerGroup);
+        if (!store.markProcessed(consumerGroup, eventId)) {
+            group.duplicateFromStore.increment();
+            group.remember(eventId);
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    group.remember(eventId);
+                }
+            });
+        } else {
+            group.remember(eventId);
+        }
+        return true;
+    }
+
+    /**
+     * Deletes processed events older than the retention window and ages out the Bloom filters.
+     */
+    @Scheduled(fixedDelayString = "${insurance.messaging.idempotent-consumer.purge-interval-ms:300000}")
+    public void purge() {
+        int purged = store.purgeBefore(LocalDateTime.now().minus(settings.getRetention()));
+        groups.values().forEach(GroupState::rotateIfDue);
+        if (purged > 0) {
+            log.debug("Purged {} processed events older than {}", purged, settings.getRetention());
+        }
+    }
+
+    private GroupState group(String consumerGroup) {
+        return groups.computeIfAbsent(consumerGroup, GroupState::new);
+    }
+
+    /**
+     * In-memory state of one consumer group. The Bloom filter has two generations, rotated once
+     * per retention window, so every event is remembered for at least the window.
+     */
+    private final class GroupState {
+
+        private final Cache<UUID, Boolean> recent;
+        private final Counter duplicateFromCache;
+        private final Counter newFromFilter;
+        private final Counter duplicateFromStore;
+        private final Counter newFromStore;
+        private volatile BloomFilter current;
+        private volatile BloomFilter previous;
+        private volatile long rotatedAt = System.nanoTime();
+
+        private GroupState(String consumerGroup) {
+            this.recent = Caffeine.newBuilder()
+                    .maximumSize(settings.getCacheSize())
+                    .expireAfterWrite(settings.getRetention())
+                    .build();
+            this.current = newFilter();
+            this.previous = newFilter();
+            this.duplicateFromCache = counter(consumerGroup, "duplicate", "cache");
+            this.newFromFilter = counter(consumerGroup, "new", "bloom-filter");
+            this.duplicateFromStore = counter(consumerGroup, "duplicate", "store");
+            this.newFromStore = counter(consumerGroup, "new", "store");
+        }
+
+        private boolean mightContain(UUID eventId) {
+            return current.mightContain(eventId) || previous.mightContain(eventId);
+        }
+
+        private void remember(UUID eventId) {
+            current.add(eventId);
+            recent.put(eventId, Boolean.TRUE);
+        }
+
+        private synchronized void rotateIfDue() {
+            if (System.nanoTime() - rotatedAt < settings.getRetention().toNanos()) {
+                return;
+            }
+            previous = current;
+            current = newFilter();
+            rotatedAt = System.nanoTime();
+        }
+
+        private BloomFilter newFilter() {
+            return new BloomFilter(settings.getExpectedEvents(), settings.getFalsePositiveRate());
+        }
+
+        private Counter counter(String consumerGroup, String result, String answeredBy) {
+            return Counter.builder(CHECKS_COUNTER)
+                    .description("Duplicate checks of consumed domain events by result and by what answered them")
+                    .tag("group", consumerGroup)
+                    .tag("result", result)
+                    .tag("answered.by", answeredBy)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.insurance.service.infrastructure.persistence;
 
 import com.insurance.service.domain.model.BaseAggregateRoot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -15,6 +17,15 @@ import java.util.UUID;
 @NoRepositoryBean
 public interface AggregateRepository<T extends BaseAggregateRoot> extends JpaRepository<T, UUID> {
     
+    /**
+     * Gets the version of an aggregate without loading it, for ETags and preconditions.
+     *
+     * @param id The aggregate ID
+     * @return The version, if the aggregate exists
+     */
+    @Query("SELECT a.version FROM #{#entityName} a WHERE a.id = ?1")
+    Optional<Integer> findVersionById(UUID id);
+    
     /**
      * Example of custom query method that could be added to all aggregate repositories.
      * Find an aggregate by its business key (domain identifier rather than technical ID).
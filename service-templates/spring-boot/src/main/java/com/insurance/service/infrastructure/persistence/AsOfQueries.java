@@ -0,0 +1,159 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.insurance.service.domain.model.EventSourcedAggregateRoot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Answers as-of queries: the state an aggregate was in at a version or at a point in time.
+ * A timestamp is first resolved to the version of the latest commit at or before it, which is
+ * an index lookup. The state at that version is rebuilt from the nearest earlier snapshot and
+ * the commits after it, see {@link EventSourcedRepository#findAtVersion}.
+ * <p>
+ * The state of an aggregate at a version never changes, so rebuilt states are cached by
+ * aggregate ID and version without expiry or invalidation, bounded by size only. Aggregates
+ * that no longer change, such as closed claims, keep being answered from the cache.
+ * Cached states are shared between callers and threads, so they must not be modified or saved.
+ *
+ * @param <T> The aggregate type
+ */
+public class AsOfQueries<T extends EventSourcedAggregateRoot> {
+
+    static final String REBUILD_TIMER = "insurance.as-of.rebuild";
+
+    private final EventSourcedRepository<T> repository;
+    private final Cache<StateKey, T> states;
+    private final Timer rebuildTimer;
+
+    /**
+     * @param name The name of the queries, used in meter names and tags
+     * @param repository The repository of the aggregates
+     * @param maxCachedStates The maximum number of rebuilt states to keep
+     * @param meterRegistry The registry of the meters
+     */
+    public AsOfQueries(String name, EventSourcedRepository<T> repository, long maxCachedStates,
+                       MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.states = Caffeine.newBuilder()
+                .maximumSize(maxCachedStates)
+                .recordStats()
+                .build();
+        this.rebuildTimer = Timer.builder(REBUILD_TIMER)
+                .description("Time to rebuild past aggregate states missing from the cache, one or a page at a time")
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, states, "as-of." + name);
+    }
+
+    /**
+     * Gets an aggregate as it was at a version.
+     *
+     * @param id The identifier of the aggregate
+     * @param version The version
+     * @return The aggregate at the version, or at its latest version if the version is past it,
+     *         or empty if it had no history by then
+     */
+    public Optional<T> atVersion(UUID id, int version) {
+        if (version <= 0) {
+            return Optional.empty();
+        }
+        T cached = states.getIfPresent(new StateKey(id, version));
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long start = System.nanoTime();
+        Optional<T> rebuilt = repository.findAtVersion(id, version);
+        rebuildTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        // keyed by the version actually reached, as a version past the latest one is not final yet
+        rebuilt.ifPresent(aggregate -> states.put(new StateKey(id, aggregate.getVersion()), aggregate));
+        return rebuilt;
+    }
+
+    /**
+     * Gets an aggregate as it was at a point in time.
+     *
+     * @param id The identifier of the aggregate
+     * @param timestamp The point in time
+     * @return The aggregate as of the timestamp, or empty if it did not exist yet
+     */
+    public Optional<T> asOf(UUID id, LocalDateTime timestamp) {
+        return atVersion(id, repository.versionAt(id, timestamp));
+    }
+
+    /**
+     * Gets a set of aggregates as they were at a point in time, for reporting.
+     * The versions of all aggregates are resolved with one lookup, and the states missing from
+     * the cache are rebuilt together, with one snapshot and one event query for the page; reports
+     * over many aggregates should pass their identifiers in pages of a few hundred.
+     *
+     * @param ids The identifiers of the aggregates
+     * @param timestamp The point in time
+     * @return The aggregates that existed at the timestamp, in the order of the identifiers
+     */
+    public Map<UUID, T> asOf(Collection<UUID> ids, LocalDateTime timestamp) {
+        Map<UUID, Integer> versions = repository.versionsAt(ids, timestamp);
+        Map<UUID, T> found = new HashMap<>(versions.size() * 2);
+        Map<UUID, Integer> misses = new HashMap<>();
+        versions.forEach((id, version) -> {
+            T cached = version > 0 ? states.getIfPresent(new StateKey(id, version)) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else if (version > 0) {
+                misses.put(id, version);
+            }
+        });
+        if (!misses.isEmpty()) {
+            long start = System.nanoTime();
+            Map<UUID, T> rebuilt = repository.findAtVersions(misses);
+            rebuildTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            rebuilt.forEach((id, aggregate) -> states.put(new StateKey(id, aggregate.getVersion()), aggregate));
+            found.putAll(rebuilt);
+        }
+
+        Map<UUID, T> aggregates = new LinkedHashMap<>(found.size() * 2);
+        for (UUID id : ids) {
+            T aggregate = found.get(id);
+            if (aggregate != null) {
+                aggregates.put(id, aggregate);
+            }
+        }
+        return aggregates;
+    }
+
+    private static final class StateKey {
+        private final UUID id;
+        private final int version;
+
+        private StateKey(UUID id, int version) {
+            this.id = id;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateKey other && version == other.version && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, version);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.domain.model.EventSourcedAggregateRoot;
+import com.insurance.service.domain.model.Snapshottable;
+import com.insurance.service.infrastructure.cache.SingleFlight;
+import com.insurance.service.infrastructure.persistence.snapshot.AsyncSnapshotWriter;
+import com.insurance.service.infrastructure.persistence.snapshot.Snapshot;
+import com.insurance.service.infrastructure.persistence.snapshot.SnapshotPolicy;
+import com.insurance.service.infrastructure.persistence.snapshot.SnapshotStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Base repository for event-sourced aggregates.
+ * Aggregates are rehydrated from their latest compatible snapshot plus the events
+ * committed after it. After a load, the snapshot policy decides whether a new snapshot
+ * should be written; snapshots are always taken of committed state and written asynchronously.
+ * <p>
+ * Read paths use {@link #findForRead}, which lets concurrent requests for the same aggregate
+ * version share a single load. Past states are rebuilt by {@link #findAtVersion} from the nearest
+ * snapshot taken at or before the requested version, replaying only the commits in between;
+ * {@link #findAtVersions} does so for a page of aggregates with one snapshot and one event query.
+ *
+ * @param <T> The aggregate type
+ */
+public abstract class EventSourcedRepository<T extends EventSourcedAggregateRoot> {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSourcedRepository.class);
+
+    private final EventStore eventStore;
+    private final SnapshotStore snapshotStore;
+    private final AsyncSnapshotWriter snapshotWriter;
+    private final ObjectMapper objectMapper;
+    private final SnapshotPolicy snapshotPolicy;
+    private final SingleFlight<ReadKey, Optional<T>> reads;
+
+    protected EventSourcedRepository(EventStore eventStore,
+                                     SnapshotStore snapshotStore,
+                                     AsyncSnapshotWriter snapshotWriter,
+                                     ObjectMapper objectMapper,
+                                     SnapshotPolicy snapshotPolicy) {
+        this(eventStore, snapshotStore, snapshotWriter, objectMapper, snapshotPolicy, Metrics.globalRegistry);
+    }
+
+    protected EventSourcedRepository(EventStore eventStore,
+                                     SnapshotStore snapshotStore,
+                                     AsyncSnapshotWriter snapshotWriter,
+                                     ObjectMapper objectMapper,
+                                     SnapshotPolicy snapshotPolicy,
+                                     MeterRegistry meterRegistry) {
+        this.eventStore = eventStore;
+        this.snapshotStore = snapshotStore;
+        this.snapshotWriter = snapshotWriter;
+        this.objectMapper = objectMapper;
+        this.snapshotPolicy = snapshotPolicy;
+        this.reads = new SingleFlight<>(getClass().getSimpleName(), meterRegistry);
+    }
+
+    /**
+     * Creates an empty aggregate instance to rehydrate.
+     *
+     * @param id The identifier of the aggregate
+     * @return A new, empty aggregate
+     */
+    protected abstract T newInstance(UUID id);
+
+    /**
+     * Loads an aggregate by replaying its history on top of its latest snapshot.
+     *
+     * @param id The identifier of the aggregate
+     * @return The aggregate, or empty if it has no history
+     */
+    public Optional<T> findById(UUID id) {
+        long start = System.nanoTime();
+        T aggregate = newInstance(id);
+        int snapshotVersion = restoreSnapshot(aggregate, Integer.MAX_VALUE);
+
+        EventStream stream = eventStore.load(id, snapshotVersion);
+        if (snapshotVersion == 0 && stream.isEmpty()) {
+            return Optional.empty();
+        }
+        aggregate.replay(stream.getVersion(), events(stream));
+
+        Duration loadTime = Duration.ofNanos(System.nanoTime() - start);
+        if (aggregate instanceof Snapshottable<?> snapshottable
+                && snapshotPolicy.shouldSnapshot(stream.getEvents().size(), loadTime)) {
+            snapshotWriter.schedule(id, aggregateType(aggregate), aggregate.getVersion(),
+                    snapshottable.snapshotSchemaVersion(), snapshottable.toSnapshot());
+        }
+        return Optional.of(aggregate);
+    }
+
+    /**
+     * Loads an aggregate for a read path, sharing the load with concurrent reads of the same version.
+     * The current version is looked up first, so a caller never receives a load that started
+     * before a commit it could already see. The returned aggregate may be shared with other
+     * threads; it must not be modified or saved.
+     *
+     * @param id The identifier of the aggregate
+     * @return The aggregate, or empty if it has no history
+     */
+    public Optional<T> findForRead(UUID id) {
+        int version = currentVersion(id);
+        if (version == 0) {
+            return Optional.empty();
+        }
+        return reads.load(new ReadKey(id, version), () -> findById(id));
+    }
+
+    /**
+     * Rebuilds an aggregate as it was at a version, for as-of queries.
+     * No snapshot is taken of the rebuilt state.
+     *
+     * @param id The identifier of the aggregate
+     * @param version The version to rebuild; a version past the current one yields the current state
+     * @return The aggregate at the version, or empty if it had no history by then
+     */
+    public Optional<T> findAtVersion(UUID id, int version) {
+        if (version <= 0) {
+            return Optional.empty();
+        }
+        T aggregate = newInstance(id);
+        int snapshotVersion = restoreSnapshot(aggregate, version);
+
+        EventStream stream = eventStore.load(id, snapshotVersion, version);
+        if (snapshotVersion == 0 && stream.isEmpty()) {
+            return Optional.empty();
+        }
+        aggregate.replay(stream.getVersion(), events(stream));
+        return Optional.of(aggregate);
+    }
+
+    /**
+     * Rebuilds a set of aggregates as they were at a version each, for batch as-of queries.
+     * The nearest earlier snapshots and the commits after them are loaded for all aggregates
+     * at once, instead of two queries per aggregate.
+     *
+     * @param versions The version to rebuild of each aggregate
+     * @return The aggregates that had a history by their version
+     */
+    public Map<UUID, T> findAtVersions(Map<UUID, Integer> versions) {
+        Map<UUID, Integer> wanted = new HashMap<>(versions.size() * 2);
+        versions.forEach((id, version) -> {
+            if (version > 0) {
+                wanted.put(id, version);
+            }
+        });
+        Map<UUID, T> aggregates = new HashMap<>(wanted.size() * 2);
+        for (UUID id : wanted.keySet()) {
+            aggregates.put(id, newInstance(id));
+        }
+        if (aggregates.isEmpty()) {
+            return aggregates;
+        }
+
+        Map<UUID, Snapshot> snapshots = aggregates.values().iterator().next() instanceof Snapshottable<?> snapshottable
+                ? snapshotStore.findLatestAtOrBefore(wanted, snapshottable.snapshotSchemaVersion())
+                : Map.of();
+        Map<UUID, Integer> snapshotVersions = new HashMap<>(snapshots.size() * 2);
+        for (Map.Entry<UUID, T> entry : aggregates.entrySet()) {
+            int snapshotVersion = restoreSnapshot(entry.getValue(), Optional.ofNullable(snapshots.get(entry.getKey())));
+            if (snapshotVersion > 0) {
+                snapshotVersions.put(entry.getKey(), snapshotVersion);
+            }
+        }
+
+        Map<UUID, EventStream> streams = eventStore.loadRanges(snapshotVersions, wanted);
+        Map<UUID, T> rebuilt = new HashMap<>(aggregates.size() * 2);
+        for (Map.Entry<UUID, T> entry : aggregates.entrySet()) {
+            UUID id = entry.getKey();
+            int snapshotVersion = snapshotVersions.getOrDefault(id, 0);
+            EventStream stream = streams.getOrDefault(id, new EventStream(id, snapshotVersion, List.of()));
+            if (snapshotVersion == 0 && stream.isEmpty()) {
+                continue;
+            }
+            entry.getValue().replay(stream.getVersion(), events(stream));
+            rebuilt.put(id, entry.getValue());
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Gets the version an aggregate was at a point in time.
+     *
+     * @param id The identifier of the aggregate
+     * @param timestamp The point in time
+     * @return The version, 0 if the aggregate did not exist yet
+     */
+    public int versionAt(UUID id, LocalDateTime timestamp) {
+        return eventStore.versionAt(id, timestamp);
+    }
+
+    /**
+     * Gets the versions a set of aggregates were at a point in time, with one lookup.
+     *
+     * @param ids The identifiers of the aggregates
+     * @param timestamp The point in time
+     * @return The version of each aggregate that existed at the timestamp
+     */
+    public Map<UUID, Integer> versionsAt(Collection<UUID> ids, LocalDateTime timestamp) {
+        return eventStore.versionsAt(ids, timestamp);
+    }
+
+    /**
+     * Gets the version of an aggregate without loading it, for ETags and preconditions.
+     *
+     * @param id The identifier of the aggregate
+     * @return The current version, 0 if the aggregate has no history
+     */
+    public int currentVersion(UUID id) {
+        return eventStore.currentVersion(id);
+    }
+
+    /**
+     * Gets the version of an aggregate if it exists, in the form the REST conditional request
+     * helpers take, like {@code AggregateRepository.findVersionById}.
+     *
+     * @param id The identifier of the aggregate
+     * @return The current version, or empty if the aggregate has no history
+     */
+    public Optional<Integer> findVersionById(UUID id) {
+        int version = currentVersion(id);
+        return version > 0 ? Optional.of(version) : Optional.empty();
+    }
+
+    /**
+     * Appends the aggregate's pending events to its stream.
+     *
+     * @param aggregate The aggregate to save
+     */
+    public void save(T aggregate) {
+        eventStore.append(aggregate);
+    }
+
+    private int restoreSnapshot(T aggregate, int maxVersion) {
+        if (!(aggregate instanceof Snapshottable<?> snapshottable)) {
+            return 0;
+        }
+        // snapshots of other schema versions belong to instances running other code; they are skipped, never deleted here
+        int schemaVersion = snapshottable.snapshotSchemaVersion();
+        return restoreSnapshot(aggregate, maxVersion == Integer.MAX_VALUE
+                ? snapshotStore.findLatest(aggregate.getId(), schemaVersion)
+                : snapshotStore.findLatestAtOrBefore(aggregate.getId(), maxVersion, schemaVersion));
+    }
+
+    private int restoreSnapshot(T aggregate, Optional<Snapshot> latest) {
+        if (!(aggregate instanceof Snapshottable<?> snapshottable) || latest.isEmpty()) {
+            return 0;
+        }
+
+        Snapshot snapshot = latest.get();
+        try {
+            restore(snapshottable, snapshot);
+            return snapshot.getVersion();
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable snapshot of {} at version {}, replaying full history",
+                    aggregate.getId(), snapshot.getVersion(), e);
+            return 0;
+        }
+    }
+
+    private <S> void restore(Snapshottable<S> target, Snapshot snapshot) throws JsonProcessingException {
+        S state = objectMapper.readValue(snapshot.getPayload(), target.snapshotType());
+        target.restoreSnapshot(state);
+    }
+
+    private static List<DomainEvent> events(EventStream stream) {
+        List<DomainEvent> events = new ArrayList<>(stream.getEvents().size());
+        for (StoredEvent storedEvent : stream.getEvents()) {
+            events.add(storedEvent.getEvent());
+        }
+        return events;
+    }
+
+    private static String aggregateType(EventSourcedAggregateRoot aggregate) {
+        return aggregate.getClass().getSimpleName();
+    }
+
+    private static final class ReadKey {
+        private final UUID id;
+        private final int version;
+
+        private ReadKey(UUID id, int version) {
+            this.id = id;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ReadKey other && version == other.version && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, version);
+        }
+    }
+}
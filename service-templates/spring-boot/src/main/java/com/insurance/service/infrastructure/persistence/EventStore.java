@@ -0,0 +1,123 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.domain.model.BaseAggregateRoot;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Port for the append-only store of domain events.
+ * Streams are organised as a sequence of commits, one per persisted aggregate version.
+ * All events raised by a command are appended together as the commit for the version
+ * the command produced.
+ */
+public interface EventStore {
+
+    /**
+     * Appends the pending domain events of an aggregate and clears them from the aggregate.
+     * The aggregate's current version is the version being committed, so the stored
+     * stream is expected to be at {@code aggregate.getVersion() - 1}; this holds when the
+     * command marked the aggregate as updated once after loading it. A new aggregate is
+     * expected to have no stream yet, whether or not it was marked as updated.
+     *
+     * @param aggregate The aggregate whose pending events should be stored
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the stream
+     *         has moved past the expected version
+     */
+    void append(BaseAggregateRoot aggregate);
+
+    /**
+     * Appends events as a single commit on top of the expected stream version.
+     *
+     * @param aggregateType The type of the aggregate
+     * @param aggregateId The identifier of the aggregate
+     * @param expectedVersion The version the stream must currently be at (0 for a new stream)
+     * @param events The events to append, in order
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the stream
+     *         is not at the expected version
+     */
+    void append(String aggregateType, UUID aggregateId, int expectedVersion, Collection<? extends DomainEvent> events);
+
+    /**
+     * Loads the full event stream of an aggregate.
+     *
+     * @param aggregateId The identifier of the aggregate
+     * @return The event stream, empty if the aggregate has no events
+     */
+    default EventStream load(UUID aggregateId) {
+        return load(aggregateId, 0);
+    }
+
+    /**
+     * Loads the events of an aggregate committed after the given version.
+     *
+     * @param aggregateId The identifier of the aggregate
+     * @param afterVersion Only commits with a higher version are returned
+     * @return The event stream
+     */
+    EventStream load(UUID aggregateId, int afterVersion);
+
+    /**
+     * Loads the events of an aggregate committed after one version, up to and including another.
+     *
+     * @param aggregateId The identifier of the aggregate
+     * @param afterVersion Only commits with a higher version are returned
+     * @param upToVersion Only commits up to this version are returned
+     * @return The event stream, at the version of its last commit
+     */
+    EventStream load(UUID aggregateId, int afterVersion, int upToVersion);
+
+    /**
+     * Loads bounded ranges of the events of many aggregates with one query, for batch as-of queries.
+     *
+     * @param afterVersions For each aggregate, only commits with a higher version are returned;
+     *                      aggregates without an entry are read from their first commit
+     * @param upToVersions For each aggregate to load, only commits up to this version are returned
+     * @return The event stream of each aggregate in {@code upToVersions}, at the version of its last commit
+     */
+    Map<UUID, EventStream> loadRanges(Map<UUID, Integer> afterVersions, Map<UUID, Integer> upToVersions);
+
+    /**
+     * Reads the history of all aggregates in a range of identifiers, in the order of the
+     * identifiers, for replays. Aggregates are never split: the last one read is completed even
+     * if that exceeds the maximum, so consecutive scans from the last identifier returned
+     * read every aggregate exactly once.
+     *
+     * @param afterAggregateId Only aggregates with a higher identifier are read
+     * @param upToAggregateId Only aggregates up to and including this identifier are read
+     * @param maxEvents The number of events after which no further aggregate is started
+     * @return The events, by aggregate and in stream order within each aggregate
+     */
+    List<StoredEvent> scan(UUID afterAggregateId, UUID upToAggregateId, int maxEvents);
+
+    /**
+     * Gets the version of the latest commit of an aggregate without loading its events.
+     *
+     * @param aggregateId The identifier of the aggregate
+     * @return The current version, 0 if the aggregate has no events
+     */
+    int currentVersion(UUID aggregateId);
+
+    /**
+     * Gets the version an aggregate was at a point in time, from the time of its commits.
+     *
+     * @param aggregateId The identifier of the aggregate
+     * @param timestamp The point in time
+     * @return The version of the latest commit that occurred at or before the timestamp,
+     *         0 if the aggregate did not exist yet
+     */
+    int versionAt(UUID aggregateId, LocalDateTime timestamp);
+
+    /**
+     * Gets the versions a set of aggregates were at a point in time, with one lookup.
+     *
+     * @param aggregateIds The identifiers of the aggregates
+     * @param timestamp The point in time
+     * @return The version of each aggregate that existed at the timestamp
+     */
+    Map<UUID, Integer> versionsAt(Collection<UUID> aggregateIds, LocalDateTime timestamp);
+}
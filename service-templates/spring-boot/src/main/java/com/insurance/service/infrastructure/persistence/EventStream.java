@@ -0,0 +1,42 @@
+package com.insurance.service.infrastructure.persistence;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An ordered slice of an aggregate's event stream.
+ */
+public final class EventStream {
+
+    private final UUID aggregateId;
+    private final int version;
+    private final List<StoredEvent> events;
+
+    public EventStream(UUID aggregateId, int version, List<StoredEvent> events) {
+        this.aggregateId = aggregateId;
+        this.version = version;
+        this.events = Collections.unmodifiableList(events);
+    }
+
+    public UUID getAggregateId() {
+        return aggregateId;
+    }
+
+    /**
+     * Gets the stream version after the last event in this slice.
+     *
+     * @return The version of the last commit, or the requested starting version if the slice is empty
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public List<StoredEvent> getEvents() {
+        return events;
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+}
@@ -0,0 +1,405 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.domain.model.BaseAggregateRoot;
+import com.insurance.service.infrastructure.persistence.archive.ArchivedEvent;
+import com.insurance.service.infrastructure.persistence.archive.EventArchive;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PostgreSQL implementation of the {@link EventStore}.
+ * A commit is written with one multi-row insert whose {@code WHERE} clause checks the
+ * expected stream version; the primary key on {@code (aggregate_id, version, event_index)}
+ * rejects any concurrent writer that passed the same check. Stream loads are a single
+ * range scan over that primary key.
+ * <p>
+ * If the history of an aggregate was moved to the {@link EventArchive}, the store keeps its
+ * latest commit. A load whose first stored commit is not the one following the requested
+ * version reads the missing commits from the archive.
+ * <p>
+ * The version an aggregate was at a point in time is resolved from the time of its commits,
+ * using the index on {@code (aggregate_id, occurred_at, version)}. A commit counts as occurred
+ * at the time of its earliest event.
+ */
+@Repository
+public class JdbcEventStore implements EventStore {
+
+    /**
+     * Maximum number of rows per insert statement, keeping well below the
+     * PostgreSQL limit on bind parameters per statement.
+     */
+    static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String INSERT_COLUMNS =
+            "INSERT INTO event_store (aggregate_id, version, event_index, aggregate_type, event_id, "
+                    + "event_type, payload_type, payload, occurred_at) ";
+
+    private static final String ROW_VALUES =
+            "(CAST(? AS UUID), CAST(? AS INT), CAST(? AS INT), CAST(? AS VARCHAR), CAST(? AS UUID), "
+                    + "CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS JSONB), CAST(? AS TIMESTAMP))";
+
+    private static final String VERSION_GUARD =
+            " WHERE COALESCE((SELECT MAX(version) FROM event_store WHERE aggregate_id = ?), 0) = ?";
+
+    private static final String LOAD_SQL =
+            "SELECT aggregate_id, aggregate_type, version, event_index, payload_type, payload::text AS payload "
+                    + "FROM event_store WHERE aggregate_id = ? AND version > ? ORDER BY version, event_index";
+
+    private static final String LOAD_RANGE_SQL =
+            "SELECT aggregate_id, aggregate_type, version, event_index, payload_type, payload::text AS payload "
+                    + "FROM event_store WHERE aggregate_id = ? AND version > ? AND version <= ? "
+                    + "ORDER BY version, event_index";
+
+    private static final String LOAD_RANGES_SQL =
+            "SELECT e.aggregate_id, e.aggregate_type, e.version, e.event_index, e.payload_type, "
+                    + "e.payload::text AS payload "
+                    + "FROM unnest(?::uuid[], ?::int[], ?::int[]) AS r(aggregate_id, after_version, up_to_version) "
+                    + "JOIN event_store e ON e.aggregate_id = r.aggregate_id "
+                    + "AND e.version > r.after_version AND e.version <= r.up_to_version "
+                    + "ORDER BY e.aggregate_id, e.version, e.event_index";
+
+    private static final String SCAN_SQL =
+            "SELECT aggregate_id, aggregate_type, version, event_index, payload_type, payload::text AS payload "
+                    + "FROM event_store WHERE aggregate_id > ? AND aggregate_id <= ? "
+                    + "ORDER BY aggregate_id, version, event_index LIMIT ?";
+
+    private static final String VERSION_AT_SQL =
+            "SELECT MAX(version) FROM event_store WHERE aggregate_id = ? AND occurred_at <= ?";
+
+    private static final String VERSIONS_AT_SQL =
+            "SELECT aggregate_id, MAX(version) AS version FROM event_store "
+                    + "WHERE aggregate_id = ANY(?) AND occurred_at <= ? GROUP BY aggregate_id";
+
+    private static final String FIRST_STORED_VERSION_SQL =
+            "SELECT MIN(version) FROM event_store WHERE aggregate_id = ?";
+
+    private static final String CURRENT_VERSION_SQL =
+            "SELECT COALESCE(MAX(version), 0) FROM event_store WHERE aggregate_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final EventArchive archive;
+    private final Map<String, Class<?>> payloadTypes = new ConcurrentHashMap<>();
+
+    public JdbcEventStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this(jdbcTemplate, objectMapper, (EventArchive) null);
+    }
+
+    @Autowired
+    public JdbcEventStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, ObjectProvider<EventArchive> archive) {
+        this(jdbcTemplate, objectMapper, archive.getIfAvailable());
+    }
+
+    public JdbcEventStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, EventArchive archive) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.archive = archive;
+    }
+
+    @Override
+    @Transactional
+    public void append(BaseAggregateRoot aggregate) {
+        // a new aggregate is still at version 0 unless the command marked it as updated
+        append(aggregate.getClass().getSimpleName(), aggregate.getId(), Math.max(0, aggregate.getVersion() - 1),
+                aggregate.domainEvents());
+        aggregate.clearEvents();
+    }
+
+    @Override
+    @Transactional
+    public void append(String aggregateType, UUID aggregateId, int expectedVersion,
+                       Collection<? extends DomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        int version = expectedVersion + 1;
+        List<? extends DomainEvent> pending = new ArrayList<>(events);
+        for (int from = 0; from < pending.size(); from += MAX_ROWS_PER_STATEMENT) {
+            int to = Math.min(from + MAX_ROWS_PER_STATEMENT, pending.size());
+            boolean guarded = from == 0;
+            int inserted = insertRows(aggregateType, aggregateId, version, expectedVersion,
+                    pending.subList(from, to), from, guarded);
+            if (guarded && inserted == 0) {
+                throw new OptimisticLockingFailureException(String.format(
+                        "Event stream %s is not at expected version %d", aggregateId, expectedVersion));
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EventStream load(UUID aggregateId, int afterVersion) {
+        List<StoredEvent> events = jdbcTemplate.query(LOAD_SQL, (rs, rowNum) -> mapEvent(rs), aggregateId, afterVersion);
+        if (archive != null && !events.isEmpty() && events.get(0).getVersion() > afterVersion + 1) {
+            events = withArchived(aggregateId, afterVersion, events.get(0).getVersion(), events);
+        }
+        return stream(aggregateId, afterVersion, events);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EventStream load(UUID aggregateId, int afterVersion, int upToVersion) {
+        List<StoredEvent> events = jdbcTemplate.query(LOAD_RANGE_SQL, (rs, rowNum) -> mapEvent(rs),
+                aggregateId, afterVersion, upToVersion);
+        // unlike an open-ended load, a bounded one may lie entirely before the retained commit
+        int firstStored = events.isEmpty() ? upToVersion + 1 : events.get(0).getVersion();
+        if (archive != null && upToVersion > afterVersion && firstStored > afterVersion + 1) {
+            events = withArchived(aggregateId, afterVersion, firstStored, events);
+        }
+        return stream(aggregateId, afterVersion, events);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<UUID, EventStream> loadRanges(Map<UUID, Integer> afterVersions, Map<UUID, Integer> upToVersions) {
+        Map<UUID, EventStream> streams = new HashMap<>(upToVersions.size() * 2);
+        if (upToVersions.isEmpty()) {
+            return streams;
+        }
+        Object[] aggregateIds = upToVersions.keySet().toArray();
+        Object[] after = new Object[aggregateIds.length];
+        Object[] upTo = new Object[aggregateIds.length];
+        for (int i = 0; i < aggregateIds.length; i++) {
+            after[i] = afterVersions.getOrDefault(aggregateIds[i], 0);
+            upTo[i] = upToVersions.get(aggregateIds[i]);
+        }
+        Map<UUID, List<StoredEvent>> events = new HashMap<>(upToVersions.size() * 2);
+        jdbcTemplate.query(LOAD_RANGES_SQL,
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("uuid", aggregateIds));
+                    ps.setArray(2, ps.getConnection().createArrayOf("int4", after));
+                    ps.setArray(3, ps.getConnection().createArrayOf("int4", upTo));
+                },
+                rs -> {
+                    StoredEvent event = mapEvent(rs);
+                    events.computeIfAbsent(event.getAggregateId(), id -> new ArrayList<>()).add(event);
+                });
+
+        for (Map.Entry<UUID, Integer> range : upToVersions.entrySet()) {
+            UUID aggregateId = range.getKey();
+            int afterVersion = afterVersions.getOrDefault(aggregateId, 0);
+            int upToVersion = range.getValue();
+            List<StoredEvent> stored = events.getOrDefault(aggregateId, List.of());
+            // as for a single bounded load, only archived aggregates go back to the archive
+            int firstStored = stored.isEmpty() ? upToVersion + 1 : stored.get(0).getVersion();
+            if (archive != null && upToVersion > afterVersion && firstStored > afterVersion + 1) {
+                stored = withArchived(aggregateId, afterVersion, firstStored, stored);
+            }
+            streams.put(aggregateId, stream(aggregateId, afterVersion, stored));
+        }
+        return streams;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int currentVersion(UUID aggregateId) {
+        // the latest commit is never archived, so the store alone knows the current version
+        Integer version = jdbcTemplate.queryForObject(CURRENT_VERSION_SQL, Integer.class, aggregateId);
+        return version != null ? version : 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StoredEvent> scan(UUID afterAggregateId, UUID upToAggregateId, int maxEvents) {
+        List<StoredEvent> rows = jdbcTemplate.query(SCAN_SQL, (rs, rowNum) -> mapEvent(rs),
+                afterAggregateId, upToAggregateId, maxEvents);
+        if (rows.size() == maxEvents) {
+            // the last aggregate may continue past the limit: drop it, unless it is the only one
+            UUID last = rows.get(rows.size() - 1).getAggregateId();
+            int end = rows.size();
+            while (end > 0 && rows.get(end - 1).getAggregateId().equals(last)) {
+                end--;
+            }
+            rows = end > 0 ? rows.subList(0, end) : load(last, 0).getEvents();
+        }
+        if (archive == null) {
+            return rows;
+        }
+
+        List<StoredEvent> events = new ArrayList<>(rows.size());
+        int from = 0;
+        while (from < rows.size()) {
+            UUID aggregateId = rows.get(from).getAggregateId();
+            int to = from;
+            while (to < rows.size() && rows.get(to).getAggregateId().equals(aggregateId)) {
+                to++;
+            }
+            List<StoredEvent> stream = rows.subList(from, to);
+            // only the latest commit of an archived aggregate is kept in the store
+            events.addAll(stream.get(0).getVersion() > 1
+                    ? withArchived(aggregateId, 0, stream.get(0).getVersion(), stream)
+                    : stream);
+            from = to;
+        }
+        return events;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int versionAt(UUID aggregateId, LocalDateTime timestamp) {
+        Integer version = jdbcTemplate.queryForObject(VERSION_AT_SQL, Integer.class,
+                aggregateId, Timestamp.valueOf(timestamp));
+        if (version == null && archive != null) {
+            // before the retained commit, the history of an archived aggregate is only in the archive
+            return archivedVersionAt(aggregateId, timestamp);
+        }
+        return version != null ? version : 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<UUID, Integer> versionsAt(Collection<UUID> aggregateIds, LocalDateTime timestamp) {
+        Map<UUID, Integer> versions = new HashMap<>(aggregateIds.size() * 2);
+        if (aggregateIds.isEmpty()) {
+            return versions;
+        }
+        jdbcTemplate.query(VERSIONS_AT_SQL,
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("uuid", aggregateIds.toArray()));
+                    ps.setTimestamp(2, Timestamp.valueOf(timestamp));
+                },
+                rs -> {
+                    versions.put(rs.getObject("aggregate_id", UUID.class), rs.getInt("version"));
+                });
+        if (archive != null) {
+            for (UUID aggregateId : aggregateIds) {
+                if (!versions.containsKey(aggregateId)) {
+                    int version = archivedVersionAt(aggregateId, timestamp);
+                    if (version > 0) {
+                        versions.put(aggregateId, version);
+                    }
+                }
+            }
+        }
+        return versions;
+    }
+
+    private int archivedVersionAt(UUID aggregateId, LocalDateTime timestamp) {
+        Integer firstStored = jdbcTemplate.queryForObject(FIRST_STORED_VERSION_SQL, Integer.class, aggregateId);
+        if (firstStored == null || firstStored == 1) {
+            return 0;
+        }
+        int version = 0;
+        for (ArchivedEvent event : archive.read(aggregateId, 0, firstStored)) {
+            if (!event.getOccurredAt().isAfter(timestamp)) {
+                version = Math.max(version, event.getVersion());
+            }
+        }
+        return version;
+    }
+
+    private List<StoredEvent> withArchived(UUID aggregateId, int afterVersion, int beforeVersion,
+                                           List<StoredEvent> events) {
+        List<ArchivedEvent> archived = archive.read(aggregateId, afterVersion, beforeVersion);
+        List<StoredEvent> stream = new ArrayList<>(archived.size() + events.size());
+        for (ArchivedEvent event : archived) {
+            stream.add(new StoredEvent(event.getAggregateId(), event.getAggregateType(), event.getVersion(),
+                    event.getEventIndex(), deserialize(event.getPayloadType(), event.getPayload())));
+        }
+        stream.addAll(events);
+        return stream;
+    }
+
+    private static EventStream stream(UUID aggregateId, int afterVersion, List<StoredEvent> events) {
+        int version = events.isEmpty() ? afterVersion : events.get(events.size() - 1).getVersion();
+        return new EventStream(aggregateId, version, events);
+    }
+
+    private int insertRows(String aggregateType, UUID aggregateId, int version, int expectedVersion,
+                           List<? extends DomainEvent> events, int firstIndex, boolean guarded) {
+        StringBuilder sql = new StringBuilder(INSERT_COLUMNS.length() + events.size() * (ROW_VALUES.length() + 2) + 128);
+        sql.append(INSERT_COLUMNS).append("SELECT * FROM (VALUES ");
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_VALUES);
+        }
+        sql.append(") AS v");
+        if (guarded) {
+            sql.append(VERSION_GUARD);
+        }
+
+        List<Object> args = new ArrayList<>(events.size() * 9 + 2);
+        for (int i = 0; i < events.size(); i++) {
+            DomainEvent event = events.get(i);
+            args.add(aggregateId);
+            args.add(version);
+            args.add(firstIndex + i);
+            args.add(aggregateType);
+            args.add(event.getEventId());
+            args.add(event.getEventType());
+            args.add(event.getClass().getName());
+            args.add(serialize(event));
+            args.add(Timestamp.valueOf(event.getTimestamp()));
+        }
+        if (guarded) {
+            args.add(aggregateId);
+            args.add(expectedVersion);
+        }
+
+        try {
+            return jdbcTemplate.update(sql.toString(), args.toArray());
+        } catch (DuplicateKeyException e) {
+            throw new OptimisticLockingFailureException(String.format(
+                    "Concurrent append to event stream %s at version %d", aggregateId, version), e);
+        }
+    }
+
+    private StoredEvent mapEvent(ResultSet rs) throws SQLException {
+        DomainEvent event = deserialize(rs.getString("payload_type"), rs.getString("payload"));
+        return new StoredEvent(
+                rs.getObject("aggregate_id", UUID.class),
+                rs.getString("aggregate_type"),
+                rs.getInt("version"),
+                rs.getInt("event_index"),
+                event);
+    }
+
+    private String serialize(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event " + event.getEventId(), e);
+        }
+    }
+
+    private DomainEvent deserialize(String payloadType, String payload) {
+        Class<?> type = payloadTypes.computeIfAbsent(payloadType, this::resolveType);
+        try {
+            return (DomainEvent) objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize stored event of type " + payloadType, e);
+        }
+    }
+
+    private Class<?> resolveType(String className) {
+        try {
+            return ClassUtils.forName(className, getClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unknown stored event type " + className, e);
+        }
+    }
+}
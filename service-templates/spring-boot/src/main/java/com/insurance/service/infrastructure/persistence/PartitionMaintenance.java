@@ -0,0 +1,213 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.insurance.service.config.PartitionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains tables partitioned by day on a timestamp column, such as the outbox.
+ * Each run creates the partitions of the coming days and expires partitions older than the
+ * retention by detaching and optionally dropping them, which costs the same regardless of how
+ * many rows they hold and leaves no dead tuples behind. A partition still holding rows that match
+ * the table's pending predicate is kept until they are done.
+ * <p>
+ * Every table is maintained in its own transaction under an advisory lock, so replicas can run
+ * maintenance concurrently. Partitions follow the naming {@code <table>_pYYYYMMDD}.
+ */
+@Component
+public class PartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenance.class);
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final Pattern RANGE_BOUND = Pattern.compile("FOR VALUES FROM \\((.+)\\) TO \\((.+)\\)");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext(?))";
+
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound FROM pg_inherits i "
+                    + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = CAST(? AS regclass) ORDER BY c.relname";
+
+    private static final String PARTITION_COLUMN_SQL =
+            "SELECT a.attname FROM pg_partitioned_table p "
+                    + "JOIN pg_attribute a ON a.attrelid = p.partrelid AND a.attnum = p.partattrs[0] "
+                    + "WHERE p.partrelid = CAST(? AS regclass)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitionProperties properties;
+
+    public PartitionMaintenance(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                PartitionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Maintains every configured table. A failure is logged and retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${insurance.partitions.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        for (Map.Entry<String, PartitionProperties.TableSettings> table : properties.getTables().entrySet()) {
+            try {
+                maintain(table.getKey(), table.getValue());
+            } catch (DataAccessException e) {
+                log.error("Partition maintenance of {} failed", table.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Creates upcoming partitions of a table and expires old ones.
+     *
+     * @param table The partitioned table
+     * @param settings The table's maintenance settings
+     */
+    public void maintain(String table, PartitionProperties.TableSettings settings) {
+        if (!IDENTIFIER.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid partitioned table name: " + table);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class, "partitions:" + table))) {
+                log.debug("Partitions of {} are being maintained by another instance", table);
+                return;
+            }
+            // DDL on a partition locks the parent; give up rather than queue inserts behind it
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+            List<TimePartition> partitions = jdbcTemplate.query(LIST_PARTITIONS_SQL,
+                    (rs, rowNum) -> TimePartition.parse(rs.getString("relname"), rs.getString("bound")), table);
+            createUpcoming(table, partitions, settings.getPremakeDays());
+            if (settings.getRetention() != null) {
+                expire(table, partitions, settings, LocalDateTime.now().minus(settings.getRetention()));
+            }
+        });
+    }
+
+    private void createUpcoming(String table, List<TimePartition> partitions, int premakeDays) {
+        String column = jdbcTemplate.queryForObject(PARTITION_COLUMN_SQL, String.class, table);
+        TimePartition defaultPartition = partitions.stream().filter(TimePartition::isDefault).findFirst().orElse(null);
+        LocalDate today = LocalDate.now();
+        for (LocalDate day = today; !day.isAfter(today.plusDays(premakeDays)); day = day.plusDays(1)) {
+            LocalDateTime from = day.atStartOfDay();
+            LocalDateTime to = from.plusDays(1);
+            if (partitions.stream().anyMatch(partition -> partition.overlaps(from, to))) {
+                continue;
+            }
+            if (defaultPartition != null && hasRows(defaultPartition.name, column, from, to)) {
+                log.warn("Rows of {} from {} are in its default partition, the partition for that day cannot be "
+                        + "created until they are moved", table, day);
+                continue;
+            }
+            String name = table + "_p" + PARTITION_SUFFIX.format(day);
+            jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    quote(name), table, Timestamp.valueOf(from), Timestamp.valueOf(to)));
+            log.info("Created partition {} of {}", name, table);
+        }
+    }
+
+    private void expire(String table, List<TimePartition> partitions, PartitionProperties.TableSettings settings,
+                        LocalDateTime cutoff) {
+        for (TimePartition partition : partitions) {
+            if (partition.isDefault() || partition.to == null || partition.to.isAfter(cutoff)) {
+                continue;
+            }
+            if (settings.getPendingPredicate() != null && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + quote(partition.name) + " WHERE " + settings.getPendingPredicate() + ")",
+                    Boolean.class))) {
+                log.warn("Partition {} of {} is past retention but still has pending rows, keeping it",
+                        partition.name, table);
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + quote(partition.name));
+            if (settings.getRetentionAction() == PartitionProperties.RetentionAction.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + quote(partition.name));
+                log.info("Dropped partition {} of {}", partition.name, table);
+            } else {
+                log.info("Detached partition {} of {}", partition.name, table);
+            }
+        }
+    }
+
+    private boolean hasRows(String partition, String column, LocalDateTime from, LocalDateTime to) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + quote(partition) + " WHERE " + quote(column) + " >= ? AND "
+                        + quote(column) + " < ?)",
+                Boolean.class, Timestamp.valueOf(from), Timestamp.valueOf(to)));
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * A partition and its time range; an unbounded end is null.
+     */
+    static final class TimePartition {
+
+        private final String name;
+        private final boolean isDefault;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        private TimePartition(String name, boolean isDefault, LocalDateTime from, LocalDateTime to) {
+            this.name = name;
+            this.isDefault = isDefault;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Parses a partition bound as rendered by {@code pg_get_expr}, e.g.
+         * {@code FOR VALUES FROM ('2024-03-01 00:00:00') TO ('2024-03-02 00:00:00')}.
+         */
+        static TimePartition parse(String name, String bound) {
+            if ("DEFAULT".equals(bound)) {
+                return new TimePartition(name, true, null, null);
+            }
+            Matcher matcher = RANGE_BOUND.matcher(bound);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Partition " + name + " is not a single-column range partition: " + bound);
+            }
+            return new TimePartition(name, false, parseValue(matcher.group(1)), parseValue(matcher.group(2)));
+        }
+
+        private static LocalDateTime parseValue(String value) {
+            if ("MINVALUE".equals(value) || "MAXVALUE".equals(value)) {
+                return null;
+            }
+            return Timestamp.valueOf(value.substring(1, value.length() - 1)).toLocalDateTime();
+        }
+
+        boolean isDefault() {
+            return isDefault;
+        }
+
+        LocalDateTime getFrom() {
+            return from;
+        }
+
+        LocalDateTime getTo() {
+            return to;
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            return !isDefault && (from == null || from.isBefore(end)) && (to == null || to.isAfter(start));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.insurance.service.domain.event.DomainEvent;
+
+import java.util.UUID;
+
+/**
+ * A domain event as recorded in the event store, together with its stream position.
+ */
+public final class StoredEvent {
+
+    private final UUID aggregateId;
+    private final String aggregateType;
+    private final int version;
+    private final int eventIndex;
+    private final DomainEvent event;
+
+    public StoredEvent(UUID aggregateId, String aggregateType, int version, int eventIndex, DomainEvent event) {
+        this.aggregateId = aggregateId;
+        this.aggregateType = aggregateType;
+        this.version = version;
+        this.eventIndex = eventIndex;
+        this.event = event;
+    }
+
+    public UUID getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    /**
+     * Gets the aggregate version committed together with this event.
+     *
+     * @return The commit version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the position of this event within its commit.
+     *
+     * @return The zero-based index within the commit
+     */
+    public int getEventIndex() {
+        return eventIndex;
+    }
+
+    public DomainEvent getEvent() {
+        return event;
+    }
+}
@@ -0,0 +1,81 @@
+package com.insurance.service.infrastructure.persistence.archive;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * An event store row as kept in the archive, with its payload still serialized.
+ */
+public final class ArchivedEvent {
+
+    /**
+     * Order of events within a segment: by aggregate, then by stream position.
+     */
+    public static final Comparator<ArchivedEvent> SEGMENT_ORDER = Comparator
+            .comparing(ArchivedEvent::getAggregateId)
+            .thenComparingInt(ArchivedEvent::getVersion)
+            .thenComparingInt(ArchivedEvent::getEventIndex);
+
+    private final UUID aggregateId;
+    private final String aggregateType;
+    private final int version;
+    private final int eventIndex;
+    private final UUID eventId;
+    private final String eventType;
+    private final String payloadType;
+    private final String payload;
+    private final LocalDateTime occurredAt;
+
+    public ArchivedEvent(UUID aggregateId, String aggregateType, int version, int eventIndex, UUID eventId,
+                         String eventType, String payloadType, String payload, LocalDateTime occurredAt) {
+        this.aggregateId = aggregateId;
+        this.aggregateType = aggregateType;
+        this.version = version;
+        this.eventIndex = eventIndex;
+        this.eventId = eventId;
+        this.eventType = eventType;
+        this.payloadType = payloadType;
+        this.payload = payload;
+        this.occurredAt = occurredAt;
+    }
+
+    public UUID getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getEventIndex() {
+        return eventIndex;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getPayloadType() {
+        return payloadType;
+    }
+
+    /**
+     * Gets the event serialized as JSON, as it was stored in the event store.
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
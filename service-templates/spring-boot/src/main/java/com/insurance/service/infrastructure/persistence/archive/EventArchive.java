@@ -0,0 +1,112 @@
+package com.insurance.service.infrastructure.persistence.archive;
+
+import com.insurance.service.domain.model.Ids;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only archive of event history, stored as immutable {@link Segment} files in one directory.
+ * New segments are written by {@link EventArchiver}; segments written by other instances sharing
+ * the directory are picked up periodically, and immediately when a read finds a gap.
+ * An aggregate's archived history may be spread over several segments if it was reopened and
+ * closed again after being archived.
+ */
+public class EventArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(EventArchive.class);
+
+    private final Path directory;
+    private final int blockSize;
+    private final Map<Path, Segment> segments = new ConcurrentHashMap<>();
+
+    public EventArchive(Path directory, int blockSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.blockSize = blockSize;
+        refresh();
+    }
+
+    /**
+     * Writes events to a new segment.
+     *
+     * @param events The events to archive, in any order
+     */
+    public void append(List<ArchivedEvent> events) throws IOException {
+        List<ArchivedEvent> sorted = new ArrayList<>(events);
+        sorted.sort(ArchivedEvent.SEGMENT_ORDER);
+        // time-ordered names list segments in the order they were written
+        Segment segment = Segment.write(directory.resolve("segment-" + Ids.next() + Segment.SUFFIX), sorted, blockSize);
+        segments.put(segment.getPath(), segment);
+        log.info("Archived {} events to {}", sorted.size(), segment.getPath().getFileName());
+    }
+
+    /**
+     * Reads the archived commits of an aggregate within a range of versions.
+     * Commits of a stream are numbered without gaps, so if commits in the range are missing,
+     * segments written by other instances are loaded and the read is retried once.
+     *
+     * @param aggregateId The aggregate
+     * @param afterVersion Only commits with a higher version are returned
+     * @param beforeVersion Only commits with a lower version are returned
+     * @return The events in stream order
+     */
+    public List<ArchivedEvent> read(UUID aggregateId, int afterVersion, int beforeVersion) {
+        List<ArchivedEvent> events = readLoaded(aggregateId, afterVersion, beforeVersion);
+        if (!isComplete(events, afterVersion, beforeVersion)) {
+            refresh();
+            events = readLoaded(aggregateId, afterVersion, beforeVersion);
+        }
+        return events;
+    }
+
+    /**
+     * Loads segments written since the last refresh, by this or another instance.
+     */
+    @Scheduled(fixedDelayString = "${insurance.archive.refresh-interval-ms:60000}")
+    public void refresh() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + Segment.SUFFIX)) {
+            for (Path file : files) {
+                if (!segments.containsKey(file)) {
+                    segments.put(file, Segment.open(file));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load event archive segments from " + directory, e);
+        }
+    }
+
+    private List<ArchivedEvent> readLoaded(UUID aggregateId, int afterVersion, int beforeVersion) {
+        // a crash between writing a segment and deleting the archived rows can archive a commit twice
+        TreeMap<Long, ArchivedEvent> events = new TreeMap<>();
+        for (Segment segment : segments.values()) {
+            for (ArchivedEvent event : segment.read(aggregateId, afterVersion, beforeVersion)) {
+                events.putIfAbsent(((long) event.getVersion() << 32) | event.getEventIndex(), event);
+            }
+        }
+        return new ArrayList<>(events.values());
+    }
+
+    private static boolean isComplete(List<ArchivedEvent> events, int afterVersion, int beforeVersion) {
+        int expected = afterVersion + 1;
+        for (ArchivedEvent event : events) {
+            if (event.getVersion() == expected) {
+                expected++;
+            } else if (event.getVersion() > expected) {
+                return false;
+            }
+        }
+        return expected == beforeVersion;
+    }
+}
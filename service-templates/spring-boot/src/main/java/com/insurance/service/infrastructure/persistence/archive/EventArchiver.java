@@ -0,0 +1,141 @@
+package com.insurance.service.infrastructure.persistence.archive;
+
+import com.insurance.service.config.ArchiveProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves the history of closed aggregates from the event store to the {@link EventArchive}.
+ * An aggregate is closed once its latest commit contains one of the configured closing events
+ * and that commit is older than the configured age. Every commit except the latest is archived;
+ * the latest stays in the event store, so appends keep their version check if a closed aggregate
+ * is reopened, and stream loads know from the version of the first stored commit that older
+ * commits are archived.
+ * <p>
+ * A run writes one segment and deletes the archived rows in the same transaction, under an
+ * advisory lock so only one instance archives at a time. The segment is on disk before the
+ * delete commits; if the commit fails, the next run archives the same commits again and reads
+ * ignore the duplicates.
+ */
+@Component
+@ConditionalOnProperty(prefix = "insurance.archive", name = "enabled", havingValue = "true")
+public class EventArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(EventArchiver.class);
+
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext('event-archive'))";
+
+    private static final String CANDIDATES_SQL =
+            "SELECT DISTINCT e.aggregate_id, e.version FROM event_store e "
+                    + "WHERE e.event_type = ANY(?) AND e.occurred_at < ? "
+                    + "AND NOT EXISTS (SELECT 1 FROM event_store n WHERE n.aggregate_id = e.aggregate_id AND n.version > e.version) "
+                    + "AND EXISTS (SELECT 1 FROM event_store o WHERE o.aggregate_id = e.aggregate_id AND o.version < e.version) "
+                    + "LIMIT ?";
+
+    private static final String LOAD_SQL =
+            "SELECT e.aggregate_id, e.aggregate_type, e.version, e.event_index, e.event_id, e.event_type, "
+                    + "e.payload_type, e.payload::text AS payload, e.occurred_at FROM event_store e "
+                    + "JOIN unnest(?::uuid[], ?::int[]) AS a(aggregate_id, tail) ON e.aggregate_id = a.aggregate_id "
+                    + "WHERE e.version < a.tail";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM event_store e USING unnest(?::uuid[], ?::int[]) AS a(aggregate_id, tail) "
+                    + "WHERE e.aggregate_id = a.aggregate_id AND e.version < a.tail";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EventArchive archive;
+    private final ArchiveProperties properties;
+
+    public EventArchiver(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                         EventArchive archive, ArchiveProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.archive = archive;
+        this.properties = properties;
+    }
+
+    /**
+     * Archives closed aggregates until fewer than a full segment's worth are left.
+     */
+    @Scheduled(fixedDelayString = "${insurance.archive.interval-ms:3600000}")
+    public void archive() {
+        if (properties.getClosingEventTypes().isEmpty()) {
+            log.debug("No closing event types configured, nothing to archive");
+            return;
+        }
+        int archived;
+        do {
+            archived = archiveBatch();
+        } while (archived == properties.getAggregatesPerSegment());
+    }
+
+    /**
+     * Archives one segment's worth of closed aggregates.
+     *
+     * @return The number of aggregates archived
+     */
+    public int archiveBatch() {
+        Integer archived = transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class))) {
+                return 0;
+            }
+            LocalDateTime closedBefore = LocalDateTime.now().minus(properties.getClosedFor());
+            List<UUID> aggregateIds = new ArrayList<>();
+            List<Integer> tails = new ArrayList<>();
+            jdbcTemplate.query(CANDIDATES_SQL, ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("varchar", properties.getClosingEventTypes().toArray()));
+                ps.setTimestamp(2, Timestamp.valueOf(closedBefore));
+                ps.setInt(3, properties.getAggregatesPerSegment());
+            }, rs -> {
+                aggregateIds.add(rs.getObject("aggregate_id", UUID.class));
+                tails.add(rs.getInt("version"));
+            });
+            if (aggregateIds.isEmpty()) {
+                return 0;
+            }
+
+            PreparedStatementSetter streams = ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("uuid", aggregateIds.toArray()));
+                ps.setArray(2, ps.getConnection().createArrayOf("integer", tails.toArray()));
+            };
+            List<ArchivedEvent> events = jdbcTemplate.query(LOAD_SQL, streams, (rs, rowNum) -> new ArchivedEvent(
+                    rs.getObject("aggregate_id", UUID.class),
+                    rs.getString("aggregate_type"),
+                    rs.getInt("version"),
+                    rs.getInt("event_index"),
+                    rs.getObject("event_id", UUID.class),
+                    rs.getString("event_type"),
+                    rs.getString("payload_type"),
+                    rs.getString("payload"),
+                    rs.getTimestamp("occurred_at").toLocalDateTime()));
+            try {
+                archive.append(events);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write event archive segment", e);
+            }
+            int deleted = jdbcTemplate.update(DELETE_SQL, streams);
+            if (deleted != events.size()) {
+                throw new IllegalStateException(String.format(
+                        "Archived %d events but %d matched for deletion, rolling back", events.size(), deleted));
+            }
+            log.info("Archived the history of {} closed aggregates ({} events)", aggregateIds.size(), events.size());
+            return aggregateIds.size();
+        });
+        return archived != null ? archived : 0;
+    }
+}
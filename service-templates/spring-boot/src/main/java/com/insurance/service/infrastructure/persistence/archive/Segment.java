@@ -0,0 +1,377 @@
+package com.insurance.service.infrastructure.persistence.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An immutable file of archived events, read through a read-only memory mapping.
+ * <p>
+ * Events are sorted by {@link ArchivedEvent#SEGMENT_ORDER} and grouped into blocks of about the
+ * configured size, each compressed on its own. The events of one aggregate never span blocks, so
+ * a sparse index holding the first aggregate ID of every block locates an aggregate's events in a
+ * single block. A lookup binary-searches the index and inflates that block straight from the
+ * mapped file, without copying the compressed bytes onto the heap.
+ * <p>
+ * Segments hold whichever aggregates were archived together, so the ID ranges of segments overlap
+ * and the sparse index cannot rule a segment out. A Bloom filter over the aggregate IDs does: it
+ * is probed in the mapped file, and only about one in a hundred segments without the aggregate
+ * inflates a block.
+ * <p>
+ * Layout: header (magic, format version), blocks, Bloom filter, index (per block: first aggregate
+ * ID, offset, compressed and uncompressed length), footer (index offset, last aggregate ID, block
+ * count, filter offset, magic).
+ */
+public final class Segment {
+
+    /**
+     * File name suffix of complete segments.
+     */
+    public static final String SUFFIX = ".seg";
+
+    private static final int MAGIC = 0x45564152;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int INDEX_ENTRY_BYTES = 16 + 4 + 4 + 4;
+    private static final int FOOTER_BYTES = 8 + 16 + 4 + 8 + 4;
+
+    // 10 bits and 7 probes per aggregate give a false positive rate of about 1%
+    private static final int FILTER_BITS_PER_AGGREGATE = 10;
+    private static final int FILTER_PROBES = 7;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final UUID[] firstIds;
+    private final int[] offsets;
+    private final int[] compressedLengths;
+    private final int[] uncompressedLengths;
+    private final UUID lastId;
+    private final int filterOffset;
+    private final long filterBits;
+
+    private Segment(Path path, MappedByteBuffer buffer, UUID[] firstIds, int[] offsets,
+                    int[] compressedLengths, int[] uncompressedLengths, UUID lastId,
+                    int filterOffset, long filterBits) {
+        this.path = path;
+        this.buffer = buffer;
+        this.firstIds = firstIds;
+        this.offsets = offsets;
+        this.compressedLengths = compressedLengths;
+        this.uncompressedLengths = uncompressedLengths;
+        this.lastId = lastId;
+        this.filterOffset = filterOffset;
+        this.filterBits = filterBits;
+    }
+
+    /**
+     * Writes a new segment. The file only appears under its final name once it is complete
+     * and flushed to disk, so readers never see a partial segment.
+     *
+     * @param target The path of the segment to create
+     * @param events The events, in {@link ArchivedEvent#SEGMENT_ORDER}
+     * @param blockSize The uncompressed size after which a block is closed
+     * @return The written segment, opened for reading
+     */
+    public static Segment write(Path target, List<ArchivedEvent> events, int blockSize) throws IOException {
+        if (events.isEmpty()) {
+            throw new IllegalArgumentException("A segment needs at least one event");
+        }
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        byte[] filter = new byte[Math.max(8, (countAggregates(events) * FILTER_BITS_PER_AGGREGATE + 7) / 8)];
+        List<UUID> blockIds = new ArrayList<>();
+        List<int[]> blockPositions = new ArrayList<>();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT_VERSION).flip());
+
+            ByteArrayOutputStream block = new ByteArrayOutputStream(blockSize + blockSize / 4);
+            DataOutputStream out = new DataOutputStream(block);
+            UUID previous = null;
+            for (ArchivedEvent event : events) {
+                boolean newAggregate = !event.getAggregateId().equals(previous);
+                if (newAggregate && block.size() >= blockSize) {
+                    blockPositions.add(writeBlock(channel, deflater, block));
+                    block.reset();
+                }
+                if (block.size() == 0) {
+                    blockIds.add(event.getAggregateId());
+                }
+                if (newAggregate) {
+                    addToFilter(filter, event.getAggregateId());
+                }
+                writeEvent(out, event);
+                previous = event.getAggregateId();
+            }
+            blockPositions.add(writeBlock(channel, deflater, block));
+
+            long filterOffset = channel.position();
+            writeFully(channel, ByteBuffer.wrap(filter));
+
+            long indexOffset = channel.position();
+            ByteBuffer index = ByteBuffer.allocate(blockIds.size() * INDEX_ENTRY_BYTES + FOOTER_BYTES);
+            for (int i = 0; i < blockIds.size(); i++) {
+                putUuid(index, blockIds.get(i));
+                index.putInt(blockPositions.get(i)[0]).putInt(blockPositions.get(i)[1]).putInt(blockPositions.get(i)[2]);
+            }
+            index.putLong(indexOffset);
+            putUuid(index, previous);
+            index.putInt(blockIds.size()).putLong(filterOffset).putInt(MAGIC);
+            writeFully(channel, index.flip());
+            if (channel.position() > Integer.MAX_VALUE) {
+                throw new IOException("Segment " + target + " exceeds 2 GiB, archive fewer aggregates per segment");
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        return open(target);
+    }
+
+    /**
+     * Opens a segment for reading.
+     */
+    public static Segment open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES + FOOTER_BYTES || buffer.getInt(0) != MAGIC
+                || buffer.getInt(buffer.capacity() - 4) != MAGIC) {
+            throw new IOException("Not a complete event archive segment: " + path);
+        }
+        int version = buffer.getInt(4);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported segment format " + version + ": " + path);
+        }
+        int footer = buffer.capacity() - FOOTER_BYTES;
+        int indexOffset = (int) buffer.getLong(footer);
+        UUID lastId = getUuid(buffer, footer + 8);
+        int blocks = buffer.getInt(footer + 24);
+        int filterOffset = (int) buffer.getLong(footer + 28);
+
+        UUID[] firstIds = new UUID[blocks];
+        int[] offsets = new int[blocks];
+        int[] compressedLengths = new int[blocks];
+        int[] uncompressedLengths = new int[blocks];
+        for (int i = 0; i < blocks; i++) {
+            int entry = indexOffset + i * INDEX_ENTRY_BYTES;
+            firstIds[i] = getUuid(buffer, entry);
+            offsets[i] = buffer.getInt(entry + 16);
+            compressedLengths[i] = buffer.getInt(entry + 20);
+            uncompressedLengths[i] = buffer.getInt(entry + 24);
+        }
+        return new Segment(path, buffer, firstIds, offsets, compressedLengths, uncompressedLengths, lastId,
+                filterOffset, (indexOffset - filterOffset) * 8L);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Reads the events of an aggregate within a range of versions.
+     *
+     * @param aggregateId The aggregate
+     * @param afterVersion Only commits with a higher version are returned
+     * @param beforeVersion Only commits with a lower version are returned
+     * @return The events in stream order, empty if the segment holds none
+     */
+    public List<ArchivedEvent> read(UUID aggregateId, int afterVersion, int beforeVersion) {
+        if (aggregateId.compareTo(firstIds[0]) < 0 || aggregateId.compareTo(lastId) > 0
+                || !mightContain(aggregateId)) {
+            return List.of();
+        }
+        int found = Arrays.binarySearch(firstIds, aggregateId);
+        int block = found >= 0 ? found : -found - 2;
+
+        ByteBuffer data = ByteBuffer.wrap(inflate(block));
+        List<ArchivedEvent> events = new ArrayList<>();
+        while (data.hasRemaining()) {
+            UUID id = getUuid(data);
+            int order = id.compareTo(aggregateId);
+            if (order > 0) {
+                break;
+            }
+            int version = data.getInt();
+            if (order < 0 || version <= afterVersion || version >= beforeVersion) {
+                skipEvent(data);
+                continue;
+            }
+            events.add(readEvent(data, id, version));
+        }
+        return events;
+    }
+
+    /**
+     * Checks the Bloom filter for an aggregate, without inflating any block.
+     *
+     * @return false if the segment certainly holds no events of the aggregate
+     */
+    boolean mightContain(UUID aggregateId) {
+        long hash = filterHash(aggregateId);
+        long step = filterStep(aggregateId);
+        for (int i = 0; i < FILTER_PROBES; i++) {
+            long bit = Math.floorMod(hash + i * step, filterBits);
+            if ((buffer.get(filterOffset + (int) (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addToFilter(byte[] filter, UUID aggregateId) {
+        long bits = filter.length * 8L;
+        long hash = filterHash(aggregateId);
+        long step = filterStep(aggregateId);
+        for (int i = 0; i < FILTER_PROBES; i++) {
+            long bit = Math.floorMod(hash + i * step, bits);
+            filter[(int) (bit >>> 3)] |= (byte) (1 << (bit & 7));
+        }
+    }
+
+    private static int countAggregates(List<ArchivedEvent> events) {
+        int count = 0;
+        UUID previous = null;
+        for (ArchivedEvent event : events) {
+            if (!event.getAggregateId().equals(previous)) {
+                count++;
+                previous = event.getAggregateId();
+            }
+        }
+        return count;
+    }
+
+    // time-ordered IDs share most of their bits, so both halves are mixed before use
+    private static long filterHash(UUID id) {
+        return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+
+    private static long filterStep(UUID id) {
+        return mix(id.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    private byte[] inflate(int block) {
+        byte[] uncompressed = new byte[uncompressedLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice(offsets[block], compressedLengths[block]));
+            int length = 0;
+            while (length < uncompressed.length && !inflater.finished()) {
+                length += inflater.inflate(uncompressed, length, uncompressed.length - length);
+            }
+            if (length != uncompressed.length) {
+                throw new IllegalStateException("Truncated block " + block + " in segment " + path);
+            }
+            return uncompressed;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block " + block + " in segment " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int[] writeBlock(FileChannel channel, Deflater deflater, ByteArrayOutputStream block) throws IOException {
+        byte[] uncompressed = block.toByteArray();
+        deflater.reset();
+        deflater.setInput(uncompressed);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(uncompressed.length / 4 + 64);
+        byte[] chunk = new byte[64 * 1024];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        int offset = (int) channel.position();
+        writeFully(channel, ByteBuffer.wrap(compressed.toByteArray()));
+        return new int[] {offset, compressed.size(), uncompressed.length};
+    }
+
+    private static void writeEvent(DataOutputStream out, ArchivedEvent event) throws IOException {
+        out.writeLong(event.getAggregateId().getMostSignificantBits());
+        out.writeLong(event.getAggregateId().getLeastSignificantBits());
+        out.writeInt(event.getVersion());
+        out.writeInt(event.getEventIndex());
+        out.writeLong(event.getEventId().getMostSignificantBits());
+        out.writeLong(event.getEventId().getLeastSignificantBits());
+        out.writeLong(event.getOccurredAt().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(event.getOccurredAt().getNano());
+        writeString(out, event.getAggregateType());
+        writeString(out, event.getEventType());
+        writeString(out, event.getPayloadType());
+        writeString(out, event.getPayload());
+    }
+
+    private static ArchivedEvent readEvent(ByteBuffer data, UUID aggregateId, int version) {
+        int eventIndex = data.getInt();
+        UUID eventId = getUuid(data);
+        LocalDateTime occurredAt = LocalDateTime.ofEpochSecond(data.getLong(), data.getInt(), ZoneOffset.UTC);
+        return new ArchivedEvent(aggregateId, readString(data), version, eventIndex, eventId,
+                readString(data), readString(data), readString(data), occurredAt);
+    }
+
+    private static void skipEvent(ByteBuffer data) {
+        data.position(data.position() + 4 + 16 + 8 + 4);
+        for (int i = 0; i < 4; i++) {
+            int length = data.getInt();
+            data.position(data.position() + length);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer data) {
+        int length = data.getInt();
+        String value = new String(data.array(), data.arrayOffset() + data.position(), length, StandardCharsets.UTF_8);
+        data.position(data.position() + length);
+        return value;
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer, int index) {
+        return new UUID(buffer.getLong(index), buffer.getLong(index + 8));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
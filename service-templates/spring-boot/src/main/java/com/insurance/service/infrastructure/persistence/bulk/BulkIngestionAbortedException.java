@@ -0,0 +1,26 @@
+package com.insurance.service.infrastructure.persistence.bulk;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an upload cannot be read to the end. Batches written until then stay committed;
+ * the report accounts for them and lists the records read but not stored.
+ */
+public class BulkIngestionAbortedException extends IOException {
+
+    private final transient BulkIngestionReport report;
+
+    public BulkIngestionAbortedException(BulkIngestionReport report, IOException cause) {
+        super("Upload could not be read to the end: " + cause.getMessage(), cause);
+        this.report = report;
+    }
+
+    /**
+     * Gets the report of the records read before the upload failed.
+     *
+     * @return The report
+     */
+    public BulkIngestionReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,127 @@
+package com.insurance.service.infrastructure.persistence.bulk;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk upload, with the reasons for rejected records.
+ */
+public class BulkIngestionReport {
+
+    private final long received;
+    private final long accepted;
+    private final long rejected;
+    private final List<RecordError> errors;
+    private final List<LineRange> notStored;
+
+    public BulkIngestionReport(long received, long accepted, long rejected, List<RecordError> errors,
+                               List<LineRange> notStored) {
+        this.received = received;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.notStored = notStored;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the records rejected for their content, up to {@code insurance.bulk.max-reported-errors}.
+     *
+     * @return The errors, by line
+     */
+    public List<RecordError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Gets the lines of valid records that were not stored and must be resubmitted, such as the
+     * records of a batch that could not be written. They are never truncated.
+     *
+     * @return The line ranges, by first line
+     */
+    public List<LineRange> getNotStored() {
+        return notStored;
+    }
+
+    /**
+     * Why one record was rejected.
+     */
+    public static class RecordError {
+
+        private final long line;
+        private final String message;
+        private final Map<String, String> fieldErrors;
+
+        public RecordError(long line, String message, Map<String, String> fieldErrors) {
+            this.line = line;
+            this.message = message;
+            this.fieldErrors = fieldErrors;
+        }
+
+        /**
+         * Gets the 1-based line number of the record in the upload.
+         *
+         * @return The line number
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public Map<String, String> getFieldErrors() {
+            return fieldErrors;
+        }
+    }
+
+    /**
+     * Consecutive lines of the upload that were not stored, for the same reason.
+     */
+    public static class LineRange {
+
+        private final long firstLine;
+        private final long lastLine;
+        private final String message;
+
+        public LineRange(long firstLine, long lastLine, String message) {
+            this.firstLine = firstLine;
+            this.lastLine = lastLine;
+            this.message = message;
+        }
+
+        /**
+         * Gets the 1-based line number of the first record in the range.
+         *
+         * @return The first line number
+         */
+        public long getFirstLine() {
+            return firstLine;
+        }
+
+        /**
+         * Gets the 1-based line number of the last record in the range, inclusive.
+         *
+         * @return The last line number
+         */
+        public long getLastLine() {
+            return lastLine;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.insurance.service.infrastructure.persistence.bulk;
+
+import com.insurance.service.domain.event.DomainEvent;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Describes how records of a bulk upload are stored, e.g. claims from a partner's nightly file.
+ * Records are read from JSON and validated with Bean Validation before they reach this target.
+ *
+ * @param <T> The type of one uploaded record
+ */
+public interface BulkIngestionTarget<T> {
+
+    /**
+     * Gets the class each line of the upload is read as.
+     *
+     * @return The record class
+     */
+    Class<T> recordType();
+
+    /**
+     * Gets the aggregate type recorded with the emitted events in the outbox.
+     *
+     * @return The aggregate type
+     */
+    String aggregateType();
+
+    /**
+     * Gets the version of the aggregates as inserted, recorded with their events in the outbox.
+     * It must match the version column written by {@link #values(UUID, Object)}, e.g. 0 for JPA aggregates.
+     *
+     * @return The aggregate version
+     */
+    int aggregateVersion();
+
+    /**
+     * Gets the table records are inserted into. It must have a UUID {@code id} primary key;
+     * records that violate a unique constraint are rejected as duplicates.
+     *
+     * @return The table name
+     */
+    String table();
+
+    /**
+     * Gets the columns written for each record, including {@code id}.
+     *
+     * @return The column names
+     */
+    List<String> columns();
+
+    /**
+     * Converts a record to the values of {@link #columns()}, in the same order.
+     *
+     * @param id The ID assigned to the new aggregate
+     * @param record The validated record
+     * @return The column values
+     */
+    Object[] values(UUID id, T record);
+
+    /**
+     * Creates the event announcing an inserted record, such as {@code ClaimSubmitted}.
+     *
+     * @param id The ID assigned to the new aggregate
+     * @param record The inserted record
+     * @return The event, or null if none should be published
+     */
+    DomainEvent event(UUID id, T record);
+}
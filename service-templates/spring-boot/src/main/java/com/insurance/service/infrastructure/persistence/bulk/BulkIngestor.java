@@ -0,0 +1,320 @@
+package com.insurance.service.infrastructure.persistence.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.domain.model.Ids;
+import com.insurance.service.infrastructure.messaging.OutboxEventWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ingests uploads of newline-delimited JSON records into a {@link BulkIngestionTarget}.
+ * Records are parsed and validated one line at a time, so an upload is never held in memory
+ * as a whole. Valid records are written in batches, each in one transaction: the batch is
+ * copied into a temporary staging table with {@code COPY}, moved into the target table with
+ * {@code INSERT ... ON CONFLICT DO NOTHING RETURNING id}, and one event per inserted record
+ * is copied into the outbox. Records rejected by a unique constraint are reported as
+ * duplicates. While a batch is written, the next one is parsed.
+ * <p>
+ * Every received record ends up either accepted or listed as rejected in the report, so partners
+ * can resubmit exactly the rejected lines. Records of batches that could not be written are
+ * reported as line ranges, which are never truncated, unlike the per-record errors.
+ */
+@Component
+public class BulkIngestor {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkIngestor.class);
+
+    private static final String STAGING_TABLE = "bulk_staging";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final OutboxEventWriter outboxEventWriter;
+    private final Executor writeExecutor;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public BulkIngestor(JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        ObjectMapper objectMapper,
+                        Validator validator,
+                        OutboxEventWriter outboxEventWriter,
+                        @Qualifier("applicationTaskExecutor") Executor writeExecutor,
+                        @Value("${insurance.bulk.batch-size:5000}") int batchSize,
+                        @Value("${insurance.bulk.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.outboxEventWriter = outboxEventWriter;
+        this.writeExecutor = writeExecutor;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Ingests an upload.
+     *
+     * @param ndjson The upload, one JSON record per line; blank lines are ignored
+     * @param target Where the records are stored
+     * @param <T> The type of one record
+     * @return The report of accepted and rejected records
+     * @throws BulkIngestionAbortedException if the upload cannot be read to the end; batches written until
+     * then stay committed, and the records read since are reported as not stored
+     */
+    public <T> BulkIngestionReport ingest(InputStream ndjson, BulkIngestionTarget<T> target) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(target.recordType());
+        Report report = new Report(maxReportedErrors);
+        List<PendingRecord<T>> batch = new ArrayList<>(batchSize);
+        CompletableFuture<Void> writing = CompletableFuture.completedFuture(null);
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.received();
+                PendingRecord<T> record = parse(reader, line, lineNumber, report);
+                if (record == null) {
+                    continue;
+                }
+                batch.add(record);
+                if (batch.size() == batchSize) {
+                    writing = writeAfter(writing, target, batch, report);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (IOException e) {
+            writing.join();
+            report.notStored(lines(batch), "Not stored, the upload could not be read to the end");
+            throw new BulkIngestionAbortedException(report.toReport(), e);
+        } finally {
+            // let the batch in flight settle, so the report matches what was committed
+            writing.join();
+        }
+        if (!batch.isEmpty()) {
+            write(target, batch, report);
+        }
+        return report.toReport();
+    }
+
+    private <T> PendingRecord<T> parse(ObjectReader reader, String line, long lineNumber, Report report) {
+        T record;
+        try {
+            record = reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            report.reject(lineNumber, "Malformed record: " + e.getOriginalMessage(), Collections.emptyMap());
+            return null;
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(record);
+        if (!violations.isEmpty()) {
+            Map<String, String> fieldErrors = new LinkedHashMap<>();
+            for (ConstraintViolation<T> violation : violations) {
+                fieldErrors.put(violation.getPropertyPath().toString(), violation.getMessage());
+            }
+            report.reject(lineNumber, "Validation failed", fieldErrors);
+            return null;
+        }
+        return new PendingRecord<>(lineNumber, Ids.next(), record);
+    }
+
+    private <T> CompletableFuture<Void> writeAfter(CompletableFuture<Void> previous, BulkIngestionTarget<T> target,
+                                                   List<PendingRecord<T>> batch, Report report) {
+        // at most one batch is written while the next one is parsed
+        previous.join();
+        return CompletableFuture.runAsync(() -> write(target, batch, report), writeExecutor);
+    }
+
+    private <T> void write(BulkIngestionTarget<T> target, List<PendingRecord<T>> batch, Report report) {
+        List<PendingRecord<T>> duplicates;
+        try {
+            duplicates = transactionTemplate.execute(status -> insert(target, batch));
+        } catch (RuntimeException e) {
+            // not only database failures: mapping a record or serializing its event may fail too,
+            // and the batch is rejected either way so the report still accounts for every record
+            log.error("Failed to write a batch of {} {} records", batch.size(), target.aggregateType(), e);
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            report.notStored(lines(batch), "Not stored, resubmit the records: " + cause);
+            return;
+        }
+        for (PendingRecord<T> duplicate : duplicates) {
+            report.reject(duplicate.line, "Duplicate record", Collections.emptyMap());
+        }
+        report.accepted(batch.size() - duplicates.size());
+    }
+
+    private <T> List<PendingRecord<T>> insert(BulkIngestionTarget<T> target, List<PendingRecord<T>> batch) {
+        String columns = String.join(", ", target.columns());
+        jdbcTemplate.execute("CREATE TEMP TABLE " + STAGING_TABLE + " (LIKE " + target.table()
+                + " INCLUDING DEFAULTS) ON COMMIT DROP");
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (PendingRecord<T> record : batch) {
+            rows.add(target.values(record.id, record.record));
+        }
+        PgCopy.copyIn(jdbcTemplate, STAGING_TABLE, target.columns(), rows);
+        Set<UUID> inserted = new HashSet<>(jdbcTemplate.queryForList(
+                "INSERT INTO " + target.table() + " (" + columns + ") SELECT " + columns + " FROM " + STAGING_TABLE
+                        + " ON CONFLICT DO NOTHING RETURNING id", UUID.class));
+
+        List<DomainEvent> events = new ArrayList<>(inserted.size());
+        List<PendingRecord<T>> duplicates = new ArrayList<>();
+        for (PendingRecord<T> record : batch) {
+            if (!inserted.contains(record.id)) {
+                duplicates.add(record);
+                continue;
+            }
+            DomainEvent event = target.event(record.id, record.record);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        outboxEventWriter.copy(target.aggregateType(), target.aggregateVersion(), events);
+        return duplicates;
+    }
+
+    private static <T> long[] lines(List<PendingRecord<T>> batch) {
+        long[] lines = new long[batch.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = batch.get(i).line;
+        }
+        return lines;
+    }
+
+    /**
+     * A validated record awaiting its batch, with the ID assigned to it.
+     */
+    private static final class PendingRecord<T> {
+        private final long line;
+        private final UUID id;
+        private final T record;
+
+        private PendingRecord(long line, UUID id, T record) {
+            this.line = line;
+            this.id = id;
+            this.record = record;
+        }
+    }
+
+    /**
+     * Report under construction, updated by the parsing thread and the batch writer.
+     * Counts are kept without locking; the errors with the lowest line numbers are kept in a
+     * bounded max-heap, so the report lists the first lines of the upload whichever thread
+     * rejected them first. Records that were not stored are kept in full, as ranges of
+     * consecutive lines.
+     */
+    private static final class Report {
+        private static final Comparator<BulkIngestionReport.RecordError> BY_LINE =
+                Comparator.comparingLong(BulkIngestionReport.RecordError::getLine);
+
+        private final int maxErrors;
+        private final LongAdder received = new LongAdder();
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final Lock errorsLock = new ReentrantLock();
+        private final PriorityQueue<BulkIngestionReport.RecordError> errors;
+        private final List<BulkIngestionReport.LineRange> notStored = new ArrayList<>();
+
+        private Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+            this.errors = new PriorityQueue<>(BY_LINE.reversed());
+        }
+
+        void received() {
+            received.increment();
+        }
+
+        void accepted(long count) {
+            accepted.add(count);
+        }
+
+        void reject(long line, String message, Map<String, String> fieldErrors) {
+            rejected.increment();
+            if (maxErrors <= 0) {
+                return;
+            }
+            errorsLock.lock();
+            try {
+                if (errors.size() < maxErrors) {
+                    errors.add(new BulkIngestionReport.RecordError(line, message, fieldErrors));
+                } else if (line < errors.peek().getLine()) {
+                    errors.poll();
+                    errors.add(new BulkIngestionReport.RecordError(line, message, fieldErrors));
+                }
+            } finally {
+                errorsLock.unlock();
+            }
+        }
+
+        void notStored(long[] lines, String message) {
+            if (lines.length == 0) {
+                return;
+            }
+            rejected.add(lines.length);
+            List<BulkIngestionReport.LineRange> ranges = new ArrayList<>();
+            int first = 0;
+            for (int i = 1; i <= lines.length; i++) {
+                if (i == lines.length || lines[i] != lines[i - 1] + 1) {
+                    ranges.add(new BulkIngestionReport.LineRange(lines[first], lines[i - 1], message));
+                    first = i;
+                }
+            }
+            errorsLock.lock();
+            try {
+                notStored.addAll(ranges);
+            } finally {
+                errorsLock.unlock();
+            }
+        }
+
+        BulkIngestionReport toReport() {
+            List<BulkIngestionReport.RecordError> sorted;
+            List<BulkIngestionReport.LineRange> ranges;
+            errorsLock.lock();
+            try {
+                sorted = new ArrayList<>(errors);
+                ranges = new ArrayList<>(notStored);
+            } finally {
+                errorsLock.unlock();
+            }
+            sorted.sort(BY_LINE);
+            ranges.sort(Comparator.comparingLong(BulkIngestionReport.LineRange::getFirstLine));
+            return new BulkIngestionReport(received.sum(), accepted.sum(), rejected.sum(), sorted, ranges);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.insurance.service.infrastructure.persistence.bulk;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes rows with PostgreSQL {@code COPY ... FROM STDIN} in text format.
+ * COPY skips per-statement parsing, planning and bind round trips, loading rows several
+ * times faster than batched inserts. It runs on the connection of the current transaction.
+ */
+public final class PgCopy {
+
+    private static final byte[] NULL = {'\\', 'N'};
+
+    private PgCopy() {
+    }
+
+    /**
+     * Copies rows into a table.
+     *
+     * @param jdbcTemplate The JDBC template, bound to the current transaction
+     * @param table The table name; never user input
+     * @param columns The column names, in the order of the row values
+     * @param rows The rows; values are written with {@code toString()}, except nulls
+     * @return The number of rows copied
+     */
+    public static long copyIn(JdbcTemplate jdbcTemplate, String table, List<String> columns, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        byte[] data = encode(rows);
+        String sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN";
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                copyIn.writeToCopy(data, 0, data.length);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+        return copied != null ? copied : 0;
+    }
+
+    static byte[] encode(List<Object[]> rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows.size() * 128);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    out.write('\t');
+                }
+                writeValue(out, row[i]);
+            }
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeValue(ByteArrayOutputStream out, Object value) {
+        if (value == null) {
+            out.write(NULL, 0, NULL.length);
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            switch (b) {
+                case '\\' -> { out.write('\\'); out.write('\\'); }
+                case '\t' -> { out.write('\\'); out.write('t'); }
+                case '\n' -> { out.write('\\'); out.write('n'); }
+                case '\r' -> { out.write('\\'); out.write('r'); }
+                default -> out.write(b);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.insurance.service.infrastructure.persistence.keyset;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated query.
+ *
+ * @param <T> The type of the items
+ */
+public class KeysetPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the cursor of the next page.
+     *
+     * @return The cursor token, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,83 @@
+package com.insurance.service.infrastructure.persistence.keyset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Query over a table or view with {@code updated_at} and {@code id} columns, read in
+ * {@code (updated_at, id)} order. The table needs an index on {@code (updated_at, id)}
+ * (plus any equality filter columns in front) for pages to cost the same at any depth.
+ */
+public final class KeysetQuery {
+
+    private final String source;
+    private final List<String> predicates = new ArrayList<>();
+    private final List<Object> args = new ArrayList<>();
+
+    private KeysetQuery(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Starts a query over a table or view.
+     *
+     * @param source The table or view name; never user input
+     * @return The query
+     */
+    public static KeysetQuery from(String source) {
+        return new KeysetQuery(source);
+    }
+
+    /**
+     * Adds a filter predicate.
+     *
+     * @param predicate The SQL predicate with {@code ?} placeholders; never user input
+     * @param args The values of the placeholders
+     * @return This query
+     */
+    public KeysetQuery and(String predicate, Object... args) {
+        predicates.add(predicate);
+        Collections.addAll(this.args, args);
+        return this;
+    }
+
+    /**
+     * Builds the SQL for the rows after a cursor.
+     *
+     * @param after The cursor, or null to start from the first row
+     * @param limit The maximum number of rows, or null for all of them
+     * @return The SQL statement
+     */
+    String sql(KeysetCursor after, Integer limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(source);
+        List<String> conditions = new ArrayList<>(predicates);
+        if (after != null) {
+            // row comparison, so PostgreSQL can seek the (updated_at, id) index directly
+            conditions.add("(updated_at, id) > (?, ?)");
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY updated_at, id");
+        if (limit != null) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Builds the bind values matching {@link #sql}.
+     */
+    Object[] args(KeysetCursor after, Integer limit) {
+        List<Object> values = new ArrayList<>(args);
+        if (after != null) {
+            values.add(after.getUpdatedAt());
+            values.add(after.getId());
+        }
+        if (limit != null) {
+            values.add(limit);
+        }
+        return values.toArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.insurance.service.infrastructure.persistence.keyset;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads {@link KeysetQuery} results as pages or as a stream.
+ * Pages seek to the cursor through the {@code (updated_at, id)} index instead of skipping rows
+ * with {@code OFFSET}, so page 10,000 costs the same as page 1. Streams write each row as one
+ * line of NDJSON while it is read from a server-side cursor, so memory stays constant whatever
+ * the number of rows.
+ */
+@Component
+public class KeysetReader {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectWriter rowWriter;
+
+    public KeysetReader(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                        @Value("${insurance.queries.stream-fetch-size:500}") int streamFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(streamFetchSize);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        // flushing after every row would send one chunk per row
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Reads the page after a cursor.
+     *
+     * @param query The query
+     * @param after The cursor of the previous page, or null for the first page
+     * @param size The page size
+     * @param mapper Maps a row to an item
+     * @param <T> The type of the items
+     * @return The page with the cursor of the next one
+     */
+    public <T> KeysetPage<T> page(KeysetQuery query, KeysetCursor after, int size, RowMapper<T> mapper) {
+        List<T> items = new ArrayList<>(size);
+        KeysetCursor[] last = new KeysetCursor[1];
+        boolean[] hasMore = new boolean[1];
+        // one extra row tells whether there is a next page without a count query
+        jdbcTemplate.query(query.sql(after, size + 1), rs -> {
+            if (items.size() == size) {
+                hasMore[0] = true;
+                return;
+            }
+            items.add(mapper.mapRow(rs, items.size()));
+            last[0] = cursorOf(rs.getTimestamp("updated_at"), rs.getObject("id", UUID.class));
+        }, query.args(after, size + 1));
+        return new KeysetPage<>(items, hasMore[0] ? last[0].encode() : null);
+    }
+
+    /**
+     * Writes all rows after a cursor to the output stream as newline-delimited JSON.
+     * Runs in a read-only transaction so that PostgreSQL fetches rows in batches of
+     * {@code insurance.queries.stream-fetch-size} instead of materialising the result.
+     *
+     * @param query The query
+     * @param after The cursor to resume after, or null to start from the first row
+     * @param mapper Maps a row to the object written as one line
+     * @param out The output stream; not closed
+     * @param <T> The type of the items
+     */
+    public <T> void stream(KeysetQuery query, KeysetCursor after, RowMapper<T> mapper, OutputStream out) {
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (JsonGenerator generator = rowWriter.createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                int[] rowNum = new int[1];
+                streamingJdbcTemplate.query(query.sql(after, null), rs -> {
+                    try {
+                        rowWriter.writeValue(generator, mapper.mapRow(rs, rowNum[0]++));
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        // typically the client went away; aborting the query releases the cursor
+                        throw new UncheckedIOException(e);
+                    }
+                }, query.args(after, null));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static KeysetCursor cursorOf(Timestamp updatedAt, UUID id) {
+        return new KeysetCursor(updatedAt.toLocalDateTime(), id);
+    }
+}
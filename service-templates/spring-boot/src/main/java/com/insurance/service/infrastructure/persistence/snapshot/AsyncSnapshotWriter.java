@@ -0,0 +1,92 @@
+package com.insurance.service.infrastructure.persistence.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes and stores snapshots on a dedicated background pool, off the command path.
+ * Snapshots are an optimisation only: when the queue is full, or a snapshot for the
+ * same aggregate is already pending, the request is dropped. Once a snapshot is stored, the
+ * aggregate's snapshots of older schema versions are deleted; this happens here, off the read
+ * paths, which may run in read-only transactions.
+ */
+@Component
+public class AsyncSnapshotWriter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncSnapshotWriter.class);
+
+    private final SnapshotStore snapshotStore;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+    public AsyncSnapshotWriter(SnapshotStore snapshotStore,
+                               ObjectMapper objectMapper,
+                               @Value("${insurance.snapshots.writer-threads:1}") int writerThreads,
+                               @Value("${insurance.snapshots.queue-capacity:1000}") int queueCapacity) {
+        this.snapshotStore = snapshotStore;
+        this.objectMapper = objectMapper;
+        this.executor = new ThreadPoolExecutor(writerThreads, writerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("snapshot-writer-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Schedules a snapshot to be serialized and stored.
+     *
+     * @param aggregateId The identifier of the aggregate
+     * @param aggregateType The type of the aggregate
+     * @param version The aggregate version captured by the state
+     * @param schemaVersion The schema version of the state
+     * @param state An immutable copy of the aggregate state
+     * @return true if the snapshot was scheduled, false if it was dropped
+     */
+    public boolean schedule(UUID aggregateId, String aggregateType, int version, int schemaVersion, Object state) {
+        if (!pending.add(aggregateId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> write(aggregateId, aggregateType, version, schemaVersion, state));
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(aggregateId);
+            log.debug("Snapshot queue full, dropping snapshot of {} at version {}", aggregateId, version);
+            return false;
+        }
+    }
+
+    private void write(UUID aggregateId, String aggregateType, int version, int schemaVersion, Object state) {
+        try {
+            String payload = objectMapper.writeValueAsString(state);
+            snapshotStore.save(new Snapshot(aggregateId, aggregateType, version, schemaVersion, payload));
+            int deleted = snapshotStore.deleteOlderSchemas(aggregateId, schemaVersion);
+            if (deleted > 0) {
+                log.debug("Deleted {} snapshots of {} with a schema older than {}", deleted, aggregateId, schemaVersion);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to write snapshot of {} at version {}", aggregateId, version, e);
+        } finally {
+            pending.remove(aggregateId);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
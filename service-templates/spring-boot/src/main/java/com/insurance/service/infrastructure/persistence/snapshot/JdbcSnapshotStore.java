@@ -0,0 +1,117 @@
+package com.insurance.service.infrastructure.persistence.snapshot;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * PostgreSQL implementation of the {@link SnapshotStore}.
+ */
+@Repository
+public class JdbcSnapshotStore implements SnapshotStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO aggregate_snapshots (aggregate_id, version, aggregate_type, schema_version, payload, created_at) "
+                    + "VALUES (?, ?, ?, ?, CAST(? AS JSONB), ?) ON CONFLICT (aggregate_id, version) DO UPDATE "
+                    + "SET aggregate_type = EXCLUDED.aggregate_type, schema_version = EXCLUDED.schema_version, "
+                    + "payload = EXCLUDED.payload, created_at = EXCLUDED.created_at "
+                    + "WHERE aggregate_snapshots.schema_version < EXCLUDED.schema_version";
+
+    private static final String FIND_LATEST_SQL =
+            "SELECT aggregate_id, aggregate_type, version, schema_version, payload::text AS payload "
+                    + "FROM aggregate_snapshots WHERE aggregate_id = ? AND schema_version = ? "
+                    + "ORDER BY version DESC LIMIT 1";
+
+    private static final String FIND_LATEST_AT_OR_BEFORE_SQL =
+            "SELECT aggregate_id, aggregate_type, version, schema_version, payload::text AS payload "
+                    + "FROM aggregate_snapshots WHERE aggregate_id = ? AND version <= ? AND schema_version = ? "
+                    + "ORDER BY version DESC LIMIT 1";
+
+    private static final String FIND_ALL_LATEST_AT_OR_BEFORE_SQL =
+            "SELECT s.aggregate_id, s.aggregate_type, s.version, s.schema_version, s.payload::text AS payload "
+                    + "FROM unnest(?::uuid[], ?::int[]) AS r(aggregate_id, version) "
+                    + "CROSS JOIN LATERAL (SELECT * FROM aggregate_snapshots a "
+                    + "WHERE a.aggregate_id = r.aggregate_id AND a.version <= r.version AND a.schema_version = ? "
+                    + "ORDER BY a.version DESC LIMIT 1) s";
+
+    private static final String DELETE_OLDER_SCHEMAS_SQL =
+            "DELETE FROM aggregate_snapshots WHERE aggregate_id = ? AND schema_version < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcSnapshotStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void save(Snapshot snapshot) {
+        jdbcTemplate.update(INSERT_SQL,
+                snapshot.getAggregateId(),
+                snapshot.getVersion(),
+                snapshot.getAggregateType(),
+                snapshot.getSchemaVersion(),
+                snapshot.getPayload(),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    public Optional<Snapshot> findLatest(UUID aggregateId, int schemaVersion) {
+        List<Snapshot> snapshots = jdbcTemplate.query(FIND_LATEST_SQL, (rs, rowNum) -> mapSnapshot(rs),
+                aggregateId, schemaVersion);
+        return snapshots.stream().findFirst();
+    }
+
+    @Override
+    public Optional<Snapshot> findLatestAtOrBefore(UUID aggregateId, int version, int schemaVersion) {
+        List<Snapshot> snapshots = jdbcTemplate.query(FIND_LATEST_AT_OR_BEFORE_SQL, (rs, rowNum) -> mapSnapshot(rs),
+                aggregateId, version, schemaVersion);
+        return snapshots.stream().findFirst();
+    }
+
+    @Override
+    public Map<UUID, Snapshot> findLatestAtOrBefore(Map<UUID, Integer> versions, int schemaVersion) {
+        Map<UUID, Snapshot> snapshots = new HashMap<>(versions.size() * 2);
+        if (versions.isEmpty()) {
+            return snapshots;
+        }
+        Object[] aggregateIds = versions.keySet().toArray();
+        Object[] maxVersions = new Object[aggregateIds.length];
+        for (int i = 0; i < aggregateIds.length; i++) {
+            maxVersions[i] = versions.get(aggregateIds[i]);
+        }
+        jdbcTemplate.query(FIND_ALL_LATEST_AT_OR_BEFORE_SQL,
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("uuid", aggregateIds));
+                    ps.setArray(2, ps.getConnection().createArrayOf("int4", maxVersions));
+                    ps.setInt(3, schemaVersion);
+                },
+                rs -> {
+                    Snapshot snapshot = mapSnapshot(rs);
+                    snapshots.put(snapshot.getAggregateId(), snapshot);
+                });
+        return snapshots;
+    }
+
+    @Override
+    public int deleteOlderSchemas(UUID aggregateId, int schemaVersion) {
+        return jdbcTemplate.update(DELETE_OLDER_SCHEMAS_SQL, aggregateId, schemaVersion);
+    }
+
+    private Snapshot mapSnapshot(ResultSet rs) throws SQLException {
+        return new Snapshot(
+                rs.getObject("aggregate_id", UUID.class),
+                rs.getString("aggregate_type"),
+                rs.getInt("version"),
+                rs.getInt("schema_version"),
+                rs.getString("payload"));
+    }
+}
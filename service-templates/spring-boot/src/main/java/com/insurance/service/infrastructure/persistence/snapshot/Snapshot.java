@@ -0,0 +1,58 @@
+package com.insurance.service.infrastructure.persistence.snapshot;
+
+import java.util.UUID;
+
+/**
+ * A serialized snapshot of an aggregate at a given version.
+ */
+public final class Snapshot {
+
+    private final UUID aggregateId;
+    private final String aggregateType;
+    private final int version;
+    private final int schemaVersion;
+    private final String payload;
+
+    public Snapshot(UUID aggregateId, String aggregateType, int version, int schemaVersion, String payload) {
+        this.aggregateId = aggregateId;
+        this.aggregateType = aggregateType;
+        this.version = version;
+        this.schemaVersion = schemaVersion;
+        this.payload = payload;
+    }
+
+    public UUID getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    /**
+     * Gets the aggregate version captured by this snapshot.
+     *
+     * @return The aggregate version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the schema version of the serialized state.
+     *
+     * @return The snapshot schema version
+     */
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    /**
+     * Gets the serialized snapshot state as JSON.
+     *
+     * @return The JSON payload
+     */
+    public String getPayload() {
+        return payload;
+    }
+}
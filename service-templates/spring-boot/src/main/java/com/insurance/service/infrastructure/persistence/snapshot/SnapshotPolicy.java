@@ -0,0 +1,59 @@
+package com.insurance.service.infrastructure.persistence.snapshot;
+
+import java.time.Duration;
+
+/**
+ * Decides whether an aggregate should be snapshotted after it has been loaded.
+ */
+@FunctionalInterface
+public interface SnapshotPolicy {
+
+    /**
+     * Decides whether to take a snapshot.
+     *
+     * @param eventsReplayed The number of events replayed on top of the last snapshot
+     * @param loadTime The time it took to load the aggregate
+     * @return true if a snapshot should be written
+     */
+    boolean shouldSnapshot(int eventsReplayed, Duration loadTime);
+
+    /**
+     * Combines this policy with another; a snapshot is taken if either policy asks for one.
+     *
+     * @param other The other policy
+     * @return The combined policy
+     */
+    default SnapshotPolicy or(SnapshotPolicy other) {
+        return (eventsReplayed, loadTime) ->
+                shouldSnapshot(eventsReplayed, loadTime) || other.shouldSnapshot(eventsReplayed, loadTime);
+    }
+
+    /**
+     * Snapshots once at least the given number of events had to be replayed.
+     *
+     * @param eventCount The event count threshold
+     * @return The policy
+     */
+    static SnapshotPolicy everyNEvents(int eventCount) {
+        return (eventsReplayed, loadTime) -> eventsReplayed >= eventCount;
+    }
+
+    /**
+     * Snapshots when loading took longer than the given threshold.
+     *
+     * @param threshold The load time threshold
+     * @return The policy
+     */
+    static SnapshotPolicy loadTimeExceeds(Duration threshold) {
+        return (eventsReplayed, loadTime) -> eventsReplayed > 0 && loadTime.compareTo(threshold) > 0;
+    }
+
+    /**
+     * Never snapshots.
+     *
+     * @return The policy
+     */
+    static SnapshotPolicy never() {
+        return (eventsReplayed, loadTime) -> false;
+    }
+}
@@ -0,0 +1,60 @@
+package com.insurance.service.infrastructure.persistence.snapshot;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Port for storing aggregate snapshots keyed by aggregate ID and version.
+ * Lookups only return snapshots of the schema version the caller can read, so instances
+ * running different schema versions during a rolling deploy never discard each other's snapshots.
+ */
+public interface SnapshotStore {
+
+    /**
+     * Stores a snapshot. A snapshot already stored for the aggregate version is replaced only
+     * if it has an older schema version.
+     *
+     * @param snapshot The snapshot to store
+     */
+    void save(Snapshot snapshot);
+
+    /**
+     * Finds the most recent snapshot of an aggregate with a schema version.
+     *
+     * @param aggregateId The identifier of the aggregate
+     * @param schemaVersion The schema version the snapshot must have
+     * @return The latest compatible snapshot, if any
+     */
+    Optional<Snapshot> findLatest(UUID aggregateId, int schemaVersion);
+
+    /**
+     * Finds the most recent snapshot of an aggregate with a schema version taken at or before a version.
+     *
+     * @param aggregateId The identifier of the aggregate
+     * @param version The highest version the snapshot may have
+     * @param schemaVersion The schema version the snapshot must have
+     * @return The nearest earlier compatible snapshot, if any
+     */
+    Optional<Snapshot> findLatestAtOrBefore(UUID aggregateId, int version, int schemaVersion);
+
+    /**
+     * Finds the most recent snapshot with a schema version of each of a set of aggregates taken at
+     * or before a version, with one lookup.
+     *
+     * @param versions The highest version the snapshot of each aggregate may have
+     * @param schemaVersion The schema version the snapshots must have
+     * @return The nearest earlier compatible snapshot of each aggregate that has one
+     */
+    Map<UUID, Snapshot> findLatestAtOrBefore(Map<UUID, Integer> versions, int schemaVersion);
+
+    /**
+     * Deletes the snapshots of an aggregate written with an older schema version.
+     * Snapshots of newer schema versions are kept for the instances that can read them.
+     *
+     * @param aggregateId The identifier of the aggregate
+     * @param schemaVersion The oldest schema version to keep
+     * @return The number of snapshots deleted
+     */
+    int deleteOlderSchemas(UUID aggregateId, int schemaVersion);
+}
@@ -0,0 +1,53 @@
+package com.insurance.service.infrastructure.projection;
+
+import com.insurance.service.domain.event.DomainEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A denormalised read model built from domain events, such as claims by status or by customer.
+ * Services register an implementation as a Spring bean; the {@link ProjectionEngine} consumes
+ * its topics and hands it the events of each poll as one batch, inside the transaction that
+ * also advances its checkpoint.
+ * <p>
+ * The read model is queried through a view named after the projection, while events are written
+ * to the table of one generation of it. Implementations must therefore write only to the table
+ * they are given, and create it the same way for every generation so that it can be rebuilt.
+ */
+public interface Projection {
+
+    /**
+     * Gets the name of the projection, which is also the name of the view it is queried through.
+     * Must be a lower-case SQL identifier.
+     *
+     * @return The projection name
+     */
+    String name();
+
+    /**
+     * Gets the topics the projection consumes.
+     *
+     * @return The topic names
+     */
+    Collection<String> topics();
+
+    /**
+     * Creates the table of a new generation, including its indexes.
+     *
+     * @param jdbcTemplate The JDBC template to execute DDL with
+     * @param table The table to create
+     */
+    void createTable(JdbcTemplate jdbcTemplate, String table);
+
+    /**
+     * Applies a batch of events, in partition order, to the read model.
+     * Prefer {@link JdbcTemplate#batchUpdate} over a statement per event.
+     *
+     * @param jdbcTemplate The JDBC template, bound to the batch transaction
+     * @param table The table of the generation being written
+     * @param events The events to apply
+     */
+    void apply(JdbcTemplate jdbcTemplate, String table, List<DomainEvent> events);
+}
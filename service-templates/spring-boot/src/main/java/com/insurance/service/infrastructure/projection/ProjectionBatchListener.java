@@ -0,0 +1,167 @@
+package com.insurance.service.infrastructure.projection;
+
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.infrastructure.messaging.OutboxRelay;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Applies the records of one poll to a projection generation in a single transaction.
+ * The transaction locks the checkpoints of the partitions in the batch, skips records below
+ * them, applies the remaining events and advances the checkpoints, so every event is applied
+ * exactly once even when partitions move between consumers. Kafka offsets are committed for
+ * monitoring only; on assignment the consumer seeks to the stored checkpoints.
+ * <p>
+ * A generation replayed from the event store already holds each aggregate up to the version the
+ * replay applied. Its consumers skip the records of an aggregate up to that version, read from the
+ * {@link com.insurance.service.infrastructure.messaging.OutboxRelay#AGGREGATE_VERSION_HEADER} header,
+ * and apply the later ones; records without the header are applied. Partitions without a checkpoint
+ * start at the records written shortly before the replay started instead of at the beginning.
+ */
+class ProjectionBatchListener implements BatchMessageListener<String, Object>, ConsumerAwareRebalanceListener {
+
+    /**
+     * How long before the replay started consumers start reading, covering the clock skew between
+     * the instance that replayed and the relays and brokers that timestamped the records.
+     */
+    static final Duration REPLAY_SEEK_MARGIN = Duration.ofMinutes(10);
+
+    private final Projection projection;
+    private final ProjectionGeneration generation;
+    private final ProjectionStore store;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+
+    ProjectionBatchListener(Projection projection, ProjectionGeneration generation, ProjectionStore store,
+                            JdbcTemplate jdbcTemplate, TransactionOperations transactionOperations) {
+        this.projection = projection;
+        this.generation = generation;
+        this.store = store;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+    }
+
+    @Override
+    public void onMessage(List<ConsumerRecord<String, Object>> records) {
+        if (!records.isEmpty()) {
+            transactionOperations.executeWithoutResult(status -> apply(records));
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> checkpoints = store.findCheckpoints(projection.name(), generation.getGeneration());
+        List<TopicPartition> fromBeginning = new ArrayList<>();
+        for (TopicPartition partition : partitions) {
+            Long next = checkpoints.get(partition);
+            if (next != null) {
+                consumer.seek(partition, next);
+            } else {
+                fromBeginning.add(partition);
+            }
+        }
+        if (fromBeginning.isEmpty()) {
+            return;
+        }
+        if (generation.getReplayStartedAt() == null) {
+            consumer.seekToBeginning(fromBeginning);
+            return;
+        }
+
+        long seekTime = generation.getReplayStartedAt().minus(REPLAY_SEEK_MARGIN)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Map<TopicPartition, Long> times = new HashMap<>();
+        fromBeginning.forEach(partition -> times.put(partition, seekTime));
+        Map<TopicPartition, OffsetAndTimestamp> offsets = consumer.offsetsForTimes(times);
+        List<TopicPartition> toEnd = new ArrayList<>();
+        for (TopicPartition partition : fromBeginning) {
+            OffsetAndTimestamp offset = offsets.get(partition);
+            if (offset != null) {
+                consumer.seek(partition, offset.offset());
+            } else {
+                // nothing was written since then
+                toEnd.add(partition);
+            }
+        }
+        if (!toEnd.isEmpty()) {
+            consumer.seekToEnd(toEnd);
+        }
+    }
+
+    private void apply(List<ConsumerRecord<String, Object>> records) {
+        Set<TopicPartition> partitions = new LinkedHashSet<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            partitions.add(new TopicPartition(record.topic(), record.partition()));
+        }
+        Map<TopicPartition, Long> checkpoints =
+                store.lockCheckpoints(projection.name(), generation.getGeneration(), partitions);
+        Map<UUID, Integer> replayedVersions = replayedVersions(records);
+
+        List<DomainEvent> events = new ArrayList<>(records.size());
+        Map<TopicPartition, Long> advanced = new HashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (record.offset() < checkpoints.getOrDefault(partition, 0L)) {
+                // already projected by the previous owner of the partition
+                continue;
+            }
+            if (record.value() instanceof DomainEvent event && !replayed(record, event, replayedVersions)) {
+                events.add(event);
+            }
+            advanced.merge(partition, record.offset() + 1, Math::max);
+        }
+
+        if (!events.isEmpty()) {
+            projection.apply(jdbcTemplate, generation.getTable(), events);
+        }
+        if (!advanced.isEmpty()) {
+            store.saveCheckpoints(projection.name(), generation.getGeneration(), advanced);
+        }
+    }
+
+    private Map<UUID, Integer> replayedVersions(List<ConsumerRecord<String, Object>> records) {
+        if (generation.getReplayStartedAt() == null) {
+            return Map.of();
+        }
+        Set<UUID> aggregateIds = new HashSet<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() instanceof DomainEvent event && event.getAggregateId() != null) {
+                aggregateIds.add(event.getAggregateId());
+            }
+        }
+        return aggregateIds.isEmpty()
+                ? Map.of()
+                : store.findReplayedVersions(projection.name(), generation.getGeneration(), aggregateIds);
+    }
+
+    private static boolean replayed(ConsumerRecord<String, Object> record, DomainEvent event,
+                                    Map<UUID, Integer> replayedVersions) {
+        Integer replayedVersion = replayedVersions.get(event.getAggregateId());
+        if (replayedVersion == null) {
+            return false;
+        }
+        Header version = record.headers().lastHeader(OutboxRelay.AGGREGATE_VERSION_HEADER);
+        return version != null
+                && Integer.parseInt(new String(version.value(), StandardCharsets.UTF_8)) <= replayedVersion;
+    }
+}
@@ -0,0 +1,397 @@
+package com.insurance.service.infrastructure.projection;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the registered {@link Projection}s.
+ * Each live generation of a projection gets its own consumer group and listener container,
+ * whose consumers process the partitions of the projection's topics in parallel. The database
+ * is the source of truth for which generations are live: every instance reconciles its
+ * containers against it periodically, so a rebuild started on one instance is picked up by all.
+ * <p>
+ * A rebuild creates a new generation, which consumes from the beginning of the topics into its
+ * own table while the active generation keeps serving reads. Once its lag drops below
+ * {@code insurance.projections.swap-max-lag}, the view is pointed at the new table and the old
+ * generation is retired in one transaction, so readers never see a partial read model. Every
+ * instance stops the consumers of retired generations on its next reconcile; once a generation
+ * has been retired for {@code insurance.projections.drop-retired-after}, its table and checkpoints
+ * are dropped, so no in-flight batch still holds a lock on the table. A generation
+ * can also be filled from the event store first, see {@link ProjectionReplayer}; its consumers
+ * start once the replay is done.
+ * <p>
+ * Lag is read with one long-lived consumer that never joins a group, outside the engine's
+ * monitor, so a slow broker delays only the activation of rebuilt generations, not the
+ * starting and stopping of containers or {@link #stop()}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "insurance.projections", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProjectionEngine implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionEngine.class);
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-z][a-z0-9_]{0,50}");
+
+    private final List<Projection> projections;
+    private final ProjectionStore store;
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, ConcurrentMessageListenerContainer<String, Object>> containers = new HashMap<>();
+    private final Lock lagLock = new ReentrantLock();
+
+    // guarded by lagLock; Kafka consumers are not thread-safe
+    private Consumer<String, Object> lagConsumer;
+
+    private volatile boolean running;
+
+    @Value("${spring.application.name}")
+    private String applicationName;
+
+    @Value("${insurance.projections.concurrency:3}")
+    private int concurrency;
+
+    @Value("${insurance.projections.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${insurance.projections.swap-max-lag:100}")
+    private long swapMaxLag;
+
+    @Value("${insurance.projections.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${insurance.projections.drop-retired-after:5m}")
+    private Duration dropRetiredAfter;
+
+    public ProjectionEngine(List<Projection> projections, ProjectionStore store,
+                            ConsumerFactory<String, Object> consumerFactory,
+                            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        for (Projection projection : projections) {
+            if (!NAME_PATTERN.matcher(projection.name()).matches()) {
+                throw new IllegalArgumentException("Projection name must be a lower-case SQL identifier: "
+                        + projection.name());
+            }
+        }
+        this.projections = projections;
+        this.store = store;
+        this.consumerFactory = consumerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        // not synchronized: reconcile() takes the monitor itself, but not while it reads lag
+        reconcile();
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            running = false;
+            containers.values().forEach(ConcurrentMessageListenerContainer::stop);
+            containers.clear();
+        }
+        lagLock.lock();
+        try {
+            if (lagConsumer != null) {
+                lagConsumer.close();
+                lagConsumer = null;
+            }
+        } finally {
+            lagLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts containers for live generations and stops those of retired ones, creates the
+     * first generation of new projections, activates rebuilt generations that caught up, and
+     * drops the tables of generations retired long enough ago.
+     */
+    @Scheduled(fixedDelayString = "${insurance.projections.reconcile-interval-ms:5000}")
+    public void reconcile() {
+        for (ProjectionGeneration generation : reconcileContainers()) {
+            Projection projection = projection(generation.getProjection());
+            try {
+                if (lag(projection, generation) <= swapMaxLag) {
+                    activateIfRunning(projection, generation);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to check whether projection {} generation {} caught up; retrying on the next run",
+                        projection.name(), generation.getGeneration(), e);
+            }
+        }
+    }
+
+    /**
+     * Starts and stops containers against the live generations.
+     *
+     * @return The generations being built, whose lag decides whether they are activated
+     */
+    private synchronized List<ProjectionGeneration> reconcileContainers() {
+        if (!running) {
+            return Collections.emptyList();
+        }
+        List<ProjectionGeneration> building = new ArrayList<>();
+        Set<String> live = new HashSet<>();
+        for (Projection projection : projections) {
+            try {
+                List<ProjectionGeneration> generations = store.findLive(projection.name());
+                if (generations.isEmpty()) {
+                    generations = Collections.singletonList(bootstrap(projection));
+                }
+                for (ProjectionGeneration generation : generations) {
+                    live.add(generation.getTable());
+                    if (generation.getStatus() == ProjectionGeneration.Status.REPLAYING) {
+                        // consumers start once the replay from the event store is done
+                        continue;
+                    }
+                    containers.computeIfAbsent(generation.getTable(), table -> startContainer(projection, generation));
+                    if (generation.getStatus() == ProjectionGeneration.Status.BUILDING) {
+                        building.add(generation);
+                    }
+                }
+                dropRetired(projection);
+            } catch (DuplicateKeyException e) {
+                log.debug("Projection {} was initialised concurrently by another instance", projection.name());
+            } catch (RuntimeException e) {
+                log.warn("Failed to reconcile projection {}; retrying on the next run", projection.name(), e);
+            }
+        }
+        containers.entrySet().removeIf(entry -> {
+            if (live.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().stop();
+            return true;
+        });
+        return building;
+    }
+
+    /**
+     * Starts rebuilding a projection from the beginning of its topics.
+     * The current generation keeps serving reads until the new one has caught up.
+     *
+     * @param name The projection name
+     * @return The generation being built
+     */
+    public int rebuild(String name) {
+        Projection projection = projection(name);
+        Integer generation = transactionTemplate.execute(status -> {
+            boolean building = store.findLive(name).stream()
+                    .anyMatch(existing -> existing.getStatus() != ProjectionGeneration.Status.ACTIVE);
+            if (building) {
+                throw new IllegalStateException("Projection " + name + " is already being rebuilt");
+            }
+            int created = store.createGeneration(name, ProjectionGeneration.Status.BUILDING);
+            projection.createTable(jdbcTemplate, ProjectionGeneration.tableName(name, created));
+            return created;
+        });
+        log.info("Rebuilding projection {} as generation {}", name, generation);
+        reconcile();
+        return generation;
+    }
+
+    /**
+     * Gets the live generations of all projections with the number of records each still has to project.
+     *
+     * @return The generation status, by projection
+     */
+    public List<Map<String, Object>> status() {
+        List<Map<String, Object>> status = new ArrayList<>();
+        for (ProjectionGeneration generation : store.findAllLive()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("projection", generation.getProjection());
+            entry.put("generation", generation.getGeneration());
+            entry.put("status", generation.getStatus());
+            entry.put("table", generation.getTable());
+            entry.put("activatedAt", generation.getActivatedAt());
+            projections.stream()
+                    .filter(projection -> projection.name().equals(generation.getProjection()))
+                    .filter(projection -> generation.getStatus() != ProjectionGeneration.Status.REPLAYING)
+                    .findFirst()
+                    .ifPresent(projection -> entry.put("lag", lag(projection, generation)));
+            status.add(entry);
+        }
+        return status;
+    }
+
+    private ProjectionGeneration bootstrap(Projection projection) {
+        // Nothing is served yet, so the first generation is active right away and fills up in place
+        int generation = transactionTemplate.execute(status -> {
+            int created = store.createGeneration(projection.name(), ProjectionGeneration.Status.ACTIVE);
+            String table = ProjectionGeneration.tableName(projection.name(), created);
+            projection.createTable(jdbcTemplate, table);
+            pointViewAt(projection.name(), table);
+            return created;
+        });
+        log.info("Created projection {}", projection.name());
+        return store.findLive(projection.name()).stream()
+                .filter(live -> live.getGeneration() == generation)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Generation " + generation + " of projection "
+                        + projection.name() + " disappeared"));
+    }
+
+    private synchronized void activateIfRunning(Projection projection, ProjectionGeneration generation) {
+        if (!running) {
+            return;
+        }
+        activate(projection, generation);
+    }
+
+    private void activate(Projection projection, ProjectionGeneration generation) {
+        List<Integer> retired = transactionTemplate.execute(status -> {
+            List<Integer> previous = store.activate(projection.name(), generation.getGeneration());
+            if (previous == null) {
+                return null;
+            }
+            pointViewAt(projection.name(), generation.getTable());
+            return previous;
+        });
+        if (retired == null) {
+            // activated by another instance; its retired generations are stopped on the next run
+            return;
+        }
+        for (Integer old : retired) {
+            ConcurrentMessageListenerContainer<String, Object> container =
+                    containers.remove(ProjectionGeneration.tableName(projection.name(), old));
+            if (container != null) {
+                container.stop();
+            }
+        }
+        log.info("Projection {} now serves generation {}", projection.name(), generation.getGeneration());
+    }
+
+    private void dropRetired(Projection projection) {
+        LocalDateTime retiredBefore = LocalDateTime.now().minus(dropRetiredAfter);
+        for (Integer old : store.findRetired(projection.name(), retiredBefore)) {
+            String table = ProjectionGeneration.tableName(projection.name(), old);
+            Boolean dropped = transactionTemplate.execute(status -> {
+                if (!store.markDropped(projection.name(), old)) {
+                    // dropped by another instance
+                    return false;
+                }
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+                return true;
+            });
+            if (Boolean.TRUE.equals(dropped)) {
+                log.info("Dropped table {} of retired projection {} generation {}", table, projection.name(), old);
+            }
+        }
+    }
+
+    private void pointViewAt(String view, String table) {
+        jdbcTemplate.execute("DROP VIEW IF EXISTS " + view);
+        jdbcTemplate.execute("CREATE VIEW " + view + " AS SELECT * FROM " + table);
+    }
+
+    private ConcurrentMessageListenerContainer<String, Object> startContainer(Projection projection,
+                                                                              ProjectionGeneration generation) {
+        ProjectionBatchListener listener =
+                new ProjectionBatchListener(projection, generation, store, jdbcTemplate, transactionTemplate);
+
+        ContainerProperties properties = new ContainerProperties(projection.topics().toArray(new String[0]));
+        properties.setGroupId(groupId(generation));
+        properties.setAckMode(ContainerProperties.AckMode.BATCH);
+        properties.setMessageListener(listener);
+        properties.setConsumerRebalanceListener(listener);
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+        consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.setKafkaConsumerProperties(consumerProperties);
+
+        ConcurrentMessageListenerContainer<String, Object> container =
+                new ConcurrentMessageListenerContainer<>(consumerFactory, properties);
+        container.setConcurrency(concurrency);
+        container.setBeanName("projection-" + generation.getTable());
+        // a batch is only ever skipped by advancing its checkpoint, so failed batches are retried until they succeed
+        container.setCommonErrorHandler(
+                new DefaultErrorHandler(new FixedBackOff(retryBackoffMs, FixedBackOff.UNLIMITED_ATTEMPTS)));
+        container.start();
+        log.info("Started projection {} generation {} ({})", projection.name(), generation.getGeneration(),
+                generation.getStatus());
+        return container;
+    }
+
+    private long lag(Projection projection, ProjectionGeneration generation) {
+        Map<TopicPartition, Long> checkpoints = store.findCheckpoints(projection.name(), generation.getGeneration());
+        lagLock.lock();
+        try {
+            if (lagConsumer == null) {
+                if (!running) {
+                    throw new IllegalStateException("Projection engine is stopped");
+                }
+                // only reads offsets and metadata, so it never joins a group
+                lagConsumer = consumerFactory.createConsumer(applicationName + ".projection-lag", null, "-lag");
+            }
+            Consumer<String, Object> consumer = lagConsumer;
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : projection.topics()) {
+                List<PartitionInfo> infos = consumer.partitionsFor(topic);
+                if (infos != null) {
+                    infos.forEach(info -> partitions.add(new TopicPartition(info.topic(), info.partition())));
+                }
+            }
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            long lag = 0;
+            for (TopicPartition partition : partitions) {
+                long next = Math.max(beginning.get(partition), checkpoints.getOrDefault(partition, 0L));
+                lag += Math.max(0, end.get(partition) - next);
+            }
+            return lag;
+        } finally {
+            lagLock.unlock();
+        }
+    }
+
+    private String groupId(ProjectionGeneration generation) {
+        return applicationName + ".projection." + generation.getTable();
+    }
+
+    private Projection projection(String name) {
+        return projections.stream()
+                .filter(projection -> projection.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown projection: " + name));
+    }
+}
@@ -0,0 +1,89 @@
+package com.insurance.service.infrastructure.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * One build of a projection, written to its own table.
+ */
+public class ProjectionGeneration {
+
+    /**
+     * Lifecycle of a generation.
+     */
+    public enum Status {
+        /** Being filled from the event store; its consumers are not started yet */
+        REPLAYING,
+        /** Catching up with the topics; not yet visible through the view */
+        BUILDING,
+        /** Selected by the view */
+        ACTIVE,
+        /** Replaced by a newer generation; its table is dropped once every instance stopped writing to it */
+        RETIRED,
+        /** Retired, with its table and checkpoints dropped */
+        DROPPED
+    }
+
+    private final String projection;
+    private final int generation;
+    private final Status status;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime activatedAt;
+    private final LocalDateTime replayStartedAt;
+
+    public ProjectionGeneration(String projection, int generation, Status status,
+                                LocalDateTime createdAt, LocalDateTime activatedAt) {
+        this(projection, generation, status, createdAt, activatedAt, null);
+    }
+
+    public ProjectionGeneration(String projection, int generation, Status status,
+                                LocalDateTime createdAt, LocalDateTime activatedAt, LocalDateTime replayStartedAt) {
+        this.projection = projection;
+        this.generation = generation;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.activatedAt = activatedAt;
+        this.replayStartedAt = replayStartedAt;
+    }
+
+    public String getProjection() {
+        return projection;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getActivatedAt() {
+        return activatedAt;
+    }
+
+    /**
+     * Gets the time this generation started being replayed from the event store.
+     *
+     * @return The replay start, or null if the generation is built from its topics alone
+     */
+    public LocalDateTime getReplayStartedAt() {
+        return replayStartedAt;
+    }
+
+    /**
+     * Gets the table this generation is written to.
+     *
+     * @return The table name
+     */
+    public String getTable() {
+        return tableName(projection, generation);
+    }
+
+    static String tableName(String projection, int generation) {
+        return projection + "_g" + generation;
+    }
+}
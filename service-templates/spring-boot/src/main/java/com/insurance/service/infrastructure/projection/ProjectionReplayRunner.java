@@ -0,0 +1,42 @@
+package com.insurance.service.infrastructure.projection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the service as a command-line replay of one projection from the event store, then exits.
+ * Started with {@code --insurance.projections.replay.projection=<name>}, usually together with
+ * {@code --insurance.projections.enabled=false} and {@code --spring.main.web-application-type=none}
+ * so that the instance neither consumes topics nor serves requests. Running it again after a
+ * failure resumes the replay.
+ */
+@Component
+@ConditionalOnProperty(prefix = "insurance.projections.replay", name = "projection")
+public class ProjectionReplayRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionReplayRunner.class);
+
+    private final ProjectionReplayer replayer;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${insurance.projections.replay.projection}")
+    private String projection;
+
+    public ProjectionReplayRunner(ProjectionReplayer replayer, ConfigurableApplicationContext context) {
+        this.replayer = replayer;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Replay finished: {}", replayer.run(projection));
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
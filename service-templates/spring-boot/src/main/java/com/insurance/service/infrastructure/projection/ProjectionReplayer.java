@@ -0,0 +1,411 @@
+package com.insurance.service.infrastructure.projection;
+
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.infrastructure.messaging.EventRoutingTable;
+import com.insurance.service.infrastructure.persistence.EventStore;
+import com.insurance.service.infrastructure.persistence.StoredEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rebuilds a projection from the full history in the event store rather than from its topics,
+ * which may no longer hold all events and are consumed one partition per consumer.
+ * <p>
+ * A replay fills a new {@code REPLAYING} generation with the events committed to the event store.
+ * A single reader scans it in aggregate ID order, in chunks of whole aggregates, and hands each
+ * chunk to a fork-join pool, which splits it into shards of adjacent aggregates and applies each
+ * shard as one batch. The events of an aggregate are always in the same shard, in stream order,
+ * so per-aggregate ordering holds while shards run in parallel.
+ * <p>
+ * Each shard records the range of aggregate IDs it covered, and the latest version it applied of
+ * each aggregate, in the transaction that applied it. An interrupted replay is resumed by starting
+ * it again: ranges already applied are skipped, so no event is applied twice. Once all aggregates
+ * are replayed the generation becomes {@code BUILDING}, and its consumers read the topics from
+ * shortly before the replay started, skipping each aggregate's records up to its replayed version,
+ * before the {@link ProjectionEngine} swaps it in. The split follows stream positions, so events
+ * committed while the scan ran are applied once whatever their timestamps.
+ * <p>
+ * Only projections whose topics are all marked {@code event-sourced} can be replayed: events that
+ * reach the outbox without being appended to the event store would be in neither source.
+ * Replays run on one instance at a time per projection.
+ */
+@Component
+public class ProjectionReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionReplayer.class);
+
+    static final String EVENTS_COUNTER = "insurance.projections.replay.events";
+
+    static final UUID FIRST_AGGREGATE_ID = new UUID(0, 0);
+    static final UUID LAST_AGGREGATE_ID = new UUID(-1, -1);
+
+    private static final String ESTIMATED_EVENTS_SQL =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = 'event_store'::regclass";
+
+    private final List<Projection> projections;
+    private final ProjectionStore store;
+    private final EventStore eventStore;
+    private final EventRoutingTable routingTable;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final MeterRegistry meterRegistry;
+    private final int parallelism;
+    private final int chunkSize;
+    private final int batchSize;
+    private final Duration progressInterval;
+    private final Map<String, Replay> replays = new ConcurrentHashMap<>();
+
+    public ProjectionReplayer(List<Projection> projections, ProjectionStore store, EventStore eventStore,
+                              EventRoutingTable routingTable, JdbcTemplate jdbcTemplate,
+                              TransactionOperations transactionOperations, MeterRegistry meterRegistry,
+                              @Value("${insurance.projections.replay.parallelism:0}") int parallelism,
+                              @Value("${insurance.projections.replay.chunk-size:20000}") int chunkSize,
+                              @Value("${insurance.projections.replay.batch-size:1000}") int batchSize,
+                              @Value("${insurance.projections.replay.progress-interval:10s}") Duration progressInterval) {
+        this.projections = projections;
+        this.store = store;
+        this.eventStore = eventStore;
+        this.routingTable = routingTable;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.meterRegistry = meterRegistry;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Starts replaying a projection in the background, or resumes its interrupted replay.
+     *
+     * @param name The projection name
+     * @return The generation being replayed
+     */
+    public synchronized int start(String name) {
+        Projection projection = projection(name);
+        ProjectionGeneration generation = begin(projection);
+        Replay replay = replays.get(name);
+        Thread thread = new Thread(() -> {
+            try {
+                execute(projection, generation, replay);
+            } catch (RuntimeException e) {
+                log.error("Replay of projection {} generation {} failed; start it again to resume",
+                        name, generation.getGeneration(), e);
+            }
+        }, "projection-replay-" + name);
+        thread.start();
+        return generation.getGeneration();
+    }
+
+    /**
+     * Replays a projection on the calling thread, or resumes its interrupted replay, for command-line use.
+     *
+     * @param name The projection name
+     * @return The progress of the finished replay
+     */
+    public Map<String, Object> run(String name) {
+        Projection projection = projection(name);
+        ProjectionGeneration generation;
+        synchronized (this) {
+            generation = begin(projection);
+        }
+        Replay replay = replays.get(name);
+        execute(projection, generation, replay);
+        return replay.progress();
+    }
+
+    /**
+     * Gets the progress of the replays started on this instance.
+     *
+     * @return The progress, by projection
+     */
+    public Map<String, Map<String, Object>> status() {
+        Map<String, Map<String, Object>> status = new LinkedHashMap<>();
+        replays.forEach((name, replay) -> status.put(name, replay.progress()));
+        return status;
+    }
+
+    private ProjectionGeneration begin(Projection projection) {
+        Replay running = replays.get(projection.name());
+        if (running != null && running.state.get() == Replay.State.RUNNING) {
+            throw new IllegalStateException("Projection " + projection.name() + " is already being replayed");
+        }
+        List<String> outboxOnly = projection.topics().stream()
+                .filter(topic -> !routingTable.isEventSourced(topic))
+                .toList();
+        if (!outboxOnly.isEmpty()) {
+            throw new IllegalStateException("Projection " + projection.name() + " consumes topics not marked "
+                    + "event-sourced, whose events may be missing from the event store: " + outboxOnly);
+        }
+        ProjectionGeneration generation = transactionOperations.execute(status -> {
+            List<ProjectionGeneration> live = store.findLive(projection.name());
+            for (ProjectionGeneration existing : live) {
+                if (existing.getStatus() == ProjectionGeneration.Status.REPLAYING) {
+                    return existing;
+                }
+                if (existing.getStatus() == ProjectionGeneration.Status.BUILDING) {
+                    throw new IllegalStateException("Projection " + projection.name() + " is already being rebuilt");
+                }
+            }
+            LocalDateTime startedAt = LocalDateTime.now();
+            int created = store.createGeneration(projection.name(), ProjectionGeneration.Status.REPLAYING, startedAt);
+            projection.createTable(jdbcTemplate, ProjectionGeneration.tableName(projection.name(), created));
+            return new ProjectionGeneration(projection.name(), created, ProjectionGeneration.Status.REPLAYING,
+                    startedAt, null, startedAt);
+        });
+        if (generation == null) {
+            throw new IllegalStateException("No generation to replay projection " + projection.name() + " into");
+        }
+        replays.put(projection.name(), new Replay(projection.name(), generation.getGeneration()));
+        return generation;
+    }
+
+    private void execute(Projection projection, ProjectionGeneration generation, Replay replay) {
+        try {
+            replay(projection, generation, replay);
+        } catch (RuntimeException e) {
+            replay.state.set(Replay.State.FAILED);
+            replay.failure.compareAndSet(null, e);
+            throw e;
+        }
+    }
+
+    private void replay(Projection projection, ProjectionGeneration generation, Replay replay) {
+        // ranges chained from the first aggregate are done; the rest were in flight when the replay stopped
+        List<ReplayRange> ranges = store.findReplayRanges(projection.name(), generation.getGeneration());
+        Map<UUID, ReplayRange> applied = new HashMap<>();
+        for (ReplayRange range : ranges) {
+            applied.put(range.getAfterAggregateId(), range);
+            replay.resumed.addAndGet(range.getEvents());
+        }
+        UUID cursor = FIRST_AGGREGATE_ID;
+        for (ReplayRange range = applied.remove(cursor); range != null; range = applied.remove(cursor)) {
+            cursor = range.getLastAggregateId();
+        }
+        Deque<ReplayRange> islands = new ArrayDeque<>();
+        ranges.stream()
+                .filter(range -> applied.containsKey(range.getAfterAggregateId()))
+                .forEach(islands::add);
+        replay.estimatedEvents = estimatedEvents();
+        log.info("Replaying projection {} generation {} from the event store with {} threads{}",
+                projection.name(), generation.getGeneration(), parallelism,
+                replay.resumed.get() > 0 ? ", resuming after " + replay.resumed.get() + " events" : "");
+
+        Counter counter = Counter.builder(EVENTS_COUNTER)
+                .description("Events applied to projections by replays from the event store")
+                .tag("projection", projection.name())
+                .register(meterRegistry);
+        int maxChunksInFlight = parallelism * 2;
+        Semaphore chunks = new Semaphore(maxChunksInFlight);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long nextReport = System.nanoTime() + progressInterval.toNanos();
+        try {
+            while (replay.failure.get() == null) {
+                while (!islands.isEmpty() && islands.peek().getAfterAggregateId().equals(cursor)) {
+                    cursor = islands.poll().getLastAggregateId();
+                }
+                UUID bound = islands.isEmpty() ? LAST_AGGREGATE_ID : islands.peek().getAfterAggregateId();
+                List<StoredEvent> scanned = eventStore.scan(cursor, bound, chunkSize);
+                if (scanned.isEmpty() && islands.isEmpty()) {
+                    break;
+                }
+                UUID last = scanned.isEmpty() ? bound : scanned.get(scanned.size() - 1).getAggregateId();
+                Shard shard = new Shard(projection, generation, replay, counter, scanned, cursor, last);
+                chunks.acquireUninterruptibly();
+                pool.execute(() -> {
+                    try {
+                        shard.invoke();
+                    } catch (RuntimeException | Error e) {
+                        replay.failure.compareAndSet(null, e);
+                    } finally {
+                        chunks.release();
+                    }
+                });
+                cursor = last;
+
+                if (System.nanoTime() - nextReport >= 0) {
+                    log.info("Replaying projection {} generation {}: {}", projection.name(),
+                            generation.getGeneration(), replay.progress());
+                    nextReport = System.nanoTime() + progressInterval.toNanos();
+                }
+            }
+            chunks.acquireUninterruptibly(maxChunksInFlight);
+        } finally {
+            pool.shutdown();
+        }
+
+        Throwable failure = replay.failure.get();
+        if (failure != null) {
+            throw new IllegalStateException("Replay of projection " + projection.name() + " generation "
+                    + generation.getGeneration() + " failed", failure);
+        }
+        transactionOperations.executeWithoutResult(status ->
+                store.finishReplay(projection.name(), generation.getGeneration()));
+        replay.state.set(Replay.State.DONE);
+        log.info("Replayed projection {} generation {}: {}; its consumers now catch up from the topics",
+                projection.name(), generation.getGeneration(), replay.progress());
+    }
+
+    private long estimatedEvents() {
+        try {
+            Long estimate = jdbcTemplate.queryForObject(ESTIMATED_EVENTS_SQL, Long.class);
+            return estimate != null ? estimate : -1;
+        } catch (RuntimeException e) {
+            log.debug("Could not estimate the size of the event store", e);
+            return -1;
+        }
+    }
+
+    private Projection projection(String name) {
+        return projections.stream()
+                .filter(projection -> projection.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown projection: " + name));
+    }
+
+    /**
+     * The adjacent aggregates after one ID and up to another, applied as one batch or split in two.
+     */
+    private final class Shard extends RecursiveAction {
+
+        private final Projection projection;
+        private final ProjectionGeneration generation;
+        private final Replay replay;
+        private final Counter counter;
+        private final List<StoredEvent> events;
+        private final UUID afterAggregateId;
+        private final UUID lastAggregateId;
+
+        private Shard(Projection projection, ProjectionGeneration generation, Replay replay, Counter counter,
+                      List<StoredEvent> events, UUID afterAggregateId, UUID lastAggregateId) {
+            this.projection = projection;
+            this.generation = generation;
+            this.replay = replay;
+            this.counter = counter;
+            this.events = events;
+            this.afterAggregateId = afterAggregateId;
+            this.lastAggregateId = lastAggregateId;
+        }
+
+        @Override
+        protected void compute() {
+            int split = events.size() > batchSize ? splitPoint() : -1;
+            if (split > 0) {
+                UUID boundary = events.get(split - 1).getAggregateId();
+                invokeAll(
+                        new Shard(projection, generation, replay, counter, events.subList(0, split),
+                                afterAggregateId, boundary),
+                        new Shard(projection, generation, replay, counter, events.subList(split, events.size()),
+                                boundary, lastAggregateId));
+                return;
+            }
+
+            List<DomainEvent> batch = new ArrayList<>(events.size());
+            Map<UUID, Integer> versions = new HashMap<>();
+            for (StoredEvent event : events) {
+                batch.add(event.getEvent());
+                versions.merge(event.getAggregateId(), event.getVersion(), Math::max);
+            }
+            transactionOperations.executeWithoutResult(status -> {
+                if (!batch.isEmpty()) {
+                    projection.apply(jdbcTemplate, generation.getTable(), batch);
+                }
+                store.saveReplayRange(projection.name(), generation.getGeneration(),
+                        new ReplayRange(afterAggregateId, lastAggregateId, batch.size()), versions);
+            });
+            replay.replayed.addAndGet(batch.size());
+            counter.increment(batch.size());
+        }
+
+        /**
+         * Finds the aggregate boundary closest to the middle, or -1 if the shard holds one aggregate.
+         */
+        private int splitPoint() {
+            int middle = events.size() / 2;
+            for (int offset = 0; offset < events.size(); offset++) {
+                int later = middle + offset;
+                if (later < events.size() && isBoundary(later)) {
+                    return later;
+                }
+                int earlier = middle - offset;
+                if (earlier > 0 && isBoundary(earlier)) {
+                    return earlier;
+                }
+            }
+            return -1;
+        }
+
+        private boolean isBoundary(int index) {
+            return index > 0 && !events.get(index).getAggregateId().equals(events.get(index - 1).getAggregateId());
+        }
+    }
+
+    /**
+     * Progress of one replay.
+     */
+    private static final class Replay {
+
+        enum State { RUNNING, DONE, FAILED }
+
+        private final String projection;
+        private final int generation;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong resumed = new AtomicLong();
+        private final AtomicLong replayed = new AtomicLong();
+        private final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile long estimatedEvents = -1;
+
+        private Replay(String projection, int generation) {
+            this.projection = projection;
+            this.generation = generation;
+        }
+
+        Map<String, Object> progress() {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            long done = resumed.get() + replayed.get();
+            double eventsPerSecond = elapsedNanos > 0 ? replayed.get() * 1e9 / elapsedNanos : 0;
+
+            Map<String, Object> progress = new LinkedHashMap<>();
+            progress.put("projection", projection);
+            progress.put("generation", generation);
+            progress.put("state", state.get());
+            progress.put("events", done);
+            progress.put("estimatedEvents", estimatedEvents >= 0 ? estimatedEvents : null);
+            progress.put("eventsPerSecond", Math.round(eventsPerSecond));
+            progress.put("elapsed", Duration.ofNanos(elapsedNanos).withNanos(0).toString());
+            if (state.get() == State.RUNNING && eventsPerSecond > 0 && estimatedEvents > done) {
+                long remainingSeconds = (long) ((estimatedEvents - done) / eventsPerSecond);
+                progress.put("eta", Duration.ofSeconds(remainingSeconds).toString());
+            }
+            Throwable error = failure.get();
+            if (error != null) {
+                progress.put("failure", error.toString());
+            }
+            return progress;
+        }
+    }
+}
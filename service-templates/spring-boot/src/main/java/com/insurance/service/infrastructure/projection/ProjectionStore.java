@@ -0,0 +1,355 @@
+package com.insurance.service.infrastructure.projection;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * PostgreSQL store for projection generations, their per-partition checkpoints and the progress of replays.
+ */
+@Repository
+public class ProjectionStore {
+
+    private static final String FIND_LIVE_SQL =
+            "SELECT projection, generation, status, created_at, activated_at, replay_started_at FROM projection_generations "
+                    + "WHERE projection = ? AND status IN ('REPLAYING', 'BUILDING', 'ACTIVE') ORDER BY generation";
+
+    private static final String FIND_ALL_LIVE_SQL =
+            "SELECT projection, generation, status, created_at, activated_at, replay_started_at FROM projection_generations "
+                    + "WHERE status IN ('REPLAYING', 'BUILDING', 'ACTIVE') ORDER BY projection, generation";
+
+    private static final String CREATE_GENERATION_SQL =
+            "INSERT INTO projection_generations (projection, generation, status, created_at, activated_at, replay_started_at) "
+                    + "SELECT ?, COALESCE(MAX(generation), 0) + 1, ?, ?, ?, ? FROM projection_generations "
+                    + "WHERE projection = ? RETURNING generation";
+
+    private static final String ACTIVATE_SQL =
+            "UPDATE projection_generations SET status = 'ACTIVE', activated_at = ? "
+                    + "WHERE projection = ? AND generation = ? AND status = 'BUILDING'";
+
+    private static final String RETIRE_OTHERS_SQL =
+            "UPDATE projection_generations SET status = 'RETIRED', retired_at = ? "
+                    + "WHERE projection = ? AND generation <> ? AND status = 'ACTIVE' RETURNING generation";
+
+    private static final String FIND_RETIRED_SQL =
+            "SELECT generation FROM projection_generations "
+                    + "WHERE projection = ? AND status = 'RETIRED' AND retired_at < ? ORDER BY generation";
+
+    private static final String MARK_DROPPED_SQL =
+            "UPDATE projection_generations SET status = 'DROPPED' "
+                    + "WHERE projection = ? AND generation = ? AND status = 'RETIRED'";
+
+    private static final String DELETE_CHECKPOINTS_SQL =
+            "DELETE FROM projection_checkpoints WHERE projection = ? AND generation = ?";
+
+    private static final String INSERT_CHECKPOINT_SQL =
+            "INSERT INTO projection_checkpoints (projection, generation, topic, kafka_partition, next_offset, updated_at) "
+                    + "VALUES (?, ?, ?, ?, 0, ?) ON CONFLICT DO NOTHING";
+
+    private static final String LOCK_CHECKPOINT_SQL =
+            "SELECT next_offset FROM projection_checkpoints "
+                    + "WHERE projection = ? AND generation = ? AND topic = ? AND kafka_partition = ? FOR UPDATE";
+
+    private static final String UPDATE_CHECKPOINT_SQL =
+            "UPDATE projection_checkpoints SET next_offset = ?, updated_at = ? "
+                    + "WHERE projection = ? AND generation = ? AND topic = ? AND kafka_partition = ?";
+
+    private static final String FIND_CHECKPOINTS_SQL =
+            "SELECT topic, kafka_partition, next_offset FROM projection_checkpoints WHERE projection = ? AND generation = ?";
+
+    private static final String FINISH_REPLAY_SQL =
+            "UPDATE projection_generations SET status = 'BUILDING' "
+                    + "WHERE projection = ? AND generation = ? AND status = 'REPLAYING'";
+
+    private static final String INSERT_REPLAY_RANGE_SQL =
+            "INSERT INTO projection_replay_ranges (projection, generation, after_aggregate_id, last_aggregate_id, events) "
+                    + "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String FIND_REPLAY_RANGES_SQL =
+            "SELECT after_aggregate_id, last_aggregate_id, events FROM projection_replay_ranges "
+                    + "WHERE projection = ? AND generation = ? ORDER BY after_aggregate_id";
+
+    private static final String DELETE_REPLAY_RANGES_SQL =
+            "DELETE FROM projection_replay_ranges WHERE projection = ? AND generation = ?";
+
+    private static final String INSERT_REPLAYED_VERSION_SQL =
+            "INSERT INTO projection_replayed_versions (projection, generation, aggregate_id, version) VALUES (?, ?, ?, ?)";
+
+    private static final String FIND_REPLAYED_VERSIONS_SQL =
+            "SELECT aggregate_id, version FROM projection_replayed_versions "
+                    + "WHERE projection = ? AND generation = ? AND aggregate_id = ANY(?)";
+
+    private static final String DELETE_REPLAYED_VERSIONS_SQL =
+            "DELETE FROM projection_replayed_versions WHERE projection = ? AND generation = ?";
+
+    private static final Comparator<TopicPartition> LOCK_ORDER =
+            Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProjectionStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Finds the building and active generations of a projection.
+     *
+     * @param projection The projection name
+     * @return The generations, oldest first
+     */
+    public List<ProjectionGeneration> findLive(String projection) {
+        return jdbcTemplate.query(FIND_LIVE_SQL, (rs, rowNum) -> mapGeneration(rs), projection);
+    }
+
+    /**
+     * Finds the building and active generations of all projections.
+     *
+     * @return The generations, by projection and oldest first
+     */
+    public List<ProjectionGeneration> findAllLive() {
+        return jdbcTemplate.query(FIND_ALL_LIVE_SQL, (rs, rowNum) -> mapGeneration(rs));
+    }
+
+    /**
+     * Creates the next generation of a projection. Fails with a duplicate key error
+     * if another instance created it concurrently.
+     *
+     * @param projection The projection name
+     * @param status The initial status, {@code ACTIVE} only for the first generation
+     * @return The generation number
+     */
+    public int createGeneration(String projection, ProjectionGeneration.Status status) {
+        return createGeneration(projection, status, null);
+    }
+
+    /**
+     * Creates the next generation of a projection. Fails with a duplicate key error
+     * if another instance created it concurrently.
+     *
+     * @param projection The projection name
+     * @param status The initial status, {@code ACTIVE} only for the first generation
+     * @param replayStartedAt The time a replay from the event store started, or null
+     * @return The generation number
+     */
+    public int createGeneration(String projection, ProjectionGeneration.Status status, LocalDateTime replayStartedAt) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer generation = jdbcTemplate.queryForObject(CREATE_GENERATION_SQL, Integer.class,
+                projection, status.name(), Timestamp.valueOf(now),
+                status == ProjectionGeneration.Status.ACTIVE ? Timestamp.valueOf(now) : null,
+                replayStartedAt != null ? Timestamp.valueOf(replayStartedAt) : null, projection);
+        if (generation == null) {
+            throw new IllegalStateException("No generation created for projection " + projection);
+        }
+        return generation;
+    }
+
+    /**
+     * Activates a building generation and retires the previously active one. The tables and
+     * checkpoints of the retired generations are kept until {@link #markDropped}, as consumers
+     * on other instances may still be writing to them. Must run in a transaction.
+     *
+     * @param projection The projection name
+     * @param generation The building generation
+     * @return The retired generations, or null if the generation was no longer building
+     */
+    public List<Integer> activate(String projection, int generation) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int updated = jdbcTemplate.update(ACTIVATE_SQL, now, projection, generation);
+        if (updated == 0) {
+            return null;
+        }
+        return jdbcTemplate.queryForList(RETIRE_OTHERS_SQL, Integer.class, now, projection, generation);
+    }
+
+    /**
+     * Finds the generations of a projection that were retired before the given time.
+     *
+     * @param projection The projection name
+     * @param retiredBefore The time the generations must have been retired before
+     * @return The generations, oldest first
+     */
+    public List<Integer> findRetired(String projection, LocalDateTime retiredBefore) {
+        return jdbcTemplate.queryForList(FIND_RETIRED_SQL, Integer.class, projection, Timestamp.valueOf(retiredBefore));
+    }
+
+    /**
+     * Marks a retired generation as dropped and deletes its checkpoints and replayed versions.
+     * Must run in the transaction that drops its table.
+     *
+     * @param projection The projection name
+     * @param generation The retired generation
+     * @return Whether the generation was still retired, false if another instance dropped it
+     */
+    public boolean markDropped(String projection, int generation) {
+        if (jdbcTemplate.update(MARK_DROPPED_SQL, projection, generation) == 0) {
+            return false;
+        }
+        jdbcTemplate.update(DELETE_CHECKPOINTS_SQL, projection, generation);
+        jdbcTemplate.update(DELETE_REPLAYED_VERSIONS_SQL, projection, generation);
+        return true;
+    }
+
+    /**
+     * Locks the checkpoints of the given partitions until the surrounding transaction ends,
+     * creating missing ones at offset zero. Partitions are locked in a fixed order, so
+     * consumers locking overlapping sets during a rebalance cannot deadlock.
+     * Must run in a transaction.
+     *
+     * @param projection The projection name
+     * @param generation The generation
+     * @param partitions The partitions to lock
+     * @return The next offset to project per partition
+     */
+    public Map<TopicPartition, Long> lockCheckpoints(String projection, int generation,
+                                                     Collection<TopicPartition> partitions) {
+        List<TopicPartition> ordered = new ArrayList<>(partitions);
+        ordered.sort(LOCK_ORDER);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_CHECKPOINT_SQL, ordered, ordered.size(), (ps, partition) -> {
+            ps.setString(1, projection);
+            ps.setInt(2, generation);
+            ps.setString(3, partition.topic());
+            ps.setInt(4, partition.partition());
+            ps.setTimestamp(5, now);
+        });
+
+        Map<TopicPartition, Long> checkpoints = new HashMap<>();
+        for (TopicPartition partition : ordered) {
+            checkpoints.put(partition, jdbcTemplate.queryForObject(LOCK_CHECKPOINT_SQL, Long.class,
+                    projection, generation, partition.topic(), partition.partition()));
+        }
+        return checkpoints;
+    }
+
+    /**
+     * Advances checkpoints locked with {@link #lockCheckpoints}.
+     *
+     * @param projection The projection name
+     * @param generation The generation
+     * @param checkpoints The next offset to project per partition
+     */
+    public void saveCheckpoints(String projection, int generation, Map<TopicPartition, Long> checkpoints) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_CHECKPOINT_SQL, new ArrayList<>(checkpoints.entrySet()), checkpoints.size(),
+                (ps, checkpoint) -> {
+                    ps.setLong(1, checkpoint.getValue());
+                    ps.setTimestamp(2, now);
+                    ps.setString(3, projection);
+                    ps.setInt(4, generation);
+                    ps.setString(5, checkpoint.getKey().topic());
+                    ps.setInt(6, checkpoint.getKey().partition());
+                });
+    }
+
+    /**
+     * Finds the checkpoints of a generation without locking them.
+     *
+     * @param projection The projection name
+     * @param generation The generation
+     * @return The next offset to project per partition
+     */
+    public Map<TopicPartition, Long> findCheckpoints(String projection, int generation) {
+        Map<TopicPartition, Long> checkpoints = new HashMap<>();
+        jdbcTemplate.query(FIND_CHECKPOINTS_SQL, rs -> {
+            checkpoints.put(new TopicPartition(rs.getString("topic"), rs.getInt("kafka_partition")),
+                    rs.getLong("next_offset"));
+        }, projection, generation);
+        return checkpoints;
+    }
+
+    /**
+     * Records a range of aggregates a replay has applied, with the latest version it applied of each.
+     * Must run in the transaction that applied them.
+     *
+     * @param projection The projection name
+     * @param generation The replaying generation
+     * @param range The range
+     * @param versions The latest version applied per aggregate in the range
+     */
+    public void saveReplayRange(String projection, int generation, ReplayRange range, Map<UUID, Integer> versions) {
+        jdbcTemplate.update(INSERT_REPLAY_RANGE_SQL, projection, generation,
+                range.getAfterAggregateId(), range.getLastAggregateId(), range.getEvents());
+        if (versions.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_REPLAYED_VERSION_SQL, new ArrayList<>(versions.entrySet()), versions.size(),
+                (ps, version) -> {
+                    ps.setString(1, projection);
+                    ps.setInt(2, generation);
+                    ps.setObject(3, version.getKey());
+                    ps.setInt(4, version.getValue());
+                });
+    }
+
+    /**
+     * Finds the latest versions a replay applied of the given aggregates.
+     *
+     * @param projection The projection name
+     * @param generation The replayed generation
+     * @param aggregateIds The aggregates to look up
+     * @return The latest replayed version per aggregate, without the aggregates the replay did not see
+     */
+    public Map<UUID, Integer> findReplayedVersions(String projection, int generation, Collection<UUID> aggregateIds) {
+        Map<UUID, Integer> versions = new HashMap<>();
+        Object[] ids = aggregateIds.toArray();
+        jdbcTemplate.query(FIND_REPLAYED_VERSIONS_SQL, ps -> {
+            ps.setString(1, projection);
+            ps.setInt(2, generation);
+            ps.setArray(3, ps.getConnection().createArrayOf("uuid", ids));
+        }, rs -> {
+            versions.put(rs.getObject("aggregate_id", UUID.class), rs.getInt("version"));
+        });
+        return versions;
+    }
+
+    /**
+     * Finds the ranges of aggregates a replay has applied so far.
+     *
+     * @param projection The projection name
+     * @param generation The replaying generation
+     * @return The ranges, by the aggregate ID they start after
+     */
+    public List<ReplayRange> findReplayRanges(String projection, int generation) {
+        return jdbcTemplate.query(FIND_REPLAY_RANGES_SQL, (rs, rowNum) -> new ReplayRange(
+                rs.getObject("after_aggregate_id", UUID.class),
+                rs.getObject("last_aggregate_id", UUID.class),
+                rs.getInt("events")), projection, generation);
+    }
+
+    /**
+     * Marks a replay as done, so the consumers of the generation start, and drops its ranges.
+     * Must run in a transaction.
+     *
+     * @param projection The projection name
+     * @param generation The replaying generation
+     * @return Whether the generation was still replaying
+     */
+    public boolean finishReplay(String projection, int generation) {
+        jdbcTemplate.update(DELETE_REPLAY_RANGES_SQL, projection, generation);
+        return jdbcTemplate.update(FINISH_REPLAY_SQL, projection, generation) > 0;
+    }
+
+    private ProjectionGeneration mapGeneration(ResultSet rs) throws SQLException {
+        Timestamp activatedAt = rs.getTimestamp("activated_at");
+        Timestamp replayStartedAt = rs.getTimestamp("replay_started_at");
+        return new ProjectionGeneration(
+                rs.getString("projection"),
+                rs.getInt("generation"),
+                ProjectionGeneration.Status.valueOf(rs.getString("status")),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                activatedAt != null ? activatedAt.toLocalDateTime() : null,
+                replayStartedAt != null ? replayStartedAt.toLocalDateTime() : null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.insurance.service.infrastructure.projection;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint listing projection generations and starting rebuilds.
+ * {@code GET /actuator/projections} shows each live generation with its lag, or the progress of its
+ * replay; {@code POST /actuator/projections/{name}} rebuilds a projection from its topics, and
+ * {@code POST /actuator/projections/{name}/event-store} from the event store.
+ */
+@Component
+@Endpoint(id = "projections")
+@ConditionalOnProperty(prefix = "insurance.projections", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProjectionsEndpoint {
+
+    static final String EVENT_STORE_SOURCE = "event-store";
+
+    private final ProjectionEngine engine;
+    private final ProjectionReplayer replayer;
+
+    public ProjectionsEndpoint(ProjectionEngine engine, ProjectionReplayer replayer) {
+        this.engine = engine;
+        this.replayer = replayer;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> projections() {
+        List<Map<String, Object>> status = engine.status();
+        Map<String, Map<String, Object>> replays = replayer.status();
+        for (Map<String, Object> generation : status) {
+            Map<String, Object> replay = replays.get((String) generation.get("projection"));
+            if (replay != null && replay.get("generation").equals(generation.get("generation"))) {
+                generation.put("replay", replay);
+            }
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild(@Selector String name) {
+        int generation = engine.rebuild(name);
+        return Map.of("projection", name, "generation", generation, "status", ProjectionGeneration.Status.BUILDING);
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuildFrom(@Selector String name, @Selector String source) {
+        if (!EVENT_STORE_SOURCE.equals(source)) {
+            throw new InvalidEndpointRequestException("Unknown rebuild source " + source,
+                    "Projections are rebuilt from their topics or from " + EVENT_STORE_SOURCE);
+        }
+        int generation = replayer.start(name);
+        return Map.of("projection", name, "generation", generation, "status", ProjectionGeneration.Status.REPLAYING);
+    }
+}
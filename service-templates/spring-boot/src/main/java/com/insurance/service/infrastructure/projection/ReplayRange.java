@@ -0,0 +1,31 @@
+package com.insurance.service.infrastructure.projection;
+
+import java.util.UUID;
+
+/**
+ * The aggregates with identifiers after one and up to another, applied by a replay in one transaction.
+ */
+public final class ReplayRange {
+
+    private final UUID afterAggregateId;
+    private final UUID lastAggregateId;
+    private final int events;
+
+    public ReplayRange(UUID afterAggregateId, UUID lastAggregateId, int events) {
+        this.afterAggregateId = afterAggregateId;
+        this.lastAggregateId = lastAggregateId;
+        this.events = events;
+    }
+
+    public UUID getAfterAggregateId() {
+        return afterAggregateId;
+    }
+
+    public UUID getLastAggregateId() {
+        return lastAggregateId;
+    }
+
+    public int getEvents() {
+        return events;
+    }
+}
@@ -0,0 +1,2 @@
+-- Finds the closing events of aggregates whose history can be moved to the event archive
+CREATE INDEX IF NOT EXISTS idx_event_store_type_occurred ON event_store (event_type, occurred_at);
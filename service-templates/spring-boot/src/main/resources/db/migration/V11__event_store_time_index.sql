@@ -0,0 +1,3 @@
+-- Resolves the version an aggregate was at a point in time for as-of queries,
+-- with an index-only scan over the aggregate's commits
+CREATE INDEX IF NOT EXISTS idx_event_store_aggregate_occurred ON event_store (aggregate_id, occurred_at, version);
@@ -0,0 +1,26 @@
+-- Replays of projections from the event store
+
+-- A REPLAYING generation is filled from the event store; its Kafka consumers start once the replay
+-- is done, reading from records written shortly before the replay started
+ALTER TABLE projection_generations ADD COLUMN IF NOT EXISTS replay_started_at TIMESTAMP;
+
+-- Aggregate ID ranges (after_aggregate_id, last_aggregate_id] a replay has applied, written in the
+-- same transaction as the events of the range, so an interrupted replay resumes without reapplying any
+CREATE TABLE IF NOT EXISTS projection_replay_ranges (
+    projection VARCHAR(255) NOT NULL,
+    generation INT NOT NULL,
+    after_aggregate_id UUID NOT NULL,
+    last_aggregate_id UUID NOT NULL,
+    events INT NOT NULL,
+    PRIMARY KEY (projection, generation, after_aggregate_id)
+);
+
+-- Latest version of each aggregate a replay has applied, written with its range; the consumers of
+-- the generation skip the records of an aggregate up to this version and apply the later ones
+CREATE TABLE IF NOT EXISTS projection_replayed_versions (
+    projection VARCHAR(255) NOT NULL,
+    generation INT NOT NULL,
+    aggregate_id UUID NOT NULL,
+    version INT NOT NULL,
+    PRIMARY KEY (projection, generation, aggregate_id)
+);
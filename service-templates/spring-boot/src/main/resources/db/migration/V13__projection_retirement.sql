@@ -0,0 +1,9 @@
+-- Deferred dropping of retired projection generations
+
+-- A RETIRED generation keeps its table until every instance has stopped its consumers; a later
+-- reconcile drops the table and checkpoints once the generation has been retired for a grace period
+-- and marks it DROPPED
+ALTER TABLE projection_generations ADD COLUMN IF NOT EXISTS retired_at TIMESTAMP;
+
+-- Generations retired before this migration had their tables dropped on activation
+UPDATE projection_generations SET status = 'DROPPED' WHERE status = 'RETIRED';
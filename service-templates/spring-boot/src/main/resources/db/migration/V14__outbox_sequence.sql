@@ -0,0 +1,22 @@
+-- Insertion sequence of outbox rows
+
+-- created_at comes from the application clock and UUIDv7 ids are not ordered within a millisecond,
+-- so rows are relayed in (created_at, aggregate_version, seq) order, seq breaking the remaining ties
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq;
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS seq BIGINT;
+
+-- Existing rows are numbered in the order they were relayed in before
+UPDATE outbox_events o SET seq = numbered.seq
+FROM (
+    SELECT id, created_at, nextval('outbox_events_seq') AS seq
+    FROM (SELECT id, created_at FROM outbox_events ORDER BY created_at, aggregate_version, id) ordered
+) numbered
+WHERE o.id = numbered.id AND o.created_at = numbered.created_at;
+
+ALTER TABLE outbox_events ALTER COLUMN seq SET DEFAULT nextval('outbox_events_seq');
+ALTER TABLE outbox_events ALTER COLUMN seq SET NOT NULL;
+ALTER SEQUENCE outbox_events_seq OWNED BY outbox_events.seq;
+
+DROP INDEX IF EXISTS idx_outbox_events_pending;
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending
+    ON outbox_events (created_at, aggregate_version, seq) WHERE processed = FALSE;
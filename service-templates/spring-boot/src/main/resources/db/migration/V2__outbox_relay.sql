@@ -0,0 +1,9 @@
+-- Support for the outbox relay
+
+-- Fully qualified event class, relayed as the JSON type header for consumers
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS payload_type VARCHAR(512);
+
+-- The relay only ever scans pending rows in creation order; a partial index keeps
+-- that scan proportional to the backlog instead of the table size
+DROP INDEX IF EXISTS idx_outbox_events_processed;
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events(created_at) WHERE processed = FALSE;
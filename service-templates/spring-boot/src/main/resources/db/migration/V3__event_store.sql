@@ -0,0 +1,18 @@
+-- Append-only event store for event-sourced aggregates.
+-- Each append is one commit: all events raised by a command share the aggregate
+-- version they produced and are ordered within it by event_index. The primary key
+-- doubles as the optimistic concurrency guard and as the index for stream loads.
+CREATE TABLE IF NOT EXISTS event_store (
+    aggregate_id UUID NOT NULL,
+    version INT NOT NULL,
+    event_index INT NOT NULL,
+    aggregate_type VARCHAR(255) NOT NULL,
+    event_id UUID NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    payload_type VARCHAR(512) NOT NULL,
+    payload JSONB NOT NULL,
+    occurred_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (aggregate_id, version, event_index)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_event_store_event_id ON event_store(event_id);
@@ -0,0 +1,12 @@
+-- Snapshots of event-sourced aggregates, keyed by aggregate and the version they capture
+CREATE TABLE IF NOT EXISTS aggregate_snapshots (
+    aggregate_id UUID NOT NULL,
+    version INT NOT NULL,
+    aggregate_type VARCHAR(255) NOT NULL,
+    schema_version INT NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (aggregate_id, version)
+);
+
+CREATE INDEX IF NOT EXISTS idx_aggregate_snapshots_schema ON aggregate_snapshots(aggregate_type, schema_version);
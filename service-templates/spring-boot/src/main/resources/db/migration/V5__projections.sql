@@ -0,0 +1,24 @@
+-- Read-model projections: generations and per-partition checkpoints
+
+-- A projection writes to one table per generation, <projection>_g<generation>, and is read through
+-- a view named after the projection that selects from the ACTIVE generation. A rebuild creates a
+-- BUILDING generation and swaps the view once it has caught up; the previous one becomes RETIRED.
+CREATE TABLE IF NOT EXISTS projection_generations (
+    projection VARCHAR(255) NOT NULL,
+    generation INT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    activated_at TIMESTAMP,
+    PRIMARY KEY (projection, generation)
+);
+
+-- Next Kafka offset to project per partition, updated in the same transaction as the read model
+CREATE TABLE IF NOT EXISTS projection_checkpoints (
+    projection VARCHAR(255) NOT NULL,
+    generation INT NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    kafka_partition INT NOT NULL,
+    next_offset BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (projection, generation, topic, kafka_partition)
+);
@@ -0,0 +1,3 @@
+-- Keyset pagination reads in (updated_at, id) order and seeks past the last row of the
+-- previous page; this index makes every page a short range scan regardless of depth
+CREATE INDEX IF NOT EXISTS idx_example_aggregate_updated_at_id ON example_aggregate(updated_at, id);
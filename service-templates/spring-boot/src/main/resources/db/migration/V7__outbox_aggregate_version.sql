@@ -0,0 +1,3 @@
+-- Aggregate version after the change that raised an event, relayed as a record header so that
+-- consumers such as the near cache can tell which cached versions the event supersedes
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS aggregate_version INT;
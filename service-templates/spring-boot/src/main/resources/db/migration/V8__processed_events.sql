@@ -0,0 +1,12 @@
+-- Domain events each consumer group has processed, for skipping redeliveries
+
+-- A row is inserted in the same transaction as the processing of the event, so an event is
+-- recorded if and only if its processing committed. Rows older than the retention window are purged.
+CREATE TABLE IF NOT EXISTS processed_events (
+    consumer_group VARCHAR(255) NOT NULL,
+    event_id UUID NOT NULL,
+    processed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (consumer_group, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_processed_events_processed_at ON processed_events (processed_at);
@@ -0,0 +1,57 @@
+-- Time-partitioned outbox
+
+-- The outbox becomes a table partitioned by day on created_at. Retention detaches or drops whole
+-- partitions instead of deleting rows, and the pending index of each partition only holds its
+-- unrelayed rows, so the relay scan stays proportional to the backlog. PartitionMaintenance keeps
+-- partitions created ahead of time; the default partition only catches rows if it falls behind.
+ALTER TABLE outbox_events RENAME TO outbox_events_legacy;
+ALTER INDEX outbox_events_pkey RENAME TO outbox_events_legacy_pkey;
+ALTER INDEX idx_outbox_events_pending RENAME TO idx_outbox_events_legacy_pending;
+ALTER INDEX idx_outbox_events_aggregate RENAME TO idx_outbox_events_legacy_aggregate;
+
+-- The partition key must be part of the primary key
+CREATE TABLE outbox_events (
+    id UUID NOT NULL,
+    aggregate_type VARCHAR(255) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    processed BOOLEAN NOT NULL DEFAULT FALSE,
+    processed_at TIMESTAMP,
+    payload_type VARCHAR(512),
+    aggregate_version INT,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events (created_at) WHERE processed = FALSE;
+CREATE INDEX IF NOT EXISTS idx_outbox_events_aggregate ON outbox_events (aggregate_type, aggregate_id);
+-- Rows are appended in time order, so a BRIN index serves time-range scans at a fraction of a B-tree's size
+CREATE INDEX IF NOT EXISTS idx_outbox_events_created_brin ON outbox_events USING BRIN (created_at);
+
+CREATE TABLE IF NOT EXISTS outbox_events_default PARTITION OF outbox_events DEFAULT;
+
+-- Existing rows are kept in place: the old table becomes the partition of everything up to the
+-- day after its newest row, and is dropped by retention like any other partition
+DO $$
+DECLARE
+    legacy_end DATE;
+    first_day DATE := CURRENT_DATE;
+    day DATE;
+BEGIN
+    SELECT MAX(created_at)::date + 1 INTO legacy_end FROM outbox_events_legacy;
+    IF legacy_end IS NULL THEN
+        DROP TABLE outbox_events_legacy;
+    ELSE
+        EXECUTE format('ALTER TABLE outbox_events ATTACH PARTITION outbox_events_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                       legacy_end::timestamp);
+        first_day := GREATEST(first_day, legacy_end);
+    END IF;
+
+    day := first_day;
+    WHILE day <= CURRENT_DATE + 7 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF outbox_events FOR VALUES FROM (%L) TO (%L)',
+                       'outbox_events_p' || to_char(day, 'YYYYMMDD'), day::timestamp, (day + 1)::timestamp);
+        day := day + 1;
+    END LOOP;
+END $$;
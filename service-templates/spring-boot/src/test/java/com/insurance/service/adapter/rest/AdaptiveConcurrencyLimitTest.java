@@ -0,0 +1,111 @@
+package com.insurance.service.adapter.rest;
+
+import com.insurance.service.adapter.rest.AdaptiveConcurrencyLimit.Outcome;
+import com.insurance.service.config.ConcurrencyLimitProperties.LimitSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AdaptiveConcurrencyLimit class.
+ */
+class AdaptiveConcurrencyLimitTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final AdaptiveConcurrencyLimit limit =
+            new AdaptiveConcurrencyLimit("commands", new LimitSettings(20, 5, 200), registry, clock::get);
+
+    /**
+     * Test that requests beyond the limit are rejected and counted.
+     */
+    @Test
+    void shouldRejectRequestsBeyondLimit() {
+        // When
+        int admitted = 0;
+        while (limit.tryAcquire()) {
+            admitted++;
+        }
+        limit.release(clock.get(), Outcome.IGNORED);
+
+        // Then
+        assertEquals(20, admitted);
+        assertEquals(19, limit.inFlight());
+        assertTrue(limit.tryAcquire());
+        assertEquals(1, registry.get(AdaptiveConcurrencyLimit.REJECTED_COUNTER)
+                .tag("group", "commands").counter().count());
+        assertEquals(20, registry.get(AdaptiveConcurrencyLimit.LIMIT_GAUGE).gauge().value());
+    }
+
+    /**
+     * Test that the limit grows while latency is stable and shrinks once it rises.
+     */
+    @Test
+    void shouldFollowLatency() {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            window(1000, 10);
+        }
+        int grown = limit.limit();
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            window(1000, 50);
+        }
+
+        // Then
+        assertTrue(grown > 20, "limit grew to " + grown);
+        assertTrue(limit.limit() < grown * 3 / 4, "limit shrank from " + grown + " to " + limit.limit());
+    }
+
+    /**
+     * Test that the limit does not grow while traffic uses less than half of it.
+     */
+    @Test
+    void shouldNotGrowWhenUnderused() {
+        // When
+        for (int i = 0; i < 20; i++) {
+            window(9, 10);
+        }
+
+        // Then
+        assertEquals(20, limit.limit());
+    }
+
+    /**
+     * Test that overloaded responses back off the limit down to its minimum.
+     */
+    @Test
+    void shouldBackOffOnDroppedRequests() {
+        // When
+        assertTrue(limit.tryAcquire());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        limit.release(clock.get(), Outcome.DROPPED);
+        int backedOff = limit.limit();
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limit.tryAcquire());
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+            limit.release(clock.get(), Outcome.DROPPED);
+        }
+
+        // Then
+        assertEquals(18, backedOff);
+        assertEquals(5, limit.limit());
+    }
+
+    private void window(int requests, long rttMillis) {
+        int acquired = 0;
+        while (acquired < requests && limit.tryAcquire()) {
+            acquired++;
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        long start = clock.get() - TimeUnit.MILLISECONDS.toNanos(rttMillis);
+        for (int i = 0; i < acquired; i++) {
+            limit.release(start, Outcome.SUCCESS);
+        }
+    }
+}
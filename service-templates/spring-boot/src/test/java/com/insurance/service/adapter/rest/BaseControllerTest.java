@@ -0,0 +1,104 @@
+package com.insurance.service.adapter.rest;
+
+import com.insurance.service.adapter.rest.BaseController.ApiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the conditional requests of the BaseController class.
+ */
+class BaseControllerTest {
+
+    private final BaseController controller = new BaseController() { };
+    private final UUID claimId = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /**
+     * Test that a read without If-None-Match is tagged with the version of the loaded body.
+     */
+    @Test
+    void shouldTagResponseWithLoadedVersion() {
+        // When
+        ResponseEntity<ApiResponse<Integer>> response = controller.ok(null, claimId, Optional.of(3), () -> load(4), v -> v);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ETags.of(claimId, 4), response.getHeaders().getETag());
+        assertEquals(4, response.getBody().getData());
+    }
+
+    /**
+     * Test that a read of the current version is answered with 304 without loading the body.
+     */
+    @Test
+    void shouldAnswerNotModifiedWithoutLoading() {
+        // Given
+        String ifNoneMatch = "\"other\", W/" + ETags.of(claimId, 3);
+
+        // When
+        ResponseEntity<ApiResponse<Integer>> response = controller.ok(ifNoneMatch, claimId, Optional.of(3), () -> load(3), v -> v);
+
+        // Then
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(ETags.of(claimId, 3), response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(0, loads.get());
+    }
+
+    /**
+     * Test that a read of an outdated version returns the current body.
+     */
+    @Test
+    void shouldReturnBodyForOutdatedVersion() {
+        // When
+        ResponseEntity<ApiResponse<Integer>> response =
+                controller.ok(ETags.of(claimId, 2), claimId, Optional.of(3), () -> load(3), v -> v);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * Test that If-Match holds only for a strong tag of the current version of an existing aggregate.
+     */
+    @Test
+    void shouldCheckIfMatchStrongly() {
+        // When / Then
+        assertDoesNotThrow(() -> controller.checkIfMatch(null, claimId, Optional.of(3)));
+        assertDoesNotThrow(() -> controller.checkIfMatch(ETags.of(claimId, 3), claimId, Optional.of(3)));
+        assertDoesNotThrow(() -> controller.checkIfMatch("*", claimId, Optional.of(3)));
+        assertThrows(PreconditionFailedException.class, () -> controller.checkIfMatch(ETags.of(claimId, 2), claimId, Optional.of(3)));
+        assertThrows(PreconditionFailedException.class, () -> controller.checkIfMatch("W/" + ETags.of(claimId, 3), claimId, Optional.of(3)));
+        assertThrows(PreconditionFailedException.class, () -> controller.checkIfMatch("*", claimId, Optional.empty()));
+    }
+
+    /**
+     * Test that an aggregate at version 0, such as a saved and unmodified JPA entity, is tagged and matched.
+     */
+    @Test
+    void shouldTreatVersionZeroAsExisting() {
+        // When
+        ResponseEntity<ApiResponse<Integer>> notModified =
+                controller.ok(ETags.of(claimId, 0), claimId, Optional.of(0), () -> load(0), v -> v);
+
+        // Then
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals(0, loads.get());
+        assertDoesNotThrow(() -> controller.checkIfMatch(ETags.of(claimId, 0), claimId, Optional.of(0)));
+        assertThrows(PreconditionFailedException.class,
+                () -> controller.checkIfMatch(ETags.of(claimId, 0), claimId, Optional.empty()));
+    }
+
+    private int load(int version) {
+        loads.incrementAndGet();
+        return version;
+    }
+}
@@ -0,0 +1,104 @@
+package com.insurance.service.adapter.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.service.config.ConcurrencyLimitProperties.LimitSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test of the ConcurrencyLimitFilter under overload.
+ * The backend is a pool of connections with a fixed service time, offered far more concurrent
+ * requests than it can serve. Clients give up on responses slower than their deadline and retry
+ * rejected requests after a pause. Without a limit every request queues for a connection
+ * and misses its deadline; with the limit the excess is rejected and admitted requests complete
+ * in time, so goodput stays close to the capacity of the pool.
+ * Run with {@code mvn verify -Pintegration-tests}.
+ */
+class ConcurrencyLimitOverloadIT {
+
+    private static final int CONNECTIONS = 10;
+    private static final long SERVICE_MILLIS = 5;
+    private static final int CLIENTS = 200;
+    private static final Duration DEADLINE = Duration.ofMillis(50);
+    private static final Duration RUN_TIME = Duration.ofSeconds(5);
+
+    /**
+     * Compares requests per second completed within the deadline with and without the limit.
+     */
+    @Test
+    void benchmarkGoodputUnderOverload() throws Exception {
+        double capacity = CONNECTIONS * 1000.0 / SERVICE_MILLIS;
+        double unlimited = goodput(false);
+        double limited = goodput(true);
+
+        System.out.printf("capacity: %.0f/s, goodput without limit: %.0f/s, with limit: %.0f/s%n",
+                capacity, unlimited, limited);
+        assertTrue(limited > 2 * unlimited);
+        assertTrue(limited > capacity / 2);
+    }
+
+    private double goodput(boolean withLimit) throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+                new AdaptiveConcurrencyLimit("commands", new LimitSettings(20, 5, 200), registry),
+                new AdaptiveConcurrencyLimit("queries", new LimitSettings(50, 10, 500), registry),
+                Duration.ofSeconds(1), new ObjectMapper().findAndRegisterModules());
+        Semaphore connections = new Semaphore(CONNECTIONS, true);
+        FilterChain backend = (request, response) -> {
+            connections.acquireUninterruptibly();
+            try {
+                Thread.sleep(SERVICE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                connections.release();
+            }
+        };
+
+        AtomicLong onTime = new AtomicLong();
+        long end = System.nanoTime() + RUN_TIME.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                while (System.nanoTime() < end) {
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/claims");
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    long start = System.nanoTime();
+                    if (withLimit) {
+                        filter.doFilter(request, response, backend);
+                    } else {
+                        backend.doFilter(request, response);
+                    }
+                    if (response.getStatus() == 503) {
+                        Thread.sleep(DEADLINE.toMillis());
+                    } else if (System.nanoTime() - start <= DEADLINE.toNanos()) {
+                        onTime.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        clients.shutdown();
+        clients.awaitTermination(10, TimeUnit.SECONDS);
+        return onTime.get() * 1e9 / RUN_TIME.toNanos();
+    }
+}
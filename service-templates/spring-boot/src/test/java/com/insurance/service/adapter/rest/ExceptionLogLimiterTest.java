@@ -0,0 +1,60 @@
+package com.insurance.service.adapter.rest;
+
+import com.insurance.service.domain.exception.EntityNotFoundException;
+import com.insurance.service.domain.exception.ValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ExceptionLogLimiter class.
+ */
+class ExceptionLogLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /**
+     * Test that logging stops at the limit per type while every exception is counted.
+     */
+    @Test
+    void shouldLimitLogsPerTypeAndCountAll() {
+        // Given
+        ExceptionLogLimiter limiter = new ExceptionLogLimiter(2, Duration.ofHours(1), registry);
+
+        // When
+        long[] results = new long[5];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = limiter.record(new ValidationException("bad"), 400);
+        }
+        long otherType = limiter.record(new EntityNotFoundException("Claim", "42"), 404);
+
+        // Then
+        assertArrayEquals(new long[] {0, 0, -1, -1, -1}, results);
+        assertEquals(0, otherType);
+        assertEquals(5, registry.get(ExceptionLogLimiter.EXCEPTIONS_COUNTER)
+                .tags("exception", "ValidationException", "status", "400").counter().count());
+        assertEquals(3, registry.get(ExceptionLogLimiter.SUPPRESSED_COUNTER).counter().count());
+    }
+
+    /**
+     * Test that the first line of a new interval reports the lines left out before it.
+     */
+    @Test
+    void shouldReportSuppressedLinesInNextInterval() throws InterruptedException {
+        // Given
+        ExceptionLogLimiter limiter = new ExceptionLogLimiter(1, Duration.ofMillis(50), registry);
+        limiter.record(new ValidationException("bad"), 400);
+        limiter.record(new ValidationException("bad"), 400);
+        limiter.record(new ValidationException("bad"), 400);
+
+        // When
+        Thread.sleep(60);
+        long suppressed = limiter.record(new ValidationException("bad"), 400);
+
+        // Then
+        assertEquals(2, suppressed);
+    }
+}
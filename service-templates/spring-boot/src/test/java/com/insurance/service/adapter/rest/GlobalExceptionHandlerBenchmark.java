@@ -0,0 +1,106 @@
+package com.insurance.service.adapter.rest;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.insurance.service.domain.exception.DomainException;
+import com.insurance.service.domain.exception.EntityNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures error response building in the global exception handler, including exception
+ * construction and the logging it does, with log output rendered but discarded.
+ * Runs with and without stack trace capture, under the default log rate limit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(
+            new ExceptionLogLimiter(10, Duration.ofSeconds(1), new SimpleMeterRegistry()));
+
+    @Param({"false", "true"})
+    private boolean captureStackTraces;
+
+    private DomainException domainException;
+    private MethodArgumentNotValidException argumentNotValidException;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        discardLogOutput();
+        DomainException.captureStackTraces(captureStackTraces);
+        domainException = new DomainException("Claim amount exceeds the policy limit");
+
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new Object(), "claimRequest");
+        bindingResult.addError(new FieldError("claimRequest", "policyId", "must not be null"));
+        bindingResult.addError(new FieldError("claimRequest", "incidentDate", "must be in the past"));
+        bindingResult.addError(new FieldError("claimRequest", "estimatedAmount", "must be positive"));
+        MethodParameter parameter = new MethodParameter(Object.class.getMethod("equals", Object.class), 0);
+        argumentNotValidException = new MethodArgumentNotValidException(parameter, bindingResult);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> handleDomainException() {
+        return handler.handleDomainException(domainException);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> throwAndHandleNotFound() {
+        return handler.handleEntityNotFoundException(new EntityNotFoundException("Claim", UUID.randomUUID()));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> handleArgumentNotValid() {
+        return handler.handleValidationExceptions(argumentNotValidException);
+    }
+
+    /**
+     * Renders the handler's log events, stack traces included, to a stream that discards them.
+     */
+    private static void discardLogOutput() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        Logger logger = context.getLogger(GlobalExceptionHandler.class);
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+    }
+}
@@ -0,0 +1,141 @@
+package com.insurance.service.application;
+
+import com.insurance.service.domain.model.CounterAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures contention on a single aggregate with 1, 10 and 100 concurrent writers, each sending
+ * one command per operation. The baseline loads the aggregate, executes the command and commits
+ * with a version check, retrying on conflict as a client would; the scheduler queues the commands
+ * in the aggregate's mailbox and commits them together. The store charges a fixed latency per
+ * load and per transaction, standing in for database round trips. The baseline also reports
+ * the number of conflicts it retried as a secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandSchedulerBenchmark {
+
+    private static final long LOAD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long TRANSACTION_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Param({"1", "10", "100"})
+    private int writers;
+
+    private final UUID claimId = UUID.randomUUID();
+    private final AtomicInteger storedVersion = new AtomicInteger();
+    private final TransactionOperations transactions = new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            T result = action.doInTransaction(null);
+            LockSupport.parkNanos(TRANSACTION_NANOS);
+            return result;
+        }
+    };
+
+    private ExecutorService clients;
+    private CommandScheduler<CounterAggregate> scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        clients = Executors.newFixedThreadPool(writers);
+        scheduler = new CommandScheduler<>("Counter", this::load,
+                (aggregate, expectedVersion, events) -> commit(expectedVersion),
+                transactions, 4, 64, 1000, new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        clients.shutdownNow();
+        scheduler.shutdown(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void optimisticRetry(Retries retries) {
+        List<CompletableFuture<?>> commands = new ArrayList<>(writers);
+        for (int i = 0; i < writers; i++) {
+            commands.add(CompletableFuture.runAsync(() -> {
+                while (true) {
+                    CounterAggregate aggregate = load(claimId).orElseThrow();
+                    int expectedVersion = aggregate.getVersion();
+                    aggregate.increment();
+                    try {
+                        transactions.executeWithoutResult(status -> commit(expectedVersion));
+                        return;
+                    } catch (OptimisticLockingFailureException e) {
+                        retries.count.incrementAndGet();
+                    }
+                }
+            }, clients));
+        }
+        CompletableFuture.allOf(commands.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    @Benchmark
+    public void mailbox() {
+        List<CompletableFuture<?>> commands = new ArrayList<>(writers);
+        for (int i = 0; i < writers; i++) {
+            commands.add(CompletableFuture.supplyAsync(
+                    () -> scheduler.submit(claimId, CounterAggregate::increment), clients)
+                    .thenCompose(result -> result));
+        }
+        CompletableFuture.allOf(commands.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private Optional<CounterAggregate> load(UUID id) {
+        LockSupport.parkNanos(LOAD_NANOS);
+        return Optional.of(new CounterAggregate(id, storedVersion.get()));
+    }
+
+    private void commit(int expectedVersion) {
+        if (!storedVersion.compareAndSet(expectedVersion, expectedVersion + 1)) {
+            throw new OptimisticLockingFailureException("Stream moved past version " + expectedVersion);
+        }
+    }
+
+    /**
+     * Conflicts retried by the baseline.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Retries {
+
+        private final AtomicLong count = new AtomicLong();
+
+        public long retries() {
+            return count.get();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.insurance.service.application;
+
+import com.insurance.service.domain.exception.EntityNotFoundException;
+import com.insurance.service.domain.exception.ValidationException;
+import com.insurance.service.domain.model.CounterAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CommandScheduler class.
+ */
+class CommandSchedulerTest {
+
+    private final UUID claimId = UUID.randomUUID();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<UUID, Integer> storedVersions = new ConcurrentHashMap<>();
+    private final List<Integer> committedVersions = new ArrayList<>();
+    private final CommandScheduler<CounterAggregate> scheduler = new CommandScheduler<>("Counter",
+            id -> Optional.ofNullable(storedVersions.get(id)).map(version -> new CounterAggregate(id, version)),
+            (aggregate, expectedVersion, events) -> {
+                if (storedVersions.get(aggregate.getId()) != expectedVersion) {
+                    throw new OptimisticLockingFailureException("Stream moved past " + expectedVersion);
+                }
+                storedVersions.put(aggregate.getId(), expectedVersion + 1);
+                committedVersions.add(expectedVersion + 1);
+            },
+            TransactionOperations.withoutTransaction(), 1, 64, 100, registry);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        scheduler.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Test that queued commands for an aggregate run in order and are committed together.
+     */
+    @Test
+    void shouldRunQueuedCommandsInOrderInOneTransaction() throws Exception {
+        // Given
+        storedVersions.put(claimId, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = scheduler.submit(claimId, claim -> {
+            started.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return claim.increment();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            queued.add(scheduler.submit(claimId, CounterAggregate::increment));
+        }
+        release.countDown();
+
+        // Then
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        for (int i = 0; i < queued.size(); i++) {
+            assertEquals(i + 2, queued.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), committedVersions);
+        assertEquals(10, count(CommandScheduler.COMMANDS_COUNTER));
+        assertEquals(2, count(CommandScheduler.COMMITS_COUNTER));
+    }
+
+    /**
+     * Test that a command rejected before changing the aggregate fails alone.
+     */
+    @Test
+    void shouldFailOnlyRejectedCommand() throws Exception {
+        // Given
+        storedVersions.put(claimId, 0);
+
+        // When
+        CompletableFuture<Integer> rejected = scheduler.submit(claimId, claim -> {
+            throw new ValidationException("Claim is already closed");
+        });
+        CompletableFuture<Integer> accepted = scheduler.submit(claimId, CounterAggregate::increment);
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ValidationException.class, failure.getCause());
+        assertEquals(1, accepted.get(5, TimeUnit.SECONDS));
+        assertEquals(1, storedVersions.get(claimId));
+    }
+
+    /**
+     * Test that a change made elsewhere evicts the loaded aggregate and the command is replayed.
+     */
+    @Test
+    void shouldReplayCommandsAfterConcurrentChange() throws Exception {
+        // Given
+        storedVersions.put(claimId, 0);
+        scheduler.submit(claimId, CounterAggregate::increment).get(5, TimeUnit.SECONDS);
+        storedVersions.put(claimId, 5);
+
+        // When
+        int count = scheduler.submit(claimId, CounterAggregate::increment).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(6, count);
+        assertEquals(6, storedVersions.get(claimId));
+        assertEquals(1, count(CommandScheduler.CONFLICTS_COUNTER));
+    }
+
+    /**
+     * Test that commands for an unknown aggregate fail with not found.
+     */
+    @Test
+    void shouldFailCommandsForUnknownAggregate() {
+        // When
+        CompletableFuture<Integer> result = scheduler.submit(claimId, CounterAggregate::increment);
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(EntityNotFoundException.class, failure.getCause());
+    }
+
+    /**
+     * Test that commands submitted while the scheduler shuts down are either run or failed.
+     */
+    @Test
+    void shouldCompleteCommandsSubmittedDuringShutdown() throws Exception {
+        // Given
+        storedVersions.put(claimId, 0);
+        List<CompletableFuture<Integer>> submitted = new ArrayList<>();
+        CountDownLatch submitting = new CountDownLatch(1);
+        Thread submitter = new Thread(() -> {
+            CompletableFuture<Integer> result;
+            do {
+                result = scheduler.submit(claimId, CounterAggregate::increment);
+                submitted.add(result);
+                submitting.countDown();
+            } while (!result.isCompletedExceptionally());
+        });
+        submitter.start();
+        assertTrue(submitting.await(5, TimeUnit.SECONDS));
+
+        // When
+        boolean stopped = scheduler.shutdown(5, TimeUnit.SECONDS);
+        submitter.join(5000);
+
+        // Then
+        assertTrue(stopped, "stripe threads did not stop");
+        assertFalse(submitter.isAlive());
+        CompletableFuture.allOf(submitted.toArray(new CompletableFuture<?>[0]))
+                .exceptionally(failure -> null)
+                .get(5, TimeUnit.SECONDS);
+        CompletableFuture<Integer> last = submitted.get(submitted.size() - 1);
+        ExecutionException failure = assertThrows(ExecutionException.class, last::get);
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    private double count(String meter) {
+        return registry.get(meter).counter().count();
+    }
+}
@@ -0,0 +1,100 @@
+package com.insurance.service.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and fails when a benchmark got slower.
+ * A benchmark counts as regressed when its score is worse than the baseline by more than the
+ * threshold, and the difference is larger than the combined error of both measurements.
+ * Benchmarks missing from either file are reported but never fail the comparison.
+ * <p>
+ * Usage: {@code BenchmarkComparison <baseline.json> <current.json> [threshold-percent]}
+ */
+public final class BenchmarkComparison {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+    private static final String PACKAGE_PREFIX = "com.insurance.service.";
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        Path baselineFile = Path.of(args[0]);
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No baseline at " + baselineFile + ", nothing to compare");
+            return;
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+
+        Map<String, Result> baseline = read(baselineFile);
+        Map<String, Result> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-75s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-75s %14s %14.3f %9s%n", entry.getKey(), "-", now.score, "new");
+                continue;
+            }
+
+            double change = (now.score - before.score) / before.score * 100;
+            double worsening = now.higherIsBetter ? -change : change;
+            boolean beyondError = Math.abs(now.score - before.score) > now.error + before.error;
+            boolean regressed = worsening > threshold && beyondError;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-75s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), before.score, now.score,
+                    change, regressed ? "  REGRESSION" : "");
+        }
+        baseline.keySet().stream()
+                .filter(name -> !current.containsKey(name))
+                .forEach(name -> System.out.printf("%-75s %14s%n", name, "removed"));
+
+        if (regressions > 0) {
+            System.err.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            StringBuilder name = new StringBuilder(run.path("benchmark").asText().replace(PACKAGE_PREFIX, ""));
+            run.path("params").fields().forEachRemaining(param ->
+                    name.append(':').append(param.getKey()).append('=').append(param.getValue().asText()));
+            String mode = run.path("mode").asText();
+            JsonNode metric = run.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble();
+            results.put(name + " (" + mode + ")", new Result(metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, "thrpt".equals(mode)));
+        }
+        return results;
+    }
+
+    private static final class Result {
+
+        private final double score;
+        private final double error;
+        private final boolean higherIsBetter;
+
+        private Result(double score, double error, boolean higherIsBetter) {
+            this.score = score;
+            this.error = error;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
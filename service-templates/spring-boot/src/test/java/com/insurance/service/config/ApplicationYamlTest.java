@@ -0,0 +1,37 @@
+package com.insurance.service.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the application.yml configuration file.
+ */
+class ApplicationYamlTest {
+
+    /**
+     * Test that the file loads the way Spring Boot loads it, with one document per profile.
+     */
+    @Test
+    void shouldLoadProfilesAsSeparateDocuments() throws Exception {
+        // When
+        List<PropertySource<?>> documents =
+                new YamlPropertySourceLoader().load("application.yml", new ClassPathResource("application.yml"));
+
+        // Then
+        List<String> profiles = documents.stream()
+                .map(document -> document.getProperty("spring.config.activate.on-profile"))
+                .map(profile -> profile != null ? profile.toString() : null)
+                .toList();
+        assertEquals(Arrays.asList(null, "dev", "test", "virtual-threads", "prod"), profiles);
+        PropertySource<?> virtualThreads = documents.get(3);
+        assertEquals("true", virtualThreads.getProperty("spring.threads.virtual.enabled").toString());
+        assertEquals("10000", virtualThreads.getProperty("server.tomcat.max-connections").toString());
+    }
+}
@@ -0,0 +1,58 @@
+package com.insurance.service.domain.event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures domain event creation and each of the calls it is made of,
+ * so a regression can be traced to the ID, the clock or the event type lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainEventBenchmark {
+
+    private final UUID aggregateId = UUID.randomUUID();
+    private Class<?> eventClass = BenchmarkEvent.class;
+
+    @Benchmark
+    public DomainEvent newEvent() {
+        return new BenchmarkEvent(aggregateId);
+    }
+
+    @Benchmark
+    public UUID randomUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public LocalDateTime localDateTimeNow() {
+        return LocalDateTime.now();
+    }
+
+    @Benchmark
+    public String simpleName() {
+        return eventClass.getSimpleName();
+    }
+
+    static class BenchmarkEvent extends AbstractDomainEvent {
+
+        BenchmarkEvent(UUID aggregateId) {
+            super(aggregateId, "1.0");
+        }
+    }
+}
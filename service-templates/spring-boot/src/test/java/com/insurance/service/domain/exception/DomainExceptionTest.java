@@ -0,0 +1,71 @@
+package com.insurance.service.domain.exception;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DomainException class and its subclasses.
+ */
+class DomainExceptionTest {
+
+    @AfterEach
+    void tearDown() {
+        DomainException.captureStackTraces(false);
+    }
+
+    /**
+     * Test that domain exceptions carry no stack trace by default but keep their cause.
+     */
+    @Test
+    void shouldNotCaptureStackTraceByDefault() {
+        // Given
+        IllegalStateException cause = new IllegalStateException("boom");
+
+        // When
+        DomainException exception = new DomainException("Claim cannot be assessed", cause);
+
+        // Then
+        assertEquals(0, exception.getStackTrace().length);
+        assertSame(cause, exception.getCause());
+        assertTrue(cause.getStackTrace().length > 0);
+    }
+
+    /**
+     * Test that stack traces are captured once enabled.
+     */
+    @Test
+    void shouldCaptureStackTraceWhenEnabled() {
+        // Given
+        DomainException.captureStackTraces(true);
+
+        // When
+        EntityNotFoundException exception = new EntityNotFoundException("Claim", "42");
+
+        // Then
+        assertTrue(exception.getStackTrace().length > 0);
+    }
+
+    /**
+     * Test that validation errors are copied once and returned without copying.
+     */
+    @Test
+    void shouldExposeValidationErrorsWithoutCopying() {
+        // Given
+        Map<String, String> errors = new HashMap<>();
+        errors.put("estimatedAmount", "must be positive");
+        ValidationException exception = new ValidationException("Validation failed", errors);
+
+        // When
+        errors.put("policyId", "must not be null");
+
+        // Then
+        assertEquals(Map.of("estimatedAmount", "must be positive"), exception.getValidationErrors());
+        assertSame(exception.getValidationErrors(), exception.getValidationErrors());
+        assertThrows(UnsupportedOperationException.class, () -> exception.getValidationErrors().clear());
+    }
+}
@@ -0,0 +1,99 @@
+package com.insurance.service.domain.model;
+
+import com.insurance.service.domain.event.AbstractDomainEvent;
+import com.insurance.service.domain.event.DomainEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures aggregate construction and the register/drain cycle every command goes through.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregateRootBenchmark {
+
+    private final UUID id = UUID.randomUUID();
+
+    @Benchmark
+    public BenchmarkAggregate newAggregate() {
+        return new BenchmarkAggregate();
+    }
+
+    @Benchmark
+    public BenchmarkAggregate newAggregateWithId() {
+        return new BenchmarkAggregate(id);
+    }
+
+    @Benchmark
+    public List<DomainEvent> registerAndDrainEvents(Command command) {
+        BenchmarkAggregate aggregate = new BenchmarkAggregate(id);
+        for (DomainEvent event : command.events) {
+            aggregate.raise(event);
+        }
+        List<DomainEvent> registered = List.copyOf(aggregate.domainEvents());
+        aggregate.clearEvents();
+        return registered;
+    }
+
+    /**
+     * The events raised by one command.
+     */
+    @State(Scope.Thread)
+    public static class Command {
+
+        @Param({"1", "10"})
+        private int eventsPerCommand;
+
+        private DomainEvent[] events;
+
+        @Setup
+        public void setUp() {
+            UUID aggregateId = UUID.randomUUID();
+            events = new DomainEvent[eventsPerCommand];
+            for (int i = 0; i < eventsPerCommand; i++) {
+                events[i] = new BenchmarkEvent(aggregateId);
+            }
+        }
+    }
+
+    /**
+     * Aggregate that exposes event registration to the benchmark.
+     */
+    public static class BenchmarkAggregate extends BaseAggregateRoot {
+
+        BenchmarkAggregate() {
+        }
+
+        BenchmarkAggregate(UUID id) {
+            super(id);
+        }
+
+        void raise(DomainEvent event) {
+            registerEvent(event);
+        }
+    }
+
+    static class BenchmarkEvent extends AbstractDomainEvent {
+
+        BenchmarkEvent(UUID aggregateId) {
+            super(aggregateId, "1.0");
+        }
+    }
+}
@@ -139,6 +139,11 @@ class BaseAggregateRootTest {
             return eventId;
         }
         
+        @Override
+        public UUID getAggregateId() {
+            return null;
+        }
+        
         @Override
         public LocalDateTime getTimestamp() {
             return timestamp;
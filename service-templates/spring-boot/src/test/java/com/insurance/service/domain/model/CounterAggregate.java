@@ -0,0 +1,96 @@
+package com.insurance.service.domain.model;
+
+import com.insurance.service.domain.event.DomainEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Aggregate that counts increments, shared by the repository, command scheduling tests and benchmarks.
+ */
+public class CounterAggregate extends EventSourcedAggregateRoot implements Snapshottable<Integer> {
+
+    private int count;
+
+    public CounterAggregate(UUID id) {
+        super(id);
+    }
+
+    public CounterAggregate(UUID id, int version) {
+        super(id);
+        replay(version, List.of());
+        this.count = version;
+    }
+
+    public int increment() {
+        raise(new Incremented(getId()));
+        markUpdated();
+        return count;
+    }
+
+    @Override
+    protected void apply(DomainEvent event) {
+        count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public Integer toSnapshot() {
+        return count;
+    }
+
+    @Override
+    public void restoreSnapshot(Integer snapshot) {
+        count = snapshot;
+    }
+
+    @Override
+    public Class<Integer> snapshotType() {
+        return Integer.class;
+    }
+
+    @Override
+    public int snapshotSchemaVersion() {
+        return 1;
+    }
+
+    public static final class Incremented implements DomainEvent {
+
+        private final UUID eventId = UUID.randomUUID();
+        private final UUID aggregateId;
+        private final LocalDateTime timestamp = LocalDateTime.now();
+
+        public Incremented(UUID aggregateId) {
+            this.aggregateId = aggregateId;
+        }
+
+        @Override
+        public UUID getEventId() {
+            return eventId;
+        }
+
+        @Override
+        public UUID getAggregateId() {
+            return aggregateId;
+        }
+
+        @Override
+        public LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public String getEventType() {
+            return "Incremented";
+        }
+
+        @Override
+        public String getVersion() {
+            return "1.0";
+        }
+    }
+}
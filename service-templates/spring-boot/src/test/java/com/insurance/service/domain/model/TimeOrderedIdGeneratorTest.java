@@ -0,0 +1,62 @@
+package com.insurance.service.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TimeOrderedIdGenerator class.
+ */
+class TimeOrderedIdGeneratorTest {
+
+    private final IdGenerator generator = IdGenerator.timeOrdered();
+
+    /**
+     * Test that identifiers are RFC 9562 version 7 UUIDs carrying the current time.
+     */
+    @Test
+    void shouldGenerateVersion7Uuids() {
+        // Given
+        long before = System.currentTimeMillis();
+
+        // When
+        UUID id = generator.nextId();
+
+        // Then
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long timestamp = id.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis());
+    }
+
+    /**
+     * Test that identifiers from later milliseconds sort after earlier ones.
+     */
+    @Test
+    void shouldOrderIdsByCreationTime() throws InterruptedException {
+        // Given
+        UUID first = generator.nextId();
+        Thread.sleep(2);
+
+        // When
+        UUID second = generator.nextId();
+
+        // Then
+        assertTrue(second.toString().compareTo(first.toString()) > 0);
+    }
+
+    /**
+     * Test that identifiers generated in a tight loop are unique.
+     */
+    @Test
+    void shouldGenerateUniqueIds() {
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(ids.add(generator.nextId()));
+        }
+    }
+}
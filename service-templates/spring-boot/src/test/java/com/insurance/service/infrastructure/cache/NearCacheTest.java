@@ -0,0 +1,136 @@
+package com.insurance.service.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the NearCache class.
+ */
+class NearCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final NearCache<ClaimView> cache = cache(true);
+    private final UUID claimId = UUID.randomUUID();
+
+    /**
+     * Test that a loaded value is served from the cache afterwards.
+     */
+    @Test
+    void shouldServeCachedValue() {
+        // Given
+        CountingLoader loader = new CountingLoader(new ClaimView(1, "SUBMITTED"));
+        cache.get(claimId, loader);
+
+        // When
+        Optional<ClaimView> cached = cache.get(claimId, loader);
+
+        // Then
+        assertEquals("SUBMITTED", cached.orElseThrow().status);
+        assertEquals(1, loader.calls.get());
+    }
+
+    /**
+     * Test that an invalidation with a newer version forces a reload.
+     */
+    @Test
+    void shouldReloadAfterNewerVersionIsAnnounced() {
+        // Given
+        cache.get(claimId, new CountingLoader(new ClaimView(1, "SUBMITTED")));
+
+        // When
+        cache.invalidate(claimId, 2);
+        Optional<ClaimView> reloaded = cache.get(claimId, new CountingLoader(new ClaimView(2, "REGISTERED")));
+
+        // Then
+        assertEquals("REGISTERED", reloaded.orElseThrow().status);
+    }
+
+    /**
+     * Test that a load that raced with an invalidation does not put an older version into the cache.
+     */
+    @Test
+    void shouldNotCacheValueOlderThanAnnouncedVersion() {
+        // Given
+        cache.invalidate(claimId, 3);
+        CountingLoader staleReplica = new CountingLoader(new ClaimView(2, "REGISTERED"));
+
+        // When
+        cache.get(claimId, staleReplica);
+        cache.get(claimId, staleReplica);
+
+        // Then
+        assertEquals(2, staleReplica.calls.get());
+        assertEquals(2, registry.get("insurance.near-cache.stale").counter().count());
+    }
+
+    /**
+     * Test that an invalidation for an older version keeps a newer cached entry.
+     */
+    @Test
+    void shouldKeepEntryNewerThanInvalidatedVersion() {
+        // Given
+        CountingLoader loader = new CountingLoader(new ClaimView(5, "ASSESSED"));
+        cache.get(claimId, loader);
+
+        // When
+        cache.invalidate(claimId, 4);
+        cache.get(claimId, loader);
+
+        // Then
+        assertEquals(1, loader.calls.get());
+    }
+
+    /**
+     * Test that a disabled cache always calls the loader.
+     */
+    @Test
+    void shouldAlwaysLoadWhenDisabled() {
+        // Given
+        NearCache<ClaimView> disabled = cache(false);
+        CountingLoader loader = new CountingLoader(new ClaimView(1, "SUBMITTED"));
+
+        // When
+        disabled.get(claimId, loader);
+        disabled.get(claimId, loader);
+
+        // Then
+        assertEquals(2, loader.calls.get());
+    }
+
+    private NearCache<ClaimView> cache(boolean enabled) {
+        return new NearCache<>("claims", enabled, 100, Duration.ofMinutes(5), view -> view.version, registry);
+    }
+
+    private static final class ClaimView {
+        private final int version;
+        private final String status;
+
+        private ClaimView(int version, String status) {
+            this.version = version;
+            this.status = status;
+        }
+    }
+
+    private static final class CountingLoader implements Function<UUID, Optional<ClaimView>> {
+        private final ClaimView value;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private CountingLoader(ClaimView value) {
+            this.value = value;
+        }
+
+        @Override
+        public Optional<ClaimView> apply(UUID id) {
+            calls.incrementAndGet();
+            return Optional.of(value);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.insurance.service.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SingleFlight class.
+ */
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("claims", registry);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test that concurrent calls for the same key share one load and its result.
+     */
+    @Test
+    void shouldShareLoadInFlight() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.load("claim-1", () -> {
+                loads.incrementAndGet();
+                try {
+                    assertTrue(release.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "loaded";
+            })));
+        }
+        awaitCalls(CALLERS);
+        release.countDown();
+
+        // Then
+        for (Future<String> result : results) {
+            assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(CALLERS - 1, calls("shared"));
+        assertEquals(0, registry.get(SingleFlight.IN_FLIGHT_GAUGE).gauge().value());
+    }
+
+    /**
+     * Test that a failed load fails every waiting caller and is retried by the next one.
+     */
+    @Test
+    void shouldReleaseKeyAfterFailedLoad() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.load("claim-1", () -> {
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            throw new IllegalStateException("database unavailable");
+        }));
+        awaitCalls(1);
+        Future<String> follower = executor.submit(() -> singleFlight.load("claim-1", () -> "unused"));
+        awaitCalls(2);
+
+        // When
+        release.countDown();
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertEquals("reloaded", singleFlight.load("claim-1", () -> "reloaded"));
+    }
+
+    /**
+     * Test that loads for different keys do not wait for each other.
+     */
+    @Test
+    void shouldNotShareLoadsOfDifferentKeys() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> blocked = executor.submit(() -> singleFlight.load("claim-1", () -> {
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return "first";
+        }));
+        awaitCalls(1);
+
+        // When
+        String other = singleFlight.load("claim-2", () -> "second");
+
+        // Then
+        assertEquals("second", other);
+        assertFalse(blocked.isDone());
+        release.countDown();
+        assertEquals("first", blocked.get(5, TimeUnit.SECONDS));
+        assertEquals(0, calls("shared"));
+    }
+
+    private double calls(String result) {
+        return registry.get(SingleFlight.CALLS_COUNTER).tag("result", result).counter().count();
+    }
+
+    private void awaitCalls(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls("load") + calls("shared") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.insurance.service.infrastructure.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.KafkaException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the EventPublishMetrics class.
+ * The meter names and tags are referenced by the Prometheus rules in {@code monitoring/rules}.
+ */
+class EventPublishMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EventPublishMetrics metrics = new EventPublishMetrics(registry);
+
+    /**
+     * Test that successful sends are timed per topic and event type.
+     */
+    @Test
+    void shouldTimeSuccessfulSends() {
+        // When
+        metrics.sendCompleted(metrics.sendStarted(), "claims.domain-events", "ClaimSubmitted", null);
+        metrics.sendCompleted(metrics.sendStarted(), "claims.domain-events", "ClaimSubmitted", null);
+
+        // Then
+        assertEquals(2, registry.get(EventPublishMetrics.PUBLISH_TIMER)
+                .tags("topic", "claims.domain-events", "event.type", "ClaimSubmitted", "outcome", "success")
+                .timer().count());
+        assertEquals(0, registry.get(EventPublishMetrics.IN_FLIGHT_GAUGE).gauge().value());
+    }
+
+    /**
+     * Test that failures are counted by their root cause.
+     */
+    @Test
+    void shouldCountFailuresByRootCause() {
+        // Given
+        long start = metrics.sendStarted();
+        assertEquals(1, registry.get(EventPublishMetrics.IN_FLIGHT_GAUGE).gauge().value());
+
+        // When
+        metrics.sendCompleted(start, "claims.domain-events", "ClaimSubmitted",
+                new KafkaException("Send failed", new TimeoutException("Expiring 1 record")));
+
+        // Then
+        assertEquals(1, registry.get(EventPublishMetrics.FAILURE_COUNTER)
+                .tags("topic", "claims.domain-events", "exception", "TimeoutException")
+                .counter().count());
+        assertEquals(1, registry.get(EventPublishMetrics.PUBLISH_TIMER).tag("outcome", "failure").timer().count());
+        assertEquals(0, registry.get(EventPublishMetrics.IN_FLIGHT_GAUGE).gauge().value());
+    }
+}
@@ -0,0 +1,97 @@
+package com.insurance.service.infrastructure.messaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the KeyOrderedDispatcher class.
+ */
+class KeyOrderedDispatcherTest {
+
+    private final KeyOrderedDispatcher dispatcher = new KeyOrderedDispatcher(Executors.newFixedThreadPool(8), 100);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.destroy();
+    }
+
+    /**
+     * Test that tasks with the same key run in submission order.
+     */
+    @Test
+    void shouldRunTasksWithSameKeyInOrder() throws Exception {
+        // Given
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            int sequence = i;
+            futures.add(dispatcher.dispatch("claim-1", () -> {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(sequence % 3));
+                processed.add(sequence);
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+        // Then
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, processed.get(i));
+        }
+        assertEquals(0, dispatcher.activeKeys());
+    }
+
+    /**
+     * Test that a slow key does not hold back other keys.
+     */
+    @Test
+    void shouldRunDifferentKeysConcurrently() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocked = dispatcher.dispatch("claim-1", () -> {
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // When
+        CompletableFuture<Void> other = dispatcher.dispatch("claim-2", () -> { });
+
+        // Then
+        other.get(5, TimeUnit.SECONDS);
+        assertFalse(blocked.isDone());
+        release.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Test that a failed task does not stop later tasks with the same key.
+     */
+    @Test
+    void shouldContinueAfterFailedTask() throws Exception {
+        // Given
+        CompletableFuture<Void> failed = dispatcher.dispatch("claim-1", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        // When
+        CompletableFuture<Void> next = dispatcher.dispatch("claim-1", () -> { });
+
+        // Then
+        next.get(5, TimeUnit.SECONDS);
+        assertTrue(failed.isCompletedExceptionally());
+    }
+}
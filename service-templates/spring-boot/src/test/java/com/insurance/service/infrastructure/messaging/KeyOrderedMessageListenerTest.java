@@ -0,0 +1,154 @@
+package com.insurance.service.infrastructure.messaging;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the KeyOrderedMessageListener class.
+ */
+class KeyOrderedMessageListenerTest {
+
+    private final KeyOrderedDispatcher dispatcher = new KeyOrderedDispatcher(Executors.newFixedThreadPool(2), 10);
+    private final ConsumerRecord<String, Object> record = new ConsumerRecord<>("claims.domain-events", 0, 42, "claim-1", "event");
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.destroy();
+    }
+
+    /**
+     * Test that a failed recovery is retried, and the record only acknowledged once it succeeds.
+     */
+    @Test
+    void shouldRetryRecoveryUntilItSucceeds() throws Exception {
+        // Given
+        MessageListener<String, Object> failing = received -> {
+            throw new IllegalStateException("listener failed");
+        };
+        AtomicInteger recoveries = new AtomicInteger();
+        ConsumerRecordRecoverer recoverer = (received, failure) -> {
+            if (recoveries.incrementAndGet() < 3) {
+                throw new IllegalStateException("dead-letter topic unavailable");
+            }
+        };
+        CountDownLatch acknowledged = new CountDownLatch(1);
+        KeyOrderedMessageListener<String, Object> listener =
+                new KeyOrderedMessageListener<>(failing, dispatcher, recoverer, 2, Duration.ofMillis(1),
+                        Duration.ofSeconds(5));
+
+        // When
+        listener.onMessage(record, acknowledged::countDown, null);
+
+        // Then
+        assertTrue(acknowledged.await(5, TimeUnit.SECONDS));
+        assertEquals(3, recoveries.get());
+    }
+
+    /**
+     * Test that a listener declaring an acknowledgment can use it without failing.
+     */
+    @Test
+    void shouldPassAcknowledgmentToListener() throws Exception {
+        // Given
+        AtomicInteger processed = new AtomicInteger();
+        AcknowledgingMessageListener<String, Object> acknowledging = (received, acknowledgment) -> {
+            acknowledgment.acknowledge();
+            processed.incrementAndGet();
+        };
+        ConsumerRecordRecoverer recoverer = mock(ConsumerRecordRecoverer.class);
+        CountDownLatch acknowledged = new CountDownLatch(1);
+        KeyOrderedMessageListener<String, Object> listener =
+                new KeyOrderedMessageListener<>(acknowledging, dispatcher, recoverer, 1, Duration.ofMillis(1),
+                        Duration.ofSeconds(5));
+
+        // When
+        listener.onMessage(record, acknowledged::countDown, null);
+
+        // Then
+        assertTrue(acknowledged.await(5, TimeUnit.SECONDS));
+        assertEquals(1, processed.get());
+        verifyNoInteractions(recoverer);
+    }
+
+    /**
+     * Test that revoking a partition waits for its records in flight and commits the offset past them.
+     */
+    @Test
+    void shouldFinishInFlightRecordsBeforeHandingOverRevokedPartition() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger processed = new AtomicInteger();
+        MessageListener<String, Object> slow = received -> {
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            processed.incrementAndGet();
+        };
+        KeyOrderedMessageListener<String, Object> listener = new KeyOrderedMessageListener<>(slow, dispatcher,
+                mock(ConsumerRecordRecoverer.class), 1, Duration.ofMillis(1), Duration.ofSeconds(5));
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        listener.onMessage(record, () -> { }, consumer);
+        listener.onMessage(new ConsumerRecord<>(record.topic(), record.partition(), 43, "claim-2", "event"),
+                () -> { }, consumer);
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(release::countDown);
+
+        // When
+        listener.onPartitionsRevokedBeforeCommit(consumer, List.of(partition));
+
+        // Then
+        assertEquals(2, processed.get());
+        verify(consumer).commitSync(Map.of(partition, new OffsetAndMetadata(44)));
+    }
+
+    /**
+     * Test that records still running after the revocation timeout are not committed.
+     */
+    @Test
+    void shouldNotCommitRecordsStillRunningAfterRevocationTimeout() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        MessageListener<String, Object> stuck = received -> {
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        KeyOrderedMessageListener<String, Object> listener = new KeyOrderedMessageListener<>(stuck, dispatcher,
+                mock(ConsumerRecordRecoverer.class), 1, Duration.ofMillis(1), Duration.ofMillis(50));
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        listener.onMessage(record, () -> { }, consumer);
+
+        // When
+        listener.onPartitionsRevokedBeforeCommit(consumer,
+                List.of(new TopicPartition(record.topic(), record.partition())));
+
+        // Then
+        verify(consumer, never()).commitSync(anyMap());
+        release.countDown();
+    }
+}
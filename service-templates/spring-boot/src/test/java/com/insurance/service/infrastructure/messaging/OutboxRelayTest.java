@@ -0,0 +1,294 @@
+package com.insurance.service.infrastructure.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insurance.service.config.MessagingProperties;
+import com.insurance.service.infrastructure.messaging.codec.BinaryEventCodec;
+import com.insurance.service.infrastructure.messaging.codec.ClaimSubmittedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the OutboxRelay class.
+ */
+class OutboxRelayTest {
+
+    private static final String BINARY_TOPIC = "claims.binary-events";
+    private static final String BULK_TOPIC = "claims.bulk-events";
+    private static final LocalDateTime CREATED_AT = LocalDateTime.now();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final BinaryEventCodec codec = new BinaryEventCodec(List.of(new ClaimSubmittedEvent.Schema()));
+    private final MessagingProperties properties = new MessagingProperties();
+    private final UUID claimA = UUID.randomUUID();
+    private final UUID claimB = UUID.randomUUID();
+    private final Map<UUID, UUID> rows = new LinkedHashMap<>();
+    private final Map<UUID, String> payloads = new HashMap<>();
+    private final Map<UUID, Long> seqs = new HashMap<>();
+    private final List<ResultSet> gaps = new ArrayList<>();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private long nextSeq = 1;
+
+    private JdbcTemplate jdbcTemplate;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> throughputKafkaTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        throughputKafkaTemplate = mock(KafkaTemplate.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), anyInt())).thenAnswer(invocation -> {
+            RowMapper<?> mapper = invocation.getArgument(1);
+            List<Object> claimed = new ArrayList<>();
+            for (Map.Entry<UUID, UUID> row : rows.entrySet()) {
+                claimed.add(mapper.mapRow(resultSet(row.getKey(), row.getValue(), payloads.get(row.getKey()),
+                        seqs.get(row.getKey())), claimed.size()));
+            }
+            return claimed;
+        });
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> {
+                    RowMapper<?> mapper = invocation.getArgument(2);
+                    List<Object> firstGaps = new ArrayList<>();
+                    for (ResultSet gap : gaps) {
+                        firstGaps.add(mapper.mapRow(gap, firstGaps.size()));
+                    }
+                    return firstGaps;
+                });
+    }
+
+    private OutboxRelay relay() {
+        return new OutboxRelay(jdbcTemplate, transactionTemplate, throughputKafkaTemplate, kafkaTemplate,
+                new EventRoutingTable(properties, "claims"), new EventPublishMetrics(registry), codec, objectMapper);
+    }
+
+    /**
+     * Test that once an event fails, the later events of its aggregate are not sent but left for
+     * the next run, and the failure is recorded.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldHoldBackLaterEventsOfFailedAggregate() throws Exception {
+        // Given
+        UUID a1 = row(claimA);
+        UUID b1 = row(claimB);
+        UUID a2 = row(claimA);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, byte[]> record = invocation.getArgument(0);
+            boolean first = new String(record.value(), StandardCharsets.UTF_8).contains(a1.toString());
+            return first ? CompletableFuture.failedFuture(new IllegalStateException("broker down"))
+                    : CompletableFuture.completedFuture(null);
+        });
+
+        // When
+        int relayed = relay().relayBatch();
+
+        // Then
+        assertEquals(1, relayed);
+        assertEquals(Set.of(b1), markedIds());
+        assertEquals(1.0, registry.get(EventPublishMetrics.FAILURE_COUNTER)
+                .tag("event.type", "ClaimSubmitted").tag("exception", "IllegalStateException").counter().count());
+        assertEquals(1, registry.get(EventPublishMetrics.PUBLISH_TIMER).tag("outcome", "success").timer().count());
+        assertEquals(0.0, registry.get(EventPublishMetrics.IN_FLIGHT_GAUGE).gauge().value());
+        ArgumentCaptor<ProducerRecord<String, byte[]>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(sent.capture());
+        assertTrue(sent.getAllValues().stream()
+                .noneMatch(record -> new String(record.value(), StandardCharsets.UTF_8).contains(a2.toString())));
+    }
+
+    /**
+     * Test that the next event of an aggregate is only sent once the previous one was acknowledged.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSendEventsOfAnAggregateOneAtATime() throws Exception {
+        // Given
+        UUID a1 = row(claimA);
+        UUID a2 = row(claimA);
+        row(claimB);
+        Map<UUID, CompletableFuture<Object>> sends = new LinkedHashMap<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, byte[]> record = invocation.getArgument(0);
+            UUID id = rows.keySet().stream()
+                    .filter(row -> new String(record.value(), StandardCharsets.UTF_8).contains(row.toString()))
+                    .findFirst().orElseThrow();
+            if (id.equals(a2)) {
+                assertTrue(sends.get(a1).isDone(), "second event sent before the first was acknowledged");
+            }
+            CompletableFuture<Object> send = new CompletableFuture<>();
+            sends.put(id, send);
+            return send;
+        });
+        doAnswer(invocation -> {
+            sends.values().forEach(send -> send.complete(null));
+            return null;
+        }).when(kafkaTemplate).flush();
+
+        // When
+        int relayed = relay().relayBatch();
+
+        // Then
+        assertEquals(3, relayed);
+        verify(kafkaTemplate, times(2)).flush();
+    }
+
+    /**
+     * Test that the events of an aggregate after an older event claimed by another relay are not
+     * published, even when they share its creation time, while the events before it are.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStopAggregateAtFirstEventClaimedElsewhere() throws Exception {
+        // Given
+        UUID a1 = row(claimA);
+        UUID b1 = row(claimB);
+        long claimedElsewhere = nextSeq++;
+        UUID a3 = row(claimA);
+        gaps.add(resultSet(UUID.randomUUID(), claimA, "{}", claimedElsewhere));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        int relayed = relay().relayBatch();
+
+        // Then
+        assertEquals(2, relayed);
+        assertEquals(Set.of(a1, b1), markedIds());
+        ArgumentCaptor<ProducerRecord<String, byte[]>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(sent.capture());
+        assertTrue(sent.getAllValues().stream()
+                .noneMatch(record -> new String(record.value(), StandardCharsets.UTF_8).contains(a3.toString())));
+    }
+
+    /**
+     * Test that events on binary topics are sent as binary frames.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldEncodeEventsOnBinaryTopics() throws Exception {
+        // Given
+        MessagingProperties.TopicSettings binary = new MessagingProperties.TopicSettings();
+        binary.setWireFormat(WireFormat.BINARY);
+        properties.getTopics().put(BINARY_TOPIC, binary);
+        properties.getRoutes().put("ClaimSubmittedEvent", BINARY_TOPIC);
+        ClaimSubmittedEvent event = ClaimSubmittedEvent.sample();
+        UUID id = row(event.getAggregateId());
+        payloads.put(id, objectMapper.writeValueAsString(event));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        relay().relayBatch();
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, byte[]>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(sent.capture());
+        assertEquals(BINARY_TOPIC, sent.getValue().topic());
+        assertTrue(BinaryEventCodec.isBinary(sent.getValue().value()));
+        assertEquals(event.getEventId(), codec.decode(sent.getValue().value()).getEventId());
+        assertNull(sent.getValue().headers().lastHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME));
+        assertEquals(Set.of(id), markedIds());
+    }
+
+    /**
+     * Test that events on topics with the throughput profile are sent and flushed through the
+     * throughput producer only.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSendThroughputTopicsWithThroughputProducer() throws Exception {
+        // Given
+        MessagingProperties.TopicSettings bulk = new MessagingProperties.TopicSettings();
+        bulk.setProducerProfile(ProducerProfile.THROUGHPUT);
+        properties.getTopics().put(BULK_TOPIC, bulk);
+        properties.getRoutes().put("ClaimSubmittedEvent", BULK_TOPIC);
+        ClaimSubmittedEvent event = ClaimSubmittedEvent.sample();
+        UUID id = row(event.getAggregateId());
+        payloads.put(id, objectMapper.writeValueAsString(event));
+        when(throughputKafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        relay().relayBatch();
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, byte[]>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(throughputKafkaTemplate).send(sent.capture());
+        verify(throughputKafkaTemplate).flush();
+        verifyNoInteractions(kafkaTemplate);
+        assertEquals(BULK_TOPIC, sent.getValue().topic());
+        assertEquals(Set.of(id), markedIds());
+    }
+
+    private UUID row(UUID aggregateId) {
+        UUID id = UUID.randomUUID();
+        rows.put(id, aggregateId);
+        seqs.put(id, nextSeq++);
+        payloads.put(id, "{\"eventId\":\"" + id + "\"}");
+        return id;
+    }
+
+    private Set<Object> markedIds() throws Exception {
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).update(anyString(), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(ps.getConnection()).thenReturn(connection);
+        ArgumentCaptor<Object[]> ids = ArgumentCaptor.forClass(Object[].class);
+        when(connection.createArrayOf(eq("uuid"), ids.capture())).thenReturn(mock(Array.class));
+        setter.getValue().setValues(ps);
+        return Set.of(ids.getValue());
+    }
+
+    private static ResultSet resultSet(UUID id, UUID aggregateId, String payload, long seq) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("id", UUID.class)).thenReturn(id);
+        when(rs.getObject("aggregate_id", UUID.class)).thenReturn(aggregateId);
+        boolean claimEvent = payload.contains("claimNumber");
+        when(rs.getString("event_type")).thenReturn(claimEvent ? "ClaimSubmittedEvent" : "ClaimSubmitted");
+        when(rs.getString("payload_type")).thenReturn(claimEvent ? ClaimSubmittedEvent.class.getName() : null);
+        when(rs.getString("payload")).thenReturn(payload);
+        // rows created within the same millisecond are ordered by their sequence
+        when(rs.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(CREATED_AT));
+        when(rs.getLong("seq")).thenReturn(seq);
+        return rs;
+    }
+}
@@ -0,0 +1,134 @@
+package com.insurance.service.infrastructure.messaging.codec;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.insurance.service.domain.event.AbstractDomainEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * ClaimSubmitted event as defined in {@code api-contracts/events/claim-events.json},
+ * together with its binary schema.
+ */
+public class ClaimSubmittedEvent extends AbstractDomainEvent {
+
+    private final String claimNumber;
+    private final UUID policyId;
+    private final UUID customerId;
+    private final LocalDate incidentDate;
+    private final LocalDateTime submissionDate;
+    private final String description;
+    private final BigDecimal estimatedAmount;
+    private final String submissionChannel;
+
+    @JsonCreator
+    public ClaimSubmittedEvent(@JsonProperty("eventId") UUID eventId,
+                               @JsonProperty("aggregateId") UUID claimId,
+                               @JsonProperty("timestamp") LocalDateTime timestamp,
+                               @JsonProperty("claimNumber") String claimNumber,
+                               @JsonProperty("policyId") UUID policyId,
+                               @JsonProperty("customerId") UUID customerId,
+                               @JsonProperty("incidentDate") LocalDate incidentDate,
+                               @JsonProperty("submissionDate") LocalDateTime submissionDate,
+                               @JsonProperty("description") String description,
+                               @JsonProperty("estimatedAmount") BigDecimal estimatedAmount,
+                               @JsonProperty("submissionChannel") String submissionChannel) {
+        super(eventId, claimId, timestamp, "1.0");
+        this.claimNumber = claimNumber;
+        this.policyId = policyId;
+        this.customerId = customerId;
+        this.incidentDate = incidentDate;
+        this.submissionDate = submissionDate;
+        this.description = description;
+        this.estimatedAmount = estimatedAmount;
+        this.submissionChannel = submissionChannel;
+    }
+
+    /**
+     * Creates a representative event with all optional fields populated.
+     *
+     * @return The event
+     */
+    public static ClaimSubmittedEvent sample() {
+        LocalDateTime now = LocalDateTime.now();
+        return new ClaimSubmittedEvent(UUID.randomUUID(), UUID.randomUUID(), now, "CLM-2024-000123",
+                UUID.randomUUID(), UUID.randomUUID(), now.toLocalDate().minusDays(3), now,
+                "Rear-end collision at a traffic light, bumper and tail lights damaged",
+                new BigDecimal("2450.75"), "WEB");
+    }
+
+    public String getClaimNumber() {
+        return claimNumber;
+    }
+
+    public UUID getPolicyId() {
+        return policyId;
+    }
+
+    public UUID getCustomerId() {
+        return customerId;
+    }
+
+    public LocalDate getIncidentDate() {
+        return incidentDate;
+    }
+
+    public LocalDateTime getSubmissionDate() {
+        return submissionDate;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public BigDecimal getEstimatedAmount() {
+        return estimatedAmount;
+    }
+
+    public String getSubmissionChannel() {
+        return submissionChannel;
+    }
+
+    /**
+     * Binary schema of the ClaimSubmitted event.
+     */
+    public static class Schema implements EventSchema<ClaimSubmittedEvent> {
+
+        @Override
+        public int typeCode() {
+            return ClaimEventTypeCodes.CLAIM_SUBMITTED;
+        }
+
+        @Override
+        public Class<ClaimSubmittedEvent> eventClass() {
+            return ClaimSubmittedEvent.class;
+        }
+
+        @Override
+        public int schemaVersion() {
+            return 1;
+        }
+
+        @Override
+        public void writeBody(ClaimSubmittedEvent event, BinaryOutput out) {
+            out.writeString(event.getClaimNumber());
+            out.writeUuid(event.getPolicyId());
+            out.writeUuid(event.getCustomerId());
+            out.writeDate(event.getIncidentDate());
+            out.writeDateTime(event.getSubmissionDate());
+            out.writeString(event.getDescription());
+            out.writeDecimal(event.getEstimatedAmount());
+            out.writeString(event.getSubmissionChannel());
+        }
+
+        @Override
+        public ClaimSubmittedEvent readBody(EventEnvelope envelope, BinaryInput in) {
+            return new ClaimSubmittedEvent(envelope.getEventId(), envelope.getAggregateId(), envelope.getTimestamp(),
+                    in.readString(), in.readUuid(), in.readUuid(), in.readDate(), in.readDateTime(),
+                    in.readString(), in.readDecimal(), in.readString());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.insurance.service.infrastructure.messaging.codec;
+
+import com.insurance.service.config.MessagingProperties;
+import com.insurance.service.infrastructure.messaging.EventRoutingTable;
+import com.insurance.service.infrastructure.messaging.WireFormat;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the binary event codec and its Kafka serializer and deserializer.
+ */
+class DomainEventSerializerTest {
+
+    private static final String BINARY_TOPIC = "claims.binary-events";
+    private static final String JSON_TOPIC = "claims.domain-events";
+
+    private BinaryEventCodec codec;
+    private DomainEventSerializer serializer;
+    private DomainEventDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        MessagingProperties properties = new MessagingProperties();
+        MessagingProperties.TopicSettings binary = new MessagingProperties.TopicSettings();
+        binary.setWireFormat(WireFormat.BINARY);
+        properties.getTopics().put(BINARY_TOPIC, binary);
+        properties.getRoutes().put("ClaimSubmittedEvent", BINARY_TOPIC);
+
+        codec = new BinaryEventCodec(List.of(new ClaimSubmittedEvent.Schema()));
+        serializer = new DomainEventSerializer(codec, new EventRoutingTable(properties, "claims"));
+        deserializer = new DomainEventDeserializer(codec);
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.insurance.*"), false);
+    }
+
+    /**
+     * Test that an event survives a binary round trip with all fields intact.
+     */
+    @Test
+    void shouldRoundTripBinaryFrame() {
+        // Given
+        ClaimSubmittedEvent event = ClaimSubmittedEvent.sample();
+
+        // When
+        byte[] frame = serializer.serialize(BINARY_TOPIC, new RecordHeaders(), event);
+        ClaimSubmittedEvent decoded = (ClaimSubmittedEvent) deserializer.deserialize(BINARY_TOPIC, new RecordHeaders(), frame);
+
+        // Then
+        assertTrue(BinaryEventCodec.isBinary(frame));
+        assertEquals(event.getEventId(), decoded.getEventId());
+        assertEquals(event.getAggregateId(), decoded.getAggregateId());
+        assertEquals(event.getTimestamp(), decoded.getTimestamp());
+        assertEquals(event.getPolicyId(), decoded.getPolicyId());
+        assertEquals(event.getIncidentDate(), decoded.getIncidentDate());
+        assertEquals(event.getSubmissionDate(), decoded.getSubmissionDate());
+        assertEquals(event.getDescription(), decoded.getDescription());
+        assertEquals(event.getEstimatedAmount(), decoded.getEstimatedAmount());
+        assertEquals(event.getSubmissionChannel(), decoded.getSubmissionChannel());
+    }
+
+    /**
+     * Test that topics still on JSON get JSON, and that JSON payloads are still read.
+     */
+    @Test
+    void shouldKeepJsonForTopicsNotMigrated() {
+        // Given
+        ClaimSubmittedEvent event = ClaimSubmittedEvent.sample();
+        RecordHeaders headers = new RecordHeaders();
+
+        // When
+        byte[] payload = serializer.serialize(JSON_TOPIC, headers, event);
+        Object decoded = deserializer.deserialize(JSON_TOPIC, headers, payload);
+
+        // Then
+        assertFalse(BinaryEventCodec.isBinary(payload));
+        assertEquals('{', payload[0]);
+        assertEquals(event.getEventId(), ((ClaimSubmittedEvent) decoded).getEventId());
+    }
+
+    /**
+     * Test that nullable fields are preserved as null.
+     */
+    @Test
+    void shouldPreserveNullFields() {
+        // Given
+        ClaimSubmittedEvent sample = ClaimSubmittedEvent.sample();
+        ClaimSubmittedEvent event = new ClaimSubmittedEvent(sample.getEventId(), null, sample.getTimestamp(), null,
+                sample.getPolicyId(), sample.getCustomerId(), sample.getIncidentDate(), sample.getSubmissionDate(),
+                null, null, null);
+
+        // When
+        ClaimSubmittedEvent decoded = (ClaimSubmittedEvent) codec.decode(codec.encode(event));
+
+        // Then
+        assertNull(decoded.getAggregateId());
+        assertNull(decoded.getClaimNumber());
+        assertNull(decoded.getEstimatedAmount());
+        assertEquals(sample.getCustomerId(), decoded.getCustomerId());
+    }
+
+    /**
+     * Test that two schemas cannot claim the same type code.
+     */
+    @Test
+    void shouldRejectDuplicateTypeCodes() {
+        assertThrows(IllegalStateException.class,
+                () -> new BinaryEventCodec(List.of(new ClaimSubmittedEvent.Schema(), new ClaimSubmittedEvent.Schema())));
+    }
+}
@@ -0,0 +1,88 @@
+package com.insurance.service.infrastructure.messaging.codec;
+
+import com.insurance.service.config.MessagingProperties;
+import com.insurance.service.infrastructure.messaging.EventRoutingTable;
+import com.insurance.service.infrastructure.messaging.WireFormat;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary event codec with the JSON path used before it, through the same
+ * Kafka serializer and deserializer the producers and consumers use.
+ * Reports ns per encode and decode; bytes per event are printed once per fork.
+ * Run with {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args=EventCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private static final String JSON_TOPIC = "claims.domain-events";
+    private static final String BINARY_TOPIC = "claims.binary-events";
+
+    private DomainEventSerializer serializer;
+    private DomainEventDeserializer deserializer;
+    private ClaimSubmittedEvent event;
+    private RecordHeaders jsonHeaders;
+    private byte[] jsonPayload;
+    private byte[] binaryPayload;
+
+    @Setup
+    public void setUp() {
+        MessagingProperties properties = new MessagingProperties();
+        MessagingProperties.TopicSettings binary = new MessagingProperties.TopicSettings();
+        binary.setWireFormat(WireFormat.BINARY);
+        properties.getTopics().put(BINARY_TOPIC, binary);
+
+        BinaryEventCodec codec = new BinaryEventCodec(List.of(new ClaimSubmittedEvent.Schema()));
+        serializer = new DomainEventSerializer(codec, new EventRoutingTable(properties, "claims"));
+        deserializer = new DomainEventDeserializer(codec);
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.insurance.*"), false);
+
+        event = ClaimSubmittedEvent.sample();
+        jsonHeaders = new RecordHeaders();
+        jsonPayload = serializer.serialize(JSON_TOPIC, jsonHeaders, event);
+        binaryPayload = serializer.serialize(BINARY_TOPIC, new RecordHeaders(), event);
+
+        System.out.printf("%nbytes/event: json %d (+%d header bytes), binary %d%n", jsonPayload.length,
+                jsonHeaders.lastHeader("__TypeId__").value().length + "__TypeId__".length(), binaryPayload.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return serializer.serialize(JSON_TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return serializer.serialize(BINARY_TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public Object decodeJson() {
+        // the JSON deserializer removes the type header it reads, so every call needs its own copy
+        return deserializer.deserialize(JSON_TOPIC, new RecordHeaders(jsonHeaders.toArray()), jsonPayload);
+    }
+
+    @Benchmark
+    public Object decodeBinary() {
+        return deserializer.deserialize(BINARY_TOPIC, new RecordHeaders(), binaryPayload);
+    }
+}
@@ -0,0 +1,64 @@
+package com.insurance.service.infrastructure.messaging.idempotency;
+
+import com.insurance.service.domain.model.Ids;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BloomFilter class.
+ */
+class BloomFilterTest {
+
+    private static final int EXPECTED = 100_000;
+
+    /**
+     * Test that every added ID is reported, including IDs added concurrently.
+     */
+    @Test
+    void shouldNeverMissAddedIds() {
+        // Given
+        BloomFilter filter = new BloomFilter(EXPECTED, 0.01);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < EXPECTED; i++) {
+            ids.add(Ids.next());
+        }
+
+        // When
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> ids.subList(0, EXPECTED / 2).forEach(filter::add)),
+                CompletableFuture.runAsync(() -> ids.subList(EXPECTED / 2, EXPECTED).forEach(filter::add))).join();
+
+        // Then
+        assertTrue(ids.stream().allMatch(filter::mightContain));
+    }
+
+    /**
+     * Test that the false positive rate stays close to the target at the expected load.
+     */
+    @Test
+    void shouldKeepFalsePositiveRateNearTarget() {
+        // Given
+        BloomFilter filter = new BloomFilter(EXPECTED, 0.01);
+        for (int i = 0; i < EXPECTED; i++) {
+            filter.add(Ids.next());
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < EXPECTED; i++) {
+            if (filter.mightContain(Ids.next())) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertEquals(7, filter.hashCount());
+        assertTrue(falsePositives < EXPECTED * 0.015, "False positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,99 @@
+package com.insurance.service.infrastructure.messaging.idempotency;
+
+import com.insurance.service.config.MessagingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ProcessedEvents class.
+ */
+class ProcessedEventsTest {
+
+    private static final String GROUP = "claims-service";
+
+    private final ProcessedEventStore store = mock(ProcessedEventStore.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ProcessedEvents processedEvents = new ProcessedEvents(store, new MessagingProperties(), registry);
+
+    /**
+     * Test that new events are recognised without a store lookup.
+     */
+    @Test
+    void shouldAnswerNewEventsWithoutStore() {
+        // When
+        boolean processed = processedEvents.isProcessed(GROUP, UUID.randomUUID());
+
+        // Then
+        assertFalse(processed);
+        verify(store, never()).isProcessed(anyString(), any());
+        assertEquals(1, count("new", "bloom-filter"));
+    }
+
+    /**
+     * Test that a redelivery of an event processed here is answered from the cache.
+     */
+    @Test
+    void shouldAnswerRedeliveriesFromCache() {
+        // Given
+        UUID eventId = UUID.randomUUID();
+        when(store.markProcessed(GROUP, eventId)).thenReturn(true);
+        processedEvents.markProcessed(GROUP, eventId);
+
+        // When
+        boolean processed = processedEvents.isProcessed(GROUP, eventId);
+
+        // Then
+        assertTrue(processed);
+        verify(store, never()).isProcessed(anyString(), any());
+        assertEquals(1, count("duplicate", "cache"));
+    }
+
+    /**
+     * Test that an event processed by another instance is caught when marking it.
+     */
+    @Test
+    void shouldRejectEventAlreadyInStore() {
+        // Given
+        UUID eventId = UUID.randomUUID();
+        when(store.markProcessed(GROUP, eventId)).thenReturn(false);
+
+        // When
+        boolean marked = processedEvents.markProcessed(GROUP, eventId);
+
+        // Then
+        assertFalse(marked);
+        assertTrue(processedEvents.isProcessed(GROUP, eventId));
+        assertEquals(1, count("duplicate", "store"));
+        assertEquals(1, count("duplicate", "cache"));
+    }
+
+    /**
+     * Test that consumer groups track processed events separately.
+     */
+    @Test
+    void shouldSeparateConsumerGroups() {
+        // Given
+        UUID eventId = UUID.randomUUID();
+        when(store.markProcessed(anyString(), any())).thenReturn(true);
+        processedEvents.markProcessed(GROUP, eventId);
+
+        // When
+        boolean processed = processedEvents.isProcessed("billing-service", eventId);
+
+        // Then
+        assertFalse(processed);
+    }
+
+    private double count(String result, String answeredBy) {
+        return registry.get(ProcessedEvents.CHECKS_COUNTER)
+                .tags("group", GROUP, "result", result, "answered.by", answeredBy)
+                .counter().count();
+    }
+}
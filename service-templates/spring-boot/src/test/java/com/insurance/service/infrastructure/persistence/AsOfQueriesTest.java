@@ -0,0 +1,134 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.domain.model.EventSourcedAggregateRoot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the AsOfQueries class.
+ */
+class AsOfQueriesTest {
+
+    private final UUID claimId = UUID.randomUUID();
+    private final LocalDateTime timestamp = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private EventSourcedRepository<ClaimAggregate> repository;
+    private AsOfQueries<ClaimAggregate> queries;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(EventSourcedRepository.class);
+        queries = new AsOfQueries<>("Claim", repository, 100, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Test that a timestamp is resolved to a version and the rebuilt state is cached.
+     */
+    @Test
+    void shouldRebuildStateAsOfTimestampOnce() {
+        // Given
+        when(repository.versionAt(claimId, timestamp)).thenReturn(3);
+        when(repository.findAtVersion(claimId, 3)).thenReturn(Optional.of(new ClaimAggregate(claimId, 3)));
+
+        // When
+        ClaimAggregate first = queries.asOf(claimId, timestamp).orElseThrow();
+        ClaimAggregate second = queries.atVersion(claimId, 3).orElseThrow();
+
+        // Then
+        assertEquals(3, first.getVersion());
+        assertSame(first, second);
+        verify(repository, times(1)).findAtVersion(claimId, 3);
+    }
+
+    /**
+     * Test that a state beyond the latest version is cached under the version it reached only.
+     */
+    @Test
+    void shouldNotCacheVersionBeyondLatest() {
+        // Given
+        when(repository.findAtVersion(claimId, 9)).thenReturn(Optional.of(new ClaimAggregate(claimId, 4)));
+        when(repository.findAtVersion(claimId, 4)).thenReturn(Optional.of(new ClaimAggregate(claimId, 4)));
+
+        // When
+        queries.atVersion(claimId, 9);
+        queries.atVersion(claimId, 9);
+        queries.atVersion(claimId, 4);
+
+        // Then
+        verify(repository, times(2)).findAtVersion(claimId, 9);
+        verify(repository, never()).findAtVersion(claimId, 4);
+    }
+
+    /**
+     * Test that batch queries resolve all versions at once, rebuild the page together and skip
+     * aggregates created later.
+     */
+    @Test
+    void shouldAnswerBatchQueriesWithOneVersionLookup() {
+        // Given
+        UUID laterClaimId = UUID.randomUUID();
+        List<UUID> ids = List.of(claimId, laterClaimId);
+        when(repository.versionsAt(ids, timestamp)).thenReturn(Map.of(claimId, 2));
+        when(repository.findAtVersions(Map.of(claimId, 2))).thenReturn(Map.of(claimId, new ClaimAggregate(claimId, 2)));
+
+        // When
+        Map<UUID, ClaimAggregate> states = queries.asOf(ids, timestamp);
+
+        // Then
+        assertEquals(List.of(claimId), List.copyOf(states.keySet()));
+        verify(repository, never()).versionAt(any(), any());
+        verify(repository, never()).findAtVersion(any(), anyInt());
+    }
+
+    /**
+     * Test that batch queries only rebuild the states missing from the cache, in the order of the identifiers.
+     */
+    @Test
+    void shouldRebuildOnlyUncachedStatesOfBatch() {
+        // Given
+        UUID otherClaimId = UUID.randomUUID();
+        List<UUID> ids = List.of(otherClaimId, claimId);
+        when(repository.findAtVersion(claimId, 3)).thenReturn(Optional.of(new ClaimAggregate(claimId, 3)));
+        ClaimAggregate cached = queries.atVersion(claimId, 3).orElseThrow();
+        when(repository.versionsAt(ids, timestamp)).thenReturn(Map.of(claimId, 3, otherClaimId, 1));
+        when(repository.findAtVersions(Map.of(otherClaimId, 1)))
+                .thenReturn(Map.of(otherClaimId, new ClaimAggregate(otherClaimId, 1)));
+
+        // When
+        Map<UUID, ClaimAggregate> states = queries.asOf(ids, timestamp);
+
+        // Then
+        assertEquals(ids, List.copyOf(states.keySet()));
+        assertSame(cached, states.get(claimId));
+        verify(repository).findAtVersions(Map.of(otherClaimId, 1));
+    }
+
+    /**
+     * Aggregate at a fixed version.
+     */
+    private static class ClaimAggregate extends EventSourcedAggregateRoot {
+
+        ClaimAggregate(UUID id, int version) {
+            super(id);
+            replay(version, List.of());
+        }
+
+        @Override
+        protected void apply(DomainEvent event) {
+        }
+    }
+}
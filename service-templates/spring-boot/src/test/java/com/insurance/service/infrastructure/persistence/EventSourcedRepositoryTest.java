@@ -0,0 +1,201 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.service.domain.model.CounterAggregate;
+import com.insurance.service.infrastructure.persistence.snapshot.AsyncSnapshotWriter;
+import com.insurance.service.infrastructure.persistence.snapshot.Snapshot;
+import com.insurance.service.infrastructure.persistence.snapshot.SnapshotPolicy;
+import com.insurance.service.infrastructure.persistence.snapshot.SnapshotStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the EventSourcedRepository class.
+ */
+class EventSourcedRepositoryTest {
+
+    private final UUID aggregateId = UUID.randomUUID();
+
+    private EventStore eventStore;
+    private SnapshotStore snapshotStore;
+    private AsyncSnapshotWriter snapshotWriter;
+
+    @BeforeEach
+    void setUp() {
+        eventStore = mock(EventStore.class);
+        snapshotStore = mock(SnapshotStore.class);
+        snapshotWriter = mock(AsyncSnapshotWriter.class);
+    }
+
+    /**
+     * Test that only the events after the latest snapshot are replayed.
+     */
+    @Test
+    void shouldReplayOnlyEventsAfterSnapshot() {
+        // Given
+        when(snapshotStore.findLatest(aggregateId, 1))
+                .thenReturn(Optional.of(new Snapshot(aggregateId, "CounterAggregate", 3, 1, "5")));
+        when(eventStore.load(aggregateId, 3)).thenReturn(stream(4, 5));
+
+        // When
+        CounterAggregate aggregate = repository(SnapshotPolicy.never()).findById(aggregateId).orElseThrow();
+
+        // Then
+        assertEquals(7, aggregate.getCount());
+        assertEquals(5, aggregate.getVersion());
+        verify(eventStore, never()).load(aggregateId, 0);
+    }
+
+    /**
+     * Test that only snapshots of the aggregate's schema version are looked up, and none are
+     * deleted on the read path.
+     */
+    @Test
+    void shouldRestoreOnlySnapshotsOfOwnSchemaVersion() {
+        // Given
+        when(eventStore.currentVersion(aggregateId)).thenReturn(3);
+        when(snapshotStore.findLatest(aggregateId, 1))
+                .thenReturn(Optional.of(new Snapshot(aggregateId, "CounterAggregate", 2, 1, "5")));
+        when(eventStore.load(aggregateId, 2)).thenReturn(stream(3));
+
+        // When
+        CounterAggregate aggregate = repository(SnapshotPolicy.never()).findForRead(aggregateId).orElseThrow();
+
+        // Then
+        assertEquals(6, aggregate.getCount());
+        verify(snapshotStore, never()).deleteOlderSchemas(any(), anyInt());
+    }
+
+    /**
+     * Test that a snapshot is scheduled when the policy asks for one.
+     */
+    @Test
+    void shouldScheduleSnapshotWhenPolicyTriggers() {
+        // Given
+        when(snapshotStore.findLatest(aggregateId, 1)).thenReturn(Optional.empty());
+        when(eventStore.load(aggregateId, 0)).thenReturn(stream(1, 2, 3));
+
+        // When
+        repository(SnapshotPolicy.everyNEvents(3)).findById(aggregateId);
+
+        // Then
+        verify(snapshotWriter).schedule(aggregateId, "CounterAggregate", 3, 1, 3);
+    }
+
+    /**
+     * Test that an aggregate without history is not found.
+     */
+    @Test
+    void shouldReturnEmptyForUnknownAggregate() {
+        // Given
+        when(snapshotStore.findLatest(aggregateId, 1)).thenReturn(Optional.empty());
+        when(eventStore.load(aggregateId, 0)).thenReturn(new EventStream(aggregateId, 0, List.of()));
+
+        // When / Then
+        assertTrue(repository(SnapshotPolicy.everyNEvents(1)).findById(aggregateId).isEmpty());
+        verify(snapshotWriter, never()).schedule(any(), anyString(), anyInt(), anyInt(), any());
+    }
+
+    /**
+     * Test that reads look up the current version and skip the load for unknown aggregates.
+     */
+    @Test
+    void shouldLoadForReadOnlyExistingAggregates() {
+        // Given
+        UUID unknownId = UUID.randomUUID();
+        when(eventStore.currentVersion(aggregateId)).thenReturn(2);
+        when(snapshotStore.findLatest(aggregateId, 1)).thenReturn(Optional.empty());
+        when(eventStore.load(aggregateId, 0)).thenReturn(stream(1, 2));
+        EventSourcedRepository<CounterAggregate> repository = repository(SnapshotPolicy.never());
+
+        // When
+        Optional<CounterAggregate> aggregate = repository.findForRead(aggregateId);
+        Optional<CounterAggregate> unknown = repository.findForRead(unknownId);
+
+        // Then
+        assertEquals(2, aggregate.orElseThrow().getVersion());
+        assertTrue(unknown.isEmpty());
+        verify(eventStore, never()).load(eq(unknownId), anyInt());
+    }
+
+    /**
+     * Test that a past version is rebuilt from the nearest earlier snapshot and the commits up to it.
+     */
+    @Test
+    void shouldRebuildPastVersionFromNearestEarlierSnapshot() {
+        // Given
+        when(snapshotStore.findLatestAtOrBefore(aggregateId, 5, 1))
+                .thenReturn(Optional.of(new Snapshot(aggregateId, "CounterAggregate", 3, 1, "3")));
+        when(eventStore.load(aggregateId, 3, 5)).thenReturn(stream(4, 5));
+
+        // When
+        CounterAggregate aggregate = repository(SnapshotPolicy.everyNEvents(1)).findAtVersion(aggregateId, 5)
+                .orElseThrow();
+
+        // Then
+        assertEquals(5, aggregate.getCount());
+        assertEquals(5, aggregate.getVersion());
+        verify(snapshotStore, never()).findLatest(any(), anyInt());
+        verify(snapshotWriter, never()).schedule(any(), anyString(), anyInt(), anyInt(), any());
+    }
+
+    /**
+     * Test that a page of past versions is rebuilt with one snapshot lookup and one event load.
+     */
+    @Test
+    void shouldRebuildPastVersionsOfPageTogether() {
+        // Given
+        UUID otherId = UUID.randomUUID();
+        UUID unknownId = UUID.randomUUID();
+        Map<UUID, Integer> versions = Map.of(aggregateId, 5, otherId, 2, unknownId, 1);
+        when(snapshotStore.findLatestAtOrBefore(versions, 1))
+                .thenReturn(Map.of(aggregateId, new Snapshot(aggregateId, "CounterAggregate", 3, 1, "3")));
+        when(eventStore.loadRanges(Map.of(aggregateId, 3), versions))
+                .thenReturn(Map.of(aggregateId, stream(4, 5), otherId, stream(otherId, 1, 2)));
+
+        // When
+        Map<UUID, CounterAggregate> aggregates = repository(SnapshotPolicy.everyNEvents(1)).findAtVersions(versions);
+
+        // Then
+        assertEquals(Set.of(aggregateId, otherId), aggregates.keySet());
+        assertEquals(5, aggregates.get(aggregateId).getCount());
+        assertEquals(2, aggregates.get(otherId).getCount());
+        assertEquals(2, aggregates.get(otherId).getVersion());
+        verify(snapshotStore, never()).findLatestAtOrBefore(any(UUID.class), anyInt(), anyInt());
+        verify(eventStore, never()).load(any(UUID.class), anyInt(), anyInt());
+    }
+
+    private EventSourcedRepository<CounterAggregate> repository(SnapshotPolicy policy) {
+        return new EventSourcedRepository<>(eventStore, snapshotStore, snapshotWriter, new ObjectMapper(), policy) {
+            @Override
+            protected CounterAggregate newInstance(UUID id) {
+                return new CounterAggregate(id);
+            }
+        };
+    }
+
+    private EventStream stream(int... versions) {
+        return stream(aggregateId, versions);
+    }
+
+    private static EventStream stream(UUID id, int... versions) {
+        List<StoredEvent> events = Arrays.stream(versions)
+                .mapToObj(version -> new StoredEvent(id, "CounterAggregate", version, 0, new CounterAggregate.Incremented(id)))
+                .toList();
+        return new EventStream(id, versions[versions.length - 1], events);
+    }
+}
@@ -0,0 +1,87 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.insurance.service.domain.model.IdGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark of outbox insert throughput with random and time-ordered primary keys against a real
+ * PostgreSQL instance. Random keys land on arbitrary primary key index pages, time-ordered keys
+ * append to the rightmost page, which shows up as insert throughput and index size.
+ * Run with {@code mvn verify -Pintegration-tests}.
+ */
+@Testcontainers
+class IdLocalityBenchmarkIT {
+
+    private static final int ROWS = 500_000;
+    private static final int BATCH_SIZE = 1000;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static HikariDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.close();
+    }
+
+    /**
+     * Measures rows per second and primary key index size for both generators.
+     */
+    @Test
+    void benchmarkInsertThroughput() {
+        for (String name : new String[] {"random", "time-ordered"}) {
+            IdGenerator generator = "random".equals(name) ? IdGenerator.random() : IdGenerator.timeOrdered();
+            jdbcTemplate.execute("TRUNCATE outbox_events");
+
+            long start = System.nanoTime();
+            for (int inserted = 0; inserted < ROWS; inserted += BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, created_at) "
+                        + "VALUES (?, 'BenchmarkAggregate', ?, 'BenchmarkEvent', '{}'::jsonb, ?)", rows(generator));
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Long indexBytes = jdbcTemplate.queryForObject(
+                    "SELECT sum(pg_relation_size(relid)) FROM pg_partition_tree('outbox_events_pkey')", Long.class);
+
+            assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_events", Integer.class));
+            System.out.printf("insert: %s ids -> %.0f rows/s, primary key index %,d KiB%n",
+                    name, ROWS / seconds, indexBytes / 1024);
+        }
+    }
+
+    private static List<Object[]> rows(IdGenerator generator) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            rows.add(new Object[] {generator.nextId(), UUID.randomUUID(), now});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,247 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insurance.service.domain.event.AbstractDomainEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark for the JDBC event store against a real PostgreSQL instance.
+ * Measures append throughput and stream load latency for streams of 10, 1k and 100k events,
+ * and the event store side of as-of queries: one aggregate with thousands of commits, and a
+ * report page of aggregates.
+ * Run with {@code mvn verify -Pintegration-tests}.
+ */
+@Testcontainers
+class JdbcEventStoreBenchmarkIT {
+
+    private static final int EVENTS_PER_SEED_COMMIT = 1000;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static HikariDataSource dataSource;
+    private static JdbcEventStore eventStore;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        eventStore = new JdbcEventStore(new JdbcTemplate(dataSource), objectMapper);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.close();
+    }
+
+    /**
+     * Measures commits per second for single-event and ten-event commits.
+     */
+    @Test
+    void benchmarkAppendThroughput() {
+        for (int eventsPerCommit : new int[] {1, 10}) {
+            int commits = 5000;
+            UUID[] aggregates = new UUID[100];
+            int[] versions = new int[aggregates.length];
+            for (int i = 0; i < aggregates.length; i++) {
+                aggregates[i] = UUID.randomUUID();
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < commits; i++) {
+                int slot = i % aggregates.length;
+                int expected = versions[slot];
+                appendInTransaction(aggregates[slot], expected, eventsPerCommit);
+                versions[slot] = expected + 1;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("append: %d events/commit -> %.0f commits/s, %.0f events/s%n",
+                    eventsPerCommit, commits / seconds, commits * eventsPerCommit / seconds);
+        }
+    }
+
+    /**
+     * Measures stream load latency for streams of increasing length.
+     */
+    @Test
+    void benchmarkStreamLoadLatency() {
+        for (int streamLength : new int[] {10, 1_000, 100_000}) {
+            UUID aggregateId = seedStream(streamLength);
+            int iterations = streamLength >= 100_000 ? 10 : 100;
+
+            for (int i = 0; i < 5; i++) {
+                eventStore.load(aggregateId);
+            }
+
+            long[] samples = new long[iterations];
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                EventStream stream = eventStore.load(aggregateId);
+                samples[i] = System.nanoTime() - start;
+                assertEquals(streamLength, stream.getEvents().size());
+            }
+            Arrays.sort(samples);
+
+            System.out.printf("load: %,d events -> p50 %.2f ms, p99 %.2f ms%n", streamLength,
+                    samples[iterations / 2] / 1e6, samples[(int) Math.ceil(iterations * 0.99) - 1] / 1e6);
+        }
+    }
+
+    /**
+     * Measures resolving a timestamp to a version and loading the stream up to it, without
+     * snapshots, for an aggregate with thousands of single-event commits.
+     */
+    @Test
+    void benchmarkAsOfLatency() {
+        UUID aggregateId = UUID.randomUUID();
+        int commits = 5_000;
+        for (int version = 0; version < commits; version++) {
+            appendInTransaction(aggregateId, version, 1);
+        }
+        LocalDateTime timestamp = LocalDateTime.now();
+        int iterations = 100;
+
+        for (int i = 0; i < 5; i++) {
+            eventStore.load(aggregateId, 0, eventStore.versionAt(aggregateId, timestamp));
+        }
+
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            int version = eventStore.versionAt(aggregateId, timestamp);
+            EventStream stream = eventStore.load(aggregateId, 0, version);
+            samples[i] = System.nanoTime() - start;
+            assertEquals(commits, stream.getVersion());
+        }
+        Arrays.sort(samples);
+
+        System.out.printf("as-of: %,d commits -> p50 %.2f ms, p99 %.2f ms%n", commits,
+                samples[iterations / 2] / 1e6, samples[(int) Math.ceil(iterations * 0.99) - 1] / 1e6);
+    }
+
+    /**
+     * Measures a batch as-of lookup for a report page: the versions of all aggregates in one
+     * query and their streams in another.
+     */
+    @Test
+    void benchmarkAsOfPageLatency() {
+        int pageSize = 200;
+        int commitsPerAggregate = 20;
+        List<UUID> page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            UUID aggregateId = UUID.randomUUID();
+            for (int version = 0; version < commitsPerAggregate; version++) {
+                appendInTransaction(aggregateId, version, 1);
+            }
+            page.add(aggregateId);
+        }
+        LocalDateTime timestamp = LocalDateTime.now();
+        int iterations = 50;
+
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            Map<UUID, Integer> versions = eventStore.versionsAt(page, timestamp);
+            Map<UUID, EventStream> streams = eventStore.loadRanges(Map.of(), versions);
+            samples[i] = System.nanoTime() - start;
+            assertEquals(pageSize, streams.size());
+        }
+        Arrays.sort(samples);
+
+        System.out.printf("as-of page: %d aggregates x %d commits -> p50 %.2f ms, p99 %.2f ms%n",
+                pageSize, commitsPerAggregate,
+                samples[iterations / 2] / 1e6, samples[(int) Math.ceil(iterations * 0.99) - 1] / 1e6);
+    }
+
+    /**
+     * Sanity check that a stale writer is rejected.
+     */
+    @Test
+    void shouldRejectAppendAtStaleVersion() {
+        UUID aggregateId = UUID.randomUUID();
+        appendInTransaction(aggregateId, 0, 2);
+        appendInTransaction(aggregateId, 1, 1);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> appendInTransaction(aggregateId, 1, 1));
+        assertEquals(2, eventStore.load(aggregateId).getVersion());
+    }
+
+    private UUID seedStream(int streamLength) {
+        UUID aggregateId = UUID.randomUUID();
+        int version = 0;
+        for (int remaining = streamLength; remaining > 0; remaining -= EVENTS_PER_SEED_COMMIT) {
+            appendInTransaction(aggregateId, version++, Math.min(remaining, EVENTS_PER_SEED_COMMIT));
+        }
+        return aggregateId;
+    }
+
+    private void appendInTransaction(UUID aggregateId, int expectedVersion, int eventCount) {
+        transactionTemplate.executeWithoutResult(status ->
+                eventStore.append("BenchmarkAggregate", aggregateId, expectedVersion, events(aggregateId, eventCount)));
+    }
+
+    private static List<BenchmarkEvent> events(UUID aggregateId, int count) {
+        List<BenchmarkEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(new BenchmarkEvent(UUID.randomUUID(), aggregateId, LocalDateTime.now(), "1.0", "payload-" + i));
+        }
+        return events;
+    }
+
+    /**
+     * Event with a small payload, representative of a typical claim event.
+     */
+    static class BenchmarkEvent extends AbstractDomainEvent {
+
+        private final String payload;
+
+        @JsonCreator
+        BenchmarkEvent(@JsonProperty("eventId") UUID eventId,
+                       @JsonProperty("aggregateId") UUID aggregateId,
+                       @JsonProperty("timestamp") LocalDateTime timestamp,
+                       @JsonProperty("version") String version,
+                       @JsonProperty("payload") String payload) {
+            super(eventId, aggregateId, timestamp, version);
+            this.payload = payload;
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insurance.service.domain.model.BaseAggregateRoot;
+import com.insurance.service.infrastructure.messaging.codec.ClaimSubmittedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the JdbcEventStore class.
+ */
+class JdbcEventStoreTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcEventStore eventStore;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        eventStore = new JdbcEventStore(jdbcTemplate, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    /**
+     * Test that the first events of a new aggregate are committed as version 1 of an empty stream.
+     */
+    @Test
+    void shouldAppendNewAggregate() {
+        // Given
+        NewAggregate aggregate = new NewAggregate();
+
+        // When
+        eventStore.append(aggregate);
+
+        // Then
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(anyString(), args.capture());
+        List<Object> values = List.of(args.getValue());
+        assertEquals(aggregate.getId(), values.get(0));
+        assertEquals(1, values.get(1));
+        // the version guard expects no stream yet
+        assertEquals(aggregate.getId(), values.get(values.size() - 2));
+        assertEquals(0, values.get(values.size() - 1));
+        assertTrue(aggregate.domainEvents().isEmpty());
+    }
+
+    private static class NewAggregate extends BaseAggregateRoot {
+        private NewAggregate() {
+            registerEvent(ClaimSubmittedEvent.sample());
+        }
+    }
+}
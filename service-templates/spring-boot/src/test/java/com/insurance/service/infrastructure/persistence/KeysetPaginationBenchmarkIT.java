@@ -0,0 +1,190 @@
+package com.insurance.service.infrastructure.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insurance.service.infrastructure.persistence.keyset.KeysetCursor;
+import com.insurance.service.infrastructure.persistence.keyset.KeysetPage;
+import com.insurance.service.infrastructure.persistence.keyset.KeysetQuery;
+import com.insurance.service.infrastructure.persistence.keyset.KeysetReader;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark of list endpoint pagination against a real PostgreSQL instance.
+ * Compares the latency of page 1 and page 10,000 with OFFSET and with keyset pagination,
+ * and the throughput and heap use of streaming every row as NDJSON.
+ * Run with {@code mvn verify -Pintegration-tests}.
+ */
+@Testcontainers
+class KeysetPaginationBenchmarkIT {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 10_000;
+    private static final int ROWS = (DEEP_PAGE + 1) * PAGE_SIZE;
+
+    private static final String OFFSET_SQL =
+            "SELECT * FROM example_aggregate WHERE status = ? ORDER BY updated_at, id LIMIT ? OFFSET ?";
+
+    private static final RowMapper<Map<String, Object>> ROW_MAPPER = (rs, rowNum) -> {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", rs.getObject("id", UUID.class));
+        row.put("name", rs.getString("name"));
+        row.put("status", rs.getString("status"));
+        row.put("amount", rs.getBigDecimal("amount"));
+        row.put("updatedAt", rs.getTimestamp("updated_at").toLocalDateTime());
+        return row;
+    };
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static HikariDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static KeysetReader reader;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        reader = new KeysetReader(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                new ObjectMapper().registerModule(new JavaTimeModule()), 500);
+        seed();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.close();
+    }
+
+    /**
+     * Measures page 1 and page 10,000 latency with OFFSET and with a cursor.
+     */
+    @Test
+    void benchmarkPageLatency() {
+        KeysetQuery query = KeysetQuery.from("example_aggregate").and("status = ?", "OPEN");
+        KeysetCursor deepCursor = cursorBefore(DEEP_PAGE);
+
+        report("offset page 1", () -> jdbcTemplate.query(OFFSET_SQL, ROW_MAPPER, "OPEN", PAGE_SIZE, 0));
+        report("offset page 10,000", () -> jdbcTemplate.query(OFFSET_SQL, ROW_MAPPER,
+                "OPEN", PAGE_SIZE, (DEEP_PAGE - 1) * PAGE_SIZE));
+        report("keyset page 1", () -> reader.page(query, null, PAGE_SIZE, ROW_MAPPER).getItems());
+        report("keyset page 10,000", () -> reader.page(query, deepCursor, PAGE_SIZE, ROW_MAPPER).getItems());
+
+        List<Map<String, Object>> byOffset = jdbcTemplate.query(OFFSET_SQL, ROW_MAPPER,
+                "OPEN", PAGE_SIZE, (DEEP_PAGE - 1) * PAGE_SIZE);
+        KeysetPage<Map<String, Object>> byCursor = reader.page(query, deepCursor, PAGE_SIZE, ROW_MAPPER);
+        assertEquals(byOffset, byCursor.getItems());
+        assertNotNull(byCursor.getNextCursor());
+    }
+
+    /**
+     * Measures streaming every row as NDJSON, and the heap growth while doing so.
+     */
+    @Test
+    void benchmarkStreaming() {
+        CountingOutputStream out = new CountingOutputStream();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        long start = System.nanoTime();
+        reader.stream(KeysetQuery.from("example_aggregate"), null, ROW_MAPPER, out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+
+        assertEquals(ROWS, out.lines);
+        System.out.printf("stream: %,d rows -> %.0f rows/s, %.1f MiB written, heap +%.1f MiB%n",
+                ROWS, ROWS / seconds, out.bytes / 1048576.0, (heapAfter - heapBefore) / 1048576.0);
+    }
+
+    private static void seed() {
+        LocalDateTime base = LocalDateTime.now().minusDays(30);
+        List<Object[]> batch = new ArrayList<>(1000);
+        for (int i = 0; i < ROWS; i++) {
+            Timestamp updatedAt = Timestamp.valueOf(base.plusSeconds(i));
+            batch.add(new Object[] {UUID.randomUUID(), updatedAt, updatedAt, "Aggregate " + i, "OPEN", i});
+            if (batch.size() == 1000 || i == ROWS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO example_aggregate "
+                        + "(id, created_at, updated_at, version, name, status, amount) VALUES (?, ?, ?, 0, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("ANALYZE example_aggregate");
+    }
+
+    private static KeysetCursor cursorBefore(int page) {
+        return jdbcTemplate.queryForObject("SELECT updated_at, id FROM example_aggregate "
+                        + "ORDER BY updated_at, id LIMIT 1 OFFSET ?",
+                (rs, rowNum) -> new KeysetCursor(rs.getTimestamp("updated_at").toLocalDateTime(),
+                        rs.getObject("id", UUID.class)),
+                (page - 1) * PAGE_SIZE - 1);
+    }
+
+    private static void report(String label, Supplier<List<?>> page) {
+        int iterations = 200;
+        for (int i = 0; i < 20; i++) {
+            page.get();
+        }
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            assertEquals(PAGE_SIZE, page.get().size());
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        System.out.printf("%s -> p50 %.2f ms, p99 %.2f ms%n", label,
+                samples[iterations / 2] / 1e6, samples[(int) Math.ceil(iterations * 0.99) - 1] / 1e6);
+    }
+
+    /**
+     * Discards what is written, counting bytes and lines.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.insurance.service.infrastructure.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PartitionMaintenance class.
+ */
+class PartitionMaintenanceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    /**
+     * Test that a daily range bound is parsed and overlaps only its own day.
+     */
+    @Test
+    void shouldParseRangeBound() {
+        // When
+        PartitionMaintenance.TimePartition partition = PartitionMaintenance.TimePartition.parse("outbox_events_p20240301",
+                "FOR VALUES FROM ('2024-03-01 00:00:00') TO ('2024-03-02 00:00:00')");
+
+        // Then
+        assertEquals(DAY, partition.getFrom());
+        assertEquals(DAY.plusDays(1), partition.getTo());
+        assertTrue(partition.overlaps(DAY, DAY.plusDays(1)));
+        assertFalse(partition.overlaps(DAY.plusDays(1), DAY.plusDays(2)));
+        assertFalse(partition.overlaps(DAY.minusDays(1), DAY));
+    }
+
+    /**
+     * Test that an open lower bound, as on the partition holding rows from before partitioning, is unbounded.
+     */
+    @Test
+    void shouldParseOpenLowerBound() {
+        // When
+        PartitionMaintenance.TimePartition partition = PartitionMaintenance.TimePartition.parse("outbox_events_legacy",
+                "FOR VALUES FROM (MINVALUE) TO ('2024-03-01 00:00:00')");
+
+        // Then
+        assertNull(partition.getFrom());
+        assertTrue(partition.overlaps(DAY.minusYears(10), DAY.minusYears(10).plusDays(1)));
+        assertFalse(partition.overlaps(DAY, DAY.plusDays(1)));
+    }
+
+    /**
+     * Test that the default partition never counts as covering a range.
+     */
+    @Test
+    void shouldParseDefaultPartition() {
+        // When
+        PartitionMaintenance.TimePartition partition =
+                PartitionMaintenance.TimePartition.parse("outbox_events_default", "DEFAULT");
+
+        // Then
+        assertTrue(partition.isDefault());
+        assertFalse(partition.overlaps(DAY, DAY.plusDays(1)));
+    }
+}
@@ -0,0 +1,183 @@
+package com.insurance.service.infrastructure.persistence.archive;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insurance.service.config.ArchiveProperties;
+import com.insurance.service.domain.event.AbstractDomainEvent;
+import com.insurance.service.infrastructure.persistence.EventStream;
+import com.insurance.service.infrastructure.persistence.JdbcEventStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark of stream loads from the event archive against loads from PostgreSQL.
+ * Seeds two identical sets of aggregates with 50 commits each, closes and archives one set,
+ * and compares load latency of archived and stored streams. Run with {@code mvn verify -Pintegration-tests}.
+ */
+@Testcontainers
+class EventArchiveBenchmarkIT {
+
+    private static final int AGGREGATES = 2_000;
+    private static final int COMMITS = 50;
+    private static final int LOADS = 5_000;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @TempDir
+    static Path archiveDirectory;
+
+    private static HikariDataSource dataSource;
+    private static JdbcEventStore eventStore;
+    private static TransactionTemplate transactionTemplate;
+    private static EventArchiver archiver;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        EventArchive archive = new EventArchive(archiveDirectory, 64 * 1024);
+        eventStore = new JdbcEventStore(jdbcTemplate, objectMapper, archive);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setClosingEventTypes(List.of("ClaimClosedEvent"));
+        properties.setClosedFor(Duration.ZERO);
+        properties.setAggregatesPerSegment(500);
+        archiver = new EventArchiver(jdbcTemplate, transactionTemplate, archive, properties);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.close();
+    }
+
+    /**
+     * Compares load latency of archived and stored streams of the same shape.
+     */
+    @Test
+    void benchmarkArchiveReads() {
+        List<UUID> archived = seed(true);
+        List<UUID> stored = seed(false);
+        archiver.archive();
+
+        assertEquals(COMMITS, eventStore.load(archived.get(0)).getEvents().size());
+        measure("postgres", stored);
+        measure("archive", archived);
+    }
+
+    /**
+     * Test that a reopened aggregate keeps appending on top of its archived history.
+     */
+    @Test
+    void shouldAppendAfterArchivedHistory() {
+        UUID aggregateId = seedStream(true);
+        archiver.archive();
+
+        transactionTemplate.executeWithoutResult(status -> eventStore.append("Claim", aggregateId, COMMITS,
+                List.of(new ClaimNotedEvent(UUID.randomUUID(), aggregateId, LocalDateTime.now(), "1.0", "reopened"))));
+
+        EventStream stream = eventStore.load(aggregateId);
+        assertEquals(COMMITS + 1, stream.getVersion());
+        assertEquals(COMMITS + 1, stream.getEvents().size());
+        assertEquals(12, eventStore.load(aggregateId, 10).getEvents().get(1).getVersion());
+    }
+
+    private static void measure(String source, List<UUID> aggregates) {
+        for (int i = 0; i < 500; i++) {
+            eventStore.load(aggregates.get(i % aggregates.size()));
+        }
+        long[] samples = new long[LOADS];
+        for (int i = 0; i < LOADS; i++) {
+            long start = System.nanoTime();
+            eventStore.load(aggregates.get((i * 7919) % aggregates.size()));
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        System.out.printf("load %s: %d commits -> p50 %.3f ms, p99 %.3f ms%n", source, COMMITS,
+                samples[LOADS / 2] / 1e6, samples[(int) (LOADS * 0.99)] / 1e6);
+    }
+
+    private static List<UUID> seed(boolean closed) {
+        List<UUID> aggregates = new ArrayList<>(AGGREGATES);
+        for (int i = 0; i < AGGREGATES; i++) {
+            aggregates.add(seedStream(closed));
+        }
+        return aggregates;
+    }
+
+    private static UUID seedStream(boolean closed) {
+        UUID aggregateId = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int version = 0; version < COMMITS; version++) {
+                AbstractDomainEvent event = closed && version == COMMITS - 1
+                        ? new ClaimClosedEvent(UUID.randomUUID(), aggregateId, LocalDateTime.now(), "1.0")
+                        : new ClaimNotedEvent(UUID.randomUUID(), aggregateId, LocalDateTime.now(), "1.0",
+                                "Adjuster note " + version + " on the claim, with a typical amount of text");
+                eventStore.append("Claim", aggregateId, version, List.of(event));
+            }
+        });
+        return aggregateId;
+    }
+
+    static class ClaimNotedEvent extends AbstractDomainEvent {
+
+        private final String note;
+
+        @JsonCreator
+        ClaimNotedEvent(@JsonProperty("eventId") UUID eventId,
+                        @JsonProperty("aggregateId") UUID aggregateId,
+                        @JsonProperty("timestamp") LocalDateTime timestamp,
+                        @JsonProperty("version") String version,
+                        @JsonProperty("note") String note) {
+            super(eventId, aggregateId, timestamp, version);
+            this.note = note;
+        }
+
+        public String getNote() {
+            return note;
+        }
+    }
+
+    static class ClaimClosedEvent extends AbstractDomainEvent {
+
+        @JsonCreator
+        ClaimClosedEvent(@JsonProperty("eventId") UUID eventId,
+                         @JsonProperty("aggregateId") UUID aggregateId,
+                         @JsonProperty("timestamp") LocalDateTime timestamp,
+                         @JsonProperty("version") String version) {
+            super(eventId, aggregateId, timestamp, version);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.insurance.service.infrastructure.persistence.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the EventArchive class.
+ */
+class EventArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that history archived in several segments, with overlaps, is read back once and in order.
+     */
+    @Test
+    void shouldMergeSegmentsAndIgnoreDuplicates() throws Exception {
+        // Given
+        UUID aggregateId = UUID.randomUUID();
+        List<ArchivedEvent> history = SegmentTest.stream(aggregateId, 6);
+        EventArchive archive = new EventArchive(directory, 1024);
+        archive.append(history.subList(0, 4));
+        archive.append(history.subList(2, 6));
+
+        // When
+        List<ArchivedEvent> read = archive.read(aggregateId, 0, 7);
+
+        // Then
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), read.stream().map(ArchivedEvent::getVersion).collect(Collectors.toList()));
+    }
+
+    /**
+     * Test that segments written by another instance are found when a read has a gap.
+     */
+    @Test
+    void shouldLoadSegmentsWrittenElsewhere() throws Exception {
+        // Given
+        UUID aggregateId = UUID.randomUUID();
+        EventArchive reader = new EventArchive(directory, 1024);
+        new EventArchive(directory, 1024).append(SegmentTest.stream(aggregateId, 3));
+
+        // When
+        List<ArchivedEvent> read = reader.read(aggregateId, 0, 4);
+
+        // Then
+        assertEquals(3, read.size());
+    }
+}
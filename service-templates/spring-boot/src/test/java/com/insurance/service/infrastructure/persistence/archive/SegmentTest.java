@@ -0,0 +1,128 @@
+package com.insurance.service.infrastructure.persistence.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Segment class.
+ */
+class SegmentTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that every aggregate is found when the segment spans many blocks.
+     */
+    @Test
+    void shouldReadEveryAggregateAcrossBlocks() throws Exception {
+        // Given
+        List<UUID> aggregates = new ArrayList<>();
+        List<ArchivedEvent> events = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            UUID aggregateId = UUID.randomUUID();
+            aggregates.add(aggregateId);
+            events.addAll(stream(aggregateId, 5));
+        }
+        events.sort(ArchivedEvent.SEGMENT_ORDER);
+
+        // When
+        Segment.write(directory.resolve("test" + Segment.SUFFIX), events, 1024);
+        Segment segment = Segment.open(directory.resolve("test" + Segment.SUFFIX));
+
+        // Then
+        for (UUID aggregateId : aggregates) {
+            List<ArchivedEvent> read = segment.read(aggregateId, 0, Integer.MAX_VALUE);
+            assertEquals(List.of(1, 2, 3, 4, 5), read.stream().map(ArchivedEvent::getVersion).collect(Collectors.toList()));
+            assertEquals("{\"claimId\":\"" + aggregateId + "\",\"note\":\"tab\\there\"}", read.get(0).getPayload());
+        }
+        assertTrue(segment.read(UUID.randomUUID(), 0, Integer.MAX_VALUE).isEmpty());
+    }
+
+    /**
+     * Test that reads are limited to the requested version range and keep all fields.
+     */
+    @Test
+    void shouldReadVersionRange() throws Exception {
+        // Given
+        UUID aggregateId = UUID.randomUUID();
+        List<ArchivedEvent> events = stream(aggregateId, 10);
+        Segment segment = Segment.write(directory.resolve("range" + Segment.SUFFIX), events, 64 * 1024);
+
+        // When
+        List<ArchivedEvent> read = segment.read(aggregateId, 3, 6);
+
+        // Then
+        assertEquals(List.of(4, 5), read.stream().map(ArchivedEvent::getVersion).collect(Collectors.toList()));
+        ArchivedEvent original = events.get(3);
+        ArchivedEvent copy = read.get(0);
+        assertEquals(original.getEventId(), copy.getEventId());
+        assertEquals(original.getOccurredAt(), copy.getOccurredAt());
+        assertEquals("ClaimNoted", copy.getEventType());
+        assertEquals("Claim", copy.getAggregateType());
+    }
+
+    /**
+     * Test that the filter rules out almost every segment without the aggregate, and never one with it.
+     */
+    @Test
+    void shouldRuleOutAbsentAggregatesWithoutInflating() throws Exception {
+        // Given
+        List<UUID> aggregates = new ArrayList<>();
+        List<ArchivedEvent> events = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID aggregateId = UUID.randomUUID();
+            aggregates.add(aggregateId);
+            events.addAll(stream(aggregateId, 1));
+        }
+        events.sort(ArchivedEvent.SEGMENT_ORDER);
+        Segment segment = Segment.write(directory.resolve("filter" + Segment.SUFFIX), events, 4096);
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (segment.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue(aggregates.stream().allMatch(segment::mightContain));
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    /**
+     * Test that a file without a complete footer is not opened as a segment.
+     */
+    @Test
+    void shouldRejectTruncatedSegment() throws Exception {
+        // Given
+        Path file = directory.resolve("broken" + Segment.SUFFIX);
+        Segment.write(file, stream(UUID.randomUUID(), 3), 1024);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 10));
+
+        // When / Then
+        assertThrows(java.io.IOException.class, () -> Segment.open(file));
+    }
+
+    static List<ArchivedEvent> stream(UUID aggregateId, int commits) {
+        List<ArchivedEvent> events = new ArrayList<>();
+        for (int version = 1; version <= commits; version++) {
+            events.add(new ArchivedEvent(aggregateId, "Claim", version, 0, UUID.randomUUID(), "ClaimNoted",
+                    "com.insurance.claims.ClaimNoted", "{\"claimId\":\"" + aggregateId + "\",\"note\":\"tab\\there\"}",
+                    LocalDateTime.of(2020, 1, 1, 12, 0, 0, 123_456_789).plusDays(version)));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,256 @@
+package com.insurance.service.infrastructure.persistence.bulk;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insurance.service.config.NearCacheProperties;
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.infrastructure.cache.NearCaches;
+import com.insurance.service.infrastructure.messaging.OutboxEventWriter;
+import com.insurance.service.infrastructure.messaging.codec.ClaimSubmittedEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark of bulk claim ingestion against a real PostgreSQL instance.
+ * Measures records per second for an upload of 500k claims, each stored with its
+ * {@code ClaimSubmitted} outbox event. The target is 50k records per second on one node.
+ * Run with {@code mvn verify -Pintegration-tests}.
+ */
+@Testcontainers
+class BulkIngestionBenchmarkIT {
+
+    private static final int RECORDS = 500_000;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static HikariDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static ExecutorService writeExecutor;
+    private static BulkIngestor ingestor;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // claim numbers are unique in a real claims table
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uq_example_aggregate_name ON example_aggregate(name)");
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        writeExecutor = Executors.newSingleThreadExecutor();
+        ingestor = new BulkIngestor(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new OutboxEventWriter(jdbcTemplate, objectMapper,
+                        new NearCaches(new NearCacheProperties(), new SimpleMeterRegistry())),
+                writeExecutor, 5000, 1000);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        writeExecutor.shutdown();
+        dataSource.close();
+    }
+
+    @BeforeEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE example_aggregate CASCADE");
+        jdbcTemplate.execute("TRUNCATE outbox_events");
+    }
+
+    /**
+     * Measures ingestion throughput, records plus outbox events.
+     */
+    @Test
+    void benchmarkIngestionThroughput() throws Exception {
+        StringBuilder upload = new StringBuilder(RECORDS * 160);
+        for (int i = 0; i < RECORDS; i++) {
+            appendRecord(upload, "CLM-" + i, "1250.50");
+        }
+        byte[] bytes = upload.toString().getBytes(StandardCharsets.UTF_8);
+
+        long start = System.nanoTime();
+        BulkIngestionReport report = ingestor.ingest(new ByteArrayInputStream(bytes), new ClaimTarget());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(RECORDS, report.getAccepted());
+        assertEquals(RECORDS, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_events", Integer.class));
+        System.out.printf("bulk: %,d records (%.1f MiB) -> %.0f records/s%n",
+                RECORDS, bytes.length / 1048576.0, RECORDS / seconds);
+    }
+
+    /**
+     * Test that malformed, invalid and duplicate records are reported by line and emit no events.
+     */
+    @Test
+    void shouldReportRejectedRecordsByLine() throws Exception {
+        StringBuilder upload = new StringBuilder();
+        appendRecord(upload, "CLM-1", "100.00");
+        upload.append("{not json\n");
+        appendRecord(upload, "CLM-2", "-5");
+        upload.append('\n');
+        appendRecord(upload, "CLM-1", "200.00");
+
+        BulkIngestionReport report = ingestor.ingest(
+                new ByteArrayInputStream(upload.toString().getBytes(StandardCharsets.UTF_8)), new ClaimTarget());
+
+        assertEquals(4, report.getReceived());
+        assertEquals(1, report.getAccepted());
+        assertEquals(3, report.getRejected());
+        assertEquals(List.of(2L, 3L, 5L), report.getErrors().stream().map(BulkIngestionReport.RecordError::getLine).toList());
+        assertTrue(report.getErrors().get(1).getFieldErrors().containsKey("estimatedAmount"));
+        assertEquals("Duplicate record", report.getErrors().get(2).getMessage());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_events", Integer.class));
+    }
+
+    /**
+     * Test that records read before the upload fails are reported as not stored.
+     */
+    @Test
+    void shouldReportRecordsNotStoredWhenUploadFails() {
+        StringBuilder upload = new StringBuilder();
+        appendRecord(upload, "CLM-1", "100.00");
+        upload.append("{not json\n");
+        appendRecord(upload, "CLM-2", "200.00");
+        appendRecord(upload, "CLM-3", "300.00");
+        InputStream failing = new SequenceInputStream(
+                new ByteArrayInputStream(upload.toString().getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("connection reset");
+                    }
+                });
+
+        BulkIngestionAbortedException e = assertThrows(BulkIngestionAbortedException.class,
+                () -> ingestor.ingest(failing, new ClaimTarget()));
+
+        BulkIngestionReport report = e.getReport();
+        assertEquals(4, report.getReceived());
+        assertEquals(4, report.getRejected());
+        assertEquals(List.of(2L), report.getErrors().stream().map(BulkIngestionReport.RecordError::getLine).toList());
+        assertEquals(List.of(1L, 3L), report.getNotStored().stream().map(BulkIngestionReport.LineRange::getFirstLine).toList());
+        assertEquals(List.of(1L, 4L), report.getNotStored().stream().map(BulkIngestionReport.LineRange::getLastLine).toList());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_events", Integer.class));
+    }
+
+    private static void appendRecord(StringBuilder upload, String claimNumber, String amount) {
+        upload.append("{\"claimNumber\":\"").append(claimNumber)
+                .append("\",\"policyId\":\"").append(UUID.randomUUID())
+                .append("\",\"incidentDate\":\"2024-03-01\",\"description\":\"Hail damage to roof\\tand windows\"")
+                .append(",\"estimatedAmount\":").append(amount).append("}\n");
+    }
+
+    /**
+     * One line of a partner upload.
+     */
+    static class ClaimRecord {
+
+        @NotBlank
+        private final String claimNumber;
+        @NotNull
+        private final UUID policyId;
+        @NotNull
+        private final LocalDate incidentDate;
+        private final String description;
+        @NotNull
+        @Positive
+        private final BigDecimal estimatedAmount;
+
+        @JsonCreator
+        ClaimRecord(@JsonProperty("claimNumber") String claimNumber,
+                    @JsonProperty("policyId") UUID policyId,
+                    @JsonProperty("incidentDate") LocalDate incidentDate,
+                    @JsonProperty("description") String description,
+                    @JsonProperty("estimatedAmount") BigDecimal estimatedAmount) {
+            this.claimNumber = claimNumber;
+            this.policyId = policyId;
+            this.incidentDate = incidentDate;
+            this.description = description;
+            this.estimatedAmount = estimatedAmount;
+        }
+    }
+
+    /**
+     * Stores claims in the example aggregate table.
+     */
+    static class ClaimTarget implements BulkIngestionTarget<ClaimRecord> {
+
+        @Override
+        public Class<ClaimRecord> recordType() {
+            return ClaimRecord.class;
+        }
+
+        @Override
+        public String aggregateType() {
+            return "Claim";
+        }
+
+        @Override
+        public int aggregateVersion() {
+            return 0;
+        }
+
+        @Override
+        public String table() {
+            return "example_aggregate";
+        }
+
+        @Override
+        public List<String> columns() {
+            return Arrays.asList("id", "created_at", "updated_at", "version", "name", "description", "status", "amount");
+        }
+
+        @Override
+        public Object[] values(UUID id, ClaimRecord record) {
+            LocalDateTime now = LocalDateTime.now();
+            return new Object[] {id, now, now, aggregateVersion(), record.claimNumber, record.description, "SUBMITTED",
+                    record.estimatedAmount};
+        }
+
+        @Override
+        public DomainEvent event(UUID id, ClaimRecord record) {
+            LocalDateTime now = LocalDateTime.now();
+            return new ClaimSubmittedEvent(UUID.randomUUID(), id, now, record.claimNumber, record.policyId, null,
+                    record.incidentDate, now, record.description, record.estimatedAmount, "BULK");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.insurance.service.infrastructure.persistence.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PgCopy class.
+ */
+class PgCopyTest {
+
+    /**
+     * Test that rows are written as tab-separated lines with nulls as \N.
+     */
+    @Test
+    void shouldEncodeRowsInTextFormat() {
+        // Given
+        UUID id = UUID.fromString("0190b7a4-1c2d-7e3f-8a4b-5c6d7e8f9a0b");
+        Object[] row = {id, "Rear bumper", null, new BigDecimal("1E+3")};
+
+        // When
+        String encoded = new String(PgCopy.encode(Collections.singletonList(row)), StandardCharsets.UTF_8);
+
+        // Then
+        assertEquals(id + "\tRear bumper\t\\N\t1000\n", encoded);
+    }
+
+    /**
+     * Test that delimiters and backslashes inside values are escaped.
+     */
+    @Test
+    void shouldEscapeSpecialCharacters() {
+        // Given
+        Object[] row = {"tab\there", "line\nbreak\r", "back\\slash", "\\N"};
+
+        // When
+        String encoded = new String(PgCopy.encode(Collections.singletonList(row)), StandardCharsets.UTF_8);
+
+        // Then
+        assertEquals("tab\\there\tline\\nbreak\\r\tback\\\\slash\t\\\\N\n", encoded);
+    }
+}
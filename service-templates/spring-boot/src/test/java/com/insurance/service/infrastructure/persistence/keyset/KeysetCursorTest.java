@@ -0,0 +1,53 @@
+package com.insurance.service.infrastructure.persistence.keyset;
+
+import com.insurance.service.domain.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the KeysetCursor class.
+ */
+class KeysetCursorTest {
+
+    /**
+     * Test that a cursor survives encoding as a URL-safe token.
+     */
+    @Test
+    void shouldDecodeEncodedCursor() {
+        // Given
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123456000), UUID.randomUUID());
+
+        // When
+        String token = cursor.encode();
+        KeysetCursor decoded = KeysetCursor.decode(token);
+
+        // Then
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertEquals(cursor.getUpdatedAt(), decoded.getUpdatedAt());
+        assertEquals(cursor.getId(), decoded.getId());
+    }
+
+    /**
+     * Test that a missing token means the first page.
+     */
+    @Test
+    void shouldReturnNullForMissingToken() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(""));
+    }
+
+    /**
+     * Test that tampered tokens are rejected as validation errors.
+     */
+    @Test
+    void shouldRejectMalformedToken() {
+        ValidationException exception = assertThrows(ValidationException.class, () -> KeysetCursor.decode("not a cursor"));
+
+        assertTrue(exception.getValidationErrors().containsKey("cursor"));
+        assertThrows(ValidationException.class, () -> KeysetCursor.decode("MjAyNHxub3QtYS11dWlk"));
+    }
+}
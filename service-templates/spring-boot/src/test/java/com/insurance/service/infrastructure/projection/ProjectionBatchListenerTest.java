@@ -0,0 +1,161 @@
+package com.insurance.service.infrastructure.projection;
+
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.infrastructure.messaging.OutboxRelay;
+import com.insurance.service.infrastructure.messaging.codec.ClaimSubmittedEvent;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ProjectionBatchListener class.
+ */
+class ProjectionBatchListenerTest {
+
+    private static final String TOPIC = "claims.domain-events";
+    private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC, 1);
+
+    private Projection projection;
+    private ProjectionStore store;
+    private JdbcTemplate jdbcTemplate;
+    private ProjectionBatchListener listener;
+
+    @BeforeEach
+    void setUp() {
+        projection = mock(Projection.class);
+        when(projection.name()).thenReturn("claims_by_status");
+        store = mock(ProjectionStore.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        ProjectionGeneration generation = new ProjectionGeneration("claims_by_status", 2,
+                ProjectionGeneration.Status.BUILDING, LocalDateTime.now(), null);
+        listener = new ProjectionBatchListener(projection, generation, store, jdbcTemplate,
+                TransactionOperations.withoutTransaction());
+    }
+
+    /**
+     * Test that records below the stored checkpoint are skipped and the checkpoints advance past the batch.
+     */
+    @Test
+    void shouldApplyOnlyRecordsFromCheckpointOnwards() {
+        // Given
+        ClaimSubmittedEvent alreadyProjected = ClaimSubmittedEvent.sample();
+        ClaimSubmittedEvent next = ClaimSubmittedEvent.sample();
+        ClaimSubmittedEvent other = ClaimSubmittedEvent.sample();
+        when(store.lockCheckpoints(eq("claims_by_status"), eq(2), any()))
+                .thenReturn(Map.of(PARTITION_0, 11L, PARTITION_1, 0L));
+
+        // When
+        listener.onMessage(List.of(
+                record(0, 10, alreadyProjected),
+                record(0, 11, next),
+                record(1, 4, other)));
+
+        // Then
+        verify(projection).apply(jdbcTemplate, "claims_by_status_g2", List.<DomainEvent>of(next, other));
+        verify(store).saveCheckpoints("claims_by_status", 2, Map.of(PARTITION_0, 12L, PARTITION_1, 5L));
+    }
+
+    /**
+     * Test that records without an event, such as tombstones, still advance the checkpoint.
+     */
+    @Test
+    void shouldAdvanceCheckpointPastRecordsWithoutEvent() {
+        // Given
+        when(store.lockCheckpoints(eq("claims_by_status"), eq(2), any())).thenReturn(Map.of(PARTITION_0, 0L));
+
+        // When
+        listener.onMessage(List.of(record(0, 7, null)));
+
+        // Then
+        verify(projection, never()).apply(any(), any(), any());
+        verify(store).saveCheckpoints("claims_by_status", 2, Map.of(PARTITION_0, 8L));
+    }
+
+    /**
+     * Test that assigned partitions resume from their checkpoint, or from the beginning without one.
+     */
+    @Test
+    void shouldSeekToCheckpointsOnAssignment() {
+        // Given
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        when(store.findCheckpoints("claims_by_status", 2)).thenReturn(Map.of(PARTITION_0, 42L));
+
+        // When
+        listener.onPartitionsAssigned(consumer, List.of(PARTITION_0, PARTITION_1));
+
+        // Then
+        verify(consumer).seek(PARTITION_0, 42L);
+        verify(consumer).seekToBeginning(List.of(PARTITION_1));
+    }
+
+    /**
+     * Test that a replayed generation skips records up to each aggregate's replayed version,
+     * whatever their timestamps, and starts reading shortly before the replay started.
+     */
+    @Test
+    void shouldSkipEventsReplayedFromEventStore() {
+        // Given
+        LocalDateTime startedAt = LocalDateTime.now();
+        ProjectionGeneration generation = new ProjectionGeneration("claims_by_status", 2,
+                ProjectionGeneration.Status.BUILDING, startedAt, null, startedAt);
+        listener = new ProjectionBatchListener(projection, generation, store, jdbcTemplate,
+                TransactionOperations.withoutTransaction());
+        UUID replayedClaim = UUID.randomUUID();
+        UUID newClaim = UUID.randomUUID();
+        // committed after the scan passed its aggregate, though stamped long before the replay
+        ClaimSubmittedEvent committedLate = event(replayedClaim, startedAt.minusHours(1));
+        ClaimSubmittedEvent replayed = event(replayedClaim, startedAt.plusMinutes(1));
+        ClaimSubmittedEvent unseen = event(newClaim, startedAt.minusHours(1));
+        when(store.lockCheckpoints(eq("claims_by_status"), eq(2), any())).thenReturn(Map.of());
+        when(store.findReplayedVersions(eq("claims_by_status"), eq(2), any()))
+                .thenReturn(Map.of(replayedClaim, 3));
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        when(consumer.offsetsForTimes(any())).thenReturn(Map.of(PARTITION_0, new OffsetAndTimestamp(17L, 0L)));
+
+        // When
+        listener.onPartitionsAssigned(consumer, List.of(PARTITION_0, PARTITION_1));
+        listener.onMessage(List.of(
+                record(0, 17, replayed, 3),
+                record(0, 18, committedLate, 4),
+                record(0, 19, unseen, 1)));
+
+        // Then
+        verify(consumer).seek(PARTITION_0, 17L);
+        verify(consumer).seekToEnd(List.of(PARTITION_1));
+        verify(projection).apply(jdbcTemplate, "claims_by_status_g2", List.<DomainEvent>of(committedLate, unseen));
+        verify(store).saveCheckpoints("claims_by_status", 2, Map.of(PARTITION_0, 20L));
+    }
+
+    private static ClaimSubmittedEvent event(UUID claimId, LocalDateTime timestamp) {
+        return new ClaimSubmittedEvent(UUID.randomUUID(), claimId, timestamp, "CLM-2024-000124",
+                UUID.randomUUID(), UUID.randomUUID(), timestamp.toLocalDate(), timestamp,
+                "Windscreen cracked", BigDecimal.TEN, "WEB");
+    }
+
+    private static ConsumerRecord<String, Object> record(int partition, long offset, Object value, int version) {
+        ConsumerRecord<String, Object> record = record(partition, offset, value);
+        record.headers().add(OutboxRelay.AGGREGATE_VERSION_HEADER,
+                Integer.toString(version).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private static ConsumerRecord<String, Object> record(int partition, long offset, Object value) {
+        return new ConsumerRecord<>(TOPIC, partition, offset, "key", value);
+    }
+}
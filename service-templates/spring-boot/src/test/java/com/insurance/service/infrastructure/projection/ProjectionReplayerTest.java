@@ -0,0 +1,216 @@
+package com.insurance.service.infrastructure.projection;
+
+import com.insurance.service.domain.event.DomainEvent;
+import com.insurance.service.infrastructure.messaging.EventRoutingTable;
+import com.insurance.service.infrastructure.messaging.codec.ClaimSubmittedEvent;
+import com.insurance.service.infrastructure.persistence.EventStore;
+import com.insurance.service.infrastructure.persistence.StoredEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ProjectionReplayer class.
+ */
+class ProjectionReplayerTest {
+
+    private static final String NAME = "claims_by_status";
+    private static final String TOPIC = "claims.domain-events";
+    private static final LocalDateTime STARTED_AT = LocalDateTime.now().minusMinutes(1);
+
+    private final List<StoredEvent> history = new ArrayList<>();
+    private final List<DomainEvent> applied = Collections.synchronizedList(new ArrayList<>());
+    private final List<ReplayRange> savedRanges = Collections.synchronizedList(new ArrayList<>());
+    private final Map<UUID, Integer> savedVersions = new ConcurrentHashMap<>();
+
+    private Projection projection;
+    private ProjectionStore store;
+    private EventStore eventStore;
+    private EventRoutingTable routingTable;
+    private ProjectionReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        projection = mock(Projection.class);
+        when(projection.name()).thenReturn(NAME);
+        when(projection.topics()).thenReturn(List.of(TOPIC));
+        doAnswer(invocation -> applied.addAll(invocation.getArgument(2)))
+                .when(projection).apply(any(), eq(NAME + "_g2"), any());
+        store = mock(ProjectionStore.class);
+        doAnswer(invocation -> {
+            savedRanges.add(invocation.getArgument(2));
+            Map<UUID, Integer> versions = invocation.getArgument(3);
+            versions.forEach((id, version) -> assertNull(savedVersions.put(id, version), "aggregate split"));
+            return null;
+        }).when(store).saveReplayRange(eq(NAME), eq(2), any(), any());
+        eventStore = mock(EventStore.class);
+        when(eventStore.scan(any(), any(), anyInt())).thenAnswer(invocation ->
+                scan(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+        routingTable = mock(EventRoutingTable.class);
+        when(routingTable.isEventSourced(TOPIC)).thenReturn(true);
+        replayer = new ProjectionReplayer(List.of(projection), store, eventStore, routingTable,
+                mock(JdbcTemplate.class), TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(),
+                4, 5, 2, Duration.ofSeconds(10));
+
+        for (int aggregate = 1; aggregate <= 10; aggregate++) {
+            for (int version = 1; version <= 1 + aggregate % 3; version++) {
+                history.add(event(aggregate, version, STARTED_AT.minusHours(1)));
+            }
+        }
+    }
+
+    /**
+     * Test that every stored event is applied once, in stream order per aggregate, whatever its
+     * timestamp, and that the latest replayed version of each aggregate is recorded.
+     */
+    @Test
+    void shouldReplayHistoryInStreamOrder() {
+        // Given
+        history.add(event(10, 3, LocalDateTime.now().plusHours(1)));
+        when(store.findLive(NAME)).thenReturn(List.of());
+        when(store.createGeneration(eq(NAME), eq(ProjectionGeneration.Status.REPLAYING), any())).thenReturn(2);
+
+        // When
+        Map<String, Object> progress = replayer.run(NAME);
+
+        // Then
+        assertEquals(history.size(), applied.size());
+        assertStreamOrder();
+        assertEquals(10, savedVersions.size());
+        assertEquals(3, savedVersions.get(aggregateId(10)));
+        assertEquals(3, savedVersions.get(aggregateId(2)));
+        assertEquals(aggregateId(10), chain().getLastAggregateId());
+        assertEquals((long) applied.size(), progress.get("events"));
+        verify(projection).createTable(any(), eq(NAME + "_g2"));
+        verify(store).finishReplay(NAME, 2);
+    }
+
+    /**
+     * Test that a resumed replay skips the ranges applied before it was interrupted.
+     */
+    @Test
+    void shouldResumeWithoutReapplyingRanges() {
+        // Given
+        when(store.findLive(NAME)).thenReturn(List.of(new ProjectionGeneration(NAME, 2,
+                ProjectionGeneration.Status.REPLAYING, STARTED_AT, null, STARTED_AT)));
+        ReplayRange done = new ReplayRange(ProjectionReplayer.FIRST_AGGREGATE_ID, aggregateId(2), 5);
+        ReplayRange inFlight = new ReplayRange(aggregateId(5), aggregateId(7), 7);
+        when(store.findReplayRanges(NAME, 2)).thenReturn(List.of(done, inFlight));
+
+        // When
+        replayer.run(NAME);
+
+        // Then
+        for (StoredEvent stored : history) {
+            int aggregate = (int) stored.getAggregateId().getLeastSignificantBits();
+            boolean skipped = aggregate <= 2 || aggregate == 6 || aggregate == 7;
+            assertEquals(!skipped, applied.contains(stored.getEvent()), "aggregate " + aggregate);
+        }
+        assertStreamOrder();
+        savedRanges.add(done);
+        savedRanges.add(inFlight);
+        assertEquals(aggregateId(10), chain().getLastAggregateId());
+        verify(store, never()).createGeneration(any(), any(), any());
+        verify(store).finishReplay(NAME, 2);
+    }
+
+    /**
+     * Test that a projection consuming a topic with events outside the event store is not replayed.
+     */
+    @Test
+    void shouldRefuseProjectionsWithOutboxOnlyTopics() {
+        // Given
+        when(routingTable.isEventSourced(TOPIC)).thenReturn(false);
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> replayer.run(NAME));
+        verify(store, never()).createGeneration(any(), any(), any());
+        verifyNoInteractions(eventStore);
+    }
+
+    private void assertStreamOrder() {
+        Map<UUID, Integer> versions = new HashMap<>();
+        for (DomainEvent event : applied) {
+            int version = versionOf(event);
+            Integer previous = versions.put(event.getAggregateId(), version);
+            assertEquals(previous == null ? 1 : previous + 1, version);
+        }
+    }
+
+    /**
+     * Follows the saved ranges from the first aggregate ID, failing on a gap or an overlap.
+     */
+    private ReplayRange chain() {
+        Map<UUID, ReplayRange> byStart = new HashMap<>();
+        for (ReplayRange range : savedRanges) {
+            assertNull(byStart.put(range.getAfterAggregateId(), range), "ranges overlap");
+        }
+        ReplayRange range = byStart.remove(ProjectionReplayer.FIRST_AGGREGATE_ID);
+        while (byStart.containsKey(range.getLastAggregateId())) {
+            range = byStart.remove(range.getLastAggregateId());
+        }
+        assertTrue(byStart.isEmpty(), "ranges have a gap");
+        return range;
+    }
+
+    private List<StoredEvent> scan(UUID after, UUID upTo, int maxEvents) {
+        List<StoredEvent> events = new ArrayList<>();
+        UUID current = null;
+        for (StoredEvent stored : history.stream().sorted((a, b) -> compare(a.getAggregateId(), b.getAggregateId()))
+                .toList()) {
+            UUID id = stored.getAggregateId();
+            if (compare(id, after) <= 0 || compare(id, upTo) > 0) {
+                continue;
+            }
+            if (!id.equals(current) && events.size() >= maxEvents) {
+                break;
+            }
+            current = id;
+            events.add(stored);
+        }
+        return events;
+    }
+
+    /**
+     * Compares identifiers the way PostgreSQL orders them, as unsigned bytes.
+     */
+    private static int compare(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private static UUID aggregateId(int aggregate) {
+        return new UUID(0, aggregate);
+    }
+
+    private static StoredEvent event(int aggregate, int version, LocalDateTime timestamp) {
+        // the version travels in the claim number, so the applied order can be checked
+        ClaimSubmittedEvent event = new ClaimSubmittedEvent(UUID.randomUUID(), aggregateId(aggregate), timestamp,
+                String.valueOf(version), UUID.randomUUID(), UUID.randomUUID(), timestamp.toLocalDate(), timestamp,
+                "Replayed", BigDecimal.ONE, "WEB");
+        return new StoredEvent(aggregateId(aggregate), "Claim", version, 0, event);
+    }
+
+    private static int versionOf(DomainEvent event) {
+        return Integer.parseInt(((ClaimSubmittedEvent) event).getClaimNumber());
+    }
+}